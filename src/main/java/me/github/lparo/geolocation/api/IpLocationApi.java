@@ -4,13 +4,18 @@ import lombok.AllArgsConstructor;
 import me.github.lparo.geolocation.api.validation.IpValidator;
 import me.github.lparo.geolocation.controller.dto.IpCityLocation;
 import me.github.lparo.geolocation.controller.dto.IpCountryLocation;
+import me.github.lparo.geolocation.controller.dto.IpLocation;
+import me.github.lparo.geolocation.domain.IpAddress;
 import me.github.lparo.geolocation.service.IpCityLocationService;
 import me.github.lparo.geolocation.service.IpCountryLocationService;
+import me.github.lparo.geolocation.service.IpLocationService;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
 /**
  * API class responsible for providing a facade for the interaction between the external (DTOs) and domain layers of the
  * application. It should contain as minimal logic as possible, mostly forwarding calls to methods of other classes and services.
+ * The DTOs are returned already serialized, through the {@link JsonResponseCache}.
  */
 @Component
 @AllArgsConstructor
@@ -18,23 +23,27 @@ public class IpLocationApi {
     private final IpValidator ipValidator;
     private final IpCityLocationService ipCityLocationService;
     private final IpCountryLocationService ipCountryLocationService;
+    private final IpLocationService ipLocationService;
+    private final JsonResponseCache jsonResponseCache;
 
     /**
      * Gets the city/state information of the given IP address. If the IP is null or an empty {@link String},
      * then the service's host machine public IP will be used instead.
      *
      * @param ip the given IP address to have its city/state location fetched. Can be null or empty.
-     * @return an {@link IpCityLocation} with the information about the location of the given IP address.
+     * @return the UTF-8 JSON representation of the {@link IpCityLocation} with the information about the
+     * location of the given IP address.
      *
-     * @throws me.github.lparo.geolocation.exception.InvalidIpException if the specified IP address is not a valid IPv4 address.
+     * @throws me.github.lparo.geolocation.exception.InvalidIpException if the specified IP address is not a valid IPv4 or IPv6 address.
      */
-    public IpCityLocation getCityLocation(String ip) {
-        ipValidator.validateIp(ip);
+    public byte[] getCityLocation(String ip) {
+        final IpAddress ipAddress = ipValidator.parseIp(ip);
 
-        return IpCityLocation.fromDomain(
-                ip == null || ip.isEmpty()
+        return jsonResponseCache.getJson(
+                ipAddress == null
                     ? ipCityLocationService.getCityLocationForHostIp()
-                    : ipCityLocationService.getCityLocationForIp(ip)
+                    : ipCityLocationService.getCityLocationForIp(ipAddress),
+                IpCityLocation::fromDomain
         );
     }
 
@@ -43,17 +52,97 @@ public class IpLocationApi {
      * then the service's host machine public IP will be used instead.
      *
      * @param ip the given IP address to have its country location fetched. Can be null or empty.
-     * @return an {@link IpCountryLocation} with the information about the location of the given IP address.
+     * @return the UTF-8 JSON representation of the {@link IpCountryLocation} with the information about the
+     * location of the given IP address.
      *
-     * @throws me.github.lparo.geolocation.exception.InvalidIpException if the specified IP address is not a valid IPv4 address.
+     * @throws me.github.lparo.geolocation.exception.InvalidIpException if the specified IP address is not a valid IPv4 or IPv6 address.
      */
-    public IpCountryLocation getCountryLocation(String ip) {
-        ipValidator.validateIp(ip);
+    public byte[] getCountryLocation(String ip) {
+        final IpAddress ipAddress = ipValidator.parseIp(ip);
 
-        return IpCountryLocation.fromDomain(
-                ip == null || ip.isEmpty()
+        return jsonResponseCache.getJson(
+                ipAddress == null
                     ? ipCountryLocationService.getCountryLocationForHostIp()
-                    : ipCountryLocationService.getCountryLocationForIp(ip)
+                    : ipCountryLocationService.getCountryLocationForIp(ipAddress),
+                IpCountryLocation::fromDomain
         );
     }
+
+    /**
+     * Gets the city/state/country information of the given IP address. If the IP is null or an empty {@link String},
+     * then the service's host machine public IP will be used instead.
+     *
+     * @param ip the given IP address to have its city/state/country location fetched. Can be null or empty.
+     * @return the UTF-8 JSON representation of the {@link IpLocation} with the information about the
+     * location of the given IP address.
+     *
+     * @throws me.github.lparo.geolocation.exception.InvalidIpException if the specified IP address is not a valid IPv4 or IPv6 address.
+     */
+    public byte[] getLocation(String ip) {
+        final IpAddress ipAddress = ipValidator.parseIp(ip);
+
+        return jsonResponseCache.getJson(
+                ipAddress == null
+                    ? ipLocationService.getLocationForHostIp()
+                    : ipLocationService.getLocationForIp(ipAddress),
+                IpLocation::fromDomain
+        );
+    }
+
+    /**
+     * Gets the city/state information of the given IP address the same way as {@link #getCityLocation(String)}, without
+     * blocking the calling thread on I/O.
+     *
+     * @param ip the given IP address to have its city/state location fetched. Can be null or empty.
+     * @return a {@link Mono} emitting the UTF-8 JSON representation of the {@link IpCityLocation} with the information
+     * about the location of the given IP address.
+     *
+     * @throws me.github.lparo.geolocation.exception.InvalidIpException if the specified IP address is not a valid IPv4 or IPv6 address.
+     */
+    public Mono<byte[]> getCityLocationAsync(String ip) {
+        final IpAddress ipAddress = ipValidator.parseIp(ip);
+
+        return (ipAddress == null
+                    ? ipCityLocationService.getCityLocationForHostIpAsync()
+                    : ipCityLocationService.getCityLocationForIpAsync(ipAddress))
+                .map(location -> jsonResponseCache.getJson(location, IpCityLocation::fromDomain));
+    }
+
+    /**
+     * Gets the country information of the given IP address the same way as {@link #getCountryLocation(String)}, without
+     * blocking the calling thread on I/O.
+     *
+     * @param ip the given IP address to have its country location fetched. Can be null or empty.
+     * @return a {@link Mono} emitting the UTF-8 JSON representation of the {@link IpCountryLocation} with the
+     * information about the location of the given IP address.
+     *
+     * @throws me.github.lparo.geolocation.exception.InvalidIpException if the specified IP address is not a valid IPv4 or IPv6 address.
+     */
+    public Mono<byte[]> getCountryLocationAsync(String ip) {
+        final IpAddress ipAddress = ipValidator.parseIp(ip);
+
+        return (ipAddress == null
+                    ? ipCountryLocationService.getCountryLocationForHostIpAsync()
+                    : ipCountryLocationService.getCountryLocationForIpAsync(ipAddress))
+                .map(location -> jsonResponseCache.getJson(location, IpCountryLocation::fromDomain));
+    }
+
+    /**
+     * Gets the city/state/country information of the given IP address the same way as {@link #getLocation(String)},
+     * without blocking the calling thread on I/O.
+     *
+     * @param ip the given IP address to have its city/state/country location fetched. Can be null or empty.
+     * @return a {@link Mono} emitting the UTF-8 JSON representation of the {@link IpLocation} with the information
+     * about the location of the given IP address.
+     *
+     * @throws me.github.lparo.geolocation.exception.InvalidIpException if the specified IP address is not a valid IPv4 or IPv6 address.
+     */
+    public Mono<byte[]> getLocationAsync(String ip) {
+        final IpAddress ipAddress = ipValidator.parseIp(ip);
+
+        return (ipAddress == null
+                    ? ipLocationService.getLocationForHostIpAsync()
+                    : ipLocationService.getLocationForIpAsync(ipAddress))
+                .map(location -> jsonResponseCache.getJson(location, IpLocation::fromDomain));
+    }
 }
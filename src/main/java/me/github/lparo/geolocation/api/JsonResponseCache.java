@@ -0,0 +1,85 @@
+package me.github.lparo.geolocation.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.Function;
+
+/**
+ * Class that keeps the UTF-8 JSON response of each distinct location already served, keyed by its domain object. The
+ * number of distinct responses is bounded by the number of distinct locations in the GeoIP2 database, so most of the
+ * requests are served by writing the cached bytes, without building the DTO or running Jackson. Its hit ratio, size and
+ * evictions are published as the {@code json.response} cache metrics.
+ */
+@Slf4j
+public class JsonResponseCache implements MeterBinder {
+    private static final String CACHE_NAME = "json.response";
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Object, byte[]> cache;
+
+    /**
+     * @param objectMapper the {@link ObjectMapper} the DTOs are serialized with on a cache miss.
+     * @param maximumSize the maximum number of responses kept in the cache.
+     */
+    public JsonResponseCache(ObjectMapper objectMapper, long maximumSize) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                             .maximumSize(maximumSize)
+                             .executor(Runnable::run)
+                             .recordStats()
+                             .build();
+    }
+
+    /**
+     * Gets the JSON response of the given domain object, converting it to its DTO and serializing it on a cache miss.
+     * The returned bytes are shared by every request for the same location, so they must not be modified.
+     *
+     * @param domain the domain object to be returned as JSON.
+     * @param toDto the conversion of the domain object into its DTO.
+     * @param <T> the type of the domain object.
+     *
+     * @return the UTF-8 JSON representation of the DTO of the given domain object.
+     */
+    public <T> byte[] getJson(T domain, Function<T, ?> toDto) {
+        byte[] json = cache.getIfPresent(domain);
+        if (json == null) {
+            json = serialize(toDto.apply(domain));
+            cache.put(domain, json);
+        }
+
+        return json;
+    }
+
+    /**
+     * Discards every cached response, for when the database the locations come from changes.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Publishes the cache metrics into the given {@link MeterRegistry}.
+     *
+     * @param registry the {@link MeterRegistry} the metrics are published to.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    private byte[] serialize(Object dto) {
+        try {
+            return objectMapper.writeValueAsBytes(dto);
+        } catch (JsonProcessingException e) {
+            log.error("unable to serialize response " + dto, e);
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+}
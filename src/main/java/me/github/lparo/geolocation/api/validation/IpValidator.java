@@ -1,34 +1,29 @@
 package me.github.lparo.geolocation.api.validation;
 
-import lombok.AllArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import me.github.lparo.geolocation.domain.IpAddress;
 import me.github.lparo.geolocation.exception.InvalidIpException;
-import org.apache.commons.validator.routines.InetAddressValidator;
 import org.springframework.stereotype.Component;
 
 /**
  * Class responsible for performing validations on the incoming IP address.
  */
-@Slf4j
 @Component
-@AllArgsConstructor
 public class IpValidator {
-    private final InetAddressValidator validator;
 
     /**
-     * Validates if the specified IP address is a valid IPv4 address.
+     * Validates if the specified IP address is a valid IPv4 or IPv6 address, parsing it in the same pass.
      *
      * @param ip the IP address to be validated.
      *
-     * @throws InvalidIpException if the specified IP address is not a valid IPv4 address.
+     * @return the parsed {@link IpAddress}, or null if the IP address is null or empty.
+     *
+     * @throws InvalidIpException if the specified IP address is not a valid IPv4 or IPv6 address.
      */
-    public void validateIp(String ip) {
+    public IpAddress parseIp(String ip) {
         if (ip == null || ip.isEmpty()) {
-            return;
+            return null;
         }
 
-        if (!validator.isValidInet4Address(ip)) {
-            throw new InvalidIpException("invalid IP format: " + ip);
-        }
+        return IpAddress.parse(ip);
     }
-}
\ No newline at end of file
+}
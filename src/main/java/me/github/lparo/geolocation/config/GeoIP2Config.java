@@ -1,33 +1,87 @@
 package me.github.lparo.geolocation.config;
 
-import com.maxmind.geoip2.DatabaseReader;
+import com.maxmind.db.Reader;
+import lombok.extern.slf4j.Slf4j;
+import me.github.lparo.geolocation.repository.impl.geoip2.CaffeineNodeCache;
+import me.github.lparo.geolocation.repository.impl.geoip2.GeoIP2DatabaseLoader;
+import me.github.lparo.geolocation.repository.impl.geoip2.ReloadableDatabaseReader;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.Resource;
 
+import java.io.File;
 import java.io.IOException;
 
 /**
  * Configuration file responsible for creating Spring beans related to GeoIP2 library.
  */
+@Slf4j
 @Configuration
 public class GeoIP2Config {
     private final Resource databaseFile;
+    private final String databasePath;
+    private final long nodeCacheSize;
 
-    public GeoIP2Config(@Value("classpath:data/GeoLite2-City.mmdb") Resource databaseFile) {
+    public GeoIP2Config(@Value("classpath:data/GeoLite2-City.mmdb") Resource databaseFile,
+                        @Value("${GEOIP2_DATABASE_PATH:}") String databasePath,
+                        @Value("${GEOIP2_NODE_CACHE_SIZE:4096}") long nodeCacheSize) {
         this.databaseFile = databaseFile;
+        this.databasePath = databasePath;
+        this.nodeCacheSize = nodeCacheSize;
     }
 
     /**
-     * Creates a {@link DatabaseReader} as a Spring bean that uses the GeoIP2 binary file as a data source.
+     * Creates a {@link GeoIP2DatabaseLoader} as a Spring bean, which opens the database file configured through
+     * {@code GEOIP2_DATABASE_PATH} as memory-mapped, or falls back to the classpath database.
      *
-     * @return a {@link DatabaseReader} instance.
+     * @return a {@link GeoIP2DatabaseLoader} instance.
+     */
+    @Bean
+    public GeoIP2DatabaseLoader geoIP2DatabaseLoader() {
+        return new GeoIP2DatabaseLoader(this.databaseFile, getDatabasePathFile());
+    }
+
+    /**
+     * Creates a {@link CaffeineNodeCache} as a Spring bean, which keeps up to {@code GEOIP2_NODE_CACHE_SIZE} records
+     * decoded by the {@link Reader}s.
+     *
+     * @return a {@link CaffeineNodeCache} instance.
+     */
+    @Bean
+    public CaffeineNodeCache geoIP2NodeCache() {
+        return new CaffeineNodeCache(this.nodeCacheSize);
+    }
+
+    /**
+     * Creates a {@link ReloadableDatabaseReader} as a Spring bean that uses the GeoIP2 binary file as a data source, and
+     * that can be reloaded when a newer version of the file is published.
+     *
+     * @return a {@link ReloadableDatabaseReader} instance.
      *
      * @throws IOException in case the GeoIP2 binary file cannot be read.
      */
     @Bean
-    public DatabaseReader createDatabaseReader() throws IOException {
-        return new DatabaseReader.Builder(this.databaseFile.getInputStream()).build();
+    public ReloadableDatabaseReader reloadableDatabaseReader() throws IOException {
+        return new ReloadableDatabaseReader(geoIP2DatabaseLoader(), geoIP2NodeCache());
+    }
+
+    /**
+     * Resolves the configured database path into a readable {@link File}.
+     *
+     * @return the database {@link File}, or null if no path is configured or the file cannot be read.
+     */
+    private File getDatabasePathFile() {
+        if (databasePath == null || databasePath.isEmpty()) {
+            return null;
+        }
+
+        final File file = new File(databasePath);
+        if (!file.isFile() || !file.canRead()) {
+            log.warn("GeoIP2 database file " + databasePath + " is not readable, falling back to the classpath database");
+            return null;
+        }
+
+        return file;
     }
 }
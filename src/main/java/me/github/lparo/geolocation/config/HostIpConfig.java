@@ -1,7 +1,6 @@
 package me.github.lparo.geolocation.config;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.validator.routines.InetAddressValidator;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -39,14 +38,4 @@ public class HostIpConfig {
         }
     }
 
-    /**
-     * Instantiates a {@link InetAddressValidator} as a Spring bean to be injected whenever a IP address needs to be
-     * validated.
-     *
-     * @return an {@link InetAddressValidator} instance.
-     */
-    @Bean
-    public InetAddressValidator createIpValidator() {
-        return InetAddressValidator.getInstance();
-    }
 }
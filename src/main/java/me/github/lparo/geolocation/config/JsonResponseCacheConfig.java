@@ -0,0 +1,37 @@
+package me.github.lparo.geolocation.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.github.lparo.geolocation.api.JsonResponseCache;
+import me.github.lparo.geolocation.repository.impl.geoip2.ReloadableDatabaseReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration file responsible for creating Spring beans related to the cache of JSON responses.
+ */
+@Configuration
+public class JsonResponseCacheConfig {
+    private final long maximumSize;
+
+    public JsonResponseCacheConfig(@Value("${JSON_RESPONSE_CACHE_SIZE:65536}") long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Creates a {@link JsonResponseCache} as a Spring bean, which keeps up to {@code JSON_RESPONSE_CACHE_SIZE} responses
+     * and is emptied every time the GeoIP2 database is reloaded.
+     *
+     * @param objectMapper the {@link ObjectMapper} configured by Spring for the HTTP responses.
+     * @param reloadableDatabaseReader the {@link ReloadableDatabaseReader} whose reloads invalidate the cache.
+     *
+     * @return a {@link JsonResponseCache} instance.
+     */
+    @Bean
+    public JsonResponseCache jsonResponseCache(ObjectMapper objectMapper, ReloadableDatabaseReader reloadableDatabaseReader) {
+        final JsonResponseCache jsonResponseCache = new JsonResponseCache(objectMapper, this.maximumSize);
+        reloadableDatabaseReader.addReloadListener(reader -> jsonResponseCache::invalidateAll);
+
+        return jsonResponseCache;
+    }
+}
@@ -0,0 +1,56 @@
+package me.github.lparo.geolocation.config;
+
+import me.github.lparo.geolocation.domain.IpCityLocation;
+import me.github.lparo.geolocation.domain.IpCountryLocation;
+import me.github.lparo.geolocation.domain.IpLocation;
+import me.github.lparo.geolocation.repository.impl.geoip2.ReloadableDatabaseReader;
+import me.github.lparo.geolocation.repository.impl.hybrid.NearCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration file responsible for creating Spring beans related to the in-process near caches in front of Redis.
+ * Each location type gets its own cache, holding up to {@code NEAR_CACHE_SIZE} locations for
+ * {@code NEAR_CACHE_EXPIRE_AFTER_WRITE}, and the IP addresses that resolve to no location for
+ * {@code NEGATIVE_CACHE_TTL}. The caches are emptied every time the GeoIP2 database is reloaded, so they never serve
+ * locations (or not-found results) of an older build of the database.
+ */
+@Configuration
+public class NearCacheConfig {
+    private final long maximumSize;
+    private final Duration expireAfterWrite;
+    private final Duration notFoundExpireAfterWrite;
+
+    public NearCacheConfig(@Value("${NEAR_CACHE_SIZE:100000}") long maximumSize,
+                           @Value("${NEAR_CACHE_EXPIRE_AFTER_WRITE:10m}") Duration expireAfterWrite,
+                           @Value("${NEGATIVE_CACHE_TTL:1h}") Duration notFoundExpireAfterWrite) {
+        this.maximumSize = maximumSize;
+        this.expireAfterWrite = expireAfterWrite;
+        this.notFoundExpireAfterWrite = notFoundExpireAfterWrite;
+    }
+
+    @Bean
+    public NearCache<IpCityLocation> ipCityLocationNearCache(ReloadableDatabaseReader reloadableDatabaseReader) {
+        return createNearCache("near.city", reloadableDatabaseReader);
+    }
+
+    @Bean
+    public NearCache<IpCountryLocation> ipCountryLocationNearCache(ReloadableDatabaseReader reloadableDatabaseReader) {
+        return createNearCache("near.country", reloadableDatabaseReader);
+    }
+
+    @Bean
+    public NearCache<IpLocation> ipLocationNearCache(ReloadableDatabaseReader reloadableDatabaseReader) {
+        return createNearCache("near.location", reloadableDatabaseReader);
+    }
+
+    private <V> NearCache<V> createNearCache(String name, ReloadableDatabaseReader reloadableDatabaseReader) {
+        final NearCache<V> nearCache = new NearCache<>(name, maximumSize, expireAfterWrite, notFoundExpireAfterWrite);
+        reloadableDatabaseReader.addReloadListener(reader -> nearCache::invalidateAll);
+
+        return nearCache;
+    }
+}
@@ -1,43 +1,231 @@
 package me.github.lparo.geolocation.config;
 
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.SocketOptions;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import me.github.lparo.geolocation.repository.impl.redis.InstrumentedJedisConnectionFactory;
+import me.github.lparo.geolocation.repository.impl.redis.RedisShard;
+import me.github.lparo.geolocation.repository.impl.redis.RedisShards;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
-import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStaticMasterReplicaConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisPoolConfig;
 
-import java.io.Serializable;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
- * Configuration file responsible for creating Spring beans related to Redis.
+ * Configuration file responsible for creating Spring beans related to Redis. The connections are pooled, up to
+ * {@code REDIS_POOL_MAX_TOTAL} of them, keeping between {@code REDIS_POOL_MIN_IDLE} and {@code REDIS_POOL_MAX_IDLE}
+ * idle ones. When they're all borrowed, a caller waits up to {@code REDIS_POOL_MAX_WAIT} for one, or fails right away
+ * if {@code REDIS_POOL_BLOCK_WHEN_EXHAUSTED} is {@code false}.
+ *
+ * <p>The cache can be spread over several Redis nodes, listed as {@code host:port} in {@code REDIS_NODES}, each
+ * getting its own connection pool (check {@link RedisShards}). The {@link RedisTemplate} bean is the one of the first
+ * node, which is {@code REDIS_HOST:REDIS_PORT} when no nodes are listed.
+ *
+ * <p>The reads can be spread over the replicas of a node, listed after it separated by {@code |} in
+ * {@code REDIS_NODES} (e.g. {@code redis-1:6379|redis-1-replica:6379}), or in {@code REDIS_REPLICAS} when no nodes are
+ * listed, each replica getting its own connection pool too (check {@link RedisShard}).
+ *
+ * <p>When the {@code REDIS_REACTIVE} property is set to {@code true}, every node also gets a non-blocking Lettuce
+ * client, whose single connection (per endpoint) is shared by all the reads through its {@link ReactiveRedisTemplate},
+ * reading from the replicas of the node when there are any. The Lettuce clients reject the commands while they're
+ * disconnected, rather than queueing them, so a Redis outage fails the reads right away.
  */
 @Profile("!integration-test")
 @Configuration
 public class RedisConfig {
-    private final String redisHost;
-    private final int redisPort;
+    private final List<List<HostAndPort>> redisNodes = new ArrayList<>();
+    private final int virtualNodes;
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final int poolMaxTotal;
+    private final int poolMaxIdle;
+    private final int poolMinIdle;
+    private final boolean poolBlockWhenExhausted;
+    private final Duration poolMaxWait;
+    private final boolean reactive;
+
+    private final List<InstrumentedJedisConnectionFactory> shardConnectionFactories = new ArrayList<>();
+    private final List<LettuceConnectionFactory> reactiveConnectionFactories = new ArrayList<>();
 
     public RedisConfig(@Value("${REDIS_HOST:localhost}") String redisHost,
-                       @Value("${REDIS_PORT:6379}") int redisPort) {
-        this.redisHost = redisHost;
-        this.redisPort = redisPort;
+                       @Value("${REDIS_PORT:6379}") int redisPort,
+                       @Value("${REDIS_REPLICAS:}") List<String> redisReplicas,
+                       @Value("${REDIS_NODES:}") List<String> redisNodes,
+                       @Value("${REDIS_SHARD_VIRTUAL_NODES:160}") int virtualNodes,
+                       @Value("${REDIS_CONNECT_TIMEOUT:2s}") Duration connectTimeout,
+                       @Value("${REDIS_READ_TIMEOUT:2s}") Duration readTimeout,
+                       @Value("${REDIS_POOL_MAX_TOTAL:8}") int poolMaxTotal,
+                       @Value("${REDIS_POOL_MAX_IDLE:8}") int poolMaxIdle,
+                       @Value("${REDIS_POOL_MIN_IDLE:0}") int poolMinIdle,
+                       @Value("${REDIS_POOL_BLOCK_WHEN_EXHAUSTED:true}") boolean poolBlockWhenExhausted,
+                       @Value("${REDIS_POOL_MAX_WAIT:1s}") Duration poolMaxWait,
+                       @Value("${REDIS_REACTIVE:false}") boolean reactive) {
+        if (redisNodes.isEmpty()) {
+            final List<HostAndPort> endpoints = new ArrayList<>();
+            endpoints.add(new HostAndPort(redisHost, redisPort));
+            redisReplicas.forEach(replica -> endpoints.add(HostAndPort.parseString(replica.trim())));
+            this.redisNodes.add(endpoints);
+        }
+        redisNodes.forEach(node -> {
+            final List<HostAndPort> endpoints = new ArrayList<>();
+            for (String endpoint : node.split("\\|")) {
+                endpoints.add(HostAndPort.parseString(endpoint.trim()));
+            }
+            this.redisNodes.add(endpoints);
+        });
+        this.virtualNodes = virtualNodes;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.poolMaxTotal = poolMaxTotal;
+        this.poolMaxIdle = poolMaxIdle;
+        this.poolMinIdle = poolMinIdle;
+        this.poolBlockWhenExhausted = poolBlockWhenExhausted;
+        this.poolMaxWait = poolMaxWait;
+        this.reactive = reactive;
     }
 
     @Bean
-    public JedisConnectionFactory jedisConnectionFactory() {
-        final RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration();
-        configuration.setHostName(redisHost);
-        configuration.setPort(redisPort);
+    public InstrumentedJedisConnectionFactory jedisConnectionFactory() {
+        return createConnectionFactory(redisNodes.get(0).get(0));
+    }
 
-        return new JedisConnectionFactory(configuration);
+    @Bean
+    public RedisTemplate<byte[], byte[]> redisTemplate() {
+        return createRedisTemplate(jedisConnectionFactory());
     }
 
     @Bean
-    public RedisTemplate<String, ? extends Serializable> redisTemplate() {
-        final RedisTemplate<String, ? extends Serializable> template = new RedisTemplate<>();
-        template.setConnectionFactory(jedisConnectionFactory());
+    public RedisShards redisShards() {
+        final List<RedisShard> shards = new ArrayList<>();
+        for (List<HostAndPort> endpoints : redisNodes) {
+            final HostAndPort primary = endpoints.get(0);
+
+            final Map<String, RedisTemplate<byte[], byte[]>> replicas = new LinkedHashMap<>();
+            for (HostAndPort replica : endpoints.subList(1, endpoints.size())) {
+                replicas.put(replica.toString(), createShardRedisTemplate(replica));
+            }
+
+            shards.add(new RedisShard(
+                    primary.toString(),
+                    shards.isEmpty() ? redisTemplate() : createShardRedisTemplate(primary),
+                    replicas,
+                    reactive ? createReactiveRedisTemplate(endpoints) : null
+            ));
+        }
+
+        return new RedisShards(shards, virtualNodes);
+    }
+
+    /**
+     * Publishes the state of the connection pools of the endpoints other than the first node, which is published by
+     * its bean.
+     */
+    @Bean
+    public MeterBinder redisShardsMetrics() {
+        return registry -> shardConnectionFactories.forEach(connectionFactory -> connectionFactory.bindTo(registry));
+    }
+
+    @PreDestroy
+    public void destroyShardConnectionFactories() {
+        shardConnectionFactories.forEach(InstrumentedJedisConnectionFactory::destroy);
+        reactiveConnectionFactories.forEach(LettuceConnectionFactory::destroy);
+    }
+
+    private RedisTemplate<byte[], byte[]> createShardRedisTemplate(HostAndPort endpoint) {
+        final InstrumentedJedisConnectionFactory connectionFactory = createConnectionFactory(endpoint);
+        connectionFactory.afterPropertiesSet();
+        shardConnectionFactories.add(connectionFactory);
+
+        final RedisTemplate<byte[], byte[]> template = createRedisTemplate(connectionFactory);
+        template.afterPropertiesSet();
+
+        return template;
+    }
+
+    private ReactiveRedisTemplate<byte[], byte[]> createReactiveRedisTemplate(List<HostAndPort> endpoints) {
+        final ClientOptions clientOptions = ClientOptions.builder()
+                .socketOptions(SocketOptions.builder().connectTimeout(connectTimeout).build())
+                .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                .build();
+        final LettuceClientConfiguration.LettuceClientConfigurationBuilder clientConfiguration =
+                LettuceClientConfiguration.builder()
+                        .commandTimeout(readTimeout)
+                        .clientOptions(clientOptions);
+
+        final HostAndPort primary = endpoints.get(0);
+        final LettuceConnectionFactory connectionFactory;
+        if (endpoints.size() == 1) {
+            connectionFactory = new LettuceConnectionFactory(
+                    new RedisStandaloneConfiguration(primary.getHost(), primary.getPort()),
+                    clientConfiguration.build()
+            );
+        } else {
+            final RedisStaticMasterReplicaConfiguration configuration =
+                    new RedisStaticMasterReplicaConfiguration(primary.getHost(), primary.getPort());
+            for (HostAndPort replica : endpoints.subList(1, endpoints.size())) {
+                configuration.node(replica.getHost(), replica.getPort());
+            }
+
+            connectionFactory = new LettuceConnectionFactory(
+                    configuration,
+                    clientConfiguration.readFrom(ReadFrom.REPLICA_PREFERRED).build()
+            );
+        }
+        connectionFactory.afterPropertiesSet();
+        reactiveConnectionFactories.add(connectionFactory);
+
+        return new ReactiveRedisTemplate<>(connectionFactory, RedisSerializationContext.byteArray());
+    }
+
+    private InstrumentedJedisConnectionFactory createConnectionFactory(HostAndPort node) {
+        final RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration();
+        configuration.setHostName(node.getHost());
+        configuration.setPort(node.getPort());
+
+        final JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(poolMaxTotal);
+        poolConfig.setMaxIdle(poolMaxIdle);
+        poolConfig.setMinIdle(poolMinIdle);
+        poolConfig.setBlockWhenExhausted(poolBlockWhenExhausted);
+        poolConfig.setMaxWaitMillis(poolMaxWait.toMillis());
+
+        final JedisClientConfiguration clientConfiguration = JedisClientConfiguration.builder()
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .usePooling()
+                .poolConfig(poolConfig)
+                .build();
+
+        return new InstrumentedJedisConnectionFactory(configuration, clientConfiguration);
+    }
+
+    private static RedisTemplate<byte[], byte[]> createRedisTemplate(InstrumentedJedisConnectionFactory connectionFactory) {
+        final RedisTemplate<byte[], byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setEnableDefaultSerializer(false);
+        template.setKeySerializer(RedisSerializer.byteArray());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.setHashKeySerializer(RedisSerializer.byteArray());
+        template.setHashValueSerializer(RedisSerializer.byteArray());
 
         return template;
     }
@@ -4,6 +4,9 @@ import lombok.AllArgsConstructor;
 import me.github.lparo.geolocation.api.IpLocationApi;
 import me.github.lparo.geolocation.controller.dto.IpCityLocation;
 import me.github.lparo.geolocation.controller.dto.IpCountryLocation;
+import me.github.lparo.geolocation.controller.dto.IpLocation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -12,11 +15,14 @@ import org.springframework.web.bind.annotation.RestController;
 
 /**
  * Controller responsible for providing the HTTP endpoints to fetch the city/state/country information of where a given IP
- * address is hosted.
+ * address is hosted. The response bodies come already serialized from the {@link IpLocationApi}, and are written as they
+ * are. It's replaced by the {@link ReactiveIpLocationController} when the {@code REDIS_REACTIVE} property is set to
+ * {@code true}.
  *
  * @see me.github.lparo.geolocation.controller.exception.IpLocationControllerAdvice
  */
 @RestController
+@ConditionalOnProperty(name = "REDIS_REACTIVE", havingValue = "false", matchIfMissing = true)
 @RequestMapping("geolocation/ips")
 @AllArgsConstructor
 public class IpLocationController {
@@ -29,11 +35,13 @@ public class IpLocationController {
      *
      * @param ip the given IP address to have its city/state location fetched. It's specified as an optional query parameter.
      *
-     * @return the {@link ResponseEntity<IpCityLocation>} with the IP address city/state in the response body.
+     * @return the {@link ResponseEntity} with the JSON {@link IpCityLocation} of the IP address city/state in the response body.
      */
     @GetMapping(value = "/city")
-    public ResponseEntity<IpCityLocation> getCityLocation(@RequestParam(required = false) String ip) {
-        return ResponseEntity.ok(ipLocationApi.getCityLocation(ip));
+    public ResponseEntity<byte[]> getCityLocation(@RequestParam(required = false) String ip) {
+        return ResponseEntity.ok()
+                             .contentType(MediaType.APPLICATION_JSON)
+                             .body(ipLocationApi.getCityLocation(ip));
     }
 
     /**
@@ -43,10 +51,28 @@ public class IpLocationController {
      *
      * @param ip the given IP address to have its country location fetched. It's specified as an optional query parameter.
      *
-     * @return the {@link ResponseEntity<IpCountryLocation>} with the IP address country in the response body.
+     * @return the {@link ResponseEntity} with the JSON {@link IpCountryLocation} of the IP address country in the response body.
      */
     @GetMapping(value = "/country")
-    public ResponseEntity<IpCountryLocation> getCountryLocation(@RequestParam(required = false) String ip) {
-        return ResponseEntity.ok(ipLocationApi.getCountryLocation(ip));
+    public ResponseEntity<byte[]> getCountryLocation(@RequestParam(required = false) String ip) {
+        return ResponseEntity.ok()
+                             .contentType(MediaType.APPLICATION_JSON)
+                             .body(ipLocationApi.getCountryLocation(ip));
     }
-}
\ No newline at end of file
+
+    /**
+     * Endpoint that fetches the city/state/country information of where a given IP address is hosted, all of them
+     * resolved by a single lookup. The IP address is specified in the request's query parameter. If it's absent, then
+     * the external IP of the service's host machine will be used instead.
+     *
+     * @param ip the given IP address to have its city/state/country location fetched. It's specified as an optional query parameter.
+     *
+     * @return the {@link ResponseEntity} with the JSON {@link IpLocation} of the IP address city/state/country in the response body.
+     */
+    @GetMapping(value = "/location")
+    public ResponseEntity<byte[]> getLocation(@RequestParam(required = false) String ip) {
+        return ResponseEntity.ok()
+                             .contentType(MediaType.APPLICATION_JSON)
+                             .body(ipLocationApi.getLocation(ip));
+    }
+}
@@ -0,0 +1,79 @@
+package me.github.lparo.geolocation.controller;
+
+import lombok.AllArgsConstructor;
+import me.github.lparo.geolocation.api.IpLocationApi;
+import me.github.lparo.geolocation.controller.dto.IpCityLocation;
+import me.github.lparo.geolocation.controller.dto.IpCountryLocation;
+import me.github.lparo.geolocation.controller.dto.IpLocation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controller providing the same HTTP endpoints as the {@link IpLocationController}, but returning the responses as
+ * {@link Mono}s, so the request threads are released while the locations are being looked up, and the lookups waiting
+ * for Redis don't hold any thread (check {@link IpLocationApi#getLocationAsync(String)}). It's used instead of the
+ * {@link IpLocationController} when the {@code REDIS_REACTIVE} property is set to {@code true}.
+ *
+ * @see me.github.lparo.geolocation.controller.exception.IpLocationControllerAdvice
+ */
+@RestController
+@ConditionalOnProperty(name = "REDIS_REACTIVE", havingValue = "true")
+@RequestMapping("geolocation/ips")
+@AllArgsConstructor
+public class ReactiveIpLocationController {
+    private final IpLocationApi ipLocationApi;
+
+    /**
+     * Endpoint that fetches the city/state information of where a given IP address is hosted (check
+     * {@link IpLocationController#getCityLocation(String)}).
+     *
+     * @param ip the given IP address to have its city/state location fetched. It's specified as an optional query parameter.
+     *
+     * @return a {@link Mono} emitting the {@link ResponseEntity} with the JSON {@link IpCityLocation} of the IP address
+     * city/state in the response body.
+     */
+    @GetMapping(value = "/city")
+    public Mono<ResponseEntity<byte[]>> getCityLocation(@RequestParam(required = false) String ip) {
+        return ipLocationApi.getCityLocationAsync(ip).map(ReactiveIpLocationController::toResponse);
+    }
+
+    /**
+     * Endpoint that fetches the country information of where a given IP address is hosted (check
+     * {@link IpLocationController#getCountryLocation(String)}).
+     *
+     * @param ip the given IP address to have its country location fetched. It's specified as an optional query parameter.
+     *
+     * @return a {@link Mono} emitting the {@link ResponseEntity} with the JSON {@link IpCountryLocation} of the IP
+     * address country in the response body.
+     */
+    @GetMapping(value = "/country")
+    public Mono<ResponseEntity<byte[]>> getCountryLocation(@RequestParam(required = false) String ip) {
+        return ipLocationApi.getCountryLocationAsync(ip).map(ReactiveIpLocationController::toResponse);
+    }
+
+    /**
+     * Endpoint that fetches the city/state/country information of where a given IP address is hosted (check
+     * {@link IpLocationController#getLocation(String)}).
+     *
+     * @param ip the given IP address to have its city/state/country location fetched. It's specified as an optional query parameter.
+     *
+     * @return a {@link Mono} emitting the {@link ResponseEntity} with the JSON {@link IpLocation} of the IP address
+     * city/state/country in the response body.
+     */
+    @GetMapping(value = "/location")
+    public Mono<ResponseEntity<byte[]>> getLocation(@RequestParam(required = false) String ip) {
+        return ipLocationApi.getLocationAsync(ip).map(ReactiveIpLocationController::toResponse);
+    }
+
+    private static ResponseEntity<byte[]> toResponse(byte[] body) {
+        return ResponseEntity.ok()
+                             .contentType(MediaType.APPLICATION_JSON)
+                             .body(body);
+    }
+}
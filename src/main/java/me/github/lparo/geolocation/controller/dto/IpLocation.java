@@ -0,0 +1,29 @@
+package me.github.lparo.geolocation.controller.dto;
+
+import lombok.Value;
+
+/**
+ * DTO representation of {@link me.github.lparo.geolocation.domain.IpLocation}.
+ */
+@Value
+public class IpLocation {
+    City city;
+    State state;
+    Country country;
+
+    /**
+     * Creates a {@link IpLocation} DTO representation of its {@link me.github.lparo.geolocation.domain.IpLocation}
+     * domain counterpart.
+     *
+     * @param domain the {@link me.github.lparo.geolocation.domain.IpLocation} to be converted into a DTO.
+     *
+     * @return the DTO representation of the given {@link me.github.lparo.geolocation.domain.IpLocation} domain.
+     */
+    public static IpLocation fromDomain(me.github.lparo.geolocation.domain.IpLocation domain) {
+        return new IpLocation(
+                City.fromDomain(domain.getCity()),
+                State.fromDomain(domain.getState()),
+                Country.fromDomain(domain.getCountry())
+        );
+    }
+}
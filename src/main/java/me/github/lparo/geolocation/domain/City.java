@@ -3,6 +3,7 @@ package me.github.lparo.geolocation.domain;
 import lombok.Value;
 
 import java.io.Serializable;
+import java.util.Objects;
 
 /**
  * Entity that contains information about the city a given IP address is located.
@@ -10,6 +11,7 @@ import java.io.Serializable;
 @Value(staticConstructor = "of")
 public class City implements Serializable {
     private static final long serialVersionUID = 1L;
+    private static final GeoNameIdPool<City> POOL = new GeoNameIdPool<>();
 
     /**
      * tha name of the city.
@@ -20,4 +22,31 @@ public class City implements Serializable {
      * the geo name id of the city.
      */
     int geoNameId;
+
+    /**
+     * Gets the shared {@link City} instance with the given values, only allocating a new one when no equal instance
+     * is pooled for the geo name id yet.
+     *
+     * @param name the name of the city.
+     * @param geoNameId the geo name id of the city.
+     *
+     * @return the shared {@link City} instance.
+     */
+    public static City interned(String name, int geoNameId) {
+        final City pooled = POOL.get(geoNameId);
+        if (pooled != null && Objects.equals(pooled.name, name)) {
+            return pooled;
+        }
+
+        return POOL.intern(geoNameId, of(name, geoNameId));
+    }
+
+    /**
+     * Replaces the deserialized instance (e.g. read from the Redis cache) with the shared one.
+     *
+     * @return the shared {@link City} instance.
+     */
+    private Object readResolve() {
+        return POOL.intern(geoNameId, this);
+    }
 }
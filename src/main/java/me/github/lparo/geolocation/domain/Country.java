@@ -3,6 +3,7 @@ package me.github.lparo.geolocation.domain;
 import lombok.Value;
 
 import java.io.Serializable;
+import java.util.Objects;
 
 /**
  * Entity that contains information about the country a given IP address is located.
@@ -10,6 +11,7 @@ import java.io.Serializable;
 @Value(staticConstructor = "of")
 public class Country implements Serializable {
     private static final long serialVersionUID = 1L;
+    private static final GeoNameIdPool<Country> POOL = new GeoNameIdPool<>();
 
     /**
      * the name of the country.
@@ -30,4 +32,34 @@ public class Country implements Serializable {
      * the iso code of the country.
      */
     String isoCode;
-}
\ No newline at end of file
+
+    /**
+     * Gets the shared {@link Country} instance with the given values, only allocating a new one when no equal instance
+     * is pooled for the geo name id yet.
+     *
+     * @param name the name of the country.
+     * @param geoNameId the geo name id of the country.
+     * @param isInEuropeanUnion the flag that identifies if the country is part of EU.
+     * @param isoCode the iso code of the country.
+     *
+     * @return the shared {@link Country} instance.
+     */
+    public static Country interned(String name, int geoNameId, boolean isInEuropeanUnion, String isoCode) {
+        final Country pooled = POOL.get(geoNameId);
+        if (pooled != null && Objects.equals(pooled.name, name) && pooled.isInEuropeanUnion == isInEuropeanUnion
+                && Objects.equals(pooled.isoCode, isoCode)) {
+            return pooled;
+        }
+
+        return POOL.intern(geoNameId, of(name, geoNameId, isInEuropeanUnion, isoCode));
+    }
+
+    /**
+     * Replaces the deserialized instance (e.g. read from the Redis cache) with the shared one.
+     *
+     * @return the shared {@link Country} instance.
+     */
+    private Object readResolve() {
+        return POOL.intern(geoNameId, this);
+    }
+}
@@ -0,0 +1,44 @@
+package me.github.lparo.geolocation.domain;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Canonicalizing pool that keeps a single shared instance of an immutable domain entity per geo name id, so every
+ * lookup that resolves to the same city/state/country hands back the same instance instead of allocating a new one.
+ * The set of geo name ids is bounded by the GeoIP2 database, so the pool is not evicted.
+ *
+ * @param <T> the type of the pooled entity.
+ */
+final class GeoNameIdPool<T> {
+    private final ConcurrentMap<Integer, T> instances = new ConcurrentHashMap<>();
+
+    /**
+     * @param geoNameId the geo name id of the entity.
+     *
+     * @return the pooled instance for the geo name id, or null if there's none.
+     */
+    T get(int geoNameId) {
+        return instances.get(geoNameId);
+    }
+
+    /**
+     * Interns the given instance. If an equal instance is already pooled for the geo name id, the pooled one is
+     * returned, otherwise the given instance replaces it (e.g. when a newer database renamed the entity) and is returned.
+     *
+     * @param geoNameId the geo name id of the entity.
+     * @param instance the instance to be interned.
+     *
+     * @return the canonical instance for the geo name id.
+     */
+    T intern(int geoNameId, T instance) {
+        return instances.merge(geoNameId, instance, (pooled, candidate) -> pooled.equals(candidate) ? pooled : candidate);
+    }
+
+    /**
+     * @return the number of pooled instances.
+     */
+    int size() {
+        return instances.size();
+    }
+}
@@ -0,0 +1,122 @@
+package me.github.lparo.geolocation.domain;
+
+import lombok.Value;
+import me.github.lparo.geolocation.exception.InvalidIpException;
+
+import java.io.Serializable;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+
+/**
+ * Entity that represents an IPv4 or IPv6 address as its 128 bits, packed in two longs. IPv4 addresses are represented
+ * by their IPv4-mapped IPv6 address ({@code ::ffff:a.b.c.d}), so both versions share the same key space, and the same
+ * address always has the same representation no matter how it was written.
+ */
+@Value(staticConstructor = "of")
+public class IpAddress implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final long IPV4_MAPPED_PREFIX = 0xFFFFL << Integer.SIZE;
+
+    /**
+     * the 64 most significant bits of the address.
+     */
+    long high;
+
+    /**
+     * the 64 least significant bits of the address.
+     */
+    long low;
+
+    /**
+     * Creates the {@link IpAddress} of the given IPv4 address.
+     *
+     * @param ipv4 the IPv4 address, as its 32 bits packed in an int.
+     *
+     * @return the {@link IpAddress} of the IPv4 address.
+     */
+    public static IpAddress ofIpv4(int ipv4) {
+        return of(0, IPV4_MAPPED_PREFIX | Integer.toUnsignedLong(ipv4));
+    }
+
+    /**
+     * Creates the {@link IpAddress} of the given raw address.
+     *
+     * @param bytes the 4 bytes of an IPv4 address or the 16 bytes of an IPv6 address, in network byte order.
+     *
+     * @return the {@link IpAddress} of the raw address.
+     *
+     * @throws IllegalArgumentException if the raw address is neither 4 nor 16 bytes long.
+     */
+    public static IpAddress fromBytes(byte[] bytes) {
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length == 4) {
+            return ofIpv4(buffer.getInt());
+        } else if (bytes.length == 16) {
+            return of(buffer.getLong(), buffer.getLong());
+        }
+
+        throw new IllegalArgumentException("invalid IP address length: " + bytes.length);
+    }
+
+    /**
+     * Parses the given textual IPv4 or IPv6 address, validating it in the same pass (check {@link IpAddressParser}).
+     *
+     * @param ip the IP address to be parsed.
+     *
+     * @return the parsed {@link IpAddress}.
+     *
+     * @throws InvalidIpException if the given text is not a valid IPv4 or IPv6 address.
+     */
+    public static IpAddress parse(String ip) {
+        return IpAddressParser.parse(ip);
+    }
+
+    /**
+     * @return whether this is an IPv4 address.
+     */
+    public boolean isIpv4() {
+        return high == 0 && (low & 0xFFFFFFFF00000000L) == IPV4_MAPPED_PREFIX;
+    }
+
+    /**
+     * @return the 32 bits of this address packed in an int. Only meaningful if this is an IPv4 address.
+     */
+    public int getIpv4() {
+        return (int) low;
+    }
+
+    /**
+     * Gets the compact binary representation of this address, used as its key wherever it's stored.
+     *
+     * @return the 4 bytes of an IPv4 address or the 16 bytes of an IPv6 address, in network byte order.
+     */
+    public byte[] toBytes() {
+        if (isIpv4()) {
+            return ByteBuffer.allocate(4).putInt(getIpv4()).array();
+        }
+
+        return ByteBuffer.allocate(16).putLong(high).putLong(low).array();
+    }
+
+    /**
+     * @return the {@link InetAddress} of this address, either an {@link java.net.Inet4Address} or an
+     * {@link java.net.Inet6Address}.
+     */
+    public InetAddress toInetAddress() {
+        try {
+            return InetAddress.getByAddress(toBytes());
+        } catch (UnknownHostException e) {
+            // never happens, as the raw address always has a valid length
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the textual representation of this address.
+     */
+    @Override
+    public String toString() {
+        return toInetAddress().getHostAddress();
+    }
+}
@@ -0,0 +1,230 @@
+package me.github.lparo.geolocation.domain;
+
+import me.github.lparo.geolocation.exception.InvalidIpException;
+
+/**
+ * Hand-written parser of textual IP addresses, which validates the text and builds its numeric value in a single pass
+ * over the characters, without splitting the text, running regular expressions or going through name resolution. An
+ * IPv4 address is parsed into a primitive 32 bits value, and an IPv6 address into its 128 bits packed in two longs.
+ * Nothing is allocated but the returned {@link IpAddress}, unless the text is invalid.
+ */
+final class IpAddressParser {
+    private static final long INVALID = -1;
+    private static final int IPV6_GROUPS = 8;
+    private static final int MAX_IPV6_LENGTH = 45;
+
+    private IpAddressParser() {
+    }
+
+    /**
+     * Parses the given textual IPv4 or IPv6 address. IPv4 addresses must be in dotted-decimal notation without leading
+     * zeros, and IPv6 addresses in any of the RFC 4291 notations (with {@code ::} compression and a trailing IPv4
+     * address allowed), without a zone.
+     *
+     * @param ip the IP address to be parsed.
+     *
+     * @return the parsed {@link IpAddress}.
+     *
+     * @throws InvalidIpException if the given text is not a valid IPv4 or IPv6 address.
+     */
+    static IpAddress parse(String ip) {
+        if (ip == null) {
+            throw invalid(ip);
+        }
+
+        if (ip.indexOf(':') < 0) {
+            final long ipv4 = parseIpv4(ip, 0, ip.length());
+            if (ipv4 == INVALID) {
+                throw invalid(ip);
+            }
+
+            return IpAddress.ofIpv4((int) ipv4);
+        }
+
+        return parseIpv6(ip);
+    }
+
+    /**
+     * Parses the dotted-decimal IPv4 address between the given positions of the text.
+     *
+     * @param text the text holding the IPv4 address.
+     * @param start the position of the first character of the address.
+     * @param end the position right after the last character of the address.
+     *
+     * @return the IPv4 address as an unsigned 32 bits value, or {@link #INVALID} if it's not a valid IPv4 address.
+     */
+    static long parseIpv4(CharSequence text, int start, int end) {
+        long address = 0;
+        int octets = 0;
+        int octet = 0;
+        int digits = 0;
+
+        for (int i = start; i < end; i++) {
+            final char c = text.charAt(i);
+
+            if (c >= '0' && c <= '9') {
+                if (digits > 0 && octet == 0) {
+                    // leading zeros are ambiguous (octal in some parsers), so they're rejected
+                    return INVALID;
+                }
+
+                octet = octet * 10 + (c - '0');
+                digits++;
+
+                if (octet > 255) {
+                    return INVALID;
+                }
+            } else if (c == '.' && digits > 0 && octets < 3) {
+                address = (address << 8) | octet;
+                octets++;
+                octet = 0;
+                digits = 0;
+            } else {
+                return INVALID;
+            }
+        }
+
+        if (digits == 0 || octets != 3) {
+            return INVALID;
+        }
+
+        return (address << 8) | octet;
+    }
+
+    private static IpAddress parseIpv6(String ip) {
+        final int length = ip.length();
+        if (length < 2 || length > MAX_IPV6_LENGTH) {
+            throw invalid(ip);
+        }
+
+        // the groups before the "::" are accumulated apart from the ones after it, which are aligned to the end
+        long headHigh = 0;
+        long headLow = 0;
+        int headGroups = 0;
+        long tailHigh = 0;
+        long tailLow = 0;
+        int tailGroups = 0;
+        boolean compressed = false;
+
+        int position = 0;
+        if (ip.charAt(0) == ':') {
+            if (ip.charAt(1) != ':') {
+                throw invalid(ip);
+            }
+
+            compressed = true;
+            position = 2;
+        }
+
+        while (position < length) {
+            int end = position;
+            boolean dotted = false;
+            while (end < length && ip.charAt(end) != ':') {
+                dotted |= ip.charAt(end) == '.';
+                end++;
+            }
+
+            final long value;
+            final int groups;
+            if (dotted) {
+                // an IPv4 address can only take the last 32 bits
+                value = end == length ? parseIpv4(ip, position, end) : INVALID;
+                groups = 2;
+            } else {
+                value = parseGroup(ip, position, end);
+                groups = 1;
+            }
+
+            if (value == INVALID || headGroups + tailGroups + groups > IPV6_GROUPS) {
+                throw invalid(ip);
+            }
+
+            final int bits = groups * 16;
+            if (compressed) {
+                tailHigh = (tailHigh << bits) | (tailLow >>> (64 - bits));
+                tailLow = (tailLow << bits) | value;
+                tailGroups += groups;
+            } else {
+                headHigh = (headHigh << bits) | (headLow >>> (64 - bits));
+                headLow = (headLow << bits) | value;
+                headGroups += groups;
+            }
+
+            position = end;
+            if (position < length) {
+                position++;
+
+                if (position == length) {
+                    // a single trailing colon
+                    throw invalid(ip);
+                }
+
+                if (ip.charAt(position) == ':') {
+                    if (compressed) {
+                        throw invalid(ip);
+                    }
+
+                    compressed = true;
+                    position++;
+                }
+            }
+        }
+
+        if (!compressed) {
+            if (headGroups != IPV6_GROUPS) {
+                throw invalid(ip);
+            }
+
+            return IpAddress.of(headHigh, headLow);
+        }
+
+        if (headGroups + tailGroups == IPV6_GROUPS) {
+            // "::" has to stand for at least one group
+            throw invalid(ip);
+        }
+
+        // moves the head groups to the start of the address, leaving the zeros of the "::" between them and the tail
+        final int shift = (IPV6_GROUPS - headGroups) * 16;
+        if (shift == 128) {
+            return IpAddress.of(tailHigh, tailLow);
+        } else if (shift >= 64) {
+            return IpAddress.of((headLow << (shift - 64)) | tailHigh, tailLow);
+        }
+
+        return IpAddress.of((headHigh << shift) | (headLow >>> (64 - shift)) | tailHigh, (headLow << shift) | tailLow);
+    }
+
+    private static long parseGroup(String ip, int start, int end) {
+        if (end == start || end - start > 4) {
+            return INVALID;
+        }
+
+        long group = 0;
+        for (int i = start; i < end; i++) {
+            final int digit = toHexDigit(ip.charAt(i));
+            if (digit < 0) {
+                return INVALID;
+            }
+
+            group = (group << 4) | digit;
+        }
+
+        return group;
+    }
+
+    private static int toHexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        } else if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        } else if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+
+        return -1;
+    }
+
+    private static InvalidIpException invalid(String ip) {
+        return new InvalidIpException("invalid IP format: " + ip);
+    }
+}
@@ -0,0 +1,32 @@
+package me.github.lparo.geolocation.domain;
+
+import lombok.Value;
+
+import java.io.Serializable;
+
+/**
+ * The container domain that wraps the {@link City}, {@link State} and {@link Country} a given IP address is located.
+ *
+ * @see City
+ * @see State
+ * @see Country
+ */
+@Value(staticConstructor = "of")
+public class IpLocation implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * the {@link City} information where the IP address is located.
+     */
+    City city;
+
+    /**
+     * the {@link State} information where the IP address is located.
+     */
+    State state;
+
+    /**
+     * the {@link Country} information where the IP address is located.
+     */
+    Country country;
+}
@@ -3,6 +3,7 @@ package me.github.lparo.geolocation.domain;
 import lombok.Value;
 
 import java.io.Serializable;
+import java.util.Objects;
 
 /**
  * Entity that contains information about the state/province/etc a given IP address is located.
@@ -10,6 +11,7 @@ import java.io.Serializable;
 @Value(staticConstructor = "of")
 public class State implements Serializable {
     private static final long serialVersionUID = 1L;
+    private static final GeoNameIdPool<State> POOL = new GeoNameIdPool<>();
 
     /**
      * the name of the state.
@@ -25,4 +27,32 @@ public class State implements Serializable {
      * the iso code of the state.
      */
     String isoCode;
+
+    /**
+     * Gets the shared {@link State} instance with the given values, only allocating a new one when no equal instance
+     * is pooled for the geo name id yet.
+     *
+     * @param name the name of the state.
+     * @param geoNameId the geo name id of the state.
+     * @param isoCode the iso code of the state.
+     *
+     * @return the shared {@link State} instance.
+     */
+    public static State interned(String name, int geoNameId, String isoCode) {
+        final State pooled = POOL.get(geoNameId);
+        if (pooled != null && Objects.equals(pooled.name, name) && Objects.equals(pooled.isoCode, isoCode)) {
+            return pooled;
+        }
+
+        return POOL.intern(geoNameId, of(name, geoNameId, isoCode));
+    }
+
+    /**
+     * Replaces the deserialized instance (e.g. read from the Redis cache) with the shared one.
+     *
+     * @return the shared {@link State} instance.
+     */
+    private Object readResolve() {
+        return POOL.intern(geoNameId, this);
+    }
 }
@@ -1,15 +1,17 @@
 package me.github.lparo.geolocation.exception;
 
 /**
- * Custom exception that represents a situation where the location for a given IP address is not found.
+ * Custom exception that represents a situation where the location for a given IP address is not found. It's an expected
+ * outcome (e.g. for reserved or unallocated IP addresses) rather than a failure, so it doesn't fill in its stack trace,
+ * which would cost more than the cached lookup that produced it.
  */
 public class LocationNotFoundException extends RuntimeException {
     private static final long serialVersionUID = 1L;
 
     /**
-     * {@inheritDoc}
+     * @param message the detail message.
      */
     public LocationNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
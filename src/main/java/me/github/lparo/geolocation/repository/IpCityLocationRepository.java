@@ -1,6 +1,8 @@
 package me.github.lparo.geolocation.repository;
 
+import me.github.lparo.geolocation.domain.IpAddress;
 import me.github.lparo.geolocation.domain.IpCityLocation;
+import reactor.core.publisher.Mono;
 
 import java.util.Optional;
 
@@ -17,5 +19,18 @@ public interface IpCityLocationRepository {
      *
      * @return the country information of where the IP address is located wrapped in an {@link Optional<IpCityLocation>}.
      */
-    Optional<IpCityLocation> getCityLocationForIp(String ip);
+    Optional<IpCityLocation> getCityLocationForIp(IpAddress ip);
+
+    /**
+     * Fetches an {@link IpCityLocation} from the underlying data store without blocking the calling thread on I/O. The
+     * default implementation runs {@link #getCityLocationForIp(IpAddress)} once subscribed, which suits the data stores
+     * read in-process, and the ones going over the network should override it.
+     *
+     * @param ip the IP address to have the {@link IpCityLocation} information fetched.
+     *
+     * @return a {@link Mono} emitting the {@link IpCityLocation} wrapped in an {@link Optional}.
+     */
+    default Mono<Optional<IpCityLocation>> getCityLocationForIpAsync(IpAddress ip) {
+        return Mono.fromSupplier(() -> getCityLocationForIp(ip));
+    }
 }
@@ -1,6 +1,8 @@
 package me.github.lparo.geolocation.repository;
 
+import me.github.lparo.geolocation.domain.IpAddress;
 import me.github.lparo.geolocation.domain.IpCountryLocation;
+import reactor.core.publisher.Mono;
 
 import java.util.Optional;
 
@@ -17,5 +19,18 @@ public interface IpCountryLocationRepository {
      *
      * @return the country information of where the IP address is located wrapped in an {@link Optional<IpCountryLocation>}.
      */
-    Optional<IpCountryLocation> getCountryLocationForIp(String ip);
+    Optional<IpCountryLocation> getCountryLocationForIp(IpAddress ip);
+
+    /**
+     * Fetches an {@link IpCountryLocation} from the underlying data store without blocking the calling thread on I/O.
+     * The default implementation runs {@link #getCountryLocationForIp(IpAddress)} once subscribed, which suits the data
+     * stores read in-process, and the ones going over the network should override it.
+     *
+     * @param ip the IP address to have the {@link IpCountryLocation} information fetched.
+     *
+     * @return a {@link Mono} emitting the {@link IpCountryLocation} wrapped in an {@link Optional}.
+     */
+    default Mono<Optional<IpCountryLocation>> getCountryLocationForIpAsync(IpAddress ip) {
+        return Mono.fromSupplier(() -> getCountryLocationForIp(ip));
+    }
 }
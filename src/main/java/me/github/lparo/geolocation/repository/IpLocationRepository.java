@@ -0,0 +1,36 @@
+package me.github.lparo.geolocation.repository;
+
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.domain.IpLocation;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * Interface responsible for providing a contract for {@link IpLocation} retrieval. The implementing class should
+ * deal with the specifics of how to retrieve this information.
+ */
+public interface IpLocationRepository {
+
+    /**
+     * Fetches an {@link IpLocation} from the underlying data store and returns it wrapped into an {@link Optional}.
+     *
+     * @param ip the IP address to have the {@link IpLocation} information fetched.
+     *
+     * @return the city/state/country information of where the IP address is located wrapped in an {@link Optional<IpLocation>}.
+     */
+    Optional<IpLocation> getLocationForIp(IpAddress ip);
+
+    /**
+     * Fetches an {@link IpLocation} from the underlying data store without blocking the calling thread on I/O. The
+     * default implementation runs {@link #getLocationForIp(IpAddress)} once subscribed, which suits the data stores
+     * read in-process, and the ones going over the network should override it.
+     *
+     * @param ip the IP address to have the {@link IpLocation} information fetched.
+     *
+     * @return a {@link Mono} emitting the {@link IpLocation} wrapped in an {@link Optional}.
+     */
+    default Mono<Optional<IpLocation>> getLocationForIpAsync(IpAddress ip) {
+        return Mono.fromSupplier(() -> getLocationForIp(ip));
+    }
+}
@@ -0,0 +1,125 @@
+package me.github.lparo.geolocation.repository.impl.geoip2;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.maxmind.db.CacheKey;
+import com.maxmind.db.DecodedValue;
+import com.maxmind.db.NodeCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Value;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class that keeps the data records decoded by the GeoIP2 readers in a bounded Caffeine cache, so the records of the
+ * most requested locations are decoded only once. Each opened database gets its own {@link Generation}, because the
+ * {@link CacheKey}s used by a reader (the offset of a record and the class it's decoded into) are only meaningful
+ * within its own database file. Its hit ratio, size and evictions are published as the {@code geoip2.node} cache
+ * metrics.
+ */
+public class CaffeineNodeCache implements MeterBinder {
+    private static final String CACHE_NAME = "geoip2.node";
+
+    private final Cache<GenerationKey, DecodedValue> cache;
+    private final AtomicInteger generations = new AtomicInteger();
+
+    /**
+     * @param maximumSize the maximum number of decoded records kept in the cache.
+     */
+    public CaffeineNodeCache(long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                             .maximumSize(maximumSize)
+                             .executor(Runnable::run)
+                             .recordStats()
+                             .build();
+    }
+
+    /**
+     * Creates the {@link NodeCache} of a newly opened database, whose records are cached apart from the records of any
+     * other database.
+     *
+     * @return a new {@link Generation} of the cache.
+     */
+    public Generation newGeneration() {
+        return new Generation(generations.incrementAndGet());
+    }
+
+    /**
+     * @return a snapshot of the cache statistics.
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    /**
+     * @return the approximate number of decoded records in the cache.
+     */
+    public long getSize() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Publishes the cache metrics into the given {@link MeterRegistry}.
+     *
+     * @param registry the {@link MeterRegistry} the metrics are published to.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Implementing class of {@link NodeCache} that caches the records of a single database, keyed by their
+     * {@link CacheKey} combined with the generation number.
+     */
+    public class Generation implements NodeCache {
+        private final int number;
+
+        private Generation(int number) {
+            this.number = number;
+        }
+
+        /**
+         * Gets the decoded record at the offset of the given key, decoding it with the {@link Loader} on a cache miss.
+         *
+         * @param key the offset of the record in the database and the class it's decoded into.
+         * @param loader the {@link Loader} that decodes the record.
+         *
+         * @return the decoded record.
+         *
+         * @throws IOException in case the record cannot be decoded.
+         */
+        @Override
+        public DecodedValue get(CacheKey key, Loader loader) throws IOException {
+            final GenerationKey cacheKey = new GenerationKey(number, key);
+
+            DecodedValue value = cache.getIfPresent(cacheKey);
+            if (value == null) {
+                value = loader.load(key);
+                cache.put(cacheKey, value);
+            }
+
+            return value;
+        }
+
+        /**
+         * Discards every record cached for this generation, once its database is closed.
+         */
+        public void invalidate() {
+            cache.asMap().keySet().removeIf(cacheKey -> cacheKey.getGeneration() == number);
+        }
+    }
+
+    /**
+     * Key of a decoded record in the cache: the {@link CacheKey} given by the reader of a generation.
+     */
+    @Value
+    private static class GenerationKey {
+        int generation;
+        CacheKey<?> key;
+    }
+}
@@ -0,0 +1,66 @@
+package me.github.lparo.geolocation.repository.impl.geoip2;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * Actuator endpoint ({@code /actuator/geoip2database}) that shows which version of the GeoIP2 database is in use, and
+ * that reloads the database on demand. As a reload is expensive (and the endpoint has no authentication of its own),
+ * it's not exposed by default: it's only created once it's added to {@code management.endpoints.web.exposure.include},
+ * preferably along with a {@code management.server.port} that isn't reachable from the public network.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+@Endpoint(id = "geoip2database")
+@ConditionalOnAvailableEndpoint(endpoint = GeoIP2DatabaseEndpoint.class)
+public class GeoIP2DatabaseEndpoint {
+    private final ReloadableDatabaseReader reloadableDatabaseReader;
+
+    /**
+     * @return the {@link Status} of the database in use.
+     */
+    @ReadOperation
+    public Status getStatus() {
+        return new Status(
+                reloadableDatabaseReader.getGeneration(),
+                reloadableDatabaseReader.getDatabaseType(),
+                reloadableDatabaseReader.getBuildDate()
+        );
+    }
+
+    /**
+     * Reloads the database, swapping it in once it's ready.
+     *
+     * @return the {@link Status} of the reloaded database.
+     */
+    @WriteOperation
+    public Status reload() {
+        try {
+            reloadableDatabaseReader.reload();
+            return getStatus();
+        } catch (IOException e) {
+            log.error("unable to reload GeoIP2 database", e);
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Version information of the database in use.
+     */
+    @Value
+    public static class Status {
+        long generation;
+        String databaseType;
+        Date buildDate;
+    }
+}
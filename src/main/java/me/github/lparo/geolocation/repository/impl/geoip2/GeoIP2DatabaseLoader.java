@@ -0,0 +1,74 @@
+package me.github.lparo.geolocation.repository.impl.geoip2;
+
+import com.maxmind.db.NodeCache;
+import com.maxmind.db.Reader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Class responsible for opening readers over the GeoIP2 binary database. If a database {@link File} is available, it's
+ * memory-mapped, so its pages live in the OS page cache (shared by every JVM on the same host) instead of the heap.
+ * Otherwise, the classpath database {@link Resource} is copied into the heap as a fallback.
+ */
+@Slf4j
+public class GeoIP2DatabaseLoader {
+    private final Resource classpathDatabase;
+    private final File databaseFile;
+
+    /**
+     * @param classpathDatabase the database bundled in the classpath, used as a fallback.
+     * @param databaseFile the database file to be memory-mapped. Can be null, in which case the classpath database is used.
+     */
+    public GeoIP2DatabaseLoader(Resource classpathDatabase, File databaseFile) {
+        this.classpathDatabase = classpathDatabase;
+        this.databaseFile = databaseFile;
+    }
+
+    /**
+     * Opens a new {@link Reader} over the GeoIP2 database, which gives access to the raw records and the networks they
+     * belong to.
+     *
+     * @param nodeCache the {@link NodeCache} used by the reader to cache the decoded data.
+     *
+     * @return a new {@link Reader} instance, which must be closed by the caller once it's no longer used.
+     *
+     * @throws IOException in case the GeoIP2 binary file cannot be read.
+     */
+    public Reader openReader(NodeCache nodeCache) throws IOException {
+        final Runtime runtime = Runtime.getRuntime();
+        final long usedHeapBefore = runtime.totalMemory() - runtime.freeMemory();
+        final long start = System.nanoTime();
+
+        final Reader reader = databaseFile != null
+                ? new Reader(databaseFile, Reader.FileMode.MEMORY_MAPPED, nodeCache)
+                : new Reader(classpathDatabase.getInputStream(), nodeCache);
+
+        final long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        final long usedHeapAfter = runtime.totalMemory() - runtime.freeMemory();
+
+        log.info("loaded GeoIP2 database from {} in {} ms ({}), heap used grew by ~{} MB",
+                getDescription(),
+                elapsedMillis,
+                databaseFile != null ? "memory-mapped" : "heap copy",
+                Math.max(0, usedHeapAfter - usedHeapBefore) / (1024 * 1024));
+
+        return reader;
+    }
+
+    /**
+     * @return the database file being memory-mapped, or null if the classpath database is used.
+     */
+    public File getDatabaseFile() {
+        return databaseFile;
+    }
+
+    /**
+     * @return a human readable description of where the database is loaded from.
+     */
+    public String getDescription() {
+        return databaseFile != null ? databaseFile.getAbsolutePath() : classpathDatabase.getDescription();
+    }
+}
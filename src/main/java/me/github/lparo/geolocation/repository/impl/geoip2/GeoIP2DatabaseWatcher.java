@@ -0,0 +1,126 @@
+package me.github.lparo.geolocation.repository.impl.geoip2;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+/**
+ * Class responsible for watching the directory of the database file configured through {@code GEOIP2_DATABASE_PATH},
+ * and reloading the {@link ReloadableDatabaseReader} whenever the file is replaced. The reload only starts once the
+ * directory has been quiet for {@code GEOIP2_DATABASE_WATCH_QUIET_PERIOD}, so a file still being written is not picked
+ * up. It's enabled when the {@code GEOIP2_DATABASE_WATCH} property is set to {@code true}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "GEOIP2_DATABASE_WATCH", havingValue = "true")
+public class GeoIP2DatabaseWatcher {
+    private final ReloadableDatabaseReader reloadableDatabaseReader;
+    private final File databaseFile;
+    private final Duration quietPeriod;
+
+    private WatchService watchService;
+
+    @Autowired
+    public GeoIP2DatabaseWatcher(ReloadableDatabaseReader reloadableDatabaseReader,
+                                 GeoIP2DatabaseLoader geoIP2DatabaseLoader,
+                                 @Value("${GEOIP2_DATABASE_WATCH_QUIET_PERIOD:2s}") Duration quietPeriod) {
+        this.reloadableDatabaseReader = reloadableDatabaseReader;
+        this.databaseFile = geoIP2DatabaseLoader.getDatabaseFile();
+        this.quietPeriod = quietPeriod;
+    }
+
+    /**
+     * Starts watching the database directory in a background thread.
+     *
+     * @throws IOException in case the database directory cannot be watched.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (databaseFile == null) {
+            log.warn("GeoIP2 database watch is enabled, but no GEOIP2_DATABASE_PATH is in use, so nothing is watched");
+            return;
+        }
+
+        final Path directory = databaseFile.getAbsoluteFile().toPath().getParent();
+
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+
+        final Thread thread = new Thread(this::watch, "geoip2-database-watcher");
+        thread.setDaemon(true);
+        thread.start();
+
+        log.info("watching {} for GeoIP2 database updates", directory);
+    }
+
+    /**
+     * Stops watching the database directory.
+     *
+     * @throws IOException in case the watch cannot be closed.
+     */
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                if (isDatabaseFileChanged(watchService.take())) {
+                    awaitQuietPeriod();
+                    reload();
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            log.info("stopped watching for GeoIP2 database updates");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean isDatabaseFileChanged(WatchKey watchKey) {
+        boolean changed = false;
+        for (WatchEvent<?> event : watchKey.pollEvents()) {
+            changed |= databaseFile.getName().equals(String.valueOf(event.context()));
+        }
+
+        watchKey.reset();
+        return changed;
+    }
+
+    private void awaitQuietPeriod() throws InterruptedException {
+        WatchKey watchKey;
+        while ((watchKey = watchService.poll(quietPeriod.toMillis(), TimeUnit.MILLISECONDS)) != null) {
+            watchKey.pollEvents();
+            watchKey.reset();
+        }
+    }
+
+    private void reload() {
+        try {
+            reloadableDatabaseReader.reload();
+        } catch (IOException | RuntimeException e) {
+            log.error("unable to reload GeoIP2 database " + databaseFile + ", the current one is kept", e);
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package me.github.lparo.geolocation.repository.impl.geoip2;
 
-import com.maxmind.geoip2.DatabaseReader;
-import com.maxmind.geoip2.exception.GeoIp2Exception;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import me.github.lparo.geolocation.domain.IpAddress;
 import me.github.lparo.geolocation.domain.IpCityLocation;
 import me.github.lparo.geolocation.repository.IpCityLocationRepository;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.CityRecord;
 import me.github.lparo.geolocation.repository.impl.transformer.IpCityLocationTransformer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 import java.io.IOException;
@@ -15,13 +17,16 @@ import java.util.Optional;
 
 /**
  * Implementing class of {@link IpCityLocationRepository} responsible for fetching the {@link IpCityLocation} information
- * from the underlying GeoIP2 {@link DatabaseReader}.
+ * from the raw records of the GeoIP2 database held by a {@link ReloadableDatabaseReader}. It's the default lookup engine,
+ * used unless the {@code GEOIP2_LOOKUP_ENGINE} property selects another one.
  */
 @Slf4j
 @Repository
 @AllArgsConstructor
+@Qualifier("databaseIpCityLocationRepository")
+@ConditionalOnProperty(name = "GEOIP2_LOOKUP_ENGINE", havingValue = "tree", matchIfMissing = true)
 public class GeoIP2IpCityLocationRepository implements IpCityLocationRepository {
-    private final DatabaseReader databaseReader;
+    private final ReloadableDatabaseReader databaseReader;
     private final IpCityLocationTransformer ipCityLocationTransformer;
 
     /**
@@ -33,11 +38,13 @@ public class GeoIP2IpCityLocationRepository implements IpCityLocationRepository
      *
      * @return the city/state information of where the IP address is located wrapped in an {@link Optional<IpCityLocation>}.
      */
-    public Optional<IpCityLocation> getCityLocationForIp(String ip) {
+    public Optional<IpCityLocation> getCityLocationForIp(IpAddress ip) {
         try {
-            return databaseReader.tryCity(InetAddress.getByName(ip))
-                                 .map(this.ipCityLocationTransformer);
-        } catch (IOException | GeoIp2Exception e) {
+            final InetAddress address = ip.toInetAddress();
+
+            return Optional.ofNullable(databaseReader.read(reader -> reader.get(address, CityRecord.class)))
+                           .map(this.ipCityLocationTransformer);
+        } catch (IOException e) {
             log.error("unable to get city location for IP " + ip, e);
             throw new RuntimeException(e.getMessage(), e);
         }
@@ -1,11 +1,11 @@
 package me.github.lparo.geolocation.repository.impl.geoip2;
 
-import com.maxmind.geoip2.DatabaseReader;
-import com.maxmind.geoip2.exception.GeoIp2Exception;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import me.github.lparo.geolocation.domain.IpAddress;
 import me.github.lparo.geolocation.domain.IpCountryLocation;
 import me.github.lparo.geolocation.repository.IpCountryLocationRepository;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.CountryRecord;
 import me.github.lparo.geolocation.repository.impl.transformer.IpCountryLocationTransformer;
 import org.springframework.stereotype.Repository;
 
@@ -15,13 +15,13 @@ import java.util.Optional;
 
 /**
  * Implementing class of {@link IpCountryLocationRepository} responsible for fetching the {@link IpCountryLocation} information
- * from the underlying GeoIP2 {@link DatabaseReader}.
+ * from the raw records of the GeoIP2 database held by a {@link ReloadableDatabaseReader}.
  */
 @Slf4j
 @Repository("geoIP2IpCountryLocationRepository")
 @AllArgsConstructor
 public class GeoIP2IpCountryLocationRepository implements IpCountryLocationRepository {
-    private final DatabaseReader databaseReader;
+    private final ReloadableDatabaseReader databaseReader;
     private final IpCountryLocationTransformer ipCountryLocationTransformer;
 
     /**
@@ -33,11 +33,13 @@ public class GeoIP2IpCountryLocationRepository implements IpCountryLocationRepos
      *
      * @return the country information of where the IP address is located wrapped in an {@link Optional<IpCountryLocation>}.
      */
-    public Optional<IpCountryLocation> getCountryLocationForIp(String ip) {
+    public Optional<IpCountryLocation> getCountryLocationForIp(IpAddress ip) {
         try {
-            return databaseReader.tryCountry(InetAddress.getByName(ip))
-                                 .map(ipCountryLocationTransformer);
-        } catch (IOException | GeoIp2Exception e) {
+            final InetAddress address = ip.toInetAddress();
+
+            return Optional.ofNullable(databaseReader.read(reader -> reader.get(address, CountryRecord.class)))
+                           .map(ipCountryLocationTransformer);
+        } catch (IOException e) {
             log.error("unable to get country location for IP " + ip, e);
             throw new RuntimeException(e.getMessage(), e);
         }
@@ -0,0 +1,48 @@
+package me.github.lparo.geolocation.repository.impl.geoip2;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.domain.IpLocation;
+import me.github.lparo.geolocation.repository.IpLocationRepository;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.LocationRecord;
+import me.github.lparo.geolocation.repository.impl.transformer.IpLocationTransformer;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.Optional;
+
+/**
+ * Implementing class of {@link IpLocationRepository} responsible for fetching the {@link IpLocation} information
+ * from the raw records of the GeoIP2 database held by a {@link ReloadableDatabaseReader}. The city, state and country all come from a single city lookup.
+ */
+@Slf4j
+@Repository("geoIP2IpLocationRepository")
+@AllArgsConstructor
+public class GeoIP2IpLocationRepository implements IpLocationRepository {
+    private final ReloadableDatabaseReader databaseReader;
+    private final IpLocationTransformer ipLocationTransformer;
+
+    /**
+     * Searches the GeoIP2 datastore to find the city/state/country information of where the IP address is located. If
+     * the location is found, an {@link IpLocation} instance wrapped in an {@link Optional} is returned, otherwise, an
+     * {@link Optional#empty()} is returned.
+     *
+     * @param ip the IP address to have the {@link IpLocation} information fetched.
+     *
+     * @return the city/state/country information of where the IP address is located wrapped in an {@link Optional<IpLocation>}.
+     */
+    @Override
+    public Optional<IpLocation> getLocationForIp(IpAddress ip) {
+        try {
+            final InetAddress address = ip.toInetAddress();
+
+            return Optional.ofNullable(databaseReader.read(reader -> reader.get(address, LocationRecord.class)))
+                           .map(ipLocationTransformer);
+        } catch (IOException e) {
+            log.error("unable to get location for IP " + ip, e);
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+}
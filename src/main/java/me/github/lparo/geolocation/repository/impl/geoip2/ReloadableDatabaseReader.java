@@ -0,0 +1,230 @@
+package me.github.lparo.geolocation.repository.impl.geoip2;
+
+import com.maxmind.db.Reader;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Class that holds the GeoIP2 database {@link Reader} currently in use and allows it to be replaced by a newer version of
+ * the database without a restart. The new reader, and everything the registered {@link ReloadListener}s derive from
+ * it, is built while the lookups keep running on the current one, and then swapped atomically. Lookups that started on
+ * the previous reader finish on it, and the previous reader is only closed once the last of them is done.
+ */
+@Slf4j
+public class ReloadableDatabaseReader implements Closeable {
+    private final GeoIP2DatabaseLoader geoIP2DatabaseLoader;
+    private final CaffeineNodeCache nodeCache;
+    private final List<ReloadListener> reloadListeners = new CopyOnWriteArrayList<>();
+    private final AtomicReference<Generation> current;
+    private final Object reloadLock = new Object();
+
+    /**
+     * Opens the first version of the database.
+     *
+     * @param geoIP2DatabaseLoader the {@link GeoIP2DatabaseLoader} used to open each version of the database.
+     * @param nodeCache the {@link CaffeineNodeCache} that caches the decoded records of each version of the database.
+     *
+     * @throws IOException in case the GeoIP2 binary file cannot be read.
+     */
+    public ReloadableDatabaseReader(GeoIP2DatabaseLoader geoIP2DatabaseLoader, CaffeineNodeCache nodeCache) throws IOException {
+        this.geoIP2DatabaseLoader = geoIP2DatabaseLoader;
+        this.nodeCache = nodeCache;
+        this.current = new AtomicReference<>(open(1));
+    }
+
+    /**
+     * Runs the given lookup against the current {@link Reader}. The reader is guaranteed to stay open until
+     * the lookup returns, even if the database is reloaded in the meantime.
+     *
+     * @param lookup the lookup to be run.
+     * @param <T> the type of the lookup result.
+     *
+     * @return the result of the lookup.
+     *
+     * @throws IOException in case the database cannot be read, or it's already closed.
+     */
+    public <T> T read(Lookup<T> lookup) throws IOException {
+        final Generation generation = acquire();
+        try {
+            return lookup.apply(generation.reader);
+        } finally {
+            generation.release();
+        }
+    }
+
+    /**
+     * Opens the database again, prepares the {@link ReloadListener}s with the new reader and swaps it in. If anything
+     * fails before the swap, the new reader is discarded and the current one is kept.
+     *
+     * @throws IOException in case the GeoIP2 binary file cannot be read.
+     */
+    public void reload() throws IOException {
+        synchronized (reloadLock) {
+            final Generation previous = current.get();
+            final Generation next = open(previous.number + 1);
+
+            final List<Runnable> publications = new ArrayList<>();
+            try {
+                for (ReloadListener reloadListener : reloadListeners) {
+                    publications.add(reloadListener.prepare(next.reader));
+                }
+            } catch (IOException | RuntimeException e) {
+                next.release();
+                throw e;
+            }
+
+            current.set(next);
+            publications.forEach(Runnable::run);
+            previous.release();
+
+            log.info("swapped GeoIP2 database generation {} for generation {}", previous.number, next.number);
+        }
+    }
+
+    /**
+     * Registers a {@link ReloadListener} to be prepared with every reloaded database.
+     *
+     * @param reloadListener the {@link ReloadListener} to be registered.
+     */
+    public void addReloadListener(ReloadListener reloadListener) {
+        reloadListeners.add(reloadListener);
+    }
+
+    /**
+     * @return the number of the database version currently in use, starting at 1 and increased by every reload.
+     */
+    public long getGeneration() {
+        return current.get().number;
+    }
+
+    /**
+     * @return the build date of the database currently in use.
+     */
+    public Date getBuildDate() {
+        return current.get().reader.getMetadata().getBuildDate();
+    }
+
+    /**
+     * @return the build date of the database currently in use, in epoch seconds, which tells the versions of the
+     * database apart.
+     */
+    public long getBuildEpoch() {
+        return TimeUnit.MILLISECONDS.toSeconds(getBuildDate().getTime());
+    }
+
+    /**
+     * @return the type of the database currently in use.
+     */
+    public String getDatabaseType() {
+        return current.get().reader.getMetadata().getDatabaseType();
+    }
+
+    /**
+     * Closes the current {@link Reader} once the lookups running on it are done. No lookup can be started
+     * afterwards.
+     */
+    @Override
+    public void close() {
+        current.get().release();
+    }
+
+    private Generation open(long number) throws IOException {
+        final CaffeineNodeCache.Generation generationNodeCache = nodeCache.newGeneration();
+        return new Generation(number, geoIP2DatabaseLoader.openReader(generationNodeCache), generationNodeCache);
+    }
+
+    private Generation acquire() throws IOException {
+        while (true) {
+            final Generation generation = current.get();
+            if (generation.tryAcquire()) {
+                return generation;
+            }
+
+            // the new generation is always set before the previous one is released, so failing to acquire the
+            // current generation means the whole reader is closed
+            if (current.get() == generation) {
+                throw new IOException("the GeoIP2 database is closed");
+            }
+        }
+    }
+
+    /**
+     * Lookup run against a {@link Reader}.
+     *
+     * @param <T> the type of the lookup result.
+     */
+    @FunctionalInterface
+    public interface Lookup<T> {
+        T apply(Reader reader) throws IOException;
+    }
+
+    /**
+     * Listener of the database reloads, for anything derived from the database that has to be rebuilt along with it.
+     */
+    @FunctionalInterface
+    public interface ReloadListener {
+
+        /**
+         * Builds whatever is derived from the reloaded database. It's called in the reloading thread, before the swap,
+         * while the lookups keep running on the current database.
+         *
+         * @param reader the {@link Reader} of the reloaded database.
+         *
+         * @return the action that publishes what was built, run right after the swap.
+         *
+         * @throws IOException in case the reloaded database cannot be read, which aborts the reload.
+         */
+        Runnable prepare(Reader reader) throws IOException;
+    }
+
+    /**
+     * A version of the database, with the number of references to it: one held by the {@link ReloadableDatabaseReader}
+     * while it's the current version, and one for each lookup running on it. It's closed when the count reaches zero.
+     */
+    private static final class Generation {
+        private final long number;
+        private final Reader reader;
+        private final CaffeineNodeCache.Generation nodeCache;
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        private Generation(long number, Reader reader, CaffeineNodeCache.Generation nodeCache) {
+            this.number = number;
+            this.reader = reader;
+            this.nodeCache = nodeCache;
+        }
+
+        private boolean tryAcquire() {
+            int count;
+            do {
+                count = references.get();
+                if (count == 0) {
+                    return false;
+                }
+            } while (!references.compareAndSet(count, count + 1));
+
+            return true;
+        }
+
+        private void release() {
+            if (references.decrementAndGet() == 0) {
+                try {
+                    reader.close();
+                    log.info("closed GeoIP2 database generation {}", number);
+                } catch (IOException e) {
+                    log.error("unable to close GeoIP2 database generation " + number, e);
+                } finally {
+                    nodeCache.invalidate();
+                }
+            }
+        }
+    }
+}
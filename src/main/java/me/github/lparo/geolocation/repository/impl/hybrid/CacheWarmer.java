@@ -0,0 +1,276 @@
+package me.github.lparo.geolocation.repository.impl.hybrid;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.exception.InvalidIpException;
+import me.github.lparo.geolocation.repository.IpCityLocationRepository;
+import me.github.lparo.geolocation.repository.IpCountryLocationRepository;
+import me.github.lparo.geolocation.repository.IpLocationRepository;
+import me.github.lparo.geolocation.repository.impl.redis.RedisCacheWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Class responsible for warming the caches up at startup, so a fresh instance (or one whose Redis was just restarted)
+ * doesn't send all of its traffic to GeoIP2 until the caches fill up. The IPs are read from the
+ * {@code CACHE_WARMUP_FILE}, e.g. an access trace or an exported list of hot IPs: each line is either a JSON object
+ * with an {@code ip} field (as in a JSON lines trace), or starts with the IP followed by whitespace or a comma (as in
+ * an access log or a CSV file), blank lines and lines starting with {@code #} being skipped. Up to
+ * {@code CACHE_WARMUP_MAX_IPS} distinct IPs are looked up through the hybrid repositories of the
+ * {@code CACHE_WARMUP_TYPES}, by {@code CACHE_WARMUP_PARALLELISM} threads, which fills the near caches and queues the
+ * locations missing from Redis onto the {@link RedisCacheWriter}. The IPs go in batches of
+ * {@code CACHE_WARMUP_BATCH_SIZE}, each batch waiting for the write queue to be drained before the next one, so the
+ * warm-up never overflows the queue. It runs as an {@link ApplicationRunner}, before the application is reported as
+ * ready to take traffic, and gives up after {@code CACHE_WARMUP_TIME_BUDGET}, the IPs not reached being left to the
+ * requests. The warmed and failed IPs are published as the {@code cache.warmup.ips} metric. It's enabled when the
+ * {@code CACHE_WARMUP_FILE} property is set.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "CACHE_WARMUP_FILE")
+public class CacheWarmer implements ApplicationRunner, MeterBinder {
+    private final Map<String, Function<IpAddress, Optional<?>>> lookups = new LinkedHashMap<>();
+    private final RedisCacheWriter redisCacheWriter;
+    private final ObjectMapper objectMapper;
+    private final String file;
+    private final Duration timeBudget;
+    private final int parallelism;
+    private final int batchSize;
+    private final int maxIps;
+
+    private final LongAdder warmed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @Autowired
+    public CacheWarmer(IpCityLocationRepository ipCityLocationRepository,
+                       IpCountryLocationRepository ipCountryLocationRepository,
+                       IpLocationRepository ipLocationRepository,
+                       RedisCacheWriter redisCacheWriter,
+                       ObjectMapper objectMapper,
+                       @Value("${CACHE_WARMUP_FILE}") String file,
+                       @Value("${CACHE_WARMUP_TYPES:city,country,location}") List<String> types,
+                       @Value("${CACHE_WARMUP_TIME_BUDGET:30s}") Duration timeBudget,
+                       @Value("${CACHE_WARMUP_PARALLELISM:8}") int parallelism,
+                       @Value("${CACHE_WARMUP_BATCH_SIZE:1000}") int batchSize,
+                       @Value("${CACHE_WARMUP_MAX_IPS:100000}") int maxIps) {
+        for (String type : types) {
+            switch (type.trim()) {
+                case "city":
+                    lookups.put("city", ipCityLocationRepository::getCityLocationForIp);
+                    break;
+                case "country":
+                    lookups.put("country", ipCountryLocationRepository::getCountryLocationForIp);
+                    break;
+                case "location":
+                    lookups.put("location", ipLocationRepository::getLocationForIp);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown cache warm-up type: " + type);
+            }
+        }
+
+        this.redisCacheWriter = redisCacheWriter;
+        this.objectMapper = objectMapper;
+        this.file = file;
+        this.timeBudget = timeBudget;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+        this.maxIps = maxIps;
+    }
+
+    /**
+     * Warms the caches up before the application is reported as ready.
+     *
+     * @param args the application arguments, unused.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        warmUp();
+    }
+
+    /**
+     * Looks up the IPs of the {@code CACHE_WARMUP_FILE} within the {@code CACHE_WARMUP_TIME_BUDGET}, waiting for their
+     * locations to be written into Redis.
+     *
+     * @return the number of IPs warmed up.
+     */
+    public long warmUp() {
+        final long start = System.nanoTime();
+        final long deadline = start + timeBudget.toNanos();
+
+        final List<IpAddress> ips;
+        try {
+            ips = readIps();
+        } catch (IOException e) {
+            log.warn("unable to read the cache warm-up file {}, skipping the warm-up: {}", file, e.getMessage());
+            return 0;
+        }
+
+        final long warmedBefore = warmed.sum();
+        final long failedBefore = failed.sum();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism, new WarmerThreadFactory());
+        try {
+            for (int from = 0; from < ips.size() && remaining(deadline) > 0; from += batchSize) {
+                final List<IpAddress> batch = ips.subList(from, Math.min(from + batchSize, ips.size()));
+                if (!warmUp(executor, batch, deadline)
+                        || !redisCacheWriter.awaitDrained(Duration.ofNanos(Math.max(remaining(deadline), 0)))) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final long warmedNow = warmed.sum() - warmedBefore;
+        log.info("warmed the caches up with {} of {} IPs ({} failed) in {} ms", warmedNow, ips.size(),
+                failed.sum() - failedBefore, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        return warmedNow;
+    }
+
+    /**
+     * Publishes the warmed and failed IPs into the given {@link MeterRegistry}.
+     *
+     * @param registry the {@link MeterRegistry} the metrics are published to.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.warmup.ips", warmed, LongAdder::sum)
+                       .tag("result", "warmed")
+                       .description("The number of IPs looked up by the cache warm-up.")
+                       .register(registry);
+        FunctionCounter.builder("cache.warmup.ips", failed, LongAdder::sum)
+                       .tag("result", "failed")
+                       .description("The number of IPs the cache warm-up failed to look up.")
+                       .register(registry);
+    }
+
+    /**
+     * Looks up a batch of IPs in parallel.
+     *
+     * @return whether the whole batch was looked up before the deadline.
+     */
+    private boolean warmUp(ExecutorService executor, List<IpAddress> batch, long deadline) throws InterruptedException {
+        final List<Callable<Void>> tasks = new ArrayList<>(batch.size());
+        for (IpAddress ip : batch) {
+            tasks.add(() -> {
+                warmUp(ip, deadline);
+                return null;
+            });
+        }
+
+        for (Future<Void> future : executor.invokeAll(tasks, Math.max(remaining(deadline), 0), TimeUnit.NANOSECONDS)) {
+            if (future.isCancelled()) {
+                return false;
+            }
+        }
+
+        return remaining(deadline) > 0;
+    }
+
+    private void warmUp(IpAddress ip, long deadline) {
+        if (remaining(deadline) <= 0) {
+            return;
+        }
+
+        try {
+            for (Function<IpAddress, Optional<?>> lookup : lookups.values()) {
+                lookup.apply(ip);
+            }
+            warmed.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.debug("unable to warm the caches up with {}: {}", ip, e.getMessage());
+        }
+    }
+
+    private List<IpAddress> readIps() throws IOException {
+        final Set<IpAddress> ips = new LinkedHashSet<>();
+        long invalid = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+            String line;
+            while (ips.size() < maxIps && (line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                final IpAddress ip = toIp(line);
+                if (ip != null) {
+                    ips.add(ip);
+                } else {
+                    invalid++;
+                }
+            }
+        }
+
+        if (invalid > 0) {
+            log.info("skipped {} lines of the cache warm-up file {} without a valid IP", invalid, file);
+        }
+
+        return new ArrayList<>(ips);
+    }
+
+    private IpAddress toIp(String line) {
+        try {
+            final String ip = line.startsWith("{")
+                    ? objectMapper.readTree(line).path("ip").asText("")
+                    : line.split("[\\s,]", 2)[0];
+
+            return ip.isEmpty() ? null : IpAddress.parse(ip);
+        } catch (JsonProcessingException | InvalidIpException e) {
+            return null;
+        }
+    }
+
+    private static long remaining(long deadline) {
+        return deadline - System.nanoTime();
+    }
+
+    private static class WarmerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, "cache-warmer-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -1,43 +1,132 @@
 package me.github.lparo.geolocation.repository.impl.hybrid;
 
-import lombok.AllArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import me.github.lparo.geolocation.domain.IpAddress;
 import me.github.lparo.geolocation.domain.IpCityLocation;
 import me.github.lparo.geolocation.repository.IpCityLocationRepository;
-import me.github.lparo.geolocation.repository.impl.geoip2.GeoIP2IpCityLocationRepository;
+import me.github.lparo.geolocation.repository.impl.redis.CacheLookup;
 import me.github.lparo.geolocation.repository.impl.redis.RedisIpCityLocationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.Optional;
 
 /**
  * Implementing class of {@link IpCityLocationRepository} responsible for fetching the {@link IpCityLocation} information
- * from Redis cache, or the GeoIP2 repository if it's missing there.
+ * from an in-process near cache, then the Redis cache, or the GeoIP2 repository if it's missing there. The GeoIP2
+ * repository is whichever lookup engine is selected through the {@code GEOIP2_LOOKUP_ENGINE} property.
  */
 @Primary
 @Repository
-@AllArgsConstructor
-public class HybridIpCityLocationRepository implements IpCityLocationRepository {
-    private final GeoIP2IpCityLocationRepository geoIP2IpCityLocationRepository;
+public class HybridIpCityLocationRepository implements IpCityLocationRepository, MeterBinder {
+    private final IpCityLocationRepository geoIP2IpCityLocationRepository;
     private final RedisIpCityLocationRepository redisIpCityLocationRepository;
+    private final NearCache<IpCityLocation> nearCache;
+    private final RedisBypass redisBypass;
+    private final SingleFlight<IpCityLocation> singleFlight = new SingleFlight<>("city");
+
+    @Autowired
+    public HybridIpCityLocationRepository(@Qualifier("databaseIpCityLocationRepository") IpCityLocationRepository geoIP2IpCityLocationRepository,
+                                          RedisIpCityLocationRepository redisIpCityLocationRepository,
+                                          NearCache<IpCityLocation> nearCache,
+                                          RedisBypass redisBypass) {
+        this.geoIP2IpCityLocationRepository = geoIP2IpCityLocationRepository;
+        this.redisIpCityLocationRepository = redisIpCityLocationRepository;
+        this.nearCache = nearCache;
+        this.redisBypass = redisBypass;
+    }
 
     /**
-     * Tries to fetch the {@link IpCityLocation} from the Redis cache and return it wrapped in an {@link Optional}. It
-     * uses the IP address as a locator for the cached information. If the location for the IP is missing from the cache,
-     * then it's gonna try to retrieve it from the GeoIP2 repository, and if it is in there, it's then added to the cache
-     * for posterior calls. In case the location is absent on both Redis and GeoIP2 repositories, then an {@link Optional#empty()}
-     * is returned instead.
+     * Tries to fetch the {@link IpCityLocation} from the in-process {@link NearCache}, and then from the Redis cache,
+     * and return it wrapped in an {@link Optional}. It uses the IP address as a locator for the cached information. If
+     * the location for the IP is missing from both caches, then it's gonna try to retrieve it from the GeoIP2
+     * repository, and if it is in there, it's then queued to be added to the Redis cache in the background for
+     * posterior calls (check {@link me.github.lparo.geolocation.repository.impl.redis.RedisCacheWriter}), so the
+     * request doesn't wait for Redis. A location found in Redis or GeoIP2 is kept in the near cache as well. Concurrent
+     * misses of the same IP address are coalesced into a single lookup, whose result is shared (check
+     * {@link SingleFlight}). In case the location is absent on both Redis and GeoIP2 repositories, then that's cached
+     * in both caches as well (as a tombstone expiring after the {@code NEGATIVE_CACHE_TTL}), so the next lookups of the
+     * IP address return straight away, and an {@link Optional#empty()} is returned instead. While Redis is failing or
+     * slow, the lookups skip it and resolve the location from GeoIP2 alone (check {@link RedisBypass}).
      *
      * @param ip the IP address to have the {@link IpCityLocation} information fetched.
      *
      * @return the found {@link IpCityLocation} wrapped in an {@link Optional}, or {@link Optional#empty()} if not found.
      */
     @Override
-    public Optional<IpCityLocation> getCityLocationForIp(String ip) {
-        return redisIpCityLocationRepository.getCityLocationForIp(ip)
-                .or(() ->
-                        geoIP2IpCityLocationRepository.getCityLocationForIp(ip)
-                                .map(ipCityLocation -> redisIpCityLocationRepository.addToCache(ip, ipCityLocation))
-                );
+    public Optional<IpCityLocation> getCityLocationForIp(IpAddress ip) {
+        final CacheLookup<IpCityLocation> cached = nearCache.get(ip);
+        if (cached.isHit()) {
+            return cached.getLocation();
+        }
+
+        return singleFlight.load(ip, () -> nearCache.put(ip, lookUpCityLocationForIp(ip)));
+    }
+
+    /**
+     * Tries to fetch the {@link IpCityLocation} the same way as {@link #getCityLocationForIp(IpAddress)}, without
+     * blocking the calling thread on Redis: the Redis cache is read through its reactive client, so the concurrent
+     * lookups are multiplexed over a few connections instead of each holding a thread while waiting for Redis. The
+     * misses are resolved from the GeoIP2 repository on the {@link Schedulers#parallel()} scheduler, keeping the GeoIP2
+     * lookups off the threads of the Redis client.
+     *
+     * @param ip the IP address to have the {@link IpCityLocation} information fetched.
+     *
+     * @return a {@link Mono} emitting the found {@link IpCityLocation} wrapped in an {@link Optional}, or
+     * {@link Optional#empty()} if not found.
+     */
+    @Override
+    public Mono<Optional<IpCityLocation>> getCityLocationForIpAsync(IpAddress ip) {
+        final CacheLookup<IpCityLocation> cached = nearCache.get(ip);
+        if (cached.isHit()) {
+            return Mono.just(cached.getLocation());
+        }
+
+        return singleFlight.loadAsync(ip, () -> lookUpCityLocationForIpAsync(ip)
+                .map(location -> nearCache.put(ip, location)));
+    }
+
+    private Optional<IpCityLocation> lookUpCityLocationForIp(IpAddress ip) {
+        final CacheLookup<IpCityLocation> cached = redisBypass.call(
+                () -> redisIpCityLocationRepository.findCachedCityLocationForIp(ip),
+                CacheLookup.miss()
+        );
+        if (cached.isHit()) {
+            return cached.getLocation();
+        }
+
+        return lookUpCityLocationInDatabase(ip);
+    }
+
+    private Mono<Optional<IpCityLocation>> lookUpCityLocationForIpAsync(IpAddress ip) {
+        return redisBypass.call(redisIpCityLocationRepository.findCachedCityLocationForIpAsync(ip), Mono.empty())
+                          .publishOn(Schedulers.parallel())
+                          .switchIfEmpty(Mono.fromSupplier(() -> lookUpCityLocationInDatabase(ip)));
+    }
+
+    private Optional<IpCityLocation> lookUpCityLocationInDatabase(IpAddress ip) {
+        final Optional<IpCityLocation> ipCityLocation = geoIP2IpCityLocationRepository.getCityLocationForIp(ip);
+        if (ipCityLocation.isPresent()) {
+            redisIpCityLocationRepository.addToCacheAsync(ip, ipCityLocation.get());
+        } else {
+            redisIpCityLocationRepository.addNotFoundToCacheAsync(ip);
+        }
+
+        return ipCityLocation;
+    }
+
+    /**
+     * Publishes the number of coalesced lookups into the given {@link MeterRegistry}.
+     *
+     * @param registry the {@link MeterRegistry} the metrics are published to.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        singleFlight.bindTo(registry);
     }
 }
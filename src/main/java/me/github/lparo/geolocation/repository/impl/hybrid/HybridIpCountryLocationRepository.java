@@ -1,43 +1,121 @@
 package me.github.lparo.geolocation.repository.impl.hybrid;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.AllArgsConstructor;
+import me.github.lparo.geolocation.domain.IpAddress;
 import me.github.lparo.geolocation.domain.IpCountryLocation;
 import me.github.lparo.geolocation.repository.IpCountryLocationRepository;
 import me.github.lparo.geolocation.repository.impl.geoip2.GeoIP2IpCountryLocationRepository;
+import me.github.lparo.geolocation.repository.impl.redis.CacheLookup;
 import me.github.lparo.geolocation.repository.impl.redis.RedisIpCountryLocationRepository;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.Optional;
 
 /**
  * Implementing class of {@link IpCountryLocationRepository} responsible for fetching the {@link IpCountryLocation} information
- * from Redis cache, or the GeoIP2 repository if it's missing there.
+ * from an in-process near cache, then the Redis cache, or the GeoIP2 repository if it's missing there.
  */
 @Primary
 @Repository
 @AllArgsConstructor
-public class HybridIpCountryLocationRepository implements IpCountryLocationRepository {
+public class HybridIpCountryLocationRepository implements IpCountryLocationRepository, MeterBinder {
     private final GeoIP2IpCountryLocationRepository geoIP2IpCountryLocationRepository;
     private final RedisIpCountryLocationRepository redisIpCountryLocationRepository;
+    private final NearCache<IpCountryLocation> nearCache;
+    private final RedisBypass redisBypass;
+    private final SingleFlight<IpCountryLocation> singleFlight = new SingleFlight<>("country");
 
     /**
-     * Tries to fetch the {@link IpCountryLocation} from the Redis cache and return it wrapped in an {@link Optional}. It
-     * uses the IP address as a locator for the cached information. If the location for the IP is missing from the cache,
-     * then it's gonna try to retrieve it from the GeoIP2 repository, and if it is in there, it's then added to the cache
-     * for posterior calls. In case the location is absent on both Redis and GeoIP2 repositories, then an {@link Optional#empty()}
-     * is returned instead.
+     * Tries to fetch the {@link IpCountryLocation} from the in-process {@link NearCache}, and then from the Redis
+     * cache, and return it wrapped in an {@link Optional}. It uses the IP address as a locator for the cached
+     * information. If the location for the IP is missing from both caches, then it's gonna try to retrieve it from the
+     * GeoIP2 repository, and if it is in there, it's then queued to be added to the Redis cache in the background for
+     * posterior calls (check {@link me.github.lparo.geolocation.repository.impl.redis.RedisCacheWriter}), so the
+     * request doesn't wait for Redis. A location found in Redis or GeoIP2 is kept in the near cache as well. Concurrent
+     * misses of the same IP address are coalesced into a single lookup, whose result is shared (check
+     * {@link SingleFlight}). In case the location is absent on both Redis and GeoIP2 repositories, then that's cached
+     * in both caches as well (as a tombstone expiring after the {@code NEGATIVE_CACHE_TTL}), so the next lookups of the
+     * IP address return straight away, and an {@link Optional#empty()} is returned instead. While Redis is failing or
+     * slow, the lookups skip it and resolve the location from GeoIP2 alone (check {@link RedisBypass}).
      *
      * @param ip the IP address to have the {@link IpCountryLocation} information fetched.
      *
      * @return the found {@link IpCountryLocation} wrapped in an {@link Optional}, or {@link Optional#empty()} if not found.
      */
     @Override
-    public Optional<IpCountryLocation> getCountryLocationForIp(String ip) {
-        return redisIpCountryLocationRepository.getCountryLocationForIp(ip)
-                .or(() ->
-                        geoIP2IpCountryLocationRepository.getCountryLocationForIp(ip)
-                                .map(ipCountryLocation -> redisIpCountryLocationRepository.addToCache(ip, ipCountryLocation))
-                );
+    public Optional<IpCountryLocation> getCountryLocationForIp(IpAddress ip) {
+        final CacheLookup<IpCountryLocation> cached = nearCache.get(ip);
+        if (cached.isHit()) {
+            return cached.getLocation();
+        }
+
+        return singleFlight.load(ip, () -> nearCache.put(ip, lookUpCountryLocationForIp(ip)));
+    }
+
+    /**
+     * Tries to fetch the {@link IpCountryLocation} the same way as {@link #getCountryLocationForIp(IpAddress)}, without
+     * blocking the calling thread on Redis: the Redis cache is read through its reactive client, so the concurrent
+     * lookups are multiplexed over a few connections instead of each holding a thread while waiting for Redis. The
+     * misses are resolved from the GeoIP2 repository on the {@link Schedulers#parallel()} scheduler, keeping the GeoIP2
+     * lookups off the threads of the Redis client.
+     *
+     * @param ip the IP address to have the {@link IpCountryLocation} information fetched.
+     *
+     * @return a {@link Mono} emitting the found {@link IpCountryLocation} wrapped in an {@link Optional}, or
+     * {@link Optional#empty()} if not found.
+     */
+    @Override
+    public Mono<Optional<IpCountryLocation>> getCountryLocationForIpAsync(IpAddress ip) {
+        final CacheLookup<IpCountryLocation> cached = nearCache.get(ip);
+        if (cached.isHit()) {
+            return Mono.just(cached.getLocation());
+        }
+
+        return singleFlight.loadAsync(ip, () -> lookUpCountryLocationForIpAsync(ip)
+                .map(location -> nearCache.put(ip, location)));
+    }
+
+    private Optional<IpCountryLocation> lookUpCountryLocationForIp(IpAddress ip) {
+        final CacheLookup<IpCountryLocation> cached = redisBypass.call(
+                () -> redisIpCountryLocationRepository.findCachedCountryLocationForIp(ip),
+                CacheLookup.miss()
+        );
+        if (cached.isHit()) {
+            return cached.getLocation();
+        }
+
+        return lookUpCountryLocationInDatabase(ip);
+    }
+
+    private Mono<Optional<IpCountryLocation>> lookUpCountryLocationForIpAsync(IpAddress ip) {
+        return redisBypass.call(redisIpCountryLocationRepository.findCachedCountryLocationForIpAsync(ip), Mono.empty())
+                          .publishOn(Schedulers.parallel())
+                          .switchIfEmpty(Mono.fromSupplier(() -> lookUpCountryLocationInDatabase(ip)));
+    }
+
+    private Optional<IpCountryLocation> lookUpCountryLocationInDatabase(IpAddress ip) {
+        final Optional<IpCountryLocation> ipCountryLocation = geoIP2IpCountryLocationRepository.getCountryLocationForIp(ip);
+        if (ipCountryLocation.isPresent()) {
+            redisIpCountryLocationRepository.addToCacheAsync(ip, ipCountryLocation.get());
+        } else {
+            redisIpCountryLocationRepository.addNotFoundToCacheAsync(ip);
+        }
+
+        return ipCountryLocation;
+    }
+
+    /**
+     * Publishes the number of coalesced lookups into the given {@link MeterRegistry}.
+     *
+     * @param registry the {@link MeterRegistry} the metrics are published to.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        singleFlight.bindTo(registry);
     }
 }
@@ -0,0 +1,121 @@
+package me.github.lparo.geolocation.repository.impl.hybrid;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AllArgsConstructor;
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.domain.IpLocation;
+import me.github.lparo.geolocation.repository.IpLocationRepository;
+import me.github.lparo.geolocation.repository.impl.geoip2.GeoIP2IpLocationRepository;
+import me.github.lparo.geolocation.repository.impl.redis.CacheLookup;
+import me.github.lparo.geolocation.repository.impl.redis.RedisIpLocationRepository;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
+
+/**
+ * Implementing class of {@link IpLocationRepository} responsible for fetching the {@link IpLocation} information
+ * from an in-process near cache, then the Redis cache, or the GeoIP2 repository if it's missing there.
+ */
+@Primary
+@Repository
+@AllArgsConstructor
+public class HybridIpLocationRepository implements IpLocationRepository, MeterBinder {
+    private final GeoIP2IpLocationRepository geoIP2IpLocationRepository;
+    private final RedisIpLocationRepository redisIpLocationRepository;
+    private final NearCache<IpLocation> nearCache;
+    private final RedisBypass redisBypass;
+    private final SingleFlight<IpLocation> singleFlight = new SingleFlight<>("location");
+
+    /**
+     * Tries to fetch the {@link IpLocation} from the in-process {@link NearCache}, and then from the Redis cache, and
+     * return it wrapped in an {@link Optional}. It uses the IP address as a locator for the cached information. If the
+     * location for the IP is missing from both caches, then it's gonna try to retrieve it from the GeoIP2 repository,
+     * and if it is in there, it's then queued to be added to the Redis cache in the background for posterior calls
+     * (check {@link me.github.lparo.geolocation.repository.impl.redis.RedisCacheWriter}), so the request doesn't wait
+     * for Redis. A location found in Redis or GeoIP2 is kept in the near cache as well. Concurrent misses of the same
+     * IP address are coalesced into a single lookup, whose result is shared (check {@link SingleFlight}). In case the
+     * location is absent on both Redis and GeoIP2 repositories, then that's cached in both caches as well (as a
+     * tombstone expiring after the {@code NEGATIVE_CACHE_TTL}), so the next lookups of the IP address return straight
+     * away, and an {@link Optional#empty()} is returned instead. While Redis is failing or slow, the lookups skip it
+     * and resolve the location from GeoIP2 alone (check {@link RedisBypass}).
+     *
+     * @param ip the IP address to have the {@link IpLocation} information fetched.
+     *
+     * @return the found {@link IpLocation} wrapped in an {@link Optional}, or {@link Optional#empty()} if not found.
+     */
+    @Override
+    public Optional<IpLocation> getLocationForIp(IpAddress ip) {
+        final CacheLookup<IpLocation> cached = nearCache.get(ip);
+        if (cached.isHit()) {
+            return cached.getLocation();
+        }
+
+        return singleFlight.load(ip, () -> nearCache.put(ip, lookUpLocationForIp(ip)));
+    }
+
+    /**
+     * Tries to fetch the {@link IpLocation} the same way as {@link #getLocationForIp(IpAddress)}, without blocking the
+     * calling thread on Redis: the Redis cache is read through its reactive client, so the concurrent lookups are
+     * multiplexed over a few connections instead of each holding a thread while waiting for Redis. The misses are
+     * resolved from the GeoIP2 repository on the {@link Schedulers#parallel()} scheduler, keeping the GeoIP2 lookups
+     * off the threads of the Redis client.
+     *
+     * @param ip the IP address to have the {@link IpLocation} information fetched.
+     *
+     * @return a {@link Mono} emitting the found {@link IpLocation} wrapped in an {@link Optional}, or
+     * {@link Optional#empty()} if not found.
+     */
+    @Override
+    public Mono<Optional<IpLocation>> getLocationForIpAsync(IpAddress ip) {
+        final CacheLookup<IpLocation> cached = nearCache.get(ip);
+        if (cached.isHit()) {
+            return Mono.just(cached.getLocation());
+        }
+
+        return singleFlight.loadAsync(ip, () -> lookUpLocationForIpAsync(ip)
+                .map(location -> nearCache.put(ip, location)));
+    }
+
+    private Optional<IpLocation> lookUpLocationForIp(IpAddress ip) {
+        final CacheLookup<IpLocation> cached = redisBypass.call(
+                () -> redisIpLocationRepository.findCachedLocationForIp(ip),
+                CacheLookup.miss()
+        );
+        if (cached.isHit()) {
+            return cached.getLocation();
+        }
+
+        return lookUpLocationInDatabase(ip);
+    }
+
+    private Mono<Optional<IpLocation>> lookUpLocationForIpAsync(IpAddress ip) {
+        return redisBypass.call(redisIpLocationRepository.findCachedLocationForIpAsync(ip), Mono.empty())
+                          .publishOn(Schedulers.parallel())
+                          .switchIfEmpty(Mono.fromSupplier(() -> lookUpLocationInDatabase(ip)));
+    }
+
+    private Optional<IpLocation> lookUpLocationInDatabase(IpAddress ip) {
+        final Optional<IpLocation> ipLocation = geoIP2IpLocationRepository.getLocationForIp(ip);
+        if (ipLocation.isPresent()) {
+            redisIpLocationRepository.addToCacheAsync(ip, ipLocation.get());
+        } else {
+            redisIpLocationRepository.addNotFoundToCacheAsync(ip);
+        }
+
+        return ipLocation;
+    }
+
+    /**
+     * Publishes the number of coalesced lookups into the given {@link MeterRegistry}.
+     *
+     * @param registry the {@link MeterRegistry} the metrics are published to.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        singleFlight.bindTo(registry);
+    }
+}
@@ -0,0 +1,119 @@
+package me.github.lparo.geolocation.repository.impl.hybrid;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.repository.impl.redis.CacheLookup;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Class that keeps the locations most recently resolved by this instance in a bounded in-process cache, the first tier
+ * in front of Redis, so hot IP addresses are answered without a network round trip. The cache is a Caffeine cache,
+ * whose W-TinyLFU eviction policy keeps the most frequently requested IP addresses rather than just the most recent
+ * ones, and its entries expire a while after being written, so they don't outlive the Redis entries by much. IP
+ * addresses that resolve to no location are cached as well, as an {@link Optional#empty()} with its own expiry, so
+ * repeated lookups of reserved or unallocated IP addresses don't go further. Its hit ratio, size and evictions are
+ * published as the {@code near.<type>} cache metrics.
+ *
+ * @param <V> the type of the cached locations.
+ */
+public class NearCache<V> implements MeterBinder {
+    private final String name;
+    private final Cache<IpAddress, Optional<V>> cache;
+
+    /**
+     * @param name the name of the cache in the metrics.
+     * @param maximumSize the maximum number of locations kept in the cache.
+     * @param expireAfterWrite how long a location is kept in the cache after being written.
+     * @param notFoundExpireAfterWrite how long an IP address that resolves to no location is kept in the cache.
+     */
+    public NearCache(String name, long maximumSize, Duration expireAfterWrite, Duration notFoundExpireAfterWrite) {
+        this.name = name;
+        this.cache = Caffeine.newBuilder()
+                             .maximumSize(maximumSize)
+                             .expireAfter(new ExpireAfterWrite<V>(expireAfterWrite, notFoundExpireAfterWrite))
+                             .executor(Runnable::run)
+                             .recordStats()
+                             .build();
+    }
+
+    /**
+     * @param ip the IP address.
+     *
+     * @return a {@link CacheLookup} hit with the cached location of the IP address, or a miss if it's not cached.
+     */
+    public CacheLookup<V> get(IpAddress ip) {
+        final Optional<V> location = cache.getIfPresent(ip);
+        return location != null ? CacheLookup.hit(location) : CacheLookup.miss();
+    }
+
+    /**
+     * Caches the location of the IP address, or that it resolves to no location if it's an {@link Optional#empty()}.
+     *
+     * @param ip the IP address.
+     * @param location the location of the IP address wrapped in an {@link Optional}.
+     *
+     * @return the cached location.
+     */
+    public Optional<V> put(IpAddress ip, Optional<V> location) {
+        cache.put(ip, location);
+        return location;
+    }
+
+    /**
+     * Drops the cached location of the IP address, if any.
+     *
+     * @param ip the IP address.
+     */
+    public void invalidate(IpAddress ip) {
+        cache.invalidate(ip);
+    }
+
+    /**
+     * Drops every cached location.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Publishes the cache metrics into the given {@link MeterRegistry}.
+     *
+     * @param registry the {@link MeterRegistry} the metrics are published to.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+    }
+
+    private static final class ExpireAfterWrite<V> implements Expiry<IpAddress, Optional<V>> {
+        private final long expireAfterWriteNanos;
+        private final long notFoundExpireAfterWriteNanos;
+
+        private ExpireAfterWrite(Duration expireAfterWrite, Duration notFoundExpireAfterWrite) {
+            this.expireAfterWriteNanos = expireAfterWrite.toNanos();
+            this.notFoundExpireAfterWriteNanos = notFoundExpireAfterWrite.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(IpAddress ip, Optional<V> location, long currentTime) {
+            return location.isPresent() ? expireAfterWriteNanos : notFoundExpireAfterWriteNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(IpAddress ip, Optional<V> location, long currentTime, long currentDuration) {
+            return expireAfterCreate(ip, location, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(IpAddress ip, Optional<V> location, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
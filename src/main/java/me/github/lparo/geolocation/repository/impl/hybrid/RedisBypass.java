@@ -0,0 +1,261 @@
+package me.github.lparo.geolocation.repository.impl.hybrid;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import me.github.lparo.geolocation.repository.impl.redis.RedisShards;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Class responsible for taking Redis out of the lookups while it's misbehaving. The outcome of the last
+ * {@code REDIS_BYPASS_WINDOW_SIZE} Redis calls is tracked, and a call is bad when it fails or takes longer than
+ * {@code REDIS_BYPASS_SLOW_CALL_THRESHOLD}. Once the rate of bad calls in a full window reaches
+ * {@code REDIS_BYPASS_FAILURE_RATE}, the bypass trips: the calls are skipped and their fallback returned right away, so
+ * the locations are served from GeoIP2 alone instead of failing or waiting for Redis. Meanwhile, a background thread
+ * pings every Redis node every {@code REDIS_BYPASS_PROBE_INTERVAL}, and the bypass is reset as soon as they all answer
+ * in time. The state of the bypass and the outcome of the calls are published as the {@code redis.bypass.active},
+ * {@code redis.bypass.trips} and {@code redis.calls} metrics.
+ */
+@Slf4j
+@Component
+public class RedisBypass implements MeterBinder {
+    private static final int GOOD = 0;
+    private static final int BAD = 1;
+
+    private final RedisShards redisShards;
+    private final int windowSize;
+    private final int maxBadCalls;
+    private final long slowCallThresholdNanos;
+    private final Duration probeInterval;
+
+    private final AtomicIntegerArray outcomes;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicInteger badCalls = new AtomicInteger();
+    private final AtomicBoolean active = new AtomicBoolean();
+
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder slow = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+    private final LongAdder trips = new LongAdder();
+
+    private Thread thread;
+
+    @Autowired
+    public RedisBypass(RedisShards redisShards,
+                       @Value("${REDIS_BYPASS_WINDOW_SIZE:100}") int windowSize,
+                       @Value("${REDIS_BYPASS_FAILURE_RATE:0.5}") double failureRate,
+                       @Value("${REDIS_BYPASS_SLOW_CALL_THRESHOLD:50ms}") Duration slowCallThreshold,
+                       @Value("${REDIS_BYPASS_PROBE_INTERVAL:1s}") Duration probeInterval) {
+        if (windowSize < 1 || failureRate <= 0 || failureRate > 1) {
+            throw new IllegalArgumentException("invalid Redis bypass window: " + windowSize + ", " + failureRate);
+        }
+
+        this.redisShards = redisShards;
+        this.windowSize = windowSize;
+        this.maxBadCalls = Math.max(1, (int) Math.ceil(windowSize * failureRate));
+        this.slowCallThresholdNanos = slowCallThreshold.toNanos();
+        this.probeInterval = probeInterval;
+        this.outcomes = new AtomicIntegerArray(windowSize);
+    }
+
+    /**
+     * Starts probing Redis in a background thread while the bypass is active.
+     */
+    @PostConstruct
+    public void start() {
+        thread = new Thread(this::probeWhileActive, "redis-bypass-probe");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops probing Redis.
+     */
+    @PreDestroy
+    public void stop() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Calls Redis, unless the bypass is active. The call is timed, and its failures are swallowed, both counting
+     * towards tripping the bypass.
+     *
+     * @param call the Redis call.
+     * @param fallback the value returned when the call is bypassed or fails.
+     * @param <T> the type of the value returned by the call.
+     *
+     * @return the value returned by the call, or the fallback.
+     */
+    public <T> T call(Supplier<T> call, T fallback) {
+        if (active.get()) {
+            bypassed.increment();
+            return fallback;
+        }
+
+        final long start = System.nanoTime();
+        try {
+            final T value = call.get();
+            recordSucceeded(start);
+
+            return value;
+        } catch (RuntimeException e) {
+            recordFailed(e);
+            return fallback;
+        }
+    }
+
+    /**
+     * Calls Redis without blocking the calling thread, unless the bypass is active, the same way as
+     * {@link #call(Supplier, Object)}. The call is made when the returned {@link Mono} is subscribed.
+     *
+     * @param call the non-blocking Redis call.
+     * @param fallback the {@link Mono} switched to when the call is bypassed or fails.
+     * @param <T> the type of the value emitted by the call.
+     *
+     * @return a {@link Mono} emitting the value emitted by the call, or the fallback.
+     */
+    public <T> Mono<T> call(Mono<T> call, Mono<T> fallback) {
+        return Mono.defer(() -> {
+            if (active.get()) {
+                bypassed.increment();
+                return fallback;
+            }
+
+            final long start = System.nanoTime();
+            return call.doOnSuccess(value -> recordSucceeded(start))
+                       .onErrorResume(RuntimeException.class, e -> {
+                           recordFailed(e);
+                           return fallback;
+                       });
+        });
+    }
+
+    /**
+     * @return whether Redis is being bypassed.
+     */
+    public boolean isActive() {
+        return active.get();
+    }
+
+    /**
+     * Pings every Redis node, resetting the bypass if they all answer in time.
+     *
+     * @return whether Redis answered in time.
+     */
+    boolean probe() {
+        final long start = System.nanoTime();
+        try {
+            redisShards.getNodes().values().forEach(node -> node.execute((RedisCallback<String>) RedisConnection::ping));
+        } catch (RuntimeException e) {
+            log.debug("unable to ping Redis: {}", e.getMessage());
+            return false;
+        }
+
+        if (System.nanoTime() - start > slowCallThresholdNanos) {
+            return false;
+        }
+
+        reset();
+        return true;
+    }
+
+    /**
+     * Publishes the state of the bypass and the outcome of the Redis calls into the given {@link MeterRegistry}.
+     *
+     * @param registry the {@link MeterRegistry} the metrics are published to.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("redis.bypass.active", active, value -> value.get() ? 1 : 0)
+             .description("Whether the Redis calls are being bypassed.")
+             .register(registry);
+        FunctionCounter.builder("redis.bypass.trips", trips, LongAdder::sum)
+                       .description("The number of times the Redis calls started being bypassed.")
+                       .register(registry);
+        bindCallsTo(registry, "succeeded", succeeded, "The number of Redis calls that succeeded in time.");
+        bindCallsTo(registry, "slow", slow, "The number of Redis calls that succeeded, but too slowly.");
+        bindCallsTo(registry, "failed", failed, "The number of Redis calls that failed.");
+        bindCallsTo(registry, "bypassed", bypassed, "The number of Redis calls skipped while bypassing Redis.");
+    }
+
+    private static void bindCallsTo(MeterRegistry registry, String result, LongAdder counter, String description) {
+        FunctionCounter.builder("redis.calls", counter, LongAdder::sum)
+                       .tag("result", result)
+                       .description(description)
+                       .register(registry);
+    }
+
+    private void recordSucceeded(long start) {
+        if (System.nanoTime() - start > slowCallThresholdNanos) {
+            slow.increment();
+            record(BAD);
+        } else {
+            succeeded.increment();
+            record(GOOD);
+        }
+    }
+
+    private void recordFailed(RuntimeException e) {
+        failed.increment();
+        record(BAD);
+        log.debug("unable to call Redis: {}", e.getMessage());
+    }
+
+    /**
+     * Records the outcome of a call in the window, tripping the bypass if the window is full of bad calls.
+     */
+    private void record(int outcome) {
+        final long call = calls.getAndIncrement();
+        final int previous = outcomes.getAndSet((int) (call % windowSize), outcome);
+
+        final int bad = badCalls.addAndGet(outcome - previous);
+        if (call + 1 >= windowSize && bad >= maxBadCalls && active.compareAndSet(false, true)) {
+            trips.increment();
+            log.warn("bypassing Redis, {} of the last {} calls failed or were slow", bad, windowSize);
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < windowSize; i++) {
+            badCalls.addAndGet(-outcomes.getAndSet(i, GOOD));
+        }
+
+        calls.set(0);
+        if (active.compareAndSet(true, false)) {
+            log.info("Redis is back, no longer bypassing it");
+        }
+    }
+
+    private void probeWhileActive() {
+        try {
+            while (true) {
+                Thread.sleep(probeInterval.toMillis());
+                if (active.get()) {
+                    probe();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package me.github.lparo.geolocation.repository.impl.hybrid;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import me.github.lparo.geolocation.domain.IpCityLocation;
+import me.github.lparo.geolocation.domain.IpCountryLocation;
+import me.github.lparo.geolocation.domain.IpLocation;
+import me.github.lparo.geolocation.repository.impl.redis.RedisLocationStore;
+import me.github.lparo.geolocation.repository.impl.redis.RedisShards;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Protocol;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class responsible for keeping the {@link NearCache near caches} of this instance coherent with Redis, through the
+ * server-assisted client-side caching of Redis 6 (check <a href="https://redis.io/topics/client-side-caching">client
+ * side caching</a>). A dedicated connection enables broadcast tracking of the key prefixes of every location type
+ * ({@code CLIENT TRACKING on BCAST PREFIX ...}), redirecting the invalidation messages to itself, and subscribes to the
+ * {@code __redis__:invalidate} channel, as Jedis only speaks RESP2. Whenever a tracked key is written or expires on
+ * any instance, Redis pushes its name, and the locations of the IP addresses stored under it are dropped from the near
+ * caches, so they can be kept for longer without serving stale entries. When the cache is spread over several Redis
+ * nodes (check {@link RedisShards}), each node gets its own connection. The near caches are emptied whenever a
+ * connection is (re-)established, as the invalidations sent while it was down are lost.
+ *
+ * <p>Every key written under the tracked prefixes is pushed to every instance, including the cache fills of the
+ * instance itself (which just turn its next lookup of the IP address into a Redis hit). It's enabled when the
+ * {@code REDIS_CLIENT_TRACKING} property is set to {@code true}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "REDIS_CLIENT_TRACKING", havingValue = "true")
+public class RedisTrackingNearCacheInvalidator implements MeterBinder {
+    private static final String INVALIDATION_CHANNEL = "__redis__:invalidate";
+    private static final long RECONNECT_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    private final RedisShards redisShards;
+    private final RedisLocationStore redisLocationStore;
+    private final Map<String, NearCache<?>> nearCaches;
+
+    private final AtomicInteger connected = new AtomicInteger();
+    private final LongAdder invalidations = new LongAdder();
+    private final Set<Jedis> connections = ConcurrentHashMap.newKeySet();
+    private final List<Thread> threads = new ArrayList<>();
+
+    private volatile boolean running;
+
+    @Autowired
+    public RedisTrackingNearCacheInvalidator(RedisShards redisShards,
+                                             RedisLocationStore redisLocationStore,
+                                             NearCache<IpCityLocation> ipCityLocationNearCache,
+                                             NearCache<IpCountryLocation> ipCountryLocationNearCache,
+                                             NearCache<IpLocation> ipLocationNearCache) {
+        this.redisShards = redisShards;
+        this.redisLocationStore = redisLocationStore;
+        this.nearCaches = Map.of(
+                "CITY", ipCityLocationNearCache,
+                "COUNTRY", ipCountryLocationNearCache,
+                "LOCATION", ipLocationNearCache
+        );
+    }
+
+    /**
+     * Starts listening to the invalidation messages of every Redis node, each in a background thread.
+     */
+    @PostConstruct
+    public void start() {
+        running = true;
+
+        redisShards.getNodes().forEach((name, node) -> {
+            final JedisConnectionFactory connectionFactory = (JedisConnectionFactory) node.getConnectionFactory();
+
+            final Thread thread = new Thread(() -> listen(connectionFactory), "redis-client-tracking-" + name);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        });
+    }
+
+    /**
+     * Stops listening to the invalidation messages.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+
+        connections.forEach(Jedis::disconnect);
+        threads.forEach(Thread::interrupt);
+    }
+
+    /**
+     * Publishes the number of invalidated keys and the state of the tracking connection into the given
+     * {@link MeterRegistry}.
+     *
+     * @param registry the {@link MeterRegistry} the metrics are published to.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("redis.tracking.invalidations", invalidations, LongAdder::sum)
+                       .description("The number of Redis keys invalidated by the server-assisted client-side caching.")
+                       .register(registry);
+        Gauge.builder("redis.tracking.connected", connected, AtomicInteger::get)
+             .description("The number of established connections receiving the invalidation messages.")
+             .register(registry);
+    }
+
+    /**
+     * Handles the payload of an invalidation message: the invalidated keys, or null when the whole database was
+     * flushed.
+     */
+    void onInvalidation(Object payload) {
+        if (payload == null) {
+            nearCaches.values().forEach(NearCache::invalidateAll);
+            return;
+        }
+
+        final List<?> keys = payload instanceof List ? (List<?>) payload : List.of(payload);
+        for (Object key : keys) {
+            if (key instanceof byte[]) {
+                invalidations.increment();
+                redisLocationStore.forEachIpOfKey((byte[]) key, (type, ip) -> {
+                    final NearCache<?> nearCache = nearCaches.get(type);
+                    if (nearCache != null) {
+                        nearCache.invalidate(ip);
+                    }
+                });
+            }
+        }
+    }
+
+    private void listen(JedisConnectionFactory connectionFactory) {
+        while (running) {
+            boolean subscribed = false;
+            try (Jedis current = connect(connectionFactory)) {
+                connections.add(current);
+                subscribe(current);
+
+                subscribed = true;
+                connected.incrementAndGet();
+                nearCaches.values().forEach(NearCache::invalidateAll);
+                log.info("tracking the Redis cache keys to keep the near caches coherent");
+
+                while (running) {
+                    final List<Object> message = current.getClient().getUnflushedObjectMultiBulkReply();
+                    if (message.size() == 3 && "message".equals(toString(message.get(0)))) {
+                        onInvalidation(message.get(2));
+                    }
+                }
+            } catch (RuntimeException e) {
+                if (running) {
+                    log.warn("lost the Redis client tracking connection, reconnecting: {}", e.getMessage());
+                }
+            } finally {
+                if (subscribed) {
+                    connected.decrementAndGet();
+                }
+                connections.removeIf(connection -> !connection.isConnected());
+            }
+
+            awaitReconnect();
+        }
+    }
+
+    private static Jedis connect(JedisConnectionFactory connectionFactory) {
+        final Jedis current = new Jedis(
+                connectionFactory.getHostName(),
+                connectionFactory.getPort(),
+                connectionFactory.getTimeout()
+        );
+
+        if (connectionFactory.getPassword() != null) {
+            current.auth(connectionFactory.getPassword());
+        }
+
+        return current;
+    }
+
+    private void subscribe(Jedis current) {
+        final Object clientId = current.sendCommand(Protocol.Command.CLIENT, "ID");
+
+        final List<byte[]> arguments = new ArrayList<>(Arrays.asList(
+                bytes("TRACKING"), bytes("on"), bytes("REDIRECT"), bytes(String.valueOf(clientId)), bytes("BCAST")
+        ));
+        for (String type : nearCaches.keySet()) {
+            arguments.add(bytes("PREFIX"));
+            arguments.add(redisLocationStore.getKeyPrefix(type));
+        }
+        current.sendCommand(Protocol.Command.CLIENT, arguments.toArray(new byte[0][]));
+
+        current.getClient().sendCommand(Protocol.Command.SUBSCRIBE, INVALIDATION_CHANNEL);
+        current.getClient().getObjectMultiBulkReply();
+        current.getClient().setTimeoutInfinite();
+    }
+
+    private void awaitReconnect() {
+        try {
+            if (running) {
+                Thread.sleep(RECONNECT_DELAY_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static String toString(Object value) {
+        return value instanceof byte[] ? new String((byte[]) value, StandardCharsets.US_ASCII) : String.valueOf(value);
+    }
+}
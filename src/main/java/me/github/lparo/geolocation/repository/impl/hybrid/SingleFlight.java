@@ -0,0 +1,133 @@
+package me.github.lparo.geolocation.repository.impl.hybrid;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import me.github.lparo.geolocation.domain.IpAddress;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Class that coalesces the concurrent lookups of the same IP address into a single one. The first caller missing an IP
+ * address runs the lookup, and the callers arriving while it's in flight wait for it and share its result (or its
+ * error), instead of running their own Redis and GeoIP2 lookups and cache fills. Once the lookup is done, the next
+ * caller starts a new one. The blocking and the non-blocking lookups of an IP address share their flights, so either
+ * kind of caller may wait for the other. The number of coalesced lookups is published as the
+ * {@code location.lookups.coalesced} metric, tagged with the location type.
+ *
+ * @param <V> the type of the looked up locations.
+ */
+public class SingleFlight<V> implements MeterBinder {
+    private final String type;
+    private final ConcurrentMap<IpAddress, CompletableFuture<Optional<V>>> flights = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * @param type the location type in the metrics, e.g. {@code city}.
+     */
+    public SingleFlight(String type) {
+        this.type = type;
+    }
+
+    /**
+     * Looks up the location of the IP address, unless a lookup of the same IP address is already in flight, in which
+     * case its result is waited for and shared.
+     *
+     * @param ip the IP address.
+     * @param lookup the lookup of the location of the IP address.
+     *
+     * @return the location of the IP address wrapped in an {@link Optional}.
+     */
+    public Optional<V> load(IpAddress ip, Supplier<Optional<V>> lookup) {
+        final CompletableFuture<Optional<V>> flight = new CompletableFuture<>();
+        final CompletableFuture<Optional<V>> inFlight = flights.putIfAbsent(ip, flight);
+        if (inFlight != null) {
+            coalesced.increment();
+            return await(inFlight);
+        }
+
+        try {
+            final Optional<V> location = lookup.get();
+            flight.complete(location);
+
+            return location;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(ip, flight);
+        }
+    }
+
+    /**
+     * Looks up the location of the IP address without blocking the calling thread, unless a lookup of the same IP
+     * address is already in flight, in which case its result is shared once it's done. The flight starts when the
+     * returned {@link Mono} is subscribed, and it runs to completion even if the subscriber that started it cancels,
+     * as other callers may be waiting for its result.
+     *
+     * @param ip the IP address.
+     * @param lookup the non-blocking lookup of the location of the IP address.
+     *
+     * @return a {@link Mono} emitting the location of the IP address wrapped in an {@link Optional}.
+     */
+    public Mono<Optional<V>> loadAsync(IpAddress ip, Supplier<Mono<Optional<V>>> lookup) {
+        return Mono.defer(() -> {
+            final CompletableFuture<Optional<V>> flight = new CompletableFuture<>();
+            final CompletableFuture<Optional<V>> inFlight = flights.putIfAbsent(ip, flight);
+            if (inFlight != null) {
+                coalesced.increment();
+                return Mono.fromFuture(inFlight);
+            }
+
+            Mono.defer(lookup)
+                .doFinally(signal -> flights.remove(ip, flight))
+                .subscribe(flight::complete, flight::completeExceptionally, () -> flight.complete(null));
+
+            return Mono.fromFuture(flight);
+        });
+    }
+
+    /**
+     * @return the number of lookups that waited for the result of another one.
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Publishes the number of coalesced lookups into the given {@link MeterRegistry}.
+     *
+     * @param registry the {@link MeterRegistry} the metrics are published to.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("location.lookups.coalesced", coalesced, LongAdder::sum)
+                       .tag("type", type)
+                       .description("The number of lookups that shared the result of a concurrent lookup.")
+                       .register(registry);
+    }
+
+    private static <V> Optional<V> await(CompletableFuture<Optional<V>> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new RuntimeException(cause.getMessage(), cause);
+        }
+    }
+}
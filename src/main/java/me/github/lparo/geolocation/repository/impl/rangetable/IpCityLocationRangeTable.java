@@ -0,0 +1,298 @@
+package me.github.lparo.geolocation.repository.impl.rangetable;
+
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.domain.IpCityLocation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable lookup table that maps every IP address to the {@link IpCityLocation} of the range it belongs to. The
+ * ranges are flattened into sorted primitive arrays: the range starts and, for each range, the index of its location
+ * in a deduplicated table of {@link IpCityLocation} values. IPv4 and IPv6 ranges are kept apart, the IPv4 starts as
+ * ints and the IPv6 starts as pairs of longs. A lookup is a single binary search that allocates nothing.
+ */
+public final class IpCityLocationRangeTable {
+    private static final int NO_LOCATION = -1;
+
+    /**
+     * the start of each IPv4 range, with the sign bit flipped so the unsigned address order matches the signed int order.
+     */
+    private final int[] rangeStarts;
+
+    /**
+     * the index in {@link #locations} of the location of each IPv4 range, or {@link #NO_LOCATION}.
+     */
+    private final int[] locationIndexes;
+
+    /**
+     * the 64 most significant bits of the start of each IPv6 range.
+     */
+    private final long[] ipv6RangeStartsHigh;
+
+    /**
+     * the 64 least significant bits of the start of each IPv6 range.
+     */
+    private final long[] ipv6RangeStartsLow;
+
+    /**
+     * the index in {@link #locations} of the location of each IPv6 range, or {@link #NO_LOCATION}.
+     */
+    private final int[] ipv6LocationIndexes;
+
+    /**
+     * the deduplicated locations, already wrapped in {@link Optional} so lookups don't need to allocate.
+     */
+    private final Optional<IpCityLocation>[] locations;
+
+    private IpCityLocationRangeTable(int[] rangeStarts,
+                                     int[] locationIndexes,
+                                     long[] ipv6RangeStartsHigh,
+                                     long[] ipv6RangeStartsLow,
+                                     int[] ipv6LocationIndexes,
+                                     Optional<IpCityLocation>[] locations) {
+        this.rangeStarts = rangeStarts;
+        this.locationIndexes = locationIndexes;
+        this.ipv6RangeStartsHigh = ipv6RangeStartsHigh;
+        this.ipv6RangeStartsLow = ipv6RangeStartsLow;
+        this.ipv6LocationIndexes = ipv6LocationIndexes;
+        this.locations = locations;
+    }
+
+    /**
+     * Finds the {@link IpCityLocation} of the range the given IP address belongs to. The IPv6 addresses that the GeoIP2
+     * databases alias to the IPv4 space are looked up as their IPv4 address (check {@link Ipv6Aliases}).
+     *
+     * @param ip the IPv4 or IPv6 address.
+     *
+     * @return the location of the IP address wrapped in an {@link Optional}, or {@link Optional#empty()} if the
+     * address doesn't resolve to any location.
+     */
+    public Optional<IpCityLocation> lookup(IpAddress ip) {
+        final long high = ip.getHigh();
+        final long low = ip.getLow();
+
+        if (Ipv6Aliases.getPrefixLength(high, low) != Ipv6Aliases.NOT_ALIASED) {
+            return lookup(Ipv6Aliases.toIpv4(high, low));
+        }
+
+        return toLocation(ipv6LocationIndexes[findIpv6Range(high, low)]);
+    }
+
+    /**
+     * Finds the {@link IpCityLocation} of the range the given IPv4 address belongs to.
+     *
+     * @param ipv4 the IPv4 address, as its 32 bits packed in an int.
+     *
+     * @return the location of the IPv4 address wrapped in an {@link Optional}, or {@link Optional#empty()} if the
+     * address doesn't resolve to any location.
+     */
+    public Optional<IpCityLocation> lookup(int ipv4) {
+        int range = Arrays.binarySearch(rangeStarts, ipv4 ^ Integer.MIN_VALUE);
+        if (range < 0) {
+            range = -range - 2;
+        }
+
+        return toLocation(locationIndexes[range]);
+    }
+
+    /**
+     * @return the number of IPv4 ranges in the table.
+     */
+    public int getRangeCount() {
+        return rangeStarts.length;
+    }
+
+    /**
+     * @return the number of IPv6 ranges in the table.
+     */
+    public int getIpv6RangeCount() {
+        return ipv6RangeStartsHigh.length;
+    }
+
+    /**
+     * @return the number of distinct locations in the table.
+     */
+    public int getLocationCount() {
+        return locations.length;
+    }
+
+    /**
+     * @return a new {@link Builder} to create an {@link IpCityLocationRangeTable}.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private int findIpv6Range(long high, long low) {
+        // the first range always starts at ::, so there's always a range at or before the address
+        int first = 0;
+        int last = ipv6RangeStartsHigh.length - 1;
+
+        while (first < last) {
+            final int middle = (first + last + 1) >>> 1;
+            if (compareUnsigned(ipv6RangeStartsHigh[middle], ipv6RangeStartsLow[middle], high, low) <= 0) {
+                first = middle;
+            } else {
+                last = middle - 1;
+            }
+        }
+
+        return first;
+    }
+
+    private Optional<IpCityLocation> toLocation(int locationIndex) {
+        return locationIndex == NO_LOCATION ? Optional.empty() : locations[locationIndex];
+    }
+
+    private static int compareUnsigned(long firstHigh, long firstLow, long secondHigh, long secondLow) {
+        final int comparison = Long.compareUnsigned(firstHigh, secondHigh);
+        return comparison != 0 ? comparison : Long.compareUnsigned(firstLow, secondLow);
+    }
+
+    /**
+     * Builder that accumulates the IPv4 and IPv6 ranges in ascending order, deduplicating their locations and merging
+     * adjacent ranges that resolve to the same location. Addresses before the first added range don't resolve to any
+     * location.
+     */
+    public static final class Builder {
+        private int[] rangeStarts = new int[1024];
+        private int[] locationIndexes = new int[1024];
+        private int rangeCount;
+        private long lastStart = -1;
+
+        private long[] ipv6RangeStartsHigh = new long[1024];
+        private long[] ipv6RangeStartsLow = new long[1024];
+        private int[] ipv6LocationIndexes = new int[1024];
+        private int ipv6RangeCount;
+        private boolean ipv6RangeAdded;
+        private long lastIpv6StartHigh;
+        private long lastIpv6StartLow;
+
+        private final Map<IpCityLocation, Integer> locationIndexByLocation = new HashMap<>();
+        private final List<IpCityLocation> locations = new ArrayList<>();
+
+        private Builder() {
+            append(0, NO_LOCATION);
+            appendIpv6(0, 0, NO_LOCATION);
+        }
+
+        /**
+         * Adds an IPv4 range starting at the given IPv4 address, which lasts until the start of the next added IPv4 range.
+         *
+         * @param start the first IPv4 address of the range, as an unsigned 32 bits value.
+         * @param location the location of the range. Can be null if the range doesn't resolve to any location.
+         *
+         * @return this {@link Builder}.
+         *
+         * @throws IllegalArgumentException if the range doesn't start after the previously added one.
+         */
+        public Builder addRange(long start, IpCityLocation location) {
+            if (start < 0 || start > 0xFFFFFFFFL || start <= lastStart) {
+                throw new IllegalArgumentException("ranges must be added in ascending order, got start " + start);
+            }
+            lastStart = start;
+
+            final int locationIndex = indexOf(location);
+            if (locationIndexes[rangeCount - 1] == locationIndex) {
+                return this;
+            }
+
+            if (rangeStarts[rangeCount - 1] == (((int) start) ^ Integer.MIN_VALUE)) {
+                rangeCount--;
+            }
+
+            append((int) start, locationIndex);
+            return this;
+        }
+
+        /**
+         * Adds an IPv6 range starting at the given IPv6 address, which lasts until the start of the next added IPv6 range.
+         *
+         * @param startHigh the 64 most significant bits of the first IPv6 address of the range.
+         * @param startLow the 64 least significant bits of the first IPv6 address of the range.
+         * @param location the location of the range. Can be null if the range doesn't resolve to any location.
+         *
+         * @return this {@link Builder}.
+         *
+         * @throws IllegalArgumentException if the range doesn't start after the previously added one.
+         */
+        public Builder addIpv6Range(long startHigh, long startLow, IpCityLocation location) {
+            if (ipv6RangeAdded && compareUnsigned(startHigh, startLow, lastIpv6StartHigh, lastIpv6StartLow) <= 0) {
+                throw new IllegalArgumentException("IPv6 ranges must be added in ascending order, got start "
+                        + IpAddress.of(startHigh, startLow));
+            }
+            ipv6RangeAdded = true;
+            lastIpv6StartHigh = startHigh;
+            lastIpv6StartLow = startLow;
+
+            final int locationIndex = indexOf(location);
+            if (ipv6LocationIndexes[ipv6RangeCount - 1] == locationIndex) {
+                return this;
+            }
+
+            if (ipv6RangeStartsHigh[ipv6RangeCount - 1] == startHigh && ipv6RangeStartsLow[ipv6RangeCount - 1] == startLow) {
+                ipv6RangeCount--;
+            }
+
+            appendIpv6(startHigh, startLow, locationIndex);
+            return this;
+        }
+
+        /**
+         * @return the built {@link IpCityLocationRangeTable}.
+         */
+        @SuppressWarnings("unchecked")
+        public IpCityLocationRangeTable build() {
+            final Optional<IpCityLocation>[] wrappedLocations = locations.stream()
+                                                                         .map(Optional::of)
+                                                                         .toArray(Optional[]::new);
+
+            return new IpCityLocationRangeTable(
+                    Arrays.copyOf(rangeStarts, rangeCount),
+                    Arrays.copyOf(locationIndexes, rangeCount),
+                    Arrays.copyOf(ipv6RangeStartsHigh, ipv6RangeCount),
+                    Arrays.copyOf(ipv6RangeStartsLow, ipv6RangeCount),
+                    Arrays.copyOf(ipv6LocationIndexes, ipv6RangeCount),
+                    wrappedLocations
+            );
+        }
+
+        private int indexOf(IpCityLocation location) {
+            return location == null
+                    ? NO_LOCATION
+                    : locationIndexByLocation.computeIfAbsent(location, newLocation -> {
+                        locations.add(newLocation);
+                        return locations.size() - 1;
+                    });
+        }
+
+        private void append(int start, int locationIndex) {
+            if (rangeCount == rangeStarts.length) {
+                rangeStarts = Arrays.copyOf(rangeStarts, rangeCount * 2);
+                locationIndexes = Arrays.copyOf(locationIndexes, rangeCount * 2);
+            }
+
+            rangeStarts[rangeCount] = start ^ Integer.MIN_VALUE;
+            locationIndexes[rangeCount] = locationIndex;
+            rangeCount++;
+        }
+
+        private void appendIpv6(long startHigh, long startLow, int locationIndex) {
+            if (ipv6RangeCount == ipv6RangeStartsHigh.length) {
+                ipv6RangeStartsHigh = Arrays.copyOf(ipv6RangeStartsHigh, ipv6RangeCount * 2);
+                ipv6RangeStartsLow = Arrays.copyOf(ipv6RangeStartsLow, ipv6RangeCount * 2);
+                ipv6LocationIndexes = Arrays.copyOf(ipv6LocationIndexes, ipv6RangeCount * 2);
+            }
+
+            ipv6RangeStartsHigh[ipv6RangeCount] = startHigh;
+            ipv6RangeStartsLow[ipv6RangeCount] = startLow;
+            ipv6LocationIndexes[ipv6RangeCount] = locationIndex;
+            ipv6RangeCount++;
+        }
+    }
+}
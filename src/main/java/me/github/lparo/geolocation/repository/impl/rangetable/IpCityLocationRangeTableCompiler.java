@@ -0,0 +1,192 @@
+package me.github.lparo.geolocation.repository.impl.rangetable;
+
+import com.maxmind.db.DatabaseRecord;
+import com.maxmind.db.Reader;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import me.github.lparo.geolocation.domain.IpCityLocation;
+import me.github.lparo.geolocation.repository.impl.geoip2.ReloadableDatabaseReader;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.CityRecord;
+import me.github.lparo.geolocation.repository.impl.transformer.IpCityLocationTransformer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.function.Function;
+
+/**
+ * Class responsible for compiling the GeoIP2 database into an {@link IpCityLocationRangeTable}. It walks the whole IPv4
+ * space network by network, then the IPv6 space (if the database has it) except for the networks aliased to the IPv4
+ * space, and projects the record of each network through the same {@link IpCityLocationTransformer} used by the GeoIP2
+ * repository, so the compiled table gives the same answers.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(name = "GEOIP2_LOOKUP_ENGINE", havingValue = "range-table")
+public class IpCityLocationRangeTableCompiler {
+    private static final long IPV4_SPACE_SIZE = 1L << 32;
+
+    private final ReloadableDatabaseReader reloadableDatabaseReader;
+    private final IpCityLocationTransformer ipCityLocationTransformer;
+
+    /**
+     * Compiles the GeoIP2 database currently in use into an {@link IpCityLocationRangeTable}.
+     *
+     * @return the compiled {@link IpCityLocationRangeTable}.
+     *
+     * @throws IOException in case the GeoIP2 binary file cannot be read.
+     */
+    public IpCityLocationRangeTable compile() throws IOException {
+        return reloadableDatabaseReader.read(this::compile);
+    }
+
+    /**
+     * Compiles the GeoIP2 database opened by the given {@link Reader} into an {@link IpCityLocationRangeTable}.
+     *
+     * @param reader the {@link Reader} of the database to be compiled.
+     *
+     * @return the compiled {@link IpCityLocationRangeTable}.
+     *
+     * @throws IOException in case the GeoIP2 binary file cannot be read.
+     */
+    public IpCityLocationRangeTable compile(Reader reader) throws IOException {
+        final long start = System.nanoTime();
+        final boolean ipv6 = reader.getMetadata().getIpVersion() == 6;
+        final RecordLookup recordLookup = address -> reader.getRecord(address, CityRecord.class);
+        final IpCityLocationRangeTable rangeTable = compile(recordLookup, ipCityLocationTransformer, ipv6);
+
+        log.info("compiled GeoIP2 database into {} IPv4 ranges, {} IPv6 ranges and {} distinct city locations in {} ms",
+                rangeTable.getRangeCount(),
+                rangeTable.getIpv6RangeCount(),
+                rangeTable.getLocationCount(),
+                (System.nanoTime() - start) / 1_000_000);
+
+        return rangeTable;
+    }
+
+    /**
+     * Walks the whole IPv4 space network by network, and then the IPv6 space if requested, building an
+     * {@link IpCityLocationRangeTable} out of the records found for each network.
+     *
+     * @param recordLookup the lookup of the record (and network) of an address.
+     * @param transformer the projection of a record into its {@link IpCityLocation}.
+     * @param ipv6 whether the IPv6 space is walked as well, which requires an IPv6 database.
+     *
+     * @return the compiled {@link IpCityLocationRangeTable}.
+     *
+     * @throws IOException in case the GeoIP2 binary file cannot be read.
+     */
+    static IpCityLocationRangeTable compile(RecordLookup recordLookup,
+                                            Function<CityRecord, IpCityLocation> transformer,
+                                            boolean ipv6) throws IOException {
+        final IpCityLocationRangeTable.Builder builder = IpCityLocationRangeTable.builder();
+
+        long address = 0;
+        while (address < IPV4_SPACE_SIZE) {
+            final DatabaseRecord<CityRecord> record = recordLookup.getRecord(toInetAddress(address));
+
+            builder.addRange(address, toLocation(record, transformer));
+            address += 1L << (32 - record.getNetwork().getPrefixLength());
+        }
+
+        if (ipv6) {
+            walkIpv6(recordLookup, transformer, builder);
+        }
+
+        return builder.build();
+    }
+
+    private static void walkIpv6(RecordLookup recordLookup,
+                                 Function<CityRecord, IpCityLocation> transformer,
+                                 IpCityLocationRangeTable.Builder builder) throws IOException {
+        final Ipv6Cursor cursor = new Ipv6Cursor();
+
+        do {
+            final int aliasedPrefixLength = Ipv6Aliases.getPrefixLength(cursor.high, cursor.low);
+            if (aliasedPrefixLength != Ipv6Aliases.NOT_ALIASED) {
+                // looked up in the IPv4 ranges instead, so the whole aliased network is skipped
+                builder.addIpv6Range(cursor.high, cursor.low, null);
+                cursor.mask(aliasedPrefixLength);
+                continue;
+            }
+
+            final DatabaseRecord<CityRecord> record = recordLookup.getRecord(cursor.toInetAddress());
+            builder.addIpv6Range(cursor.high, cursor.low, toLocation(record, transformer));
+            cursor.mask(record.getNetwork().getPrefixLength());
+        } while (cursor.next());
+    }
+
+    private static IpCityLocation toLocation(DatabaseRecord<CityRecord> record,
+                                             Function<CityRecord, IpCityLocation> transformer) {
+        return record.getData() != null ? transformer.apply(record.getData()) : null;
+    }
+
+    private static InetAddress toInetAddress(long address) throws IOException {
+        return InetAddress.getByAddress(new byte[] {
+                (byte) (address >>> 24),
+                (byte) (address >>> 16),
+                (byte) (address >>> 8),
+                (byte) address
+        });
+    }
+
+    /**
+     * Position of the IPv6 walk: the start of the current network as a 128 bits value, split in two longs.
+     */
+    private static final class Ipv6Cursor {
+        private long high;
+        private long low;
+        private int prefixLength;
+
+        /**
+         * Moves the cursor back to the start of the network of the given prefix length it's in.
+         */
+        private void mask(int prefixLength) {
+            this.prefixLength = prefixLength;
+
+            if (prefixLength <= 64) {
+                high &= prefixLength == 0 ? 0 : -1L << (64 - prefixLength);
+                low = 0;
+            } else {
+                low &= -1L << (128 - prefixLength);
+            }
+        }
+
+        /**
+         * Moves the cursor to the start of the network right after the current one.
+         *
+         * @return false if the current network was the last one of the IPv6 space.
+         */
+        private boolean next() {
+            if (prefixLength == 0) {
+                return false;
+            } else if (prefixLength <= 64) {
+                high += 1L << (64 - prefixLength);
+                return high != 0;
+            }
+
+            low += 1L << (128 - prefixLength);
+            if (low == 0) {
+                high++;
+                return high != 0;
+            }
+
+            return true;
+        }
+
+        private InetAddress toInetAddress() throws IOException {
+            return InetAddress.getByAddress(ByteBuffer.allocate(16).putLong(high).putLong(low).array());
+        }
+    }
+
+    /**
+     * Lookup of the {@link DatabaseRecord} of an address, which also carries the network the address belongs to.
+     */
+    @FunctionalInterface
+    interface RecordLookup {
+        DatabaseRecord<CityRecord> getRecord(InetAddress address) throws IOException;
+    }
+}
@@ -0,0 +1,58 @@
+package me.github.lparo.geolocation.repository.impl.rangetable;
+
+/**
+ * The networks of the IPv6 space that the GeoIP2 databases alias to the IPv4 space, as their search tree points them
+ * to the IPv4 subtree: {@code ::/96} (where the IPv4 subtree itself lives), the IPv4-mapped {@code ::ffff:0:0/96}, the
+ * Teredo {@code 2001::/32} and the 6to4 {@code 2002::/16}. An address in any of them resolves to the location of the
+ * IPv4 address right after the aliased prefix, so they are kept out of the IPv6 ranges and looked up as IPv4 instead.
+ */
+final class Ipv6Aliases {
+    static final int NOT_ALIASED = -1;
+
+    private static final long IPV4_MAPPED = 0xFFFFL;
+    private static final long TEREDO = 0x20010000L;
+    private static final long SIX_TO_FOUR = 0x2002L;
+
+    private Ipv6Aliases() {
+    }
+
+    /**
+     * Gets the prefix length of the aliased network the given IPv6 address belongs to.
+     *
+     * @param high the 64 most significant bits of the IPv6 address.
+     * @param low the 64 least significant bits of the IPv6 address.
+     *
+     * @return the prefix length of the aliased network, or {@link #NOT_ALIASED} if the address isn't in any of them.
+     */
+    static int getPrefixLength(long high, long low) {
+        if (high == 0 && ((low >>> 32) == 0 || (low >>> 32) == IPV4_MAPPED)) {
+            return 96;
+        } else if ((high >>> 32) == TEREDO) {
+            return 32;
+        } else if ((high >>> 48) == SIX_TO_FOUR) {
+            return 16;
+        }
+
+        return NOT_ALIASED;
+    }
+
+    /**
+     * Gets the IPv4 address an aliased IPv6 address resolves to, which is made of the 32 bits right after the aliased
+     * prefix.
+     *
+     * @param high the 64 most significant bits of the aliased IPv6 address.
+     * @param low the 64 least significant bits of the aliased IPv6 address.
+     *
+     * @return the IPv4 address, as its 32 bits packed in an int.
+     */
+    static int toIpv4(long high, long low) {
+        switch (getPrefixLength(high, low)) {
+            case 32:
+                return (int) high;
+            case 16:
+                return (int) (high >>> 16);
+            default:
+                return (int) low;
+        }
+    }
+}
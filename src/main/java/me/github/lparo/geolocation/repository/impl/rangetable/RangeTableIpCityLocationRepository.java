@@ -0,0 +1,66 @@
+package me.github.lparo.geolocation.repository.impl.rangetable;
+
+import com.maxmind.db.Reader;
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.domain.IpCityLocation;
+import me.github.lparo.geolocation.repository.IpCityLocationRepository;
+import me.github.lparo.geolocation.repository.impl.geoip2.ReloadableDatabaseReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Implementing class of {@link IpCityLocationRepository} responsible for fetching the {@link IpCityLocation} information
+ * from an {@link IpCityLocationRangeTable} compiled out of the GeoIP2 database at startup. It's enabled when the
+ * {@code GEOIP2_LOOKUP_ENGINE} property is set to {@code range-table}, replacing the GeoIP2 tree walk. The table is
+ * compiled again whenever the database is reloaded, before the new database is swapped in.
+ */
+@Repository
+@Qualifier("databaseIpCityLocationRepository")
+@ConditionalOnProperty(name = "GEOIP2_LOOKUP_ENGINE", havingValue = "range-table")
+public class RangeTableIpCityLocationRepository implements IpCityLocationRepository, ReloadableDatabaseReader.ReloadListener {
+    private final IpCityLocationRangeTableCompiler rangeTableCompiler;
+    private volatile IpCityLocationRangeTable rangeTable;
+
+    @Autowired
+    public RangeTableIpCityLocationRepository(IpCityLocationRangeTableCompiler rangeTableCompiler,
+                                              ReloadableDatabaseReader reloadableDatabaseReader) throws IOException {
+        this.rangeTableCompiler = rangeTableCompiler;
+        this.rangeTable = rangeTableCompiler.compile();
+
+        reloadableDatabaseReader.addReloadListener(this);
+    }
+
+    /**
+     * Searches the compiled range table to find the city/state information of where the IP address is located. If the
+     * location is found, an {@link IpCityLocation} instance wrapped in an {@link Optional} is returned, otherwise, an
+     * {@link Optional#empty()} is returned. Both IPv4 and IPv6 addresses are covered by the table.
+     *
+     * @param ip the IP address to have the {@link IpCityLocation} information fetched.
+     *
+     * @return the city/state information of where the IP address is located wrapped in an {@link Optional<IpCityLocation>}.
+     */
+    @Override
+    public Optional<IpCityLocation> getCityLocationForIp(IpAddress ip) {
+        return rangeTable.lookup(ip);
+    }
+
+    /**
+     * Compiles the range table of the reloaded database, which replaces the current table once the database is swapped.
+     *
+     * @param reader the {@link Reader} of the reloaded database.
+     *
+     * @return the action that replaces the current range table.
+     *
+     * @throws IOException in case the reloaded database cannot be read.
+     */
+    @Override
+    public Runnable prepare(Reader reader) throws IOException {
+        final IpCityLocationRangeTable reloadedRangeTable = rangeTableCompiler.compile(reader);
+        return () -> this.rangeTable = reloadedRangeTable;
+    }
+}
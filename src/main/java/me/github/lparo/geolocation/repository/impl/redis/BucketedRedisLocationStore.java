@@ -0,0 +1,292 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import me.github.lparo.geolocation.domain.IpAddress;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Implementing class of {@link RedisLocationStore} that groups the encoded locations into many small hashes, one per IP
+ * prefix and location type. The last {@code REDIS_CACHE_BUCKET_BITS} bits of the IP address are the field inside the
+ * hash, and the remaining prefix (after the location type, e.g. {@code CITY#}) is the hash key, so a bucket holds at
+ * most 2^{@code REDIS_CACHE_BUCKET_BITS} entries. As long as that's below the {@code hash-max-listpack-entries} (or
+ * {@code hash-max-ziplist-entries}) setting of Redis, every bucket is kept in its compact encoding, which takes much
+ * less memory than a key per IP address or a huge hash. The entries of a bucket can't expire on their own, so each
+ * bucket expires {@code REDIS_CACHE_TTL} after its last write, whatever the TTL of the entries written into it (the
+ * tombstones of {@link LocationCodec} carry their own expiry). It's used when the {@code REDIS_CACHE_LAYOUT} property
+ * is set to {@code bucketed}.
+ */
+@Component
+@ConditionalOnProperty(name = "REDIS_CACHE_LAYOUT", havingValue = "bucketed")
+public class BucketedRedisLocationStore implements RedisLocationStore {
+    static final int MAX_BUCKET_BITS = 16;
+
+    private static final byte SEPARATOR = '#';
+
+    /**
+     * Deletes each field of the {@code KEYS[1]} bucket given in {@code ARGV} whose value is still the one following it
+     * in {@code ARGV}, returning the number of fields deleted.
+     */
+    static final byte[] HDEL_IF_UNCHANGED_SCRIPT = (
+            "local removed = 0\n"
+            + "for i = 1, #ARGV, 2 do\n"
+            + "  if redis.call('HGET', KEYS[1], ARGV[i]) == ARGV[i + 1] then\n"
+            + "    redis.call('HDEL', KEYS[1], ARGV[i])\n"
+            + "    removed = removed + 1\n"
+            + "  end\n"
+            + "end\n"
+            + "return removed"
+    ).getBytes(StandardCharsets.UTF_8);
+
+    private final RedisShards redisShards;
+    private final Duration ttl;
+    private final int bucketBits;
+
+    @Autowired
+    public BucketedRedisLocationStore(RedisShards redisShards,
+                                      @Value("${REDIS_CACHE_TTL:7d}") Duration ttl,
+                                      @Value("${REDIS_CACHE_BUCKET_BITS:8}") int bucketBits) {
+        if (bucketBits < 1 || bucketBits > MAX_BUCKET_BITS) {
+            throw new IllegalArgumentException("REDIS_CACHE_BUCKET_BITS must be between 1 and " + MAX_BUCKET_BITS
+                    + ", got " + bucketBits);
+        }
+
+        this.redisShards = redisShards;
+        this.ttl = ttl;
+        this.bucketBits = bucketBits;
+    }
+
+    @Override
+    public byte[] get(String type, IpAddress ip) {
+        final byte[] address = ip.toBytes();
+        final byte[] bucketKey = toBucketKey(type, address, bucketBits);
+
+        return redisShards.read(bucketKey, node -> {
+            final HashOperations<byte[], byte[], byte[]> hashOperations = node.opsForHash();
+            return hashOperations.get(bucketKey, toField(address, bucketBits));
+        });
+    }
+
+    @Override
+    public Mono<byte[]> getAsync(String type, IpAddress ip) {
+        final byte[] address = ip.toBytes();
+        final byte[] bucketKey = toBucketKey(type, address, bucketBits);
+
+        return redisShards.readAsync(bucketKey, node -> {
+            final ReactiveHashOperations<byte[], byte[], byte[]> hashOperations = node.opsForHash();
+            return hashOperations.get(bucketKey, toField(address, bucketBits));
+        });
+    }
+
+    @Override
+    public void put(String type, IpAddress ip, byte[] value) {
+        final byte[] address = ip.toBytes();
+        final byte[] bucketKey = toBucketKey(type, address, bucketBits);
+
+        redisShards.write(bucketKey, node -> {
+            final HashOperations<byte[], byte[], byte[]> hashOperations = node.opsForHash();
+            hashOperations.put(bucketKey, toField(address, bucketBits), value);
+
+            return node.expire(bucketKey, ttl);
+        });
+    }
+
+    @Override
+    public void putIfAbsent(String type, IpAddress ip, byte[] value) {
+        final byte[] address = ip.toBytes();
+        final byte[] bucketKey = toBucketKey(type, address, bucketBits);
+
+        redisShards.write(bucketKey, node -> {
+            final HashOperations<byte[], byte[], byte[]> hashOperations = node.opsForHash();
+            if (Boolean.TRUE.equals(hashOperations.putIfAbsent(bucketKey, toField(address, bucketBits), value))) {
+                node.expire(bucketKey, ttl);
+            }
+
+            return null;
+        });
+    }
+
+    /**
+     * Stores the entries of each Redis node in a single pipelined round trip.
+     */
+    @Override
+    public void putAll(Collection<RedisCacheEntry> entries) {
+        redisShards.writeAll(entries, this::toBucketKey, (node, nodeEntries) ->
+                node.executePipelined((RedisCallback<Object>) connection -> {
+                    for (RedisCacheEntry entry : nodeEntries) {
+                        final byte[] address = entry.getIp().toBytes();
+                        final byte[] bucketKey = toBucketKey(entry.getType(), address, bucketBits);
+
+                        connection.hSet(bucketKey, toField(address, bucketBits), entry.getValue());
+                        connection.expire(bucketKey, ttl.getSeconds());
+                    }
+
+                    return null;
+                }));
+    }
+
+    @Override
+    public byte[] getKeyPrefix(String type) {
+        final byte[] prefix = type.getBytes(StandardCharsets.US_ASCII);
+
+        final byte[] keyPrefix = Arrays.copyOf(prefix, prefix.length + 1);
+        keyPrefix[prefix.length] = SEPARATOR;
+
+        return keyPrefix;
+    }
+
+    /**
+     * Calls the given action with every IP address of the bucket, that is 2^{@code REDIS_CACHE_BUCKET_BITS} of them.
+     */
+    @Override
+    public void forEachIpOfKey(byte[] key, BiConsumer<String, IpAddress> action) {
+        final int separator = KeyPerIpRedisLocationStore.indexOf(key, SEPARATOR);
+        final int addressLength = key.length - separator - 1 + bucketBits / Byte.SIZE;
+        if (separator < 1 || addressLength != 4 && addressLength != 16) {
+            return;
+        }
+
+        final String type = new String(key, 0, separator, StandardCharsets.US_ASCII);
+        final byte[] prefix = Arrays.copyOfRange(key, separator + 1, separator + 1 + addressLength);
+        final int fieldLength = (bucketBits + Byte.SIZE - 1) / Byte.SIZE;
+
+        for (int field = 0; field < 1 << bucketBits; field++) {
+            final byte[] address = prefix.clone();
+            for (int i = 0; i < fieldLength; i++) {
+                address[address.length - 1 - i] |= (byte) (field >>> (i * Byte.SIZE));
+            }
+
+            action.accept(type, IpAddress.fromBytes(address));
+        }
+    }
+
+    /**
+     * Walks the fields of each bucket with {@code HSCAN}, and removes the matching ones with a single script call per
+     * bucket (or per {@code batchSize} matching fields), deleting the ones whose value hasn't changed since with
+     * {@code HDEL}. Redis drops a bucket once it's empty. The pause is run every {@code batchSize} fields read.
+     */
+    @Override
+    public long removeIf(RedisTemplate<byte[], byte[]> node,
+                         String type,
+                         int batchSize,
+                         Predicate<byte[]> predicate,
+                         Runnable pause) {
+        final ScanOptions bucketOptions = ScanOptions.scanOptions()
+                                                     .match(KeyPerIpRedisLocationStore.toScanPattern(getKeyPrefix(type)))
+                                                     .count(batchSize)
+                                                     .build();
+        final ScanOptions fieldOptions = ScanOptions.scanOptions().count(batchSize).build();
+
+        return node.execute((RedisCallback<Long>) connection -> {
+            long read = 0;
+            long removed = 0;
+            try (Cursor<byte[]> buckets = connection.scan(bucketOptions)) {
+                while (buckets.hasNext()) {
+                    final byte[] bucketKey = buckets.next();
+                    final List<byte[]> matchingFieldsAndValues = new ArrayList<>();
+
+                    try (Cursor<Map.Entry<byte[], byte[]>> fields = connection.hScan(bucketKey, fieldOptions)) {
+                        while (fields.hasNext()) {
+                            final Map.Entry<byte[], byte[]> field = fields.next();
+                            if (predicate.test(field.getValue())) {
+                                matchingFieldsAndValues.add(field.getKey());
+                                matchingFieldsAndValues.add(field.getValue());
+                            }
+
+                            if (matchingFieldsAndValues.size() == 2 * batchSize) {
+                                removed += removeIfUnchanged(connection, bucketKey, matchingFieldsAndValues);
+                            }
+
+                            if (++read % batchSize == 0) {
+                                pause.run();
+                            }
+                        }
+                    }
+
+                    removed += removeIfUnchanged(connection, bucketKey, matchingFieldsAndValues);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e.getMessage(), e);
+            }
+
+            return removed;
+        });
+    }
+
+    private static long removeIfUnchanged(RedisConnection connection, byte[] bucketKey, List<byte[]> fieldsAndValues) {
+        if (fieldsAndValues.isEmpty()) {
+            return 0;
+        }
+
+        final List<byte[]> keyAndArgs = new ArrayList<>(fieldsAndValues.size() + 1);
+        keyAndArgs.add(bucketKey);
+        keyAndArgs.addAll(fieldsAndValues);
+        fieldsAndValues.clear();
+
+        final Long removed = connection.eval(HDEL_IF_UNCHANGED_SCRIPT, ReturnType.INTEGER, 1,
+                keyAndArgs.toArray(new byte[0][]));
+
+        return removed == null ? 0 : removed;
+    }
+
+    private byte[] toBucketKey(RedisCacheEntry entry) {
+        return toBucketKey(entry.getType(), entry.getIp().toBytes(), bucketBits);
+    }
+
+    /**
+     * Gets the key of the bucket of the given address: the location type, followed by the address without its last
+     * {@code bucketBits} bits (the whole bytes are dropped, and the remaining bits of a partial byte are zeroed).
+     */
+    static byte[] toBucketKey(String type, byte[] address, int bucketBits) {
+        final byte[] prefix = type.getBytes(StandardCharsets.US_ASCII);
+        final int addressLength = address.length - bucketBits / Byte.SIZE;
+
+        final byte[] key = Arrays.copyOf(prefix, prefix.length + 1 + addressLength);
+        key[prefix.length] = SEPARATOR;
+        System.arraycopy(address, 0, key, prefix.length + 1, addressLength);
+
+        final int partialBits = bucketBits % Byte.SIZE;
+        if (partialBits != 0) {
+            key[key.length - 1] &= (byte) (0xFF << partialBits);
+        }
+
+        return key;
+    }
+
+    /**
+     * Gets the field of the given address inside its bucket: the last {@code bucketBits} bits of the address, in as few
+     * bytes as they fit.
+     */
+    static byte[] toField(byte[] address, int bucketBits) {
+        final int fieldLength = (bucketBits + Byte.SIZE - 1) / Byte.SIZE;
+        final byte[] field = Arrays.copyOfRange(address, address.length - fieldLength, address.length);
+
+        final int partialBits = bucketBits % Byte.SIZE;
+        if (partialBits != 0) {
+            field[0] &= (byte) (0xFF >>> (Byte.SIZE - partialBits));
+        }
+
+        return field;
+    }
+}
@@ -0,0 +1,49 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.Optional;
+
+/**
+ * Outcome of looking up the location of an IP address in a cache, which is either a miss, when the IP address isn't
+ * cached, or a hit. The location of a hit is wrapped in an {@link Optional}, which is an {@link Optional#empty()} if
+ * the IP address is cached as not resolving to any location (a tombstone).
+ *
+ * @param <V> the type of the cached location.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class CacheLookup<V> {
+    private static final CacheLookup<?> MISS = new CacheLookup<>(false, Optional.empty());
+
+    /**
+     * Whether the IP address is cached, either with a location or as not resolving to any location.
+     */
+    boolean hit;
+
+    /**
+     * The cached location, or an {@link Optional#empty()} if the IP address is cached as not resolving to any location
+     * or it's not cached at all (check {@link #isHit()}).
+     */
+    Optional<V> location;
+
+    /**
+     * @param location the cached location wrapped in an {@link Optional}, or an {@link Optional#empty()} if the IP
+     * address is cached as not resolving to any location.
+     *
+     * @return a hit with the given location.
+     */
+    public static <V> CacheLookup<V> hit(Optional<V> location) {
+        return new CacheLookup<>(true, location);
+    }
+
+    /**
+     * @return a miss, for an IP address that isn't cached.
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> CacheLookup<V> miss() {
+        return (CacheLookup<V>) MISS;
+    }
+}
@@ -0,0 +1,63 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Class that places keys on a set of named nodes through consistent hashing. Every node is hashed onto a ring at
+ * {@code virtualNodes} points, and a key belongs to the node of the first point at or after its own hash. As the
+ * points of a node only depend on its name, adding a node to N others only moves about 1/(N + 1) of the keys (the ones
+ * landing right before its points), and removing it only moves its own keys.
+ *
+ * @param <N> the type of the nodes.
+ */
+public class ConsistentHashRing<N> {
+    private final NavigableMap<Long, N> ring = new TreeMap<>();
+
+    /**
+     * @param nodes the nodes, by their unique name, e.g. {@code host:port}.
+     * @param virtualNodes the number of points of each node on the ring.
+     */
+    public ConsistentHashRing(Map<String, N> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("a ring needs nodes and virtual nodes: " + nodes.keySet());
+        }
+
+        nodes.forEach((name, node) -> {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash((name + '#' + i).getBytes(StandardCharsets.UTF_8)), node);
+            }
+        });
+    }
+
+    /**
+     * Gets the node the given key belongs to.
+     *
+     * @param key the key.
+     *
+     * @return the node of the key.
+     */
+    public N getNode(byte[] key) {
+        final Map.Entry<Long, N> point = ring.ceilingEntry(hash(key));
+        return point == null ? ring.firstEntry().getValue() : point.getValue();
+    }
+
+    /**
+     * Hashes the given bytes with the 64-bit FNV-1a, followed by the SplitMix64 finalizer, so keys differing only in
+     * their last bytes (e.g. IP addresses of the same network) are spread over the ring.
+     */
+    static long hash(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte value : bytes) {
+            hash ^= value & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+
+        return hash ^ (hash >>> 31);
+    }
+}
@@ -0,0 +1,82 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.util.Pool;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Extension of {@link JedisConnectionFactory} that publishes the state of its connection pool as metrics: the
+ * connections borrowed ({@code redis.pool.active}) and idle ({@code redis.pool.idle}), the threads waiting for a
+ * connection ({@code redis.pool.waiters}), and the mean and max time the borrowers waited for a connection
+ * ({@code redis.pool.borrow.wait.mean} and {@code redis.pool.borrow.wait.max}), tagged with the {@code host:port} of
+ * the node. The metrics read 0 until the pool is created.
+ */
+public class InstrumentedJedisConnectionFactory extends JedisConnectionFactory implements MeterBinder {
+    private volatile Pool<Jedis> pool;
+
+    public InstrumentedJedisConnectionFactory(RedisStandaloneConfiguration configuration,
+                                              JedisClientConfiguration clientConfiguration) {
+        super(configuration, clientConfiguration);
+    }
+
+    /**
+     * Publishes the state of the connection pool into the given {@link MeterRegistry}.
+     *
+     * @param registry the {@link MeterRegistry} the metrics are published to.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindPoolGaugeTo(registry, "redis.pool.active", Pool::getNumActive,
+                "The number of Redis connections borrowed from the pool.");
+        bindPoolGaugeTo(registry, "redis.pool.idle", Pool::getNumIdle,
+                "The number of idle Redis connections in the pool.");
+        bindPoolGaugeTo(registry, "redis.pool.waiters", Pool::getNumWaiters,
+                "The number of threads waiting for a Redis connection from the pool.");
+        TimeGauge.builder("redis.pool.borrow.wait.mean", this, TimeUnit.MILLISECONDS,
+                factory -> factory.readPool(Pool::getMeanBorrowWaitTimeMillis))
+                 .tag("node", getNode())
+                 .description("The mean time the recent borrowers waited for a Redis connection from the pool.")
+                 .register(registry);
+        TimeGauge.builder("redis.pool.borrow.wait.max", this, TimeUnit.MILLISECONDS,
+                factory -> factory.readPool(Pool::getMaxBorrowWaitTimeMillis))
+                 .tag("node", getNode())
+                 .description("The max time a borrower waited for a Redis connection from the pool.")
+                 .register(registry);
+    }
+
+    @Override
+    protected Pool<Jedis> createRedisPool() {
+        final Pool<Jedis> redisPool = super.createRedisPool();
+        this.pool = redisPool;
+
+        return redisPool;
+    }
+
+    private void bindPoolGaugeTo(MeterRegistry registry,
+                                 String name,
+                                 ToDoubleFunction<Pool<Jedis>> value,
+                                 String description) {
+        Gauge.builder(name, this, factory -> factory.readPool(value))
+             .tag("node", getNode())
+             .description(description)
+             .register(registry);
+    }
+
+    private String getNode() {
+        return getHostName() + ':' + getPort();
+    }
+
+    private double readPool(ToDoubleFunction<Pool<Jedis>> value) {
+        final Pool<Jedis> current = pool;
+        return current == null || current.isClosed() ? 0 : value.applyAsDouble(current);
+    }
+}
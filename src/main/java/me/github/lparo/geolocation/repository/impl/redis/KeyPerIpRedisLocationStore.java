@@ -0,0 +1,230 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import me.github.lparo.geolocation.domain.IpAddress;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Implementing class of {@link RedisLocationStore} that stores the encoded locations one key per IP address and
+ * location type. The key is made of the location type (e.g. {@code CITY:}) followed by the compact binary form of the
+ * IP address, and every key expires after {@code REDIS_CACHE_TTL}, so the cache is bounded by the Redis eviction
+ * policies and its keys can be spread across Redis nodes (check {@link RedisShards}). It's the default layout, used
+ * when the {@code REDIS_CACHE_LAYOUT} property is set to {@code key-per-ip}.
+ */
+@Component
+@ConditionalOnProperty(name = "REDIS_CACHE_LAYOUT", havingValue = "key-per-ip", matchIfMissing = true)
+public class KeyPerIpRedisLocationStore implements RedisLocationStore {
+    private static final byte SEPARATOR = ':';
+
+    /**
+     * Unlinks each of the {@code KEYS} whose value is still the matching {@code ARGV} of the same index, returning
+     * the number of keys unlinked.
+     */
+    static final byte[] UNLINK_IF_UNCHANGED_SCRIPT = (
+            "local removed = 0\n"
+            + "for i, key in ipairs(KEYS) do\n"
+            + "  if redis.call('GET', key) == ARGV[i] then\n"
+            + "    redis.call('UNLINK', key)\n"
+            + "    removed = removed + 1\n"
+            + "  end\n"
+            + "end\n"
+            + "return removed"
+    ).getBytes(StandardCharsets.UTF_8);
+
+    private final RedisShards redisShards;
+    private final Duration ttl;
+
+    @Autowired
+    public KeyPerIpRedisLocationStore(RedisShards redisShards,
+                                      @Value("${REDIS_CACHE_TTL:7d}") Duration ttl) {
+        this.redisShards = redisShards;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public byte[] get(String type, IpAddress ip) {
+        final byte[] key = toKey(type, ip);
+        return redisShards.read(key, node -> node.opsForValue().get(key));
+    }
+
+    @Override
+    public Mono<byte[]> getAsync(String type, IpAddress ip) {
+        final byte[] key = toKey(type, ip);
+        return redisShards.readAsync(key, node -> node.opsForValue().get(key));
+    }
+
+    @Override
+    public void put(String type, IpAddress ip, byte[] value) {
+        final byte[] key = toKey(type, ip);
+        redisShards.write(key, node -> {
+            node.opsForValue().set(key, value, ttl);
+            return null;
+        });
+    }
+
+    @Override
+    public void putIfAbsent(String type, IpAddress ip, byte[] value) {
+        final byte[] key = toKey(type, ip);
+        redisShards.write(key, node -> node.opsForValue().setIfAbsent(key, value, ttl));
+    }
+
+    /**
+     * Stores the entries of each Redis node in a single pipelined round trip.
+     */
+    @Override
+    public void putAll(Collection<RedisCacheEntry> entries) {
+        final Expiration expiration = Expiration.from(ttl);
+
+        redisShards.writeAll(entries, entry -> toKey(entry.getType(), entry.getIp()), (node, nodeEntries) ->
+                node.executePipelined((RedisCallback<Object>) connection -> {
+                    for (RedisCacheEntry entry : nodeEntries) {
+                        connection.set(toKey(entry.getType(), entry.getIp()), entry.getValue(),
+                                entry.getTtl() == null ? expiration : Expiration.from(entry.getTtl()),
+                                SetOption.upsert());
+                    }
+
+                    return null;
+                }));
+    }
+
+    @Override
+    public byte[] getKeyPrefix(String type) {
+        final byte[] prefix = type.getBytes(StandardCharsets.US_ASCII);
+
+        final byte[] keyPrefix = Arrays.copyOf(prefix, prefix.length + 1);
+        keyPrefix[prefix.length] = SEPARATOR;
+
+        return keyPrefix;
+    }
+
+    @Override
+    public void forEachIpOfKey(byte[] key, BiConsumer<String, IpAddress> action) {
+        final int separator = indexOf(key, SEPARATOR);
+        final int addressLength = key.length - separator - 1;
+        if (separator < 1 || addressLength != 4 && addressLength != 16) {
+            return;
+        }
+
+        action.accept(
+                new String(key, 0, separator, StandardCharsets.US_ASCII),
+                IpAddress.fromBytes(Arrays.copyOfRange(key, separator + 1, key.length))
+        );
+    }
+
+    /**
+     * Reads the keys of each batch with a single {@code MGET}, and removes the matching ones with a single script call,
+     * unlinking (which frees their memory in the background) the ones whose value hasn't changed since.
+     */
+    @Override
+    public long removeIf(RedisTemplate<byte[], byte[]> node,
+                         String type,
+                         int batchSize,
+                         Predicate<byte[]> predicate,
+                         Runnable pause) {
+        final ScanOptions options = ScanOptions.scanOptions()
+                                               .match(toScanPattern(getKeyPrefix(type)))
+                                               .count(batchSize)
+                                               .build();
+
+        return node.execute((RedisCallback<Long>) connection -> {
+            final List<byte[]> keys = new ArrayList<>(batchSize);
+
+            long removed = 0;
+            try (Cursor<byte[]> cursor = connection.scan(options)) {
+                while (cursor.hasNext()) {
+                    keys.add(cursor.next());
+                    if (keys.size() == batchSize) {
+                        removed += removeIf(connection, keys, predicate);
+                        pause.run();
+                    }
+                }
+
+                removed += removeIf(connection, keys, predicate);
+            } catch (IOException e) {
+                throw new RuntimeException(e.getMessage(), e);
+            }
+
+            return removed;
+        });
+    }
+
+    private static long removeIf(RedisConnection connection, List<byte[]> keys, Predicate<byte[]> predicate) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+
+        final List<byte[]> values = connection.mGet(keys.toArray(new byte[0][]));
+        final List<byte[]> matchingKeys = new ArrayList<>();
+        final List<byte[]> matchingValues = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            final byte[] value = values.get(i);
+            if (value != null && predicate.test(value)) {
+                matchingKeys.add(keys.get(i));
+                matchingValues.add(value);
+            }
+        }
+
+        keys.clear();
+        if (matchingKeys.isEmpty()) {
+            return 0;
+        }
+
+        final List<byte[]> keysAndValues = new ArrayList<>(matchingKeys);
+        keysAndValues.addAll(matchingValues);
+        final Long removed = connection.eval(UNLINK_IF_UNCHANGED_SCRIPT, ReturnType.INTEGER, matchingKeys.size(),
+                keysAndValues.toArray(new byte[0][]));
+
+        return removed == null ? 0 : removed;
+    }
+
+    static byte[] toKey(String type, IpAddress ip) {
+        final byte[] prefix = type.getBytes(StandardCharsets.US_ASCII);
+        final byte[] address = ip.toBytes();
+
+        final byte[] key = new byte[prefix.length + 1 + address.length];
+        System.arraycopy(prefix, 0, key, 0, prefix.length);
+        key[prefix.length] = SEPARATOR;
+        System.arraycopy(address, 0, key, prefix.length + 1, address.length);
+
+        return key;
+    }
+
+    /**
+     * Gets the {@code SCAN} pattern matching every key that starts with the given key prefix, which is plain ASCII
+     * without any glob-style special character.
+     */
+    static String toScanPattern(byte[] keyPrefix) {
+        return new String(keyPrefix, StandardCharsets.US_ASCII) + '*';
+    }
+
+    static int indexOf(byte[] bytes, byte value) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,118 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class responsible for draining the legacy hashes of the Redis cache, left behind by the versions that kept every
+ * entry of a location type under a single key: the ones named {@code CITY}, {@code COUNTRY} and {@code LOCATION}
+ * holding {@link LocationCodec} values, and the older ones under the JDK-serialized names holding JDK-serialized
+ * values. The legacy entries don't tell which build of the database they were resolved from, so they'd be stale in the
+ * layout of the {@link RedisLocationStore} (treated as misses, and removed by the {@link StaleRedisCacheCleaner}):
+ * they're just removed instead of being copied over. The hashes are walked with {@code HSCAN} and emptied with
+ * {@code HDEL} in small batches in a background thread, so Redis is never blocked (as it would be by deleting a whole
+ * hash at once), and Redis drops each hash once it's empty. It's enabled unless the {@code REDIS_LEGACY_MIGRATION}
+ * property is set to {@code false}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "REDIS_LEGACY_MIGRATION", havingValue = "true", matchIfMissing = true)
+public class LegacyRedisCacheMigrator {
+    private static final JdkSerializationRedisSerializer LEGACY_SERIALIZER = new JdkSerializationRedisSerializer();
+    private static final List<String> TYPES = List.of("CITY", "COUNTRY", "LOCATION");
+
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final int batchSize;
+
+    @Autowired
+    public LegacyRedisCacheMigrator(RedisConnectionFactory redisConnectionFactory,
+                                    @Value("${REDIS_LEGACY_MIGRATION_BATCH_SIZE:500}") int batchSize) {
+        this.redisConnectionFactory = redisConnectionFactory;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Starts draining the legacy hashes in a background thread once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        final Thread thread = new Thread(this::drainQuietly, "redis-legacy-migrator");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Removes every entry of the legacy city, country and location hashes.
+     *
+     * @return the number of legacy entries removed.
+     */
+    public long drain() {
+        long drained = 0;
+        try (RedisConnection connection = redisConnectionFactory.getConnection()) {
+            for (String type : TYPES) {
+                drained += drain(connection, type, type.getBytes(StandardCharsets.UTF_8))
+                        + drain(connection, type, LEGACY_SERIALIZER.serialize(type));
+            }
+        }
+
+        return drained;
+    }
+
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            log.error("unable to drain the legacy Redis cache hashes", e);
+        }
+    }
+
+    private long drain(RedisConnection connection, String type, byte[] hashKey) {
+        final List<byte[]> fields = new ArrayList<>(batchSize);
+
+        long drained = 0;
+        try (Cursor<Map.Entry<byte[], byte[]>> cursor = connection.hScan(hashKey, ScanOptions.scanOptions().count(batchSize).build())) {
+            while (cursor.hasNext()) {
+                fields.add(cursor.next().getKey());
+                if (fields.size() == batchSize) {
+                    drained += delete(connection, hashKey, fields);
+                }
+            }
+
+            drained += delete(connection, hashKey, fields);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+
+        if (drained > 0) {
+            log.info("removed {} legacy {} entries of the Redis cache", drained, type);
+        }
+
+        return drained;
+    }
+
+    private static int delete(RedisConnection connection, byte[] hashKey, List<byte[]> fields) {
+        final int deleted = fields.size();
+        if (deleted > 0) {
+            connection.hDel(hashKey, fields.toArray(new byte[0][]));
+            fields.clear();
+        }
+
+        return deleted;
+    }
+}
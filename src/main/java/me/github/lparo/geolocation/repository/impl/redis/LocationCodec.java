@@ -0,0 +1,388 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import me.github.lparo.geolocation.domain.City;
+import me.github.lparo.geolocation.domain.Country;
+import me.github.lparo.geolocation.domain.IpCityLocation;
+import me.github.lparo.geolocation.domain.IpCountryLocation;
+import me.github.lparo.geolocation.domain.IpLocation;
+import me.github.lparo.geolocation.domain.State;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Compact binary codec of the location domain objects stored in the Redis cache, replacing the JDK serialization. A
+ * value starts with a {@link #FORMAT_VERSION} byte and the build epoch of the database the location was resolved from
+ * as an unsigned varint, followed by the fields of each part of the location in a fixed order: a presence byte for every
+ * {@link City}, {@link State} and {@link Country}, the geo name ids as unsigned varints and the strings as a varint
+ * length (0 for null, the UTF-8 length + 1 otherwise) followed by their UTF-8 bytes. Values are decoded by reading the
+ * fields straight into the interned domain objects, without any reflection. Values of the
+ * {@link #FORMAT_VERSION_WITHOUT_BUILD_EPOCH}, written before the build epoch was kept, are still decoded, and their
+ * build epoch is {@link #UNKNOWN_BUILD_EPOCH}.
+ *
+ * <p>An IP address that resolves to no location is cached as a tombstone instead: a {@link #NOT_FOUND} byte followed by
+ * the epoch second it expires at and the build epoch of the database, both as unsigned varints. Its expiry is kept in
+ * the value, as the entries of a bucket can't expire on their own. Tombstones are not decoded as locations, so readers
+ * unaware of them just see a cache miss.
+ */
+public final class LocationCodec {
+    static final byte FORMAT_VERSION = 2;
+    static final byte FORMAT_VERSION_WITHOUT_BUILD_EPOCH = 1;
+    static final byte NOT_FOUND = 0;
+    static final long UNKNOWN_BUILD_EPOCH = 0;
+
+    private static final int ABSENT = 0;
+    private static final int PRESENT = 1;
+
+    private LocationCodec() {
+    }
+
+    /**
+     * @param ipCityLocation the {@link IpCityLocation} to be encoded.
+     * @param buildEpoch the build epoch of the database the {@link IpCityLocation} was resolved from.
+     *
+     * @return the encoded {@link IpCityLocation}.
+     */
+    public static byte[] encode(IpCityLocation ipCityLocation, long buildEpoch) {
+        final Writer writer = new Writer(buildEpoch);
+        writer.writeCity(ipCityLocation.getCity());
+        writer.writeState(ipCityLocation.getState());
+
+        return writer.toByteArray();
+    }
+
+    /**
+     * @param ipCountryLocation the {@link IpCountryLocation} to be encoded.
+     * @param buildEpoch the build epoch of the database the {@link IpCountryLocation} was resolved from.
+     *
+     * @return the encoded {@link IpCountryLocation}.
+     */
+    public static byte[] encode(IpCountryLocation ipCountryLocation, long buildEpoch) {
+        final Writer writer = new Writer(buildEpoch);
+        writer.writeCountry(ipCountryLocation.getCountry());
+
+        return writer.toByteArray();
+    }
+
+    /**
+     * @param ipLocation the {@link IpLocation} to be encoded.
+     * @param buildEpoch the build epoch of the database the {@link IpLocation} was resolved from.
+     *
+     * @return the encoded {@link IpLocation}.
+     */
+    public static byte[] encode(IpLocation ipLocation, long buildEpoch) {
+        final Writer writer = new Writer(buildEpoch);
+        writer.writeCity(ipLocation.getCity());
+        writer.writeState(ipLocation.getState());
+        writer.writeCountry(ipLocation.getCountry());
+
+        return writer.toByteArray();
+    }
+
+    /**
+     * @param expiresAt when the tombstone expires.
+     * @param buildEpoch the build epoch of the database the IP address was looked up in.
+     *
+     * @return the tombstone of an IP address that resolves to no location.
+     */
+    public static byte[] encodeNotFound(Instant expiresAt, long buildEpoch) {
+        final Writer writer = new Writer(NOT_FOUND);
+        writer.writeVarLong(expiresAt.getEpochSecond());
+        writer.writeVarLong(buildEpoch);
+
+        return writer.toByteArray();
+    }
+
+    /**
+     * Gets the build epoch of the database a cached location or tombstone was resolved from, reading only the start of
+     * the value.
+     *
+     * @param bytes the cached value.
+     *
+     * @return the build epoch, or {@link #UNKNOWN_BUILD_EPOCH} if the value doesn't carry it, or it's malformed.
+     */
+    public static long getBuildEpoch(byte[] bytes) {
+        if (bytes.length < 2 || bytes[0] != FORMAT_VERSION && bytes[0] != NOT_FOUND) {
+            return UNKNOWN_BUILD_EPOCH;
+        }
+
+        try {
+            final Reader reader = new Reader(bytes);
+            if (bytes[0] == NOT_FOUND) {
+                reader.readVarLong();
+
+                // tombstones written before the build epoch was kept end right after their expiry
+                if (!reader.hasRemaining()) {
+                    return UNKNOWN_BUILD_EPOCH;
+                }
+            }
+
+            return reader.readVarLong();
+        } catch (IllegalArgumentException e) {
+            return UNKNOWN_BUILD_EPOCH;
+        }
+    }
+
+    /**
+     * @param bytes the cached value.
+     * @param now the current instant.
+     *
+     * @return whether the value is a tombstone that hasn't expired yet.
+     */
+    public static boolean isNotFound(byte[] bytes, Instant now) {
+        if (bytes.length < 2 || bytes[0] != NOT_FOUND) {
+            return false;
+        }
+
+        try {
+            final Reader reader = new Reader(bytes);
+            final long expiresAt = reader.readVarLong();
+            if (reader.hasRemaining()) {
+                reader.readVarLong();
+            }
+
+            return reader.finish(expiresAt) > now.getEpochSecond();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param bytes the encoded {@link IpCityLocation}.
+     *
+     * @return the decoded {@link IpCityLocation}, or null if the value was encoded with an unknown format version.
+     *
+     * @throws IllegalArgumentException if the value is truncated or malformed.
+     */
+    public static IpCityLocation decodeIpCityLocation(byte[] bytes) {
+        final Reader reader = Reader.of(bytes);
+        if (reader == null) {
+            return null;
+        }
+
+        return reader.finish(IpCityLocation.of(reader.readCity(), reader.readState()));
+    }
+
+    /**
+     * @param bytes the encoded {@link IpCountryLocation}.
+     *
+     * @return the decoded {@link IpCountryLocation}, or null if the value was encoded with an unknown format version.
+     *
+     * @throws IllegalArgumentException if the value is truncated or malformed.
+     */
+    public static IpCountryLocation decodeIpCountryLocation(byte[] bytes) {
+        final Reader reader = Reader.of(bytes);
+        if (reader == null) {
+            return null;
+        }
+
+        return reader.finish(IpCountryLocation.of(reader.readCountry()));
+    }
+
+    /**
+     * @param bytes the encoded {@link IpLocation}.
+     *
+     * @return the decoded {@link IpLocation}, or null if the value was encoded with an unknown format version.
+     *
+     * @throws IllegalArgumentException if the value is truncated or malformed.
+     */
+    public static IpLocation decodeIpLocation(byte[] bytes) {
+        final Reader reader = Reader.of(bytes);
+        if (reader == null) {
+            return null;
+        }
+
+        return reader.finish(IpLocation.of(reader.readCity(), reader.readState(), reader.readCountry()));
+    }
+
+    private static final class Writer {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+
+        private Writer(long buildEpoch) {
+            this(FORMAT_VERSION);
+            writeVarLong(buildEpoch);
+        }
+
+        private Writer(byte version) {
+            out.write(version);
+        }
+
+        private void writeCity(City city) {
+            if (writePresence(city)) {
+                writeString(city.getName());
+                writeVarInt(city.getGeoNameId());
+            }
+        }
+
+        private void writeState(State state) {
+            if (writePresence(state)) {
+                writeString(state.getName());
+                writeVarInt(state.getGeoNameId());
+                writeString(state.getIsoCode());
+            }
+        }
+
+        private void writeCountry(Country country) {
+            if (writePresence(country)) {
+                writeString(country.getName());
+                writeVarInt(country.getGeoNameId());
+                out.write(country.isInEuropeanUnion() ? 1 : 0);
+                writeString(country.getIsoCode());
+            }
+        }
+
+        private boolean writePresence(Object value) {
+            out.write(value == null ? ABSENT : PRESENT);
+            return value != null;
+        }
+
+        private void writeString(String value) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length + 1);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        private void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+
+            out.write((int) value);
+        }
+
+        private byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        private Reader(byte[] bytes) {
+            this.bytes = bytes;
+            this.position = 1;
+        }
+
+        private static Reader of(byte[] bytes) {
+            if (bytes.length == 0 || bytes[0] != FORMAT_VERSION && bytes[0] != FORMAT_VERSION_WITHOUT_BUILD_EPOCH) {
+                return null;
+            }
+
+            final Reader reader = new Reader(bytes);
+            if (bytes[0] == FORMAT_VERSION) {
+                reader.readVarLong();
+            }
+
+            return reader;
+        }
+
+        private City readCity() {
+            if (!readPresence()) {
+                return null;
+            }
+
+            return City.interned(readString(), readVarInt());
+        }
+
+        private State readState() {
+            if (!readPresence()) {
+                return null;
+            }
+
+            return State.interned(readString(), readVarInt(), readString());
+        }
+
+        private Country readCountry() {
+            if (!readPresence()) {
+                return null;
+            }
+
+            return Country.interned(readString(), readVarInt(), readByte() != 0, readString());
+        }
+
+        private boolean readPresence() {
+            final int presence = readByte();
+            if (presence != ABSENT && presence != PRESENT) {
+                throw new IllegalArgumentException("malformed presence flag in location value");
+            }
+
+            return presence == PRESENT;
+        }
+
+        private String readString() {
+            final int length = readVarInt() - 1;
+            if (length < 0) {
+                return null;
+            }
+
+            if (length > bytes.length - position) {
+                throw new IllegalArgumentException("truncated location value");
+            }
+
+            final String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+
+            return value;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+                final int b = readByte();
+                value |= (b & 0x7F) << shift;
+
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+
+            throw new IllegalArgumentException("malformed varint in location value");
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < Long.SIZE; shift += 7) {
+                final int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+
+            throw new IllegalArgumentException("malformed varint in location value");
+        }
+
+        private boolean hasRemaining() {
+            return position < bytes.length;
+        }
+
+        private int readByte() {
+            if (position == bytes.length) {
+                throw new IllegalArgumentException("truncated location value");
+            }
+
+            return bytes[position++] & 0xFF;
+        }
+
+        private <T> T finish(T value) {
+            if (position != bytes.length) {
+                throw new IllegalArgumentException("trailing bytes in location value");
+            }
+
+            return value;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import lombok.Value;
+import me.github.lparo.geolocation.domain.IpAddress;
+
+import java.time.Duration;
+
+/**
+ * Class representing an encoded location waiting to be written into the Redis cache by the {@link RedisCacheWriter}.
+ * Its TTL is null when the entry expires after the {@code REDIS_CACHE_TTL} of the {@link RedisLocationStore}.
+ */
+@Value(staticConstructor = "of")
+public class RedisCacheEntry {
+    String type;
+    IpAddress ip;
+    byte[] value;
+    Duration ttl;
+}
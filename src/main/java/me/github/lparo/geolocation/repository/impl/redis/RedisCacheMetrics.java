@@ -0,0 +1,65 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class that counts the hits and misses of a Redis cache tier, publishing them as the {@code cache.gets} metric tagged
+ * with the cache name and the {@code hit}/{@code miss} result, the same way the Caffeine caches are published, so the
+ * hit ratio of every tier is read the same way.
+ */
+class RedisCacheMetrics implements MeterBinder {
+    private final String name;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param name the name of the cache in the metrics.
+     */
+    RedisCacheMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records the result of a cache lookup.
+     *
+     * @param hit whether the lookup found the entry.
+     */
+    void record(boolean hit) {
+        (hit ? hits : misses).increment();
+    }
+
+    /**
+     * @return the number of lookups that found the entry.
+     */
+    long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of lookups that didn't find the entry.
+     */
+    long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Publishes the cache metrics into the given {@link MeterRegistry}.
+     *
+     * @param registry the {@link MeterRegistry} the metrics are published to.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                       .tags("cache", name, "result", "hit")
+                       .description("The number of times cache lookup methods have returned a cached value.")
+                       .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                       .tags("cache", name, "result", "miss")
+                       .description("The number of times cache lookup methods have returned an uncached value.")
+                       .register(registry);
+    }
+}
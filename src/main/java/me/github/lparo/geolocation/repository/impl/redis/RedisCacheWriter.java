@@ -0,0 +1,211 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import me.github.lparo.geolocation.domain.IpAddress;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class responsible for writing the cache fills into Redis behind the requests that produced them. The fills are
+ * pushed onto a bounded queue of {@code REDIS_CACHE_WRITE_QUEUE_SIZE} entries, and a background thread drains it in
+ * batches of up to {@code REDIS_CACHE_WRITE_BATCH_SIZE} entries, each batch being stored through the
+ * {@link RedisLocationStore} in a single pipelined round trip. A request never waits for Redis to cache what it has
+ * already resolved: when the queue is full (e.g. Redis is slow or down), the fill is dropped, which only costs a later
+ * cache miss. The written, dropped and failed fills and the queue size are published as the {@code redis.cache.writes}
+ * and {@code redis.cache.write.queue} metrics.
+ */
+@Slf4j
+@Component
+public class RedisCacheWriter implements MeterBinder {
+    private static final long DRAIN_POLL_INTERVAL_MILLIS = 5;
+
+    private final RedisLocationStore redisLocationStore;
+    private final BlockingQueue<RedisCacheEntry> queue;
+    private final int batchSize;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicLong pending = new AtomicLong();
+
+    private Thread thread;
+
+    @Autowired
+    public RedisCacheWriter(RedisLocationStore redisLocationStore,
+                            @Value("${REDIS_CACHE_WRITE_QUEUE_SIZE:10000}") int queueSize,
+                            @Value("${REDIS_CACHE_WRITE_BATCH_SIZE:256}") int batchSize) {
+        this.redisLocationStore = redisLocationStore;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Starts writing the queued cache fills in a background thread.
+     */
+    @PostConstruct
+    public void start() {
+        thread = new Thread(this::write, "redis-cache-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the background thread, and writes the cache fills still queued.
+     *
+     * @throws InterruptedException in case it's interrupted while waiting for the background thread to stop.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (thread != null) {
+            thread.interrupt();
+            thread.join();
+        }
+
+        flush();
+    }
+
+    /**
+     * Queues an encoded location to be written into Redis, without waiting for it. It's dropped if the queue is full.
+     *
+     * @param type the location type, e.g. {@code CITY}.
+     * @param ip the IP address.
+     * @param value the encoded location.
+     *
+     * @return whether the location was queued.
+     */
+    public boolean enqueue(String type, IpAddress ip, byte[] value) {
+        return enqueue(type, ip, value, null);
+    }
+
+    /**
+     * Queues an encoded value to be written into Redis with its own TTL, without waiting for it. It's dropped if the
+     * queue is full.
+     *
+     * @param type the location type, e.g. {@code CITY}.
+     * @param ip the IP address.
+     * @param value the encoded value.
+     * @param ttl how long the value lives in Redis, or null for the {@code REDIS_CACHE_TTL}.
+     *
+     * @return whether the value was queued.
+     */
+    public boolean enqueue(String type, IpAddress ip, byte[] value, Duration ttl) {
+        pending.incrementAndGet();
+        final boolean queued = queue.offer(RedisCacheEntry.of(type, ip, value, ttl));
+        if (!queued) {
+            pending.decrementAndGet();
+            dropped.increment();
+        }
+
+        return queued;
+    }
+
+    /**
+     * Writes every queued cache fill in batches, in the calling thread.
+     */
+    void flush() {
+        List<RedisCacheEntry> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    /**
+     * Waits until every cache fill queued so far has been written into Redis (or has failed to), e.g. to make sure the
+     * fills of a cache warm-up are in Redis before going on.
+     *
+     * @param timeout how long to wait at most.
+     *
+     * @return whether the queue was drained in time.
+     *
+     * @throws InterruptedException in case it's interrupted while waiting.
+     */
+    public boolean awaitDrained(Duration timeout) throws InterruptedException {
+        final long deadline = System.nanoTime() + timeout.toNanos();
+        while (pending.get() > 0) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+
+            Thread.sleep(DRAIN_POLL_INTERVAL_MILLIS);
+        }
+
+        return true;
+    }
+
+    long getWritten() {
+        return written.sum();
+    }
+
+    long getDropped() {
+        return dropped.sum();
+    }
+
+    long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * Publishes the writer metrics into the given {@link MeterRegistry}.
+     *
+     * @param registry the {@link MeterRegistry} the metrics are published to.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("redis.cache.writes", written, LongAdder::sum)
+                       .tag("result", "written")
+                       .description("The number of cache fills written into Redis.")
+                       .register(registry);
+        FunctionCounter.builder("redis.cache.writes", dropped, LongAdder::sum)
+                       .tag("result", "dropped")
+                       .description("The number of cache fills dropped because the write queue was full.")
+                       .register(registry);
+        FunctionCounter.builder("redis.cache.writes", failed, LongAdder::sum)
+                       .tag("result", "failed")
+                       .description("The number of cache fills lost because Redis failed to write them.")
+                       .register(registry);
+        Gauge.builder("redis.cache.write.queue", queue, BlockingQueue::size)
+             .description("The number of cache fills waiting to be written into Redis.")
+             .register(registry);
+    }
+
+    private void write() {
+        try {
+            while (true) {
+                final List<RedisCacheEntry> batch = new ArrayList<>(batchSize);
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(List<RedisCacheEntry> batch) {
+        try {
+            redisLocationStore.putAll(batch);
+            written.add(batch.size());
+        } catch (RuntimeException e) {
+            failed.add(batch.size());
+            log.warn("unable to write {} entries into the Redis cache: {}", batch.size(), e.getMessage());
+        } finally {
+            pending.addAndGet(-batch.size());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.domain.IpLocation;
+import me.github.lparo.geolocation.repository.IpLocationRepository;
+import me.github.lparo.geolocation.repository.impl.geoip2.ReloadableDatabaseReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Implementing class of {@link IpLocationRepository} responsible for fetching the {@link IpLocation} information
+ * from the underlying Redis server, which is being used as a cache.
+ */
+@Repository("redisIpLocationRepository")
+public class RedisIpLocationRepository implements IpLocationRepository, MeterBinder {
+    private static final String REPOSITORY_TYPE = "LOCATION";
+
+    private final RedisLocationStore redisLocationStore;
+    private final RedisCacheWriter redisCacheWriter;
+    private final ReloadableDatabaseReader reloadableDatabaseReader;
+    private final Duration notFoundTtl;
+    private final RedisCacheMetrics metrics = new RedisCacheMetrics("redis.location");
+
+    @Autowired
+    public RedisIpLocationRepository(RedisLocationStore redisLocationStore,
+                                     RedisCacheWriter redisCacheWriter,
+                                     ReloadableDatabaseReader reloadableDatabaseReader,
+                                     @Value("${NEGATIVE_CACHE_TTL:1h}") Duration notFoundTtl) {
+        this.redisLocationStore = redisLocationStore;
+        this.redisCacheWriter = redisCacheWriter;
+        this.reloadableDatabaseReader = reloadableDatabaseReader;
+        this.notFoundTtl = notFoundTtl;
+    }
+
+    /**
+     * Tries to fetch the {@link IpLocation} from the Redis cache and returns it as an {@link Optional}. If the
+     * information is missing from Redis, or the IP address is cached as not resolving to any location, then an
+     * {@link Optional#empty()} is returned instead (check {@link #findCachedLocationForIp(IpAddress)}).
+     *
+     * @param ip the IP address to have the {@link IpLocation} information fetched.
+     *
+     * @return the {@link IpLocation} information of where the IP address is located wrapped in an {@link Optional}.
+     */
+    @Override
+    public Optional<IpLocation> getLocationForIp(IpAddress ip) {
+        return findCachedLocationForIp(ip).getLocation();
+    }
+
+    /**
+     * Tries to fetch the {@link IpLocation} from the Redis cache. It uses the IP address as a locator key in the cache
+     * (check {@link RedisLocationStore}). The cached value is decoded with {@link LocationCodec}; values in an unknown
+     * format, malformed ones, or ones resolved from an older build of the database than the one in use (check
+     * {@link ReloadableDatabaseReader#getBuildEpoch()}), are treated as missing, and tombstones (IP addresses cached as
+     * not resolving to any location) as hits of an {@link Optional#empty()}. Hits (tombstones included) and misses are
+     * published as the {@code redis.location} cache metrics.
+     *
+     * @param ip the IP address to have the {@link IpLocation} information fetched.
+     *
+     * @return a {@link CacheLookup} hit with the cached {@link IpLocation}, or a miss if it's not cached.
+     */
+    public CacheLookup<IpLocation> findCachedLocationForIp(IpAddress ip) {
+        return decodeCachedLocation(redisLocationStore.get(REPOSITORY_TYPE, ip));
+    }
+
+    /**
+     * Tries to fetch the {@link IpLocation} from the Redis cache without blocking the calling thread, through the
+     * reactive client of the Redis node (check {@link RedisLocationStore#getAsync(String, IpAddress)}). The cached
+     * value is decoded the same way as by {@link #findCachedLocationForIp(IpAddress)}.
+     *
+     * @param ip the IP address to have the {@link IpLocation} information fetched.
+     *
+     * @return the cached {@link IpLocation} wrapped in an {@link Optional}, an {@link Optional#empty()} if the IP
+     * address is cached as not resolving to any location, or an empty {@link Mono} if it's not cached.
+     */
+    public Mono<Optional<IpLocation>> findCachedLocationForIpAsync(IpAddress ip) {
+        return redisLocationStore.getAsync(REPOSITORY_TYPE, ip)
+                                 .map(Optional::of)
+                                 .defaultIfEmpty(Optional.empty())
+                                 .map(value -> decodeCachedLocation(value.orElse(null)))
+                                 .filter(CacheLookup::isHit)
+                                 .map(CacheLookup::getLocation);
+    }
+
+    private CacheLookup<IpLocation> decodeCachedLocation(byte[] value) {
+        if (value != null && LocationCodec.getBuildEpoch(value) < reloadableDatabaseReader.getBuildEpoch()) {
+            metrics.record(false);
+            return CacheLookup.miss();
+        }
+
+        if (value != null && LocationCodec.isNotFound(value, Instant.now())) {
+            metrics.record(true);
+            return CacheLookup.hit(Optional.empty());
+        }
+
+        final IpLocation location = value == null ? null : decode(value);
+        metrics.record(location != null);
+
+        return location == null ? CacheLookup.miss() : CacheLookup.hit(Optional.of(location));
+    }
+
+    private static IpLocation decode(byte[] value) {
+        try {
+            return LocationCodec.decodeIpLocation(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Adds a single {@link IpLocation} in the cache, associating it with its origin IP address (as the locator key).
+     * The value is encoded with {@link LocationCodec}, tagged with the build epoch of the database in use, and expires
+     * after the configured TTL.
+     *
+     * @param ip the IP address to be used as a locator key for the incoming {@link IpLocation}.
+     * @param ipLocation the {@link IpLocation} to be persisted in the Redis cache.
+     *
+     * @return the {@link IpLocation} that was just saved into the Redis cache.
+     */
+    public IpLocation addToCache(IpAddress ip, IpLocation ipLocation) {
+        final byte[] value = LocationCodec.encode(ipLocation, reloadableDatabaseReader.getBuildEpoch());
+        redisLocationStore.put(REPOSITORY_TYPE, ip, value);
+        return ipLocation;
+    }
+
+    /**
+     * Queues a single {@link IpLocation} to be added in the cache by the {@link RedisCacheWriter}, associating it with
+     * its origin IP address (as the locator key), without waiting for Redis. The value is encoded with
+     * {@link LocationCodec} right away, and it's dropped if the write queue is full.
+     *
+     * @param ip the IP address to be used as a locator key for the incoming {@link IpLocation}.
+     * @param ipLocation the {@link IpLocation} to be persisted in the Redis cache.
+     *
+     * @return the {@link IpLocation} that was just queued.
+     */
+    public IpLocation addToCacheAsync(IpAddress ip, IpLocation ipLocation) {
+        final byte[] value = LocationCodec.encode(ipLocation, reloadableDatabaseReader.getBuildEpoch());
+        redisCacheWriter.enqueue(REPOSITORY_TYPE, ip, value);
+        return ipLocation;
+    }
+
+    /**
+     * Queues a tombstone to be added in the cache by the {@link RedisCacheWriter} for an IP address that doesn't
+     * resolve to any {@link IpLocation}, without waiting for Redis. The tombstone expires after the
+     * {@code NEGATIVE_CACHE_TTL}, and it's dropped if the write queue is full.
+     *
+     * @param ip the IP address that doesn't resolve to any {@link IpLocation}.
+     */
+    public void addNotFoundToCacheAsync(IpAddress ip) {
+        final long buildEpoch = reloadableDatabaseReader.getBuildEpoch();
+        final byte[] tombstone = LocationCodec.encodeNotFound(Instant.now().plus(notFoundTtl), buildEpoch);
+        redisCacheWriter.enqueue(REPOSITORY_TYPE, ip, tombstone, notFoundTtl);
+    }
+
+    /**
+     * Publishes the hits and misses of the Redis cache into the given {@link MeterRegistry}.
+     *
+     * @param registry the {@link MeterRegistry} the metrics are published to.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        metrics.bindTo(registry);
+    }
+}
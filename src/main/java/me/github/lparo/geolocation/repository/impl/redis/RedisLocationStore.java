@@ -0,0 +1,103 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import me.github.lparo.geolocation.domain.IpAddress;
+import org.springframework.data.redis.core.RedisTemplate;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Interface responsible for providing a contract for storing the encoded locations in Redis. The implementing class
+ * should deal with the specifics of how the entries are laid out in Redis, which is selected through the
+ * {@code REDIS_CACHE_LAYOUT} property.
+ */
+public interface RedisLocationStore {
+
+    /**
+     * Gets the encoded location of the given type of the IP address.
+     *
+     * @param type the location type, e.g. {@code CITY}.
+     * @param ip the IP address.
+     *
+     * @return the encoded location, or null if it's not cached.
+     */
+    byte[] get(String type, IpAddress ip);
+
+    /**
+     * Gets the encoded location of the given type of the IP address without blocking the calling thread, through the
+     * reactive client of the Redis node (check {@link RedisShard#readAsync(java.util.function.Function)}).
+     *
+     * @param type the location type, e.g. {@code CITY}.
+     * @param ip the IP address.
+     *
+     * @return the encoded location, emitted once Redis answers, or an empty {@link Mono} if it's not cached.
+     */
+    Mono<byte[]> getAsync(String type, IpAddress ip);
+
+    /**
+     * Stores the encoded location of the given type of the IP address, resetting its TTL.
+     *
+     * @param type the location type, e.g. {@code CITY}.
+     * @param ip the IP address.
+     * @param value the encoded location.
+     */
+    void put(String type, IpAddress ip, byte[] value);
+
+    /**
+     * Stores the encoded location of the given type of the IP address, unless it's already cached.
+     *
+     * @param type the location type, e.g. {@code CITY}.
+     * @param ip the IP address.
+     * @param value the encoded location.
+     */
+    void putIfAbsent(String type, IpAddress ip, byte[] value);
+
+    /**
+     * Stores every given encoded location, resetting their TTLs, pipelining the writes in a single round trip. Layouts
+     * that can't expire the entries one by one may keep an entry for longer than its own TTL.
+     *
+     * @param entries the encoded locations to be stored.
+     */
+    void putAll(Collection<RedisCacheEntry> entries);
+
+    /**
+     * Gets the prefix shared by the keys of every location of the given type, e.g. to track them.
+     *
+     * @param type the location type, e.g. {@code CITY}.
+     *
+     * @return the key prefix of the location type.
+     */
+    byte[] getKeyPrefix(String type);
+
+    /**
+     * Calls the given action with the location type and every IP address whose location may be stored under the given
+     * key. Keys that are not laid out by this store are ignored.
+     *
+     * @param key the Redis key.
+     * @param action the action to be called with each location type and IP address.
+     */
+    void forEachIpOfKey(byte[] key, BiConsumer<String, IpAddress> action);
+
+    /**
+     * Removes every encoded location of the given type stored in the given Redis node that matches the given predicate.
+     * The entries are walked with {@code SCAN} and removed in batches, so Redis is never blocked for long, and the
+     * given pause is run between the batches, e.g. to throttle the removal. An entry is only removed if it still holds
+     * the encoded location that was matched, which is checked and removed atomically by a Lua script, so an entry
+     * rewritten in between (e.g. refilled right after a reload of the database) is kept.
+     *
+     * @param node the {@link RedisTemplate} of the Redis node.
+     * @param type the location type, e.g. {@code CITY}.
+     * @param batchSize the number of entries read and removed at once.
+     * @param predicate the predicate matching the encoded locations to be removed.
+     * @param pause the pause run between the batches.
+     *
+     * @return the number of encoded locations removed.
+     */
+    long removeIf(RedisTemplate<byte[], byte[]> node,
+                  String type,
+                  int batchSize,
+                  Predicate<byte[]> predicate,
+                  Runnable pause);
+}
@@ -0,0 +1,188 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Class representing a Redis node the cache is spread over: a primary, which takes every write, and optionally some
+ * of its replicas, which take the reads in turns. A read failing on a replica (e.g. a replica down or restarting) is
+ * retried on the primary. The commands are timed per endpoint, as the {@code redis.commands} metric tagged with the
+ * {@code host:port} and the role ({@code primary} or {@code replica}) of the endpoint, and the reads retried on the
+ * primary are counted as the {@code redis.replica.failovers} metric.
+ *
+ * <p>The node may also have a {@link ReactiveRedisTemplate}, whose non-blocking client multiplexes the reads of every
+ * caller over a shared connection, and reads from the replicas when there are any (check
+ * {@link #readAsync(Function)}).
+ */
+@Slf4j
+public class RedisShard implements MeterBinder {
+    private final String name;
+    private final Endpoint primary;
+    private final List<Endpoint> replicas = new ArrayList<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ReactiveRedisTemplate<byte[], byte[]> reactive;
+
+    private volatile Counter failovers;
+
+    /**
+     * @param name the name of the primary, e.g. {@code host:port}.
+     * @param primary the {@link RedisTemplate} of the primary.
+     * @param replicas the {@link RedisTemplate} of each replica, by its name.
+     */
+    public RedisShard(String name,
+                      RedisTemplate<byte[], byte[]> primary,
+                      Map<String, RedisTemplate<byte[], byte[]>> replicas) {
+        this(name, primary, replicas, null);
+    }
+
+    /**
+     * @param name the name of the primary, e.g. {@code host:port}.
+     * @param primary the {@link RedisTemplate} of the primary.
+     * @param replicas the {@link RedisTemplate} of each replica, by its name.
+     * @param reactive the {@link ReactiveRedisTemplate} of the node, or null if it has none.
+     */
+    public RedisShard(String name,
+                      RedisTemplate<byte[], byte[]> primary,
+                      Map<String, RedisTemplate<byte[], byte[]>> replicas,
+                      ReactiveRedisTemplate<byte[], byte[]> reactive) {
+        this.name = name;
+        this.reactive = reactive;
+        this.primary = new Endpoint(name, "primary", primary);
+        replicas.forEach((replicaName, replica) -> this.replicas.add(new Endpoint(replicaName, "replica", replica)));
+    }
+
+    /**
+     * @return the name of the primary.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the {@link RedisTemplate} of the primary.
+     */
+    public RedisTemplate<byte[], byte[]> getPrimary() {
+        return primary.template;
+    }
+
+    /**
+     * Runs a read on the next replica, or on the primary if there are no replicas or the replica fails.
+     *
+     * @param read the read.
+     * @param <T> the type of the value read.
+     *
+     * @return the value read.
+     */
+    public <T> T read(Function<RedisTemplate<byte[], byte[]>, T> read) {
+        if (replicas.isEmpty()) {
+            return primary.run(read);
+        }
+
+        final Endpoint replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+        try {
+            return replica.run(read);
+        } catch (RuntimeException e) {
+            final Counter counter = failovers;
+            if (counter != null) {
+                counter.increment();
+            }
+            log.debug("unable to read from the Redis replica {}, reading from {}: {}", replica.name, name,
+                    e.getMessage());
+
+            return primary.run(read);
+        }
+    }
+
+    /**
+     * Runs a read through the {@link ReactiveRedisTemplate} of the node, without blocking the calling thread. Which
+     * endpoint takes the read, and the failover from the replicas, is left to the client.
+     *
+     * @param read the read.
+     * @param <T> the type of the value read.
+     *
+     * @return the value read, emitted once Redis answers.
+     *
+     * @throws IllegalStateException if the node has no {@link ReactiveRedisTemplate}.
+     */
+    public <T> Mono<T> readAsync(Function<ReactiveRedisTemplate<byte[], byte[]>, Mono<T>> read) {
+        if (reactive == null) {
+            throw new IllegalStateException("the Redis node " + name + " has no reactive client");
+        }
+
+        return read.apply(reactive);
+    }
+
+    /**
+     * Runs a write on the primary.
+     *
+     * @param write the write.
+     * @param <T> the type of the value returned by the write.
+     *
+     * @return the value returned by the write.
+     */
+    public <T> T write(Function<RedisTemplate<byte[], byte[]>, T> write) {
+        return primary.run(write);
+    }
+
+    /**
+     * Publishes the latency of the commands of each endpoint and the failovers into the given {@link MeterRegistry}.
+     *
+     * @param registry the {@link MeterRegistry} the metrics are published to.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        primary.bindTo(registry);
+        replicas.forEach(replica -> replica.bindTo(registry));
+        failovers = Counter.builder("redis.replica.failovers")
+                .tag("node", name)
+                .description("The number of reads retried on the primary after failing on a replica.")
+                .register(registry);
+    }
+
+    private static final class Endpoint {
+        private final String name;
+        private final String role;
+        private final RedisTemplate<byte[], byte[]> template;
+
+        private volatile Timer timer;
+
+        private Endpoint(String name, String role, RedisTemplate<byte[], byte[]> template) {
+            this.name = name;
+            this.role = role;
+            this.template = template;
+        }
+
+        private <T> T run(Function<RedisTemplate<byte[], byte[]>, T> command) {
+            final long start = System.nanoTime();
+            try {
+                return command.apply(template);
+            } finally {
+                final Timer current = timer;
+                if (current != null) {
+                    current.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+
+        private void bindTo(MeterRegistry registry) {
+            timer = Timer.builder("redis.commands")
+                         .tag("endpoint", name)
+                         .tag("role", role)
+                         .description("The latency of the Redis commands (or pipelines) run on the endpoint.")
+                         .register(registry);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Class holding the Redis nodes the cache is spread over, and placing each Redis key on one of them through a
+ * {@link ConsistentHashRing}, so adding a node only moves a fraction of the cached keys. With a single node, every key
+ * is placed on it. The reads of a key go to the replicas of its node, if any, and its writes to the primary (check
+ * {@link RedisShard}).
+ */
+public class RedisShards implements MeterBinder {
+    private final List<RedisShard> shards;
+    private final Map<String, RedisTemplate<byte[], byte[]>> nodes = new LinkedHashMap<>();
+    private final ConsistentHashRing<RedisShard> ring;
+
+    /**
+     * @param nodes the {@link RedisTemplate} of each node without replicas, by its unique name, e.g. {@code host:port}.
+     * @param virtualNodes the number of points of each node on the hash ring.
+     */
+    public RedisShards(Map<String, RedisTemplate<byte[], byte[]>> nodes, int virtualNodes) {
+        this(toShards(nodes), virtualNodes);
+    }
+
+    /**
+     * @param shards the nodes, with their replicas.
+     * @param virtualNodes the number of points of each node on the hash ring.
+     */
+    public RedisShards(List<RedisShard> shards, int virtualNodes) {
+        final Map<String, RedisShard> shardsByName = new LinkedHashMap<>();
+        shards.forEach(shard -> {
+            shardsByName.put(shard.getName(), shard);
+            nodes.put(shard.getName(), shard.getPrimary());
+        });
+
+        this.shards = List.copyOf(shards);
+        this.ring = new ConsistentHashRing<>(shardsByName, virtualNodes);
+    }
+
+    /**
+     * Gets the {@link RedisTemplate} of the primary of the node the given key is placed on.
+     *
+     * @param key the Redis key.
+     *
+     * @return the {@link RedisTemplate} of the primary.
+     */
+    public RedisTemplate<byte[], byte[]> forKey(byte[] key) {
+        return getShard(key).getPrimary();
+    }
+
+    /**
+     * Runs a read of the given key on the node it's placed on, preferably on one of its replicas.
+     *
+     * @param key the Redis key.
+     * @param read the read.
+     * @param <T> the type of the value read.
+     *
+     * @return the value read.
+     */
+    public <T> T read(byte[] key, Function<RedisTemplate<byte[], byte[]>, T> read) {
+        return getShard(key).read(read);
+    }
+
+    /**
+     * Runs a read of the given key on the node it's placed on, through its {@link ReactiveRedisTemplate} (check
+     * {@link RedisShard#readAsync(Function)}).
+     *
+     * @param key the Redis key.
+     * @param read the read.
+     * @param <T> the type of the value read.
+     *
+     * @return the value read, emitted once Redis answers.
+     */
+    public <T> Mono<T> readAsync(byte[] key, Function<ReactiveRedisTemplate<byte[], byte[]>, Mono<T>> read) {
+        return getShard(key).readAsync(read);
+    }
+
+    /**
+     * Runs a write of the given key on the primary of the node it's placed on.
+     *
+     * @param key the Redis key.
+     * @param write the write.
+     * @param <T> the type of the value returned by the write.
+     *
+     * @return the value returned by the write.
+     */
+    public <T> T write(byte[] key, Function<RedisTemplate<byte[], byte[]>, T> write) {
+        return getShard(key).write(write);
+    }
+
+    /**
+     * Groups the given items by the node their key is placed on, and runs the write of each group on the primary of
+     * its node, e.g. to pipeline the writes of each node.
+     *
+     * @param items the items to be written.
+     * @param toKey the function that gets the Redis key of an item.
+     * @param write the write of the items placed on a node.
+     * @param <T> the type of the items.
+     */
+    public <T> void writeAll(Collection<T> items,
+                             Function<T, byte[]> toKey,
+                             BiConsumer<RedisTemplate<byte[], byte[]>, List<T>> write) {
+        final Map<RedisShard, List<T>> groups = new LinkedHashMap<>();
+        if (shards.size() == 1) {
+            groups.put(shards.get(0), new ArrayList<>(items));
+        } else {
+            for (T item : items) {
+                groups.computeIfAbsent(getShard(toKey.apply(item)), shard -> new ArrayList<>()).add(item);
+            }
+        }
+
+        groups.forEach((shard, group) -> shard.write(primary -> {
+            write.accept(primary, group);
+            return null;
+        }));
+    }
+
+    /**
+     * @return the {@link RedisTemplate} of the primary of every node, by its name.
+     */
+    public Map<String, RedisTemplate<byte[], byte[]>> getNodes() {
+        return Collections.unmodifiableMap(nodes);
+    }
+
+    /**
+     * Publishes the latency of the commands of every endpoint into the given {@link MeterRegistry}.
+     *
+     * @param registry the {@link MeterRegistry} the metrics are published to.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        shards.forEach(shard -> shard.bindTo(registry));
+    }
+
+    private RedisShard getShard(byte[] key) {
+        return shards.size() == 1 ? shards.get(0) : ring.getNode(key);
+    }
+
+    private static List<RedisShard> toShards(Map<String, RedisTemplate<byte[], byte[]>> nodes) {
+        final List<RedisShard> shards = new ArrayList<>();
+        nodes.forEach((name, node) -> shards.add(new RedisShard(name, node, Map.of())));
+
+        return shards;
+    }
+}
@@ -0,0 +1,158 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import me.github.lparo.geolocation.repository.impl.geoip2.ReloadableDatabaseReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class responsible for gradually cleaning the Redis cache out of the entries resolved from older builds of the
+ * database. Such entries are already treated as missing by the Redis repositories and overwritten when looked up again,
+ * but the ones that are not looked up would stay in Redis until they expire. Every Redis node is walked through the
+ * {@link RedisLocationStore} in batches of {@code REDIS_CACHE_CLEANUP_BATCH_SIZE} entries, pausing for
+ * {@code REDIS_CACHE_CLEANUP_PAUSE} between them, so the cleanup never competes with the lookups for Redis. A cleanup
+ * runs once the application is ready, after every reload of the database, and every
+ * {@code REDIS_CACHE_CLEANUP_INTERVAL} (for the entries written meanwhile by instances still running an older build).
+ * Only the entries older than the build in use are removed, so an instance that isn't reloaded yet never removes the
+ * entries of a newer build. The number of entries removed is published as the {@code redis.cache.cleanup.removed}
+ * metric. It's enabled unless the {@code REDIS_CACHE_CLEANUP} property is set to {@code false}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "REDIS_CACHE_CLEANUP", havingValue = "true", matchIfMissing = true)
+public class StaleRedisCacheCleaner implements MeterBinder {
+    private static final List<String> TYPES = List.of("CITY", "COUNTRY", "LOCATION");
+
+    private final RedisShards redisShards;
+    private final RedisLocationStore redisLocationStore;
+    private final ReloadableDatabaseReader reloadableDatabaseReader;
+    private final int batchSize;
+    private final Duration pause;
+    private final Duration interval;
+
+    private final Semaphore pending = new Semaphore(0);
+    private final LongAdder removed = new LongAdder();
+
+    private Thread thread;
+
+    @Autowired
+    public StaleRedisCacheCleaner(RedisShards redisShards,
+                                  RedisLocationStore redisLocationStore,
+                                  ReloadableDatabaseReader reloadableDatabaseReader,
+                                  @Value("${REDIS_CACHE_CLEANUP_BATCH_SIZE:500}") int batchSize,
+                                  @Value("${REDIS_CACHE_CLEANUP_PAUSE:50ms}") Duration pause,
+                                  @Value("${REDIS_CACHE_CLEANUP_INTERVAL:1d}") Duration interval) {
+        this.redisShards = redisShards;
+        this.redisLocationStore = redisLocationStore;
+        this.reloadableDatabaseReader = reloadableDatabaseReader;
+        this.batchSize = batchSize;
+        this.pause = pause;
+        this.interval = interval;
+
+        reloadableDatabaseReader.addReloadListener(reader -> pending::release);
+    }
+
+    /**
+     * Starts cleaning the Redis cache in a background thread once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        pending.release();
+
+        thread = new Thread(this::cleanWhileRunning, "redis-cache-cleaner");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops cleaning the Redis cache, interrupting the running cleanup.
+     */
+    @PreDestroy
+    public void stop() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Removes the entries resolved from older builds of the database than the one in use from every Redis node.
+     *
+     * @return the number of entries removed.
+     */
+    public long clean() {
+        long cleaned = 0;
+        for (RedisTemplate<byte[], byte[]> node : redisShards.getNodes().values()) {
+            for (String type : TYPES) {
+                final long typeCleaned = redisLocationStore.removeIf(node, type, batchSize, this::isStale, this::pause);
+                removed.add(typeCleaned);
+                cleaned += typeCleaned;
+            }
+        }
+
+        if (cleaned > 0) {
+            log.info("removed {} stale entries of the Redis cache", cleaned);
+        }
+
+        return cleaned;
+    }
+
+    /**
+     * Publishes the number of entries removed into the given {@link MeterRegistry}.
+     *
+     * @param registry the {@link MeterRegistry} the metrics are published to.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("redis.cache.cleanup.removed", removed, LongAdder::sum)
+                       .description("The number of stale entries removed from the Redis cache.")
+                       .register(registry);
+    }
+
+    private boolean isStale(byte[] value) {
+        return LocationCodec.getBuildEpoch(value) < reloadableDatabaseReader.getBuildEpoch();
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(pause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("the Redis cache cleanup was interrupted");
+        }
+    }
+
+    private void cleanWhileRunning() {
+        try {
+            while (true) {
+                pending.tryAcquire(interval.toMillis(), TimeUnit.MILLISECONDS);
+                pending.drainPermits();
+
+                try {
+                    clean();
+                } catch (CancellationException e) {
+                    return;
+                } catch (RuntimeException e) {
+                    log.warn("unable to clean the stale entries of the Redis cache: {}", e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,27 +1,29 @@
 package me.github.lparo.geolocation.repository.impl.transformer;
 
 import me.github.lparo.geolocation.domain.City;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Place;
 import org.springframework.stereotype.Component;
 
 import java.util.function.Function;
 
+import static me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.orEmpty;
+
 /**
- * Transformer responsible for converting a {@link com.maxmind.geoip2.record.City} instance into a {@link me.github.lparo.geolocation.domain.City}
- * domain instance.
+ * Transformer responsible for projecting the city of a GeoIP2 record into a {@link City} domain instance.
  */
 @Component
-public class CityToDomainTransformer implements Function<com.maxmind.geoip2.record.City, City> {
+public class CityToDomainTransformer implements Function<Place, City> {
 
     /**
-     * Converts a {@link com.maxmind.geoip2.record.City} instance into a {@link me.github.lparo.geolocation.domain.City}
-     * domain instance.
+     * Projects the city of a GeoIP2 record into a {@link City} domain instance.
      *
-     * @param city the {@link com.maxmind.geoip2.record.City} instance to be converted to its domain counterpart.
+     * @param city the city to be converted to its domain counterpart, or null if the record has none.
      *
-     * @return the converted {@link me.github.lparo.geolocation.domain.City} domain instance.
+     * @return the converted {@link City} domain instance, shared by every record with the same values.
      */
     @Override
-    public City apply(com.maxmind.geoip2.record.City city) {
-        return City.of(city.getName(), city.getGeoNameId());
+    public City apply(Place city) {
+        final Place place = orEmpty(city);
+        return City.interned(place.getName(), place.getGeoNameId());
     }
 }
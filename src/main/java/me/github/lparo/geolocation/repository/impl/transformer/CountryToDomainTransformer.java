@@ -1,32 +1,29 @@
 package me.github.lparo.geolocation.repository.impl.transformer;
 
 import me.github.lparo.geolocation.domain.Country;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Place;
 import org.springframework.stereotype.Component;
 
 import java.util.function.Function;
 
+import static me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.orEmpty;
+
 /**
- * Transformer responsible for converting a {@link com.maxmind.geoip2.record.Country} instance into a {@link me.github.lparo.geolocation.domain.Country}
- * domain instance.
+ * Transformer responsible for projecting the country of a GeoIP2 record into a {@link Country} domain instance.
  */
 @Component
-public class CountryToDomainTransformer implements Function<com.maxmind.geoip2.record.Country, Country> {
+public class CountryToDomainTransformer implements Function<Place, Country> {
 
     /**
-     * Converts a {@link com.maxmind.geoip2.record.Country} instance into a {@link me.github.lparo.geolocation.domain.Country}
-     * domain instance.
+     * Projects the country of a GeoIP2 record into a {@link Country} domain instance.
      *
-     * @param country the {@link com.maxmind.geoip2.record.Country} instance to be converted to its domain counterpart.
+     * @param country the country to be converted to its domain counterpart, or null if the record has none.
      *
-     * @return the converted {@link me.github.lparo.geolocation.domain.Country} domain instance.
+     * @return the converted {@link Country} domain instance, shared by every record with the same values.
      */
     @Override
-    public Country apply(com.maxmind.geoip2.record.Country country) {
-        return Country.of(
-                country.getName(),
-                country.getGeoNameId(),
-                country.isInEuropeanUnion(),
-                country.getIsoCode()
-        );
+    public Country apply(Place country) {
+        final Place place = orEmpty(country);
+        return Country.interned(place.getName(), place.getGeoNameId(), place.isInEuropeanUnion(), place.getIsoCode());
     }
 }
@@ -0,0 +1,130 @@
+package me.github.lparo.geolocation.repository.impl.transformer;
+
+import com.maxmind.db.MaxMindDbConstructor;
+import com.maxmind.db.MaxMindDbParameter;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Projections of the raw GeoIP2 City records read by the transformers, which the maxmind-db decoder binds straight
+ * out of the database. Only the fields bound here are decoded, the rest of a record (location, postal code, traits,
+ * continent, names in other locales, etc) is skipped without being decoded into any object.
+ */
+public final class GeoIP2Record {
+    private static final String CITY = "city";
+    private static final String SUBDIVISIONS = "subdivisions";
+    private static final String COUNTRY = "country";
+    private static final String GEO_NAME_ID = "geoname_id";
+    private static final String ISO_CODE = "iso_code";
+    private static final String IS_IN_EUROPEAN_UNION = "is_in_european_union";
+    private static final String NAMES = "names";
+    private static final String LOCALE = "en";
+
+    private static final Place EMPTY_PLACE = new Place(null, null, null, null);
+
+    private GeoIP2Record() {
+    }
+
+    /**
+     * @param place the city/subdivision/country of a record, or null if the record has none.
+     *
+     * @return the given place, or an empty one if it's null.
+     */
+    static Place orEmpty(Place place) {
+        return place != null ? place : EMPTY_PLACE;
+    }
+
+    /**
+     * @param subdivisions the subdivisions of a record, or null if the record has none.
+     *
+     * @return the most specific (last) subdivision, or null if there is none.
+     */
+    static Place getMostSpecificSubdivision(List<Place> subdivisions) {
+        return subdivisions != null && !subdivisions.isEmpty() ? subdivisions.get(subdivisions.size() - 1) : null;
+    }
+
+    /**
+     * Projection of a record read by the {@link IpCityLocationTransformer}: its city and subdivisions.
+     */
+    @Value
+    public static class CityRecord {
+        Place city;
+        List<Place> subdivisions;
+
+        @MaxMindDbConstructor
+        public CityRecord(@MaxMindDbParameter(name = CITY) Place city,
+                          @MaxMindDbParameter(name = SUBDIVISIONS) List<Place> subdivisions) {
+            this.city = city;
+            this.subdivisions = subdivisions;
+        }
+    }
+
+    /**
+     * Projection of a record read by the {@link IpCountryLocationTransformer}: its country.
+     */
+    @Value
+    public static class CountryRecord {
+        Place country;
+
+        @MaxMindDbConstructor
+        public CountryRecord(@MaxMindDbParameter(name = COUNTRY) Place country) {
+            this.country = country;
+        }
+    }
+
+    /**
+     * Projection of a record read by the {@link IpLocationTransformer}: its city, subdivisions and country.
+     */
+    @Value
+    public static class LocationRecord {
+        Place city;
+        List<Place> subdivisions;
+        Place country;
+
+        @MaxMindDbConstructor
+        public LocationRecord(@MaxMindDbParameter(name = CITY) Place city,
+                              @MaxMindDbParameter(name = SUBDIVISIONS) List<Place> subdivisions,
+                              @MaxMindDbParameter(name = COUNTRY) Place country) {
+            this.city = city;
+            this.subdivisions = subdivisions;
+            this.country = country;
+        }
+    }
+
+    /**
+     * Projection of the city, a subdivision or the country of a record. The fields a place doesn't have (e.g. the
+     * {@code is_in_european_union} flag of a city) are left empty.
+     */
+    @Value
+    public static class Place {
+        String name;
+        int geoNameId;
+        String isoCode;
+        boolean inEuropeanUnion;
+
+        @MaxMindDbConstructor
+        public Place(@MaxMindDbParameter(name = NAMES) Names names,
+                     @MaxMindDbParameter(name = GEO_NAME_ID) Long geoNameId,
+                     @MaxMindDbParameter(name = ISO_CODE) String isoCode,
+                     @MaxMindDbParameter(name = IS_IN_EUROPEAN_UNION) Boolean inEuropeanUnion) {
+            this.name = names != null ? names.getName() : null;
+            this.geoNameId = geoNameId != null ? geoNameId.intValue() : 0;
+            this.isoCode = isoCode;
+            this.inEuropeanUnion = Boolean.TRUE.equals(inEuropeanUnion);
+        }
+    }
+
+    /**
+     * Projection of the names of a place, of which only the one in the {@link #LOCALE} locale is decoded.
+     */
+    @Value
+    public static class Names {
+        String name;
+
+        @MaxMindDbConstructor
+        public Names(@MaxMindDbParameter(name = LOCALE) String name) {
+            this.name = name;
+        }
+    }
+}
@@ -1,33 +1,36 @@
 package me.github.lparo.geolocation.repository.impl.transformer;
 
-import com.maxmind.geoip2.model.CityResponse;
 import lombok.AllArgsConstructor;
 import me.github.lparo.geolocation.domain.IpCityLocation;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.CityRecord;
 import org.springframework.stereotype.Component;
 
 import java.util.function.Function;
 
+import static me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.getMostSpecificSubdivision;
+
 /**
- * Transformer responsible for converting a {@link CityResponse} instance into a {@link IpCityLocation} domain instance.
+ * Transformer responsible for projecting a GeoIP2 record into a {@link IpCityLocation} domain instance.
  */
 @Component
 @AllArgsConstructor
-public class IpCityLocationTransformer implements Function<CityResponse, IpCityLocation> {
+public class IpCityLocationTransformer implements Function<CityRecord, IpCityLocation> {
     private final CityToDomainTransformer cityToDomainTransformer;
     private final SubdivisionToDomainTransformer subdivisionToDomainTransformer;
 
     /**
-     * Converts a {@link CityResponse} instance into a {@link IpCityLocation} domain instance.
+     * Projects the city and the most specific subdivision of a GeoIP2 record into a {@link IpCityLocation} domain
+     * instance.
      *
-     * @param cityResponse the {@link CityResponse} instance to be converted to its domain counterpart.
+     * @param record the GeoIP2 record to be converted to its domain counterpart.
      *
      * @return the converted {@link IpCityLocation} domain instance.
      */
     @Override
-    public IpCityLocation apply(CityResponse cityResponse) {
+    public IpCityLocation apply(CityRecord record) {
         return IpCityLocation.of(
-                cityToDomainTransformer.apply(cityResponse.getCity()),
-                subdivisionToDomainTransformer.apply(cityResponse.getMostSpecificSubdivision())
+                cityToDomainTransformer.apply(record.getCity()),
+                subdivisionToDomainTransformer.apply(getMostSpecificSubdivision(record.getSubdivisions()))
         );
     }
 }
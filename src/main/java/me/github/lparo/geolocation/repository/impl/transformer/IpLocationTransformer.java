@@ -0,0 +1,38 @@
+package me.github.lparo.geolocation.repository.impl.transformer;
+
+import lombok.AllArgsConstructor;
+import me.github.lparo.geolocation.domain.IpLocation;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.LocationRecord;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+import static me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.getMostSpecificSubdivision;
+
+/**
+ * Transformer responsible for projecting a GeoIP2 record into a {@link IpLocation} domain instance.
+ */
+@Component
+@AllArgsConstructor
+public class IpLocationTransformer implements Function<LocationRecord, IpLocation> {
+    private final CityToDomainTransformer cityToDomainTransformer;
+    private final SubdivisionToDomainTransformer subdivisionToDomainTransformer;
+    private final CountryToDomainTransformer countryToDomainTransformer;
+
+    /**
+     * Projects the city, the most specific subdivision and the country of a GeoIP2 record into a {@link IpLocation}
+     * domain instance.
+     *
+     * @param record the GeoIP2 record to be converted to its domain counterpart.
+     *
+     * @return the converted {@link IpLocation} domain instance.
+     */
+    @Override
+    public IpLocation apply(LocationRecord record) {
+        return IpLocation.of(
+                cityToDomainTransformer.apply(record.getCity()),
+                subdivisionToDomainTransformer.apply(getMostSpecificSubdivision(record.getSubdivisions())),
+                countryToDomainTransformer.apply(record.getCountry())
+        );
+    }
+}
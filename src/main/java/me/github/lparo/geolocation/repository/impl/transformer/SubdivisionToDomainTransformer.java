@@ -1,28 +1,29 @@
 package me.github.lparo.geolocation.repository.impl.transformer;
 
-import com.maxmind.geoip2.record.Subdivision;
 import me.github.lparo.geolocation.domain.State;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Place;
 import org.springframework.stereotype.Component;
 
 import java.util.function.Function;
 
+import static me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.orEmpty;
+
 /**
- * Transformer responsible for converting a {@link com.maxmind.geoip2.record.Subdivision} instance into a {@link me.github.lparo.geolocation.domain.State}
- * domain instance.
+ * Transformer responsible for projecting a subdivision of a GeoIP2 record into a {@link State} domain instance.
  */
 @Component
-public class SubdivisionToDomainTransformer implements Function<com.maxmind.geoip2.record.Subdivision, State> {
+public class SubdivisionToDomainTransformer implements Function<Place, State> {
 
     /**
-     * Converts a {@link com.maxmind.geoip2.record.Subdivision} instance into a {@link me.github.lparo.geolocation.domain.State}
-     * domain instance.
+     * Projects a subdivision of a GeoIP2 record into a {@link State} domain instance.
      *
-     * @param subdivision the {@link com.maxmind.geoip2.record.Subdivision} instance to be converted to its domain counterpart.
+     * @param subdivision the subdivision to be converted to its domain counterpart, or null if the record has none.
      *
-     * @return the converted {@link me.github.lparo.geolocation.domain.State} domain instance.
+     * @return the converted {@link State} domain instance, shared by every record with the same values.
      */
     @Override
-    public State apply(Subdivision subdivision) {
-        return State.of(subdivision.getName(), subdivision.getGeoNameId(), subdivision.getIsoCode());
+    public State apply(Place subdivision) {
+        final Place place = orEmpty(subdivision);
+        return State.interned(place.getName(), place.getGeoNameId(), place.getIsoCode());
     }
 }
@@ -1,11 +1,13 @@
 package me.github.lparo.geolocation.service;
 
+import me.github.lparo.geolocation.domain.IpAddress;
 import me.github.lparo.geolocation.domain.IpCityLocation;
 import me.github.lparo.geolocation.exception.LocationNotFoundException;
 import me.github.lparo.geolocation.repository.IpCityLocationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 /**
  * Service responsible for concentrating the logic for the {@link IpCityLocation} domain.
@@ -16,13 +18,13 @@ public class IpCityLocationService {
     /**
      * the public IP of the service's host machine.
      */
-    private final String hostMachinePublicIp;
+    private final IpAddress hostMachinePublicIp;
     private final IpCityLocationRepository ipCityLocationRepository;
 
     @Autowired
     public IpCityLocationService(@Qualifier("hostMachinePublicIp") String hostMachinePublicIp,
                                  IpCityLocationRepository ipCityLocationRepository) {
-        this.hostMachinePublicIp = hostMachinePublicIp;
+        this.hostMachinePublicIp = IpAddress.parse(hostMachinePublicIp);
         this.ipCityLocationRepository = ipCityLocationRepository;
     }
 
@@ -47,8 +49,33 @@ public class IpCityLocationService {
      *
      * @throws LocationNotFoundException if the IP address does not resolve to any geolocation.
      */
-    public IpCityLocation getCityLocationForIp(String ip) {
+    public IpCityLocation getCityLocationForIp(IpAddress ip) {
         return ipCityLocationRepository.getCityLocationForIp(ip)
                                   .orElseThrow(() -> new LocationNotFoundException("unable to find city location for IP " + ip));
     }
+
+    /**
+     * Gets the {@link IpCityLocation} containing the city/state information for the public IP address from the machine
+     * the service is hosted on, without blocking the calling thread on I/O.
+     *
+     * @return a {@link Mono} emitting the {@link IpCityLocation} of the public IP address of the service's host
+     * machine, or failing with a {@link LocationNotFoundException} if the IP address does not resolve to any
+     * geolocation.
+     */
+    public Mono<IpCityLocation> getCityLocationForHostIpAsync() {
+        return getCityLocationForIpAsync(hostMachinePublicIp);
+    }
+
+    /**
+     * Gets the {@link IpCityLocation} containing the city/state information for a given IP address, without blocking
+     * the calling thread on I/O (check {@link IpCityLocationRepository#getCityLocationForIpAsync(IpAddress)}).
+     *
+     * @return a {@link Mono} emitting the {@link IpCityLocation} of the given IP address, or failing with a
+     * {@link LocationNotFoundException} if the IP address does not resolve to any geolocation.
+     */
+    public Mono<IpCityLocation> getCityLocationForIpAsync(IpAddress ip) {
+        return ipCityLocationRepository.getCityLocationForIpAsync(ip)
+                .map(location -> location.orElseThrow(() ->
+                        new LocationNotFoundException("unable to find city location for IP " + ip)));
+    }
 }
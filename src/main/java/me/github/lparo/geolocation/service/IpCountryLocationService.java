@@ -1,11 +1,13 @@
 package me.github.lparo.geolocation.service;
 
+import me.github.lparo.geolocation.domain.IpAddress;
 import me.github.lparo.geolocation.domain.IpCountryLocation;
 import me.github.lparo.geolocation.exception.LocationNotFoundException;
 import me.github.lparo.geolocation.repository.IpCountryLocationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 /**
  * Service responsible for concentrating the logic for the {@link IpCountryLocation} domain.
@@ -16,13 +18,13 @@ public class IpCountryLocationService {
     /**
      * the public IP of the service's host machine.
      */
-    private final String hostMachinePublicIp;
+    private final IpAddress hostMachinePublicIp;
     private final IpCountryLocationRepository ipCountryLocationRepository;
 
     @Autowired
     public IpCountryLocationService(@Qualifier("hostMachinePublicIp") String hostMachinePublicIp,
                                     IpCountryLocationRepository ipCountryLocationRepository) {
-        this.hostMachinePublicIp = hostMachinePublicIp;
+        this.hostMachinePublicIp = IpAddress.parse(hostMachinePublicIp);
         this.ipCountryLocationRepository = ipCountryLocationRepository;
     }
 
@@ -47,8 +49,33 @@ public class IpCountryLocationService {
      *
      * @throws LocationNotFoundException if the IP address does not resolve to any geolocation.
      */
-    public IpCountryLocation getCountryLocationForIp(String ip) {
+    public IpCountryLocation getCountryLocationForIp(IpAddress ip) {
         return ipCountryLocationRepository.getCountryLocationForIp(ip)
                                   .orElseThrow(() -> new LocationNotFoundException("unable to find country location for IP " + ip));
     }
+
+    /**
+     * Gets the {@link IpCountryLocation} containing the country information for the public IP address from the machine
+     * the service is hosted on, without blocking the calling thread on I/O.
+     *
+     * @return a {@link Mono} emitting the {@link IpCountryLocation} of the public IP address of the service's host
+     * machine, or failing with a {@link LocationNotFoundException} if the IP address does not resolve to any
+     * geolocation.
+     */
+    public Mono<IpCountryLocation> getCountryLocationForHostIpAsync() {
+        return getCountryLocationForIpAsync(hostMachinePublicIp);
+    }
+
+    /**
+     * Gets the {@link IpCountryLocation} containing the country information for a given IP address, without blocking
+     * the calling thread on I/O (check {@link IpCountryLocationRepository#getCountryLocationForIpAsync(IpAddress)}).
+     *
+     * @return a {@link Mono} emitting the {@link IpCountryLocation} of the given IP address, or failing with a
+     * {@link LocationNotFoundException} if the IP address does not resolve to any geolocation.
+     */
+    public Mono<IpCountryLocation> getCountryLocationForIpAsync(IpAddress ip) {
+        return ipCountryLocationRepository.getCountryLocationForIpAsync(ip)
+                .map(location -> location.orElseThrow(() ->
+                        new LocationNotFoundException("unable to find country location for IP " + ip)));
+    }
 }
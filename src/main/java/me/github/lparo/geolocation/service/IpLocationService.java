@@ -0,0 +1,80 @@
+package me.github.lparo.geolocation.service;
+
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.domain.IpLocation;
+import me.github.lparo.geolocation.exception.LocationNotFoundException;
+import me.github.lparo.geolocation.repository.IpLocationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service responsible for concentrating the logic for the {@link IpLocation} domain.
+ */
+@Service
+public class IpLocationService {
+
+    /**
+     * the public IP of the service's host machine.
+     */
+    private final IpAddress hostMachinePublicIp;
+    private final IpLocationRepository ipLocationRepository;
+
+    @Autowired
+    public IpLocationService(@Qualifier("hostMachinePublicIp") String hostMachinePublicIp,
+                             IpLocationRepository ipLocationRepository) {
+        this.hostMachinePublicIp = IpAddress.parse(hostMachinePublicIp);
+        this.ipLocationRepository = ipLocationRepository;
+    }
+
+    /**
+     * Gets the {@link IpLocation} containing the city/state/country information for the public IP address from the
+     * machine the service is hosted on. If IP address does not resolve to any geolocation, then an
+     * {@link LocationNotFoundException} is thrown.
+     *
+     * @return the {@link IpLocation} containing the city/state/country information of the public IP address of the service's host machine.
+     *
+     * @throws LocationNotFoundException if the IP address does not resolve to any geolocation.
+     */
+    public IpLocation getLocationForHostIp() {
+        return getLocationForIp(hostMachinePublicIp);
+    }
+
+    /**
+     * Gets the {@link IpLocation} containing the city/state/country information for a given IP address. If IP address
+     * does not resolve to any geolocation, then an {@link LocationNotFoundException} is thrown.
+     *
+     * @return the {@link IpLocation} containing the city/state/country information of given IP address.
+     *
+     * @throws LocationNotFoundException if the IP address does not resolve to any geolocation.
+     */
+    public IpLocation getLocationForIp(IpAddress ip) {
+        return ipLocationRepository.getLocationForIp(ip)
+                                   .orElseThrow(() -> new LocationNotFoundException("unable to find location for IP " + ip));
+    }
+
+    /**
+     * Gets the {@link IpLocation} containing the city/state/country information for the public IP address from the
+     * machine the service is hosted on, without blocking the calling thread on I/O.
+     *
+     * @return a {@link Mono} emitting the {@link IpLocation} of the public IP address of the service's host machine, or
+     * failing with a {@link LocationNotFoundException} if the IP address does not resolve to any geolocation.
+     */
+    public Mono<IpLocation> getLocationForHostIpAsync() {
+        return getLocationForIpAsync(hostMachinePublicIp);
+    }
+
+    /**
+     * Gets the {@link IpLocation} containing the city/state/country information for a given IP address, without
+     * blocking the calling thread on I/O (check {@link IpLocationRepository#getLocationForIpAsync(IpAddress)}).
+     *
+     * @return a {@link Mono} emitting the {@link IpLocation} of the given IP address, or failing with a
+     * {@link LocationNotFoundException} if the IP address does not resolve to any geolocation.
+     */
+    public Mono<IpLocation> getLocationForIpAsync(IpAddress ip) {
+        return ipLocationRepository.getLocationForIpAsync(ip)
+                .map(location -> location.orElseThrow(() ->
+                        new LocationNotFoundException("unable to find location for IP " + ip)));
+    }
+}
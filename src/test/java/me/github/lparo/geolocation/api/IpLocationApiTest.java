@@ -3,23 +3,31 @@ package me.github.lparo.geolocation.api;
 import me.github.lparo.geolocation.api.validation.IpValidator;
 import me.github.lparo.geolocation.domain.City;
 import me.github.lparo.geolocation.domain.Country;
+import me.github.lparo.geolocation.domain.IpAddress;
 import me.github.lparo.geolocation.domain.IpCityLocation;
 import me.github.lparo.geolocation.domain.IpCountryLocation;
+import me.github.lparo.geolocation.domain.IpLocation;
 import me.github.lparo.geolocation.domain.State;
 import me.github.lparo.geolocation.exception.InvalidIpException;
 import me.github.lparo.geolocation.service.IpCityLocationService;
 import me.github.lparo.geolocation.service.IpCountryLocationService;
+import me.github.lparo.geolocation.service.IpLocationService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -29,7 +37,9 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class IpLocationApiTest {
     private static final String VALID_IP = "217.138.219.147";
+    private static final IpAddress VALID_IP_ADDRESS = IpAddress.parse(VALID_IP);
     private static final String INVALID_IP = "invalid";
+    private static final byte[] JSON = "{}".getBytes(StandardCharsets.UTF_8);
 
     @InjectMocks
     private IpLocationApi ipLocationApi;
@@ -43,13 +53,19 @@ class IpLocationApiTest {
     @Mock
     private IpCountryLocationService ipCountryLocationService;
 
+    @Mock
+    private IpLocationService ipLocationService;
+
+    @Mock
+    private JsonResponseCache jsonResponseCache;
+
     @Test
     public void getCityLocation_whenIpIsInvalid_shouldThrowAnError() {
-        doThrow(new InvalidIpException("invalid ip")).when(ipValidator).validateIp(INVALID_IP);
+        when(ipValidator.parseIp(INVALID_IP)).thenThrow(new InvalidIpException("invalid ip"));
 
         assertThrows(InvalidIpException.class, () -> ipLocationApi.getCityLocation(INVALID_IP));
 
-        verify(ipValidator, times(1)).validateIp(INVALID_IP);
+        verify(ipValidator, times(1)).parseIp(INVALID_IP);
         verifyNoMoreInteractions(ipValidator);
 
         verifyNoInteractions(ipCityLocationService);
@@ -64,7 +80,7 @@ class IpLocationApiTest {
 
         ipLocationApi.getCityLocation(null);
 
-        verify(ipValidator, times(1)).validateIp(null);
+        verify(ipValidator, times(1)).parseIp(null);
         verify(ipCityLocationService, times(1)).getCityLocationForHostIp();
 
         verifyNoMoreInteractions(ipValidator);
@@ -81,7 +97,7 @@ class IpLocationApiTest {
 
         ipLocationApi.getCityLocation("");
 
-        verify(ipValidator, times(1)).validateIp("");
+        verify(ipValidator, times(1)).parseIp("");
         verify(ipCityLocationService, times(1)).getCityLocationForHostIp();
 
         verifyNoMoreInteractions(ipValidator);
@@ -94,12 +110,14 @@ class IpLocationApiTest {
     public void getCityLocation_whenIpIsPresent_shouldGetItsTheCityLocation() {
         final IpCityLocation ipCityLocationDomain = createIpCityLocationDomain();
 
-        when(ipCityLocationService.getCityLocationForIp(VALID_IP)).thenReturn(ipCityLocationDomain);
+        when(ipValidator.parseIp(VALID_IP)).thenReturn(VALID_IP_ADDRESS);
+        when(ipCityLocationService.getCityLocationForIp(VALID_IP_ADDRESS)).thenReturn(ipCityLocationDomain);
+        when(jsonResponseCache.getJson(eq(ipCityLocationDomain), any())).thenReturn(JSON);
 
-        ipLocationApi.getCityLocation(VALID_IP);
+        assertThat(ipLocationApi.getCityLocation(VALID_IP), is(JSON));
 
-        verify(ipValidator, times(1)).validateIp(VALID_IP);
-        verify(ipCityLocationService, times(1)).getCityLocationForIp(VALID_IP);
+        verify(ipValidator, times(1)).parseIp(VALID_IP);
+        verify(ipCityLocationService, times(1)).getCityLocationForIp(VALID_IP_ADDRESS);
 
         verifyNoMoreInteractions(ipValidator);
         verifyNoMoreInteractions(ipCityLocationService);
@@ -109,11 +127,11 @@ class IpLocationApiTest {
 
     @Test
     public void getCountryLocation_whenIpIsInvalid_shouldThrowAnError() {
-        doThrow(new InvalidIpException("invalid ip")).when(ipValidator).validateIp(INVALID_IP);
+        when(ipValidator.parseIp(INVALID_IP)).thenThrow(new InvalidIpException("invalid ip"));
 
         assertThrows(InvalidIpException.class, () -> ipLocationApi.getCountryLocation(INVALID_IP));
 
-        verify(ipValidator, times(1)).validateIp(INVALID_IP);
+        verify(ipValidator, times(1)).parseIp(INVALID_IP);
         verifyNoMoreInteractions(ipValidator);
 
         verifyNoInteractions(ipCityLocationService);
@@ -128,7 +146,7 @@ class IpLocationApiTest {
 
         ipLocationApi.getCountryLocation(null);
 
-        verify(ipValidator, times(1)).validateIp(null);
+        verify(ipValidator, times(1)).parseIp(null);
         verify(ipCountryLocationService, times(1)).getCountryLocationForHostIp();
 
         verifyNoMoreInteractions(ipValidator);
@@ -145,7 +163,7 @@ class IpLocationApiTest {
 
         ipLocationApi.getCountryLocation("");
 
-        verify(ipValidator, times(1)).validateIp("");
+        verify(ipValidator, times(1)).parseIp("");
         verify(ipCountryLocationService, times(1)).getCountryLocationForHostIp();
 
         verifyNoMoreInteractions(ipValidator);
@@ -158,15 +176,151 @@ class IpLocationApiTest {
     public void getCountryLocation_whenIpIsPresent_shouldGetItsTheCityLocation() {
         final IpCountryLocation ipCountryLocationDomain = createIpCountryLocationDomain();
 
-        when(ipCountryLocationService.getCountryLocationForIp(VALID_IP)).thenReturn(ipCountryLocationDomain);
+        when(ipValidator.parseIp(VALID_IP)).thenReturn(VALID_IP_ADDRESS);
+        when(ipCountryLocationService.getCountryLocationForIp(VALID_IP_ADDRESS)).thenReturn(ipCountryLocationDomain);
+        when(jsonResponseCache.getJson(eq(ipCountryLocationDomain), any())).thenReturn(JSON);
+
+        assertThat(ipLocationApi.getCountryLocation(VALID_IP), is(JSON));
+
+        verify(ipValidator, times(1)).parseIp(VALID_IP);
+        verify(ipCountryLocationService, times(1)).getCountryLocationForIp(VALID_IP_ADDRESS);
+
+        verifyNoMoreInteractions(ipValidator);
+        verifyNoMoreInteractions(ipCountryLocationService);
+
+        verifyNoInteractions(ipCityLocationService);
+    }
+
+    @Test
+    public void getLocation_whenIpIsInvalid_shouldThrowAnError() {
+        when(ipValidator.parseIp(INVALID_IP)).thenThrow(new InvalidIpException("invalid ip"));
+
+        assertThrows(InvalidIpException.class, () -> ipLocationApi.getLocation(INVALID_IP));
+
+        verify(ipValidator, times(1)).parseIp(INVALID_IP);
+        verifyNoMoreInteractions(ipValidator);
+
+        verifyNoInteractions(ipLocationService);
+        verifyNoInteractions(ipCityLocationService);
+        verifyNoInteractions(ipCountryLocationService);
+    }
+
+    @Test
+    public void getLocation_whenIpIsNull_shouldGetTheLocationOfTheHostMachinePublicIp() {
+        final IpLocation ipLocationDomain = createIpLocationDomain();
+
+        when(ipLocationService.getLocationForHostIp()).thenReturn(ipLocationDomain);
+
+        ipLocationApi.getLocation(null);
+
+        verify(ipValidator, times(1)).parseIp(null);
+        verify(ipLocationService, times(1)).getLocationForHostIp();
+
+        verifyNoMoreInteractions(ipValidator);
+        verifyNoMoreInteractions(ipLocationService);
+
+        verifyNoInteractions(ipCityLocationService);
+        verifyNoInteractions(ipCountryLocationService);
+    }
+
+    @Test
+    public void getLocation_whenIpIsEmpty_shouldGetTheLocationOfTheHostMachinePublicIp() {
+        final IpLocation ipLocationDomain = createIpLocationDomain();
+
+        when(ipLocationService.getLocationForHostIp()).thenReturn(ipLocationDomain);
+
+        ipLocationApi.getLocation("");
+
+        verify(ipValidator, times(1)).parseIp("");
+        verify(ipLocationService, times(1)).getLocationForHostIp();
+
+        verifyNoMoreInteractions(ipValidator);
+        verifyNoMoreInteractions(ipLocationService);
+
+        verifyNoInteractions(ipCityLocationService);
+        verifyNoInteractions(ipCountryLocationService);
+    }
+
+    @Test
+    public void getLocation_whenIpIsPresent_shouldGetItsLocation() {
+        final IpLocation ipLocationDomain = createIpLocationDomain();
+
+        when(ipValidator.parseIp(VALID_IP)).thenReturn(VALID_IP_ADDRESS);
+        when(ipLocationService.getLocationForIp(VALID_IP_ADDRESS)).thenReturn(ipLocationDomain);
+        when(jsonResponseCache.getJson(eq(ipLocationDomain), any())).thenReturn(JSON);
 
-        ipLocationApi.getCountryLocation(VALID_IP);
+        assertThat(ipLocationApi.getLocation(VALID_IP), is(JSON));
 
-        verify(ipValidator, times(1)).validateIp(VALID_IP);
-        verify(ipCountryLocationService, times(1)).getCountryLocationForIp(VALID_IP);
+        verify(ipValidator, times(1)).parseIp(VALID_IP);
+        verify(ipLocationService, times(1)).getLocationForIp(VALID_IP_ADDRESS);
 
         verifyNoMoreInteractions(ipValidator);
+        verifyNoMoreInteractions(ipLocationService);
+
+        verifyNoInteractions(ipCityLocationService);
+        verifyNoInteractions(ipCountryLocationService);
+    }
+
+    @Test
+    public void getCityLocationAsync_whenIpIsPresent_shouldEmitTheJsonOfItsLocation() {
+        final IpCityLocation ipCityLocationDomain = createIpCityLocationDomain();
+
+        when(ipValidator.parseIp(VALID_IP)).thenReturn(VALID_IP_ADDRESS);
+        when(ipCityLocationService.getCityLocationForIpAsync(VALID_IP_ADDRESS)).thenReturn(Mono.just(ipCityLocationDomain));
+        when(jsonResponseCache.getJson(eq(ipCityLocationDomain), any())).thenReturn(JSON);
+
+        assertThat(ipLocationApi.getCityLocationAsync(VALID_IP).block(), is(JSON));
+
+        verify(ipCityLocationService, times(1)).getCityLocationForIpAsync(VALID_IP_ADDRESS);
+        verifyNoMoreInteractions(ipCityLocationService);
+    }
+
+    @Test
+    public void getCountryLocationAsync_whenIpIsPresent_shouldEmitTheJsonOfItsLocation() {
+        final IpCountryLocation ipCountryLocationDomain = createIpCountryLocationDomain();
+
+        when(ipValidator.parseIp(VALID_IP)).thenReturn(VALID_IP_ADDRESS);
+        when(ipCountryLocationService.getCountryLocationForIpAsync(VALID_IP_ADDRESS)).thenReturn(Mono.just(ipCountryLocationDomain));
+        when(jsonResponseCache.getJson(eq(ipCountryLocationDomain), any())).thenReturn(JSON);
+
+        assertThat(ipLocationApi.getCountryLocationAsync(VALID_IP).block(), is(JSON));
+
+        verify(ipCountryLocationService, times(1)).getCountryLocationForIpAsync(VALID_IP_ADDRESS);
         verifyNoMoreInteractions(ipCountryLocationService);
+    }
+
+    @Test
+    public void getLocationAsync_whenIpIsPresent_shouldEmitTheJsonOfItsLocation() {
+        final IpLocation ipLocationDomain = createIpLocationDomain();
+
+        when(ipValidator.parseIp(VALID_IP)).thenReturn(VALID_IP_ADDRESS);
+        when(ipLocationService.getLocationForIpAsync(VALID_IP_ADDRESS)).thenReturn(Mono.just(ipLocationDomain));
+        when(jsonResponseCache.getJson(eq(ipLocationDomain), any())).thenReturn(JSON);
+
+        assertThat(ipLocationApi.getLocationAsync(VALID_IP).block(), is(JSON));
+
+        verify(ipLocationService, times(1)).getLocationForIpAsync(VALID_IP_ADDRESS);
+        verifyNoMoreInteractions(ipLocationService);
+    }
+
+    @Test
+    public void getCityLocationAsync_whenIpIsNull_shouldGetTheCityLocationOfTheHostMachinePublicIp() {
+        final IpCityLocation ipCityLocationDomain = createIpCityLocationDomain();
+
+        when(ipCityLocationService.getCityLocationForHostIpAsync()).thenReturn(Mono.just(ipCityLocationDomain));
+        when(jsonResponseCache.getJson(eq(ipCityLocationDomain), any())).thenReturn(JSON);
+
+        assertThat(ipLocationApi.getCityLocationAsync(null).block(), is(JSON));
+
+        verify(ipCityLocationService, times(1)).getCityLocationForHostIpAsync();
+        verifyNoMoreInteractions(ipCityLocationService);
+    }
+
+    @Test
+    public void getCityLocationAsync_whenIpIsInvalid_shouldThrowAnError() {
+        when(ipValidator.parseIp(INVALID_IP)).thenThrow(new InvalidIpException("invalid ip"));
+
+        assertThrows(InvalidIpException.class, () -> ipLocationApi.getCityLocationAsync(INVALID_IP));
 
         verifyNoInteractions(ipCityLocationService);
     }
@@ -188,4 +342,17 @@ class IpLocationApiTest {
                 )
         );
     }
+
+    private IpLocation createIpLocationDomain() {
+        return IpLocation.of(
+                City.of(UUID.randomUUID().toString(), ThreadLocalRandom.current().nextInt()),
+                State.of(UUID.randomUUID().toString(), ThreadLocalRandom.current().nextInt(), UUID.randomUUID().toString()),
+                Country.of(
+                        UUID.randomUUID().toString(),
+                        ThreadLocalRandom.current().nextInt(),
+                        ThreadLocalRandom.current().nextBoolean(),
+                        UUID.randomUUID().toString()
+                )
+        );
+    }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package me.github.lparo.geolocation.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.github.lparo.geolocation.domain.City;
+import me.github.lparo.geolocation.domain.IpCityLocation;
+import me.github.lparo.geolocation.domain.State;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+class JsonResponseCacheTest {
+    private static final IpCityLocation IP_CITY_LOCATION = IpCityLocation.of(
+            City.of("Milan", 3173435),
+            State.of("Milan", 3173434, "MI")
+    );
+
+    private final JsonResponseCache jsonResponseCache = new JsonResponseCache(new ObjectMapper(), 16);
+
+    @Test
+    void getJson_whenTheLocationIsNotCached_shouldSerializeItsDto() {
+        final byte[] json = jsonResponseCache.getJson(
+                IP_CITY_LOCATION,
+                me.github.lparo.geolocation.controller.dto.IpCityLocation::fromDomain
+        );
+
+        assertThat(new String(json, StandardCharsets.UTF_8), is(
+                "{\"city\":{\"name\":\"Milan\",\"geoNameId\":3173435}," +
+                "\"state\":{\"name\":\"Milan\",\"geoNameId\":3173434,\"isoCode\":\"MI\"}}"
+        ));
+    }
+
+    @Test
+    void getJson_whenAnEqualLocationIsCached_shouldReturnTheCachedBytesWithoutConvertingItAgain() {
+        final AtomicInteger conversions = new AtomicInteger();
+        final Function<IpCityLocation, Object> toDto = domain -> {
+            conversions.incrementAndGet();
+            return me.github.lparo.geolocation.controller.dto.IpCityLocation.fromDomain(domain);
+        };
+
+        final byte[] json = jsonResponseCache.getJson(IP_CITY_LOCATION, toDto);
+        final byte[] cachedJson = jsonResponseCache.getJson(
+                IpCityLocation.of(City.of("Milan", 3173435), State.of("Milan", 3173434, "MI")),
+                toDto
+        );
+
+        assertThat(cachedJson, sameInstance(json));
+        assertThat(conversions.get(), is(1));
+    }
+
+    @Test
+    void invalidateAll_whenCalled_shouldSerializeTheLocationsAgain() {
+        final AtomicInteger conversions = new AtomicInteger();
+        final Function<IpCityLocation, Object> toDto = domain -> {
+            conversions.incrementAndGet();
+            return me.github.lparo.geolocation.controller.dto.IpCityLocation.fromDomain(domain);
+        };
+
+        jsonResponseCache.getJson(IP_CITY_LOCATION, toDto);
+        jsonResponseCache.invalidateAll();
+        jsonResponseCache.getJson(IP_CITY_LOCATION, toDto);
+
+        assertThat(conversions.get(), is(2));
+    }
+}
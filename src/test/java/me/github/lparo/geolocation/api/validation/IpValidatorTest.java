@@ -1,66 +1,49 @@
 package me.github.lparo.geolocation.api.validation;
 
+import me.github.lparo.geolocation.domain.IpAddress;
 import me.github.lparo.geolocation.exception.InvalidIpException;
-import org.apache.commons.validator.routines.InetAddressValidator;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
 
-import static java.lang.Boolean.FALSE;
-import static java.lang.Boolean.TRUE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.Mockito.verifyNoInteractions;
-import static org.mockito.Mockito.verifyNoMoreInteractions;
-import static org.mockito.Mockito.when;
 
-@ExtendWith(MockitoExtension.class)
 class IpValidatorTest {
-
-    @InjectMocks
-    private IpValidator ipValidator;
-
-    @Mock
-    private InetAddressValidator validator;
+    private final IpValidator ipValidator = new IpValidator();
 
     @Test
-    void validateIp_whenCalledWithNullIp_shouldNotThrowAnyError() {
-        ipValidator.validateIp(null);
-
-        verifyNoInteractions(validator);
+    void parseIp_whenCalledWithNullIp_shouldReturnNull() {
+        assertThat(ipValidator.parseIp(null), is(nullValue()));
     }
 
     @Test
-    void validateIp_whenCalledWithEmptyIp_shouldNotThrowAnyError() {
-        ipValidator.validateIp("");
-
-        verifyNoInteractions(validator);
+    void parseIp_whenCalledWithEmptyIp_shouldReturnNull() {
+        assertThat(ipValidator.parseIp(""), is(nullValue()));
     }
 
     @Test
-    void validateIp_whenCalledWithValidIp_shouldNotThrowAnyError() {
-        final String ip = "127.0.0.1";
+    void parseIp_whenCalledWithValidIp_shouldReturnTheParsedIp() {
+        final String ip = "217.138.219.147";
 
-        when(validator.isValidInet4Address(ip)).thenReturn(TRUE);
+        assertThat(ipValidator.parseIp(ip), is(IpAddress.parse(ip)));
+    }
 
-        ipValidator.validateIp(ip);
+    @Test
+    void parseIp_whenCalledWithValidIpv6_shouldReturnTheParsedIp() {
+        final String ip = "2a02:26f0:10e::1";
 
-        verifyNoMoreInteractions(validator);
+        assertThat(ipValidator.parseIp(ip), is(IpAddress.parse(ip)));
     }
 
     @Test
-    void validateIp_whenCalledWithInvalidIp_shouldThrowAnError() {
+    void parseIp_whenCalledWithInvalidIp_shouldThrowAnError() {
         final String ip = "invalid";
 
-        when(validator.isValidInet4Address(ip)).thenReturn(FALSE);
-
         assertThrows(
                 InvalidIpException.class,
-                () -> ipValidator.validateIp(ip),
+                () -> ipValidator.parseIp(ip),
                 "invalid IP format: " + ip
         );
-
-        verifyNoMoreInteractions(validator);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package me.github.lparo.geolocation.config;
+
+import me.github.lparo.geolocation.repository.impl.geoip2.GeoIP2DatabaseLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+@ExtendWith(OutputCaptureExtension.class)
+class GeoIP2ConfigTest {
+    private static final Resource CLASSPATH_DATABASE = new ByteArrayResource(new byte[0], "classpath database");
+    private static final String FALLBACK_WARNING = "is not readable, falling back to the classpath database";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void geoIP2DatabaseLoader_whenNoPathIsConfigured_shouldUseTheClasspathDatabase(CapturedOutput output) {
+        final GeoIP2DatabaseLoader loader = createLoader("");
+
+        assertThat(loader.getDatabaseFile(), is(nullValue()));
+        assertThat(loader.getDescription(), is(CLASSPATH_DATABASE.getDescription()));
+        assertThat(output.getOut(), not(containsString(FALLBACK_WARNING)));
+    }
+
+    @Test
+    void geoIP2DatabaseLoader_whenThePathDoesNotExist_shouldFallBackToTheClasspathDatabase(CapturedOutput output) {
+        final Path databasePath = directory.resolve("GeoLite2-City.mmdb");
+
+        final GeoIP2DatabaseLoader loader = createLoader(databasePath.toString());
+
+        assertThat(loader.getDatabaseFile(), is(nullValue()));
+        assertThat(loader.getDescription(), is(CLASSPATH_DATABASE.getDescription()));
+        assertThat(output.getOut(), containsString(databasePath + " " + FALLBACK_WARNING));
+    }
+
+    @Test
+    void geoIP2DatabaseLoader_whenThePathIsNotAFile_shouldFallBackToTheClasspathDatabase(CapturedOutput output) {
+        final GeoIP2DatabaseLoader loader = createLoader(directory.toString());
+
+        assertThat(loader.getDatabaseFile(), is(nullValue()));
+        assertThat(loader.getDescription(), is(CLASSPATH_DATABASE.getDescription()));
+        assertThat(output.getOut(), containsString(directory + " " + FALLBACK_WARNING));
+    }
+
+    @Test
+    void geoIP2DatabaseLoader_whenThePathIsAReadableFile_shouldUseTheFile(CapturedOutput output) throws Exception {
+        final Path databasePath = Files.write(directory.resolve("GeoLite2-City.mmdb"), new byte[] {1});
+
+        final GeoIP2DatabaseLoader loader = createLoader(databasePath.toString());
+
+        assertThat(loader.getDatabaseFile(), is(databasePath.toFile()));
+        assertThat(loader.getDescription(), is(databasePath.toFile().getAbsolutePath()));
+        assertThat(output.getOut(), not(containsString(FALLBACK_WARNING)));
+    }
+
+    private static GeoIP2DatabaseLoader createLoader(String databasePath) {
+        return new GeoIP2Config(CLASSPATH_DATABASE, databasePath, 16).geoIP2DatabaseLoader();
+    }
+}
@@ -0,0 +1,49 @@
+package me.github.lparo.geolocation.config;
+
+import me.github.lparo.geolocation.domain.City;
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.domain.IpCityLocation;
+import me.github.lparo.geolocation.domain.State;
+import me.github.lparo.geolocation.repository.impl.geoip2.ReloadableDatabaseReader;
+import me.github.lparo.geolocation.repository.impl.geoip2.ReloadableDatabaseReader.ReloadListener;
+import me.github.lparo.geolocation.repository.impl.hybrid.NearCache;
+import me.github.lparo.geolocation.repository.impl.redis.CacheLookup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class NearCacheConfigTest {
+    private static final IpAddress IP = IpAddress.parse("177.32.54.210");
+    private static final IpAddress OTHER_IP = IpAddress.parse("177.32.54.211");
+    private static final IpCityLocation IP_CITY_LOCATION =
+            IpCityLocation.of(City.of("São Paulo", 3448439), State.of("São Paulo", 3448433, "SP"));
+
+    @Mock
+    private ReloadableDatabaseReader reloadableDatabaseReader;
+
+    @Test
+    void ipCityLocationNearCache_whenTheDatabaseIsReloaded_shouldEmptyTheCache() throws Exception {
+        final NearCache<IpCityLocation> nearCache = new NearCacheConfig(16, Duration.ofMinutes(10), Duration.ofHours(1))
+                .ipCityLocationNearCache(reloadableDatabaseReader);
+        nearCache.put(IP, Optional.of(IP_CITY_LOCATION));
+        nearCache.put(OTHER_IP, Optional.empty());
+
+        final ArgumentCaptor<ReloadListener> reloadListener = ArgumentCaptor.forClass(ReloadListener.class);
+        verify(reloadableDatabaseReader, times(1)).addReloadListener(reloadListener.capture());
+        reloadListener.getValue().prepare(null).run();
+
+        assertThat(nearCache.get(IP), is(CacheLookup.miss()));
+        assertThat(nearCache.get(OTHER_IP), is(CacheLookup.miss()));
+    }
+}
@@ -1,18 +1,27 @@
 package me.github.lparo.geolocation.config;
 
+import me.github.lparo.geolocation.repository.impl.redis.RedisShard;
+import me.github.lparo.geolocation.repository.impl.redis.RedisShards;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.testcontainers.containers.GenericContainer;
 
-import java.io.Serializable;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 @Profile("integration-test")
 public class RedisConfigForTesting {
+    private LettuceConnectionFactory lettuceConnectionFactory;
 
     @Bean
     public GenericContainer<?> createRedisContainer() {
@@ -32,10 +41,36 @@ public class RedisConfigForTesting {
     }
 
     @Bean
-    public RedisTemplate<String, ? extends Serializable> redisTemplate(JedisConnectionFactory jedisConnectionFactory) {
-        final RedisTemplate<String, ? extends Serializable> template = new RedisTemplate<>();
+    public RedisTemplate<byte[], byte[]> redisTemplate(JedisConnectionFactory jedisConnectionFactory) {
+        final RedisTemplate<byte[], byte[]> template = new RedisTemplate<>();
         template.setConnectionFactory(jedisConnectionFactory);
+        template.setEnableDefaultSerializer(false);
+        template.setKeySerializer(RedisSerializer.byteArray());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.setHashKeySerializer(RedisSerializer.byteArray());
+        template.setHashValueSerializer(RedisSerializer.byteArray());
 
         return template;
     }
+
+    @Bean
+    public ReactiveRedisTemplate<byte[], byte[]> reactiveRedisTemplate(GenericContainer<?> redisContainer) {
+        lettuceConnectionFactory = new LettuceConnectionFactory(redisContainer.getHost(), redisContainer.getFirstMappedPort());
+        lettuceConnectionFactory.afterPropertiesSet();
+
+        return new ReactiveRedisTemplate<>(lettuceConnectionFactory, RedisSerializationContext.byteArray());
+    }
+
+    @Bean
+    public RedisShards redisShards(RedisTemplate<byte[], byte[]> redisTemplate,
+                                   ReactiveRedisTemplate<byte[], byte[]> reactiveRedisTemplate) {
+        return new RedisShards(List.of(new RedisShard("redis", redisTemplate, Map.of(), reactiveRedisTemplate)), 1);
+    }
+
+    @PreDestroy
+    public void destroyLettuceConnectionFactory() {
+        if (lettuceConnectionFactory != null) {
+            lettuceConnectionFactory.destroy();
+        }
+    }
 }
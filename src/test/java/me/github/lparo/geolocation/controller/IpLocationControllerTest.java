@@ -1,7 +1,9 @@
 package me.github.lparo.geolocation.controller;
 
+import me.github.lparo.geolocation.domain.IpAddress;
 import me.github.lparo.geolocation.repository.IpCityLocationRepository;
 import me.github.lparo.geolocation.repository.IpCountryLocationRepository;
+import me.github.lparo.geolocation.repository.IpLocationRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -43,6 +45,9 @@ class IpLocationControllerTest {
     @SpyBean
     private IpCountryLocationRepository ipCountryLocationRepository;
 
+    @SpyBean
+    private IpLocationRepository ipLocationRepository;
+
     @Test
     void getCityLocation_whenIpIsSpecified_shouldUseReturnItsCityLocation() throws Exception {
         this.mockMvc.perform(get(ENDPOINT + "/city").queryParam("ip", VALID_IP))
@@ -83,7 +88,7 @@ class IpLocationControllerTest {
     void getCityLocation_whenAnUnknownExceptionIsThrown_shouldReturnInternalServerErrorHttpStatus() throws Exception {
         final String expectedMessage = "unknown exception";
 
-        doThrow(new RuntimeException(expectedMessage)).when(ipCityLocationRepository).getCityLocationForIp(VALID_IP);
+        doThrow(new RuntimeException(expectedMessage)).when(ipCityLocationRepository).getCityLocationForIp(IpAddress.parse(VALID_IP));
 
         this.mockMvc.perform(get(ENDPOINT + "/city").queryParam("ip", VALID_IP))
                 .andExpect(status().isInternalServerError())
@@ -128,10 +133,65 @@ class IpLocationControllerTest {
     void getCountryLocation_whenAnUnknownExceptionIsThrown_shouldReturnInternalServerErrorHttpStatus() throws Exception {
         final String expectedMessage = "unknown exception";
 
-        doThrow(new RuntimeException(expectedMessage)).when(ipCountryLocationRepository).getCountryLocationForIp(VALID_IP);
+        doThrow(new RuntimeException(expectedMessage)).when(ipCountryLocationRepository).getCountryLocationForIp(IpAddress.parse(VALID_IP));
 
         this.mockMvc.perform(get(ENDPOINT + "/country").queryParam("ip", VALID_IP))
                 .andExpect(status().isInternalServerError())
                 .andExpect(jsonPath("$.message", is(expectedMessage)));
     }
+
+    @Test
+    void getLocation_whenIpIsSpecified_shouldUseReturnItsLocation() throws Exception {
+        this.mockMvc.perform(get(ENDPOINT + "/location").queryParam("ip", VALID_IP))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.city.name", is("Milan")))
+                .andExpect(jsonPath("$.city.geoNameId", is(3173435)))
+                .andExpect(jsonPath("$.state.name", is("Milan")))
+                .andExpect(jsonPath("$.state.geoNameId", is(3173434)))
+                .andExpect(jsonPath("$.state.isoCode", is("MI")))
+                .andExpect(jsonPath("$.country.name", is("Italy")))
+                .andExpect(jsonPath("$.country.geoNameId", is(3175395)))
+                .andExpect(jsonPath("$.country.inEuropeanUnion", is(TRUE)))
+                .andExpect(jsonPath("$.country.isoCode", is("IT")));
+    }
+
+    @Test
+    void getLocation_whenIpIsNotSpecified_shouldUseCurrentHostExternalIp() throws Exception {
+        this.mockMvc.perform(get(ENDPOINT + "/location"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.city.name", not(emptyOrNullString())))
+                .andExpect(jsonPath("$.city.geoNameId", notNullValue()))
+                .andExpect(jsonPath("$.state.name", not(emptyOrNullString())))
+                .andExpect(jsonPath("$.state.geoNameId", notNullValue()))
+                .andExpect(jsonPath("$.state.isoCode", not(emptyOrNullString())))
+                .andExpect(jsonPath("$.country.name", not(emptyOrNullString())))
+                .andExpect(jsonPath("$.country.geoNameId", notNullValue()))
+                .andExpect(jsonPath("$.country.inEuropeanUnion", notNullValue()))
+                .andExpect(jsonPath("$.country.isoCode", not(emptyOrNullString())));
+    }
+
+    @Test
+    void getLocation_whenIpIsSpecified_andItIsInvalid_shouldReturnBadRequestHttpStatus() throws Exception {
+        this.mockMvc.perform(get(ENDPOINT + "/location").queryParam("ip", INVALID_IP))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("invalid IP format: " + INVALID_IP)));
+    }
+
+    @Test
+    void getLocation_whenIpIsSpecified_andItIsDoesNotResolveToAnyLocation_shouldReturnNotFoundHttpStatus() throws Exception {
+        this.mockMvc.perform(get(ENDPOINT + "/location").queryParam("ip", IP_WITHOUT_LOCATION))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message", is("unable to find location for IP " + IP_WITHOUT_LOCATION)));
+    }
+
+    @Test
+    void getLocation_whenAnUnknownExceptionIsThrown_shouldReturnInternalServerErrorHttpStatus() throws Exception {
+        final String expectedMessage = "unknown exception";
+
+        doThrow(new RuntimeException(expectedMessage)).when(ipLocationRepository).getLocationForIp(IpAddress.parse(VALID_IP));
+
+        this.mockMvc.perform(get(ENDPOINT + "/location").queryParam("ip", VALID_IP))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.message", is(expectedMessage)));
+    }
 }
@@ -0,0 +1,54 @@
+package me.github.lparo.geolocation.controller.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+class IpLocationTest {
+    private final City CITY = new City(UUID.randomUUID().toString(), ThreadLocalRandom.current().nextInt());
+    private final State STATE = new State(UUID.randomUUID().toString(), ThreadLocalRandom.current().nextInt(), UUID.randomUUID().toString());
+    private final Country COUNTRY = new Country(
+            UUID.randomUUID().toString(),
+            ThreadLocalRandom.current().nextInt(),
+            ThreadLocalRandom.current().nextBoolean(),
+            UUID.randomUUID().toString()
+    );
+
+    @Test
+    void newIpLocation_whenCalledWithParameters_shouldAssignThemToTheRightField() {
+        final IpLocation ipLocation = new IpLocation(CITY, STATE, COUNTRY);
+
+        assertThat(ipLocation.getCity(), is(CITY));
+        assertThat(ipLocation.getState(), is(STATE));
+        assertThat(ipLocation.getCountry(), is(COUNTRY));
+    }
+
+    @Test
+    void fromDomain_whenCalledWithDomain_shouldCreateADtoRepresentationOfIt() {
+        final me.github.lparo.geolocation.domain.IpLocation domain = createIpLocationDomain();
+        final IpLocation dto = IpLocation.fromDomain(domain);
+
+        assertThat(dto, notNullValue());
+        assertThat(dto.getCity(), is(City.fromDomain(domain.getCity())));
+        assertThat(dto.getState(), is(State.fromDomain(domain.getState())));
+        assertThat(dto.getCountry(), is(Country.fromDomain(domain.getCountry())));
+    }
+
+    private me.github.lparo.geolocation.domain.IpLocation createIpLocationDomain() {
+        return me.github.lparo.geolocation.domain.IpLocation.of(
+                me.github.lparo.geolocation.domain.City.of(CITY.getName(), CITY.getGeoNameId()),
+                me.github.lparo.geolocation.domain.State.of(STATE.getName(), STATE.getGeoNameId(), STATE.getIsoCode()),
+                me.github.lparo.geolocation.domain.Country.of(
+                        COUNTRY.getName(),
+                        COUNTRY.getGeoNameId(),
+                        COUNTRY.isInEuropeanUnion(),
+                        COUNTRY.getIsoCode()
+                )
+        );
+    }
+}
@@ -1,12 +1,15 @@
 package me.github.lparo.geolocation.domain;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.util.SerializationUtils;
 
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 
 class CityTest {
     private final String NAME = UUID.randomUUID().toString();
@@ -19,4 +22,30 @@ class CityTest {
         assertThat(city.getName(), is(NAME));
         assertThat(city.getGeoNameId(), is(GEO_NAME_ID));
     }
-}
\ No newline at end of file
+
+    @Test
+    void interned_whenCalledWithEqualValues_shouldReturnTheSameInstance() {
+        final City first = City.interned(NAME, GEO_NAME_ID);
+        final City second = City.interned(NAME, GEO_NAME_ID);
+
+        assertThat(second, sameInstance(first));
+    }
+
+    @Test
+    void interned_whenValuesChangeForTheSameGeoNameId_shouldReturnAnInstanceWithTheNewValues() {
+        final City first = City.interned(NAME, GEO_NAME_ID);
+        final City renamed = City.interned(UUID.randomUUID().toString(), GEO_NAME_ID);
+
+        assertThat(renamed, not(sameInstance(first)));
+        assertThat(renamed, not(first));
+        assertThat(City.interned(renamed.getName(), GEO_NAME_ID), sameInstance(renamed));
+    }
+
+    @Test
+    void readResolve_whenDeserialized_shouldReturnTheInternedInstance() {
+        final City interned = City.interned(NAME, GEO_NAME_ID);
+        final Object deserialized = SerializationUtils.deserialize(SerializationUtils.serialize(City.of(NAME, GEO_NAME_ID)));
+
+        assertThat(deserialized, sameInstance(interned));
+    }
+}
@@ -1,12 +1,15 @@
 package me.github.lparo.geolocation.domain;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.util.SerializationUtils;
 
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 
 class CountryTest {
     private final String NAME = UUID.randomUUID().toString();
@@ -23,4 +26,30 @@ class CountryTest {
         assertThat(country.isInEuropeanUnion(), is(IS_IN_EUROPEAN_UNION));
         assertThat(country.getIsoCode(), is(ISO_CODE));
     }
-}
\ No newline at end of file
+
+    @Test
+    void interned_whenCalledWithEqualValues_shouldReturnTheSameInstance() {
+        final Country first = Country.interned(NAME, GEO_NAME_ID, IS_IN_EUROPEAN_UNION, ISO_CODE);
+        final Country second = Country.interned(NAME, GEO_NAME_ID, IS_IN_EUROPEAN_UNION, ISO_CODE);
+
+        assertThat(second, sameInstance(first));
+    }
+
+    @Test
+    void interned_whenValuesChangeForTheSameGeoNameId_shouldReturnAnInstanceWithTheNewValues() {
+        final Country first = Country.interned(NAME, GEO_NAME_ID, IS_IN_EUROPEAN_UNION, ISO_CODE);
+        final Country renamed = Country.interned(UUID.randomUUID().toString(), GEO_NAME_ID, IS_IN_EUROPEAN_UNION, ISO_CODE);
+
+        assertThat(renamed, not(sameInstance(first)));
+        assertThat(renamed, not(first));
+        assertThat(Country.interned(renamed.getName(), GEO_NAME_ID, IS_IN_EUROPEAN_UNION, ISO_CODE), sameInstance(renamed));
+    }
+
+    @Test
+    void readResolve_whenDeserialized_shouldReturnTheInternedInstance() {
+        final Country interned = Country.interned(NAME, GEO_NAME_ID, IS_IN_EUROPEAN_UNION, ISO_CODE);
+        final Object deserialized = SerializationUtils.deserialize(SerializationUtils.serialize(Country.of(NAME, GEO_NAME_ID, IS_IN_EUROPEAN_UNION, ISO_CODE)));
+
+        assertThat(deserialized, sameInstance(interned));
+    }
+}
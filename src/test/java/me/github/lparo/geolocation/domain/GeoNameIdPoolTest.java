@@ -0,0 +1,49 @@
+package me.github.lparo.geolocation.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+class GeoNameIdPoolTest {
+    private final int GEO_NAME_ID = ThreadLocalRandom.current().nextInt();
+
+    private final GeoNameIdPool<String> pool = new GeoNameIdPool<>();
+
+    @Test
+    void get_whenNothingIsPooled_shouldReturnNull() {
+        assertThat(pool.get(GEO_NAME_ID), nullValue());
+    }
+
+    @Test
+    void intern_whenNothingIsPooled_shouldPoolAndReturnTheGivenInstance() {
+        final String instance = UUID.randomUUID().toString();
+
+        assertThat(pool.intern(GEO_NAME_ID, instance), sameInstance(instance));
+        assertThat(pool.get(GEO_NAME_ID), sameInstance(instance));
+        assertThat(pool.size(), is(1));
+    }
+
+    @Test
+    void intern_whenAnEqualInstanceIsPooled_shouldReturnThePooledInstance() {
+        final String pooled = UUID.randomUUID().toString();
+        pool.intern(GEO_NAME_ID, pooled);
+
+        assertThat(pool.intern(GEO_NAME_ID, new String(pooled)), sameInstance(pooled));
+    }
+
+    @Test
+    void intern_whenADifferentInstanceIsPooled_shouldReplaceItWithTheGivenInstance() {
+        pool.intern(GEO_NAME_ID, UUID.randomUUID().toString());
+        final String instance = UUID.randomUUID().toString();
+
+        assertThat(pool.intern(GEO_NAME_ID, instance), sameInstance(instance));
+        assertThat(pool.get(GEO_NAME_ID), sameInstance(instance));
+        assertThat(pool.size(), is(1));
+    }
+}
@@ -0,0 +1,70 @@
+package me.github.lparo.geolocation.domain;
+
+import me.github.lparo.geolocation.exception.InvalidIpException;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IpAddressParserTest {
+
+    @Test
+    void parseIpv4_whenCalledWithValidIpv4_shouldReturnItsUnsignedValue() {
+        assertThat(IpAddressParser.parseIpv4("0.0.0.0", 0, 7), is(0L));
+        assertThat(IpAddressParser.parseIpv4("255.255.255.255", 0, 15), is(0xFFFF_FFFFL));
+        assertThat(IpAddressParser.parseIpv4("x217.138.219.147x", 1, 16), is(0xD98A_DB93L));
+    }
+
+    @Test
+    void parseIpv4_whenCalledWithInvalidIpv4_shouldReturnInvalid() {
+        assertThat(IpAddressParser.parseIpv4("256.0.0.1", 0, 9), is(-1L));
+        assertThat(IpAddressParser.parseIpv4("01.2.3.4", 0, 8), is(-1L));
+        assertThat(IpAddressParser.parseIpv4("1.2.3", 0, 5), is(-1L));
+        assertThat(IpAddressParser.parseIpv4("1.2.3.4.5", 0, 9), is(-1L));
+        assertThat(IpAddressParser.parseIpv4("1..3.4", 0, 6), is(-1L));
+        assertThat(IpAddressParser.parseIpv4("1.2.3.", 0, 6), is(-1L));
+        assertThat(IpAddressParser.parseIpv4("1.2.3.٤", 0, 7), is(-1L));
+    }
+
+    @Test
+    void parse_whenCalledWithCompressedIpv6_shouldFillTheMissingGroupsWithZeros() {
+        assertThat(IpAddressParser.parse("::"), is(IpAddress.of(0, 0)));
+        assertThat(IpAddressParser.parse("::1"), is(IpAddress.of(0, 1)));
+        assertThat(IpAddressParser.parse("1::"), is(IpAddress.of(0x0001_0000_0000_0000L, 0)));
+        assertThat(IpAddressParser.parse("1:2:3:4::5"), is(IpAddress.of(0x0001_0002_0003_0004L, 5)));
+        assertThat(IpAddressParser.parse("1::5:6:7:8"), is(IpAddress.of(0x0001_0000_0000_0000L, 0x0005_0006_0007_0008L)));
+        assertThat(IpAddressParser.parse("1:2:3:4:5::8"), is(IpAddress.of(0x0001_0002_0003_0004L, 0x0005_0000_0000_0008L)));
+    }
+
+    @Test
+    void parse_whenCalledWithFullIpv6_shouldPackAllItsGroups() {
+        assertThat(
+                IpAddressParser.parse("ffff:1:2:3:4:5:6:abcd"),
+                is(IpAddress.of(0xFFFF_0001_0002_0003L, 0x0004_0005_0006_ABCDL))
+        );
+    }
+
+    @Test
+    void parse_whenCalledWithIpv6EndingWithIpv4_shouldPackTheIpv4IntoTheLast32Bits() {
+        assertThat(IpAddressParser.parse("64:ff9b::1.2.3.4"), is(IpAddress.of(0x0064_FF9B_0000_0000L, 0x0102_0304L)));
+        assertThat(IpAddressParser.parse("1:2:3:4:5:6:1.2.3.4"), is(IpAddress.of(0x0001_0002_0003_0004L, 0x0005_0006_0102_0304L)));
+        assertThat(IpAddressParser.parse("::ffff:1.2.3.4"), is(IpAddress.ofIpv4(0x0102_0304)));
+    }
+
+    @Test
+    void parse_whenCalledWithInvalidIpv6_shouldThrowAnError() {
+        assertThrows(InvalidIpException.class, () -> IpAddressParser.parse(":::"));
+        assertThrows(InvalidIpException.class, () -> IpAddressParser.parse(":1::"));
+        assertThrows(InvalidIpException.class, () -> IpAddressParser.parse("1:2"));
+        assertThrows(InvalidIpException.class, () -> IpAddressParser.parse("1::2:"));
+        assertThrows(InvalidIpException.class, () -> IpAddressParser.parse("1::2::3"));
+        assertThrows(InvalidIpException.class, () -> IpAddressParser.parse("12345::"));
+        assertThrows(InvalidIpException.class, () -> IpAddressParser.parse("fe80::1%eth0"));
+        assertThrows(InvalidIpException.class, () -> IpAddressParser.parse("g::"));
+        assertThrows(InvalidIpException.class, () -> IpAddressParser.parse("1:2:3:4:5:6:7:8:9"));
+        assertThrows(InvalidIpException.class, () -> IpAddressParser.parse("1:2:3:4::5:6:7:8"));
+        assertThrows(InvalidIpException.class, () -> IpAddressParser.parse("1:2:3:4:5:6:7:1.2.3.4"));
+        assertThrows(InvalidIpException.class, () -> IpAddressParser.parse("1.2.3.4::"));
+    }
+}
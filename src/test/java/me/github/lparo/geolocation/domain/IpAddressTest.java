@@ -0,0 +1,73 @@
+package me.github.lparo.geolocation.domain;
+
+import me.github.lparo.geolocation.exception.InvalidIpException;
+import org.junit.jupiter.api.Test;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IpAddressTest {
+
+    @Test
+    void parse_whenCalledWithIpv4_shouldMapItIntoTheIpv6Space() {
+        final IpAddress ipAddress = IpAddress.parse("217.138.219.147");
+
+        assertThat(ipAddress.getHigh(), is(0L));
+        assertThat(ipAddress.getLow(), is(0x0000_ffff_d98a_db93L));
+        assertThat(ipAddress.isIpv4(), is(TRUE));
+        assertThat(ipAddress.getIpv4(), is(0xd98a_db93));
+    }
+
+    @Test
+    void parse_whenCalledWithIpv6_shouldPackItsBitsIntoTwoLongs() {
+        final IpAddress ipAddress = IpAddress.parse("2a02:26f0:10e::1");
+
+        assertThat(ipAddress.getHigh(), is(0x2a02_26f0_010e_0000L));
+        assertThat(ipAddress.getLow(), is(1L));
+        assertThat(ipAddress.isIpv4(), is(FALSE));
+    }
+
+    @Test
+    void parse_whenTheSameAddressIsWrittenInDifferentWays_shouldReturnEqualAddresses() {
+        assertThat(IpAddress.parse("::ffff:217.138.219.147"), is(IpAddress.parse("217.138.219.147")));
+        assertThat(IpAddress.parse("2A02:26F0:010E:0:0:0:0:1"), is(IpAddress.parse("2a02:26f0:10e::1")));
+    }
+
+    @Test
+    void parse_whenCalledWithAnInvalidIp_shouldThrowAnError() {
+        assertThrows(InvalidIpException.class, () -> IpAddress.parse("invalid"));
+        assertThrows(InvalidIpException.class, () -> IpAddress.parse("256.0.0.1"));
+        assertThrows(InvalidIpException.class, () -> IpAddress.parse("localhost"));
+        assertThrows(InvalidIpException.class, () -> IpAddress.parse(null));
+    }
+
+    @Test
+    void toBytes_whenCalled_shouldReturnTheCompactRepresentationOfTheAddress() {
+        assertThat(IpAddress.parse("217.138.219.147").toBytes(), is(new byte[] {(byte) 217, (byte) 138, (byte) 219, (byte) 147}));
+        assertThat(IpAddress.parse("2a02:26f0:10e::1").toBytes().length, is(16));
+    }
+
+    @Test
+    void fromBytes_whenCalledWithTheCompactRepresentation_shouldReturnTheSameAddress() {
+        final IpAddress ipv4 = IpAddress.parse("217.138.219.147");
+        final IpAddress ipv6 = IpAddress.parse("2a02:26f0:10e::1");
+
+        assertThat(IpAddress.fromBytes(ipv4.toBytes()), is(ipv4));
+        assertThat(IpAddress.fromBytes(ipv6.toBytes()), is(ipv6));
+        assertThrows(IllegalArgumentException.class, () -> IpAddress.fromBytes(new byte[8]));
+    }
+
+    @Test
+    void toInetAddress_whenCalled_shouldReturnTheInetAddressOfTheSameVersion() {
+        assertThat(IpAddress.parse("217.138.219.147").toInetAddress(), instanceOf(Inet4Address.class));
+        assertThat(IpAddress.parse("2a02:26f0:10e::1").toInetAddress(), instanceOf(Inet6Address.class));
+        assertThat(IpAddress.parse("2a02:26f0:10e::1").toString(), is("2a02:26f0:10e:0:0:0:0:1"));
+    }
+}
@@ -0,0 +1,29 @@
+package me.github.lparo.geolocation.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class IpLocationTest {
+    private final City CITY = City.of(UUID.randomUUID().toString(), ThreadLocalRandom.current().nextInt());
+    private final State STATE = State.of(UUID.randomUUID().toString(), ThreadLocalRandom.current().nextInt(), UUID.randomUUID().toString());
+    private final Country COUNTRY = Country.of(
+            UUID.randomUUID().toString(),
+            ThreadLocalRandom.current().nextInt(),
+            ThreadLocalRandom.current().nextBoolean(),
+            UUID.randomUUID().toString()
+    );
+
+    @Test
+    void of_whenCalledWithParameters_shouldAssignThemToTheRightField() {
+        final IpLocation ipLocation = IpLocation.of(CITY, STATE, COUNTRY);
+
+        assertThat(ipLocation.getCity(), is(CITY));
+        assertThat(ipLocation.getState(), is(STATE));
+        assertThat(ipLocation.getCountry(), is(COUNTRY));
+    }
+}
@@ -1,12 +1,15 @@
 package me.github.lparo.geolocation.domain;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.util.SerializationUtils;
 
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 
 class StateTest {
     private final String NAME = UUID.randomUUID().toString();
@@ -21,4 +24,30 @@ class StateTest {
         assertThat(state.getGeoNameId(), is(GEO_NAME_ID));
         assertThat(state.getIsoCode(), is(ISO_CODE));
     }
-}
\ No newline at end of file
+
+    @Test
+    void interned_whenCalledWithEqualValues_shouldReturnTheSameInstance() {
+        final State first = State.interned(NAME, GEO_NAME_ID, ISO_CODE);
+        final State second = State.interned(NAME, GEO_NAME_ID, ISO_CODE);
+
+        assertThat(second, sameInstance(first));
+    }
+
+    @Test
+    void interned_whenValuesChangeForTheSameGeoNameId_shouldReturnAnInstanceWithTheNewValues() {
+        final State first = State.interned(NAME, GEO_NAME_ID, ISO_CODE);
+        final State renamed = State.interned(UUID.randomUUID().toString(), GEO_NAME_ID, ISO_CODE);
+
+        assertThat(renamed, not(sameInstance(first)));
+        assertThat(renamed, not(first));
+        assertThat(State.interned(renamed.getName(), GEO_NAME_ID, ISO_CODE), sameInstance(renamed));
+    }
+
+    @Test
+    void readResolve_whenDeserialized_shouldReturnTheInternedInstance() {
+        final State interned = State.interned(NAME, GEO_NAME_ID, ISO_CODE);
+        final Object deserialized = SerializationUtils.deserialize(SerializationUtils.serialize(State.of(NAME, GEO_NAME_ID, ISO_CODE)));
+
+        assertThat(deserialized, sameInstance(interned));
+    }
+}
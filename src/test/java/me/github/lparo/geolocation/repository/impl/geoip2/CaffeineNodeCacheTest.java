@@ -0,0 +1,95 @@
+package me.github.lparo.geolocation.repository.impl.geoip2;
+
+import com.maxmind.db.CacheKey;
+import com.maxmind.db.DecodedValue;
+import com.maxmind.db.NodeCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+
+class CaffeineNodeCacheTest {
+    private static final CacheKey<?> KEY = mock(CacheKey.class);
+    private static final CacheKey<?> OTHER_KEY = mock(CacheKey.class);
+
+    @Test
+    void get_whenCalledTwiceWithTheSameKey_shouldDecodeTheRecordOnlyOnce() throws Exception {
+        final CaffeineNodeCache nodeCache = new CaffeineNodeCache(16);
+        final NodeCache generation = nodeCache.newGeneration();
+        final AtomicInteger loads = new AtomicInteger();
+
+        final DecodedValue first = generation.get(KEY, key -> {
+            loads.incrementAndGet();
+            return mock(DecodedValue.class);
+        });
+        final DecodedValue second = generation.get(KEY, key -> {
+            loads.incrementAndGet();
+            return mock(DecodedValue.class);
+        });
+
+        assertThat(loads.get(), is(1));
+        assertThat(second, sameInstance(first));
+        assertThat(nodeCache.getStats().hitCount(), is(1L));
+        assertThat(nodeCache.getStats().missCount(), is(1L));
+    }
+
+    @Test
+    void get_whenMoreRecordsThanTheMaximumSizeAreDecoded_shouldEvictTheExceedingOnes() throws Exception {
+        final CaffeineNodeCache nodeCache = new CaffeineNodeCache(16);
+        final NodeCache generation = nodeCache.newGeneration();
+        final DecodedValue value = mock(DecodedValue.class);
+
+        for (int i = 0; i < 100; i++) {
+            generation.get(mock(CacheKey.class), key -> value);
+        }
+
+        assertThat(nodeCache.getSize(), lessThanOrEqualTo(16L));
+    }
+
+    @Test
+    void get_whenTheSameKeyIsUsedByDifferentGenerations_shouldDecodeTheRecordOfEachGeneration() throws Exception {
+        final CaffeineNodeCache nodeCache = new CaffeineNodeCache(16);
+        final DecodedValue firstValue = mock(DecodedValue.class);
+        final DecodedValue secondValue = mock(DecodedValue.class);
+
+        final DecodedValue first = nodeCache.newGeneration().get(KEY, key -> firstValue);
+        final DecodedValue second = nodeCache.newGeneration().get(KEY, key -> secondValue);
+
+        assertThat(first, sameInstance(firstValue));
+        assertThat(second, sameInstance(secondValue));
+    }
+
+    @Test
+    void invalidate_whenCalled_shouldOnlyDiscardTheRecordsOfThatGeneration() throws Exception {
+        final CaffeineNodeCache nodeCache = new CaffeineNodeCache(16);
+        final CaffeineNodeCache.Generation first = nodeCache.newGeneration();
+        final CaffeineNodeCache.Generation second = nodeCache.newGeneration();
+        final DecodedValue value = mock(DecodedValue.class);
+
+        first.get(KEY, key -> value);
+        first.get(OTHER_KEY, key -> value);
+        second.get(KEY, key -> value);
+
+        first.invalidate();
+
+        assertThat(nodeCache.getSize(), is(1L));
+    }
+
+    @Test
+    void bindTo_whenCalledWithRegistry_shouldPublishTheCacheMetrics() {
+        final CaffeineNodeCache nodeCache = new CaffeineNodeCache(16);
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        nodeCache.bindTo(registry);
+
+        assertThat(registry.find("cache.gets").tag("cache", "geoip2.node").meter(), notNullValue());
+        assertThat(registry.find("cache.size").tag("cache", "geoip2.node").meter(), notNullValue());
+    }
+}
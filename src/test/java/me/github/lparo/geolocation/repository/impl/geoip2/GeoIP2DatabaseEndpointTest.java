@@ -0,0 +1,81 @@
+package me.github.lparo.geolocation.repository.impl.geoip2;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.io.IOException;
+import java.util.Date;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GeoIP2DatabaseEndpointTest {
+    private static final String DATABASE_TYPE = "GeoLite2-City";
+    private static final Date BUILD_DATE = new Date();
+
+    @InjectMocks
+    private GeoIP2DatabaseEndpoint endpoint;
+
+    @Mock
+    private ReloadableDatabaseReader reloadableDatabaseReader;
+
+    @Test
+    void getStatus_whenCalled_shouldReturnTheVersionOfTheDatabaseInUse() {
+        when(reloadableDatabaseReader.getGeneration()).thenReturn(3L);
+        when(reloadableDatabaseReader.getDatabaseType()).thenReturn(DATABASE_TYPE);
+        when(reloadableDatabaseReader.getBuildDate()).thenReturn(BUILD_DATE);
+
+        assertThat(endpoint.getStatus(), is(new GeoIP2DatabaseEndpoint.Status(3L, DATABASE_TYPE, BUILD_DATE)));
+    }
+
+    @Test
+    void reload_whenCalled_shouldReloadTheDatabaseAndReturnItsVersion() throws Exception {
+        when(reloadableDatabaseReader.getGeneration()).thenReturn(4L);
+        when(reloadableDatabaseReader.getDatabaseType()).thenReturn(DATABASE_TYPE);
+        when(reloadableDatabaseReader.getBuildDate()).thenReturn(BUILD_DATE);
+
+        assertThat(endpoint.reload(), is(new GeoIP2DatabaseEndpoint.Status(4L, DATABASE_TYPE, BUILD_DATE)));
+
+        verify(reloadableDatabaseReader, times(1)).reload();
+    }
+
+    @Test
+    void reload_whenTheDatabaseCannotBeReloaded_shouldPropagateItAsARuntimeException() throws Exception {
+        doThrow(new IOException("unable to read")).when(reloadableDatabaseReader).reload();
+
+        assertThrows(RuntimeException.class, () -> endpoint.reload());
+    }
+
+    @Test
+    void endpoint_whenItIsNotExposed_shouldNotBeCreated() {
+        createContextRunner()
+                .withPropertyValues("management.endpoints.web.exposure.include=health,info,metrics")
+                .run(context -> assertThat(context.getBeansOfType(GeoIP2DatabaseEndpoint.class), is(anEmptyMap())));
+    }
+
+    @Test
+    void endpoint_whenItIsExposed_shouldBeCreated() {
+        createContextRunner()
+                .withPropertyValues("management.endpoints.web.exposure.include=health,info,metrics,geoip2database")
+                .run(context -> assertThat(context.getBeansOfType(GeoIP2DatabaseEndpoint.class), is(aMapWithSize(1))));
+    }
+
+    private ApplicationContextRunner createContextRunner() {
+        return new ApplicationContextRunner()
+                .withBean(ReloadableDatabaseReader.class, () -> mock(ReloadableDatabaseReader.class))
+                .withUserConfiguration(GeoIP2DatabaseEndpoint.class);
+    }
+}
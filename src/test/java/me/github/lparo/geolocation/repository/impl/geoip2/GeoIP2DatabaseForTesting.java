@@ -0,0 +1,110 @@
+package me.github.lparo.geolocation.repository.impl.geoip2;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes tiny GeoIP2 City databases in the MaxMind DB format, so the code reading them can be tested without a real
+ * database.
+ */
+public final class GeoIP2DatabaseForTesting {
+    private static final byte[] METADATA_START_MARKER = {
+            (byte) 0xAB, (byte) 0xCD, (byte) 0xEF, 'M', 'a', 'x', 'M', 'i', 'n', 'd', '.', 'c', 'o', 'm'
+    };
+
+    private GeoIP2DatabaseForTesting() {
+    }
+
+    /**
+     * Creates an IPv4 database whose search tree has a single node, mapping 0.0.0.0/1 to the given record and
+     * 128.0.0.0/1 to no record.
+     */
+    public static byte[] create(Map<String, Object> record) throws IOException {
+        final ByteArrayOutputStream database = new ByteArrayOutputStream();
+        database.write(new byte[] {0, 0, 17, 0, 0, 1});
+        database.write(new byte[16]);
+        encode(database, record);
+        database.write(METADATA_START_MARKER);
+        encode(database, map(
+                "binary_format_major_version", 2,
+                "binary_format_minor_version", 0,
+                "build_epoch", BigInteger.valueOf(1_600_000_000L),
+                "database_type", "GeoIP2-City",
+                "description", map("en", "test database"),
+                "ip_version", 4,
+                "languages", List.of("en"),
+                "node_count", 1L,
+                "record_size", 24
+        ));
+
+        return database.toByteArray();
+    }
+
+    public static Map<String, Object> map(Object... keysAndValues) {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            map.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+
+        return map;
+    }
+
+    /**
+     * Encodes a value in the MaxMind DB data section format, where strings are utf8 strings, integers are uint16,
+     * longs are uint32 and big integers are uint64.
+     */
+    private static void encode(ByteArrayOutputStream out, Object value) throws IOException {
+        if (value instanceof String) {
+            final byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+            writeControl(out, 2, bytes.length);
+            out.write(bytes);
+        } else if (value instanceof Double) {
+            writeControl(out, 3, Double.BYTES);
+            out.write(ByteBuffer.allocate(Double.BYTES).putDouble((Double) value).array());
+        } else if (value instanceof Integer) {
+            writeUnsigned(out, 5, BigInteger.valueOf((Integer) value));
+        } else if (value instanceof Long) {
+            writeUnsigned(out, 6, BigInteger.valueOf((Long) value));
+        } else if (value instanceof BigInteger) {
+            writeUnsigned(out, 9, (BigInteger) value);
+        } else if (value instanceof Boolean) {
+            writeControl(out, 14, (Boolean) value ? 1 : 0);
+        } else if (value instanceof Map) {
+            final Map<?, ?> map = (Map<?, ?>) value;
+            writeControl(out, 7, map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                encode(out, entry.getKey());
+                encode(out, entry.getValue());
+            }
+        } else {
+            final List<?> list = (List<?>) value;
+            writeControl(out, 11, list.size());
+            for (Object element : list) {
+                encode(out, element);
+            }
+        }
+    }
+
+    private static void writeUnsigned(ByteArrayOutputStream out, int type, BigInteger value) throws IOException {
+        final byte[] bytes = value.signum() == 0 ? new byte[0] : value.toByteArray();
+        final int offset = bytes.length > 0 && bytes[0] == 0 ? 1 : 0;
+        writeControl(out, type, bytes.length - offset);
+        out.write(bytes, offset, bytes.length - offset);
+    }
+
+    private static void writeControl(ByteArrayOutputStream out, int type, int size) {
+        out.write((type <= 7 ? type : 0) << 5 | Math.min(size, 29));
+        if (type > 7) {
+            out.write(type - 7);
+        }
+        if (size >= 29) {
+            out.write(size - 29);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package me.github.lparo.geolocation.repository.impl.geoip2;
+
+import com.maxmind.db.NoCache;
+import com.maxmind.db.Reader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.io.File;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static me.github.lparo.geolocation.repository.impl.geoip2.GeoIP2DatabaseForTesting.map;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class GeoIP2DatabaseLoaderTest {
+    private static final Map<String, Object> RECORD = map("country", map("geoname_id", 3469034L, "iso_code", "BR"));
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private Resource classpathDatabase;
+
+    @Test
+    void openReader_whenADatabaseFileIsGiven_shouldMemoryMapTheFile() throws Exception {
+        final File databaseFile = Files.write(directory.resolve("GeoLite2-City.mmdb"),
+                GeoIP2DatabaseForTesting.create(RECORD)).toFile();
+        final GeoIP2DatabaseLoader loader = new GeoIP2DatabaseLoader(classpathDatabase, databaseFile);
+
+        try (Reader reader = loader.openReader(NoCache.getInstance())) {
+            assertThat(reader.get(InetAddress.getByName("1.2.3.4"), Map.class), is(RECORD));
+        }
+
+        assertThat(loader.getDatabaseFile(), is(databaseFile));
+        assertThat(loader.getDescription(), is(databaseFile.getAbsolutePath()));
+        verifyNoInteractions(classpathDatabase);
+    }
+
+    @Test
+    void openReader_whenNoDatabaseFileIsGiven_shouldReadTheClasspathDatabase() throws Exception {
+        final Resource classpathDatabase = new ByteArrayResource(GeoIP2DatabaseForTesting.create(RECORD), "test");
+        final GeoIP2DatabaseLoader loader = new GeoIP2DatabaseLoader(classpathDatabase, null);
+
+        try (Reader reader = loader.openReader(NoCache.getInstance())) {
+            assertThat(reader.get(InetAddress.getByName("1.2.3.4"), Map.class), is(RECORD));
+        }
+
+        assertThat(loader.getDatabaseFile(), is(nullValue()));
+        assertThat(loader.getDescription(), is(classpathDatabase.getDescription()));
+    }
+}
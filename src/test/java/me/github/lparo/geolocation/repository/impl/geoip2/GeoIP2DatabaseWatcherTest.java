@@ -0,0 +1,82 @@
+package me.github.lparo.geolocation.repository.impl.geoip2;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GeoIP2DatabaseWatcherTest {
+    private static final String DATABASE_FILE_NAME = "GeoLite2-City.mmdb";
+    private static final Duration QUIET_PERIOD = Duration.ofMillis(200);
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private ReloadableDatabaseReader reloadableDatabaseReader;
+
+    @Mock
+    private GeoIP2DatabaseLoader geoIP2DatabaseLoader;
+
+    private GeoIP2DatabaseWatcher watcher;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (watcher != null) {
+            watcher.stop();
+        }
+    }
+
+    @Test
+    void start_whenTheDatabaseFileIsReplaced_shouldReloadTheDatabaseOnce() throws Exception {
+        final Path databaseFile = Files.write(directory.resolve(DATABASE_FILE_NAME), new byte[] {1});
+        startWatcher(databaseFile);
+
+        final Path update = Files.write(directory.resolve(DATABASE_FILE_NAME + ".tmp"), new byte[] {2});
+        Files.move(update, databaseFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        verify(reloadableDatabaseReader, timeout(10_000).times(1)).reload();
+        verify(reloadableDatabaseReader, after(QUIET_PERIOD.toMillis() * 3).times(1)).reload();
+    }
+
+    @Test
+    void start_whenAnotherFileOfTheDirectoryChanges_shouldNotReloadTheDatabase() throws Exception {
+        final Path databaseFile = Files.write(directory.resolve(DATABASE_FILE_NAME), new byte[] {1});
+        startWatcher(databaseFile);
+
+        Files.write(directory.resolve("README.txt"), new byte[] {1});
+
+        verify(reloadableDatabaseReader, after(QUIET_PERIOD.toMillis() * 5).never()).reload();
+    }
+
+    @Test
+    void start_whenNoDatabaseFileIsInUse_shouldNotWatchAnything() throws Exception {
+        when(geoIP2DatabaseLoader.getDatabaseFile()).thenReturn(null);
+
+        watcher = new GeoIP2DatabaseWatcher(reloadableDatabaseReader, geoIP2DatabaseLoader, QUIET_PERIOD);
+        watcher.start();
+
+        verifyNoInteractions(reloadableDatabaseReader);
+    }
+
+    private void startWatcher(Path databaseFile) throws Exception {
+        when(geoIP2DatabaseLoader.getDatabaseFile()).thenReturn(databaseFile.toFile());
+
+        watcher = new GeoIP2DatabaseWatcher(reloadableDatabaseReader, geoIP2DatabaseLoader, QUIET_PERIOD);
+        watcher.start();
+    }
+}
@@ -1,32 +1,32 @@
 package me.github.lparo.geolocation.repository.impl.geoip2;
 
-import com.maxmind.geoip2.DatabaseReader;
-import com.maxmind.geoip2.model.CityResponse;
-import com.maxmind.geoip2.record.Subdivision;
+import com.maxmind.db.Reader;
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.CityRecord;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Names;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Place;
 import me.github.lparo.geolocation.repository.impl.transformer.IpCityLocationTransformer;
 import me.github.lparo.geolocation.domain.City;
 import me.github.lparo.geolocation.domain.IpCityLocation;
 import me.github.lparo.geolocation.domain.State;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.net.InetAddress;
-import java.util.ArrayList;
-import java.util.Locale;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 
 import static java.lang.Boolean.FALSE;
 import static java.lang.Boolean.TRUE;
-import static java.util.Collections.singletonList;
-import static java.util.Collections.singletonMap;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -35,7 +35,7 @@ import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class GeoIP2IpCityLocationRepositoryTest {
-    private static final String IP = "217.138.219.147";
+    private static final IpAddress IP = IpAddress.parse("217.138.219.147");
 
     private static final String CITY_NAME = UUID.randomUUID().toString();
     private static final int CITY_GEO_NAME_ID = ThreadLocalRandom.current().nextInt();
@@ -44,28 +44,40 @@ class GeoIP2IpCityLocationRepositoryTest {
     private static final int STATE_GEO_NAME_ID = ThreadLocalRandom.current().nextInt();
     private static final String ISO_CODE = UUID.randomUUID().toString();
 
-    @InjectMocks
     private GeoIP2IpCityLocationRepository ipCityLocationRepository;
 
     @Mock
-    private DatabaseReader databaseReader;
+    private Reader databaseReader;
 
     @Mock
     private IpCityLocationTransformer ipCityLocationTransformer;
 
+    @Mock
+    private GeoIP2DatabaseLoader geoIP2DatabaseLoader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(geoIP2DatabaseLoader.openReader(any())).thenReturn(databaseReader);
+
+        this.ipCityLocationRepository = new GeoIP2IpCityLocationRepository(
+                new ReloadableDatabaseReader(geoIP2DatabaseLoader, new CaffeineNodeCache(16)),
+                ipCityLocationTransformer
+        );
+    }
+
     @Test
     void getCityLocationForIp_whenALocationIsFoundForTheGivenIp_shouldReturnItInAnOptional() throws Exception {
-        final InetAddress ipAddress = InetAddress.getByName(IP);
+        final InetAddress ipAddress = IP.toInetAddress();
 
-        final CityResponse response = createResponse();
+        final CityRecord response = createRecord();
         final IpCityLocation expectedIpCityLocation = createIpCityLocation();
 
-        when(databaseReader.tryCity(ipAddress)).thenReturn(Optional.of(response));
+        when(databaseReader.get(ipAddress, CityRecord.class)).thenReturn(response);
         when(ipCityLocationTransformer.apply(response)).thenReturn(expectedIpCityLocation);
 
         final Optional<IpCityLocation> ipCityLocation = ipCityLocationRepository.getCityLocationForIp(IP);
 
-        verify(databaseReader, times(1)).tryCity(ipAddress);
+        verify(databaseReader, times(1)).get(ipAddress, CityRecord.class);
         verify(ipCityLocationTransformer, times(1)).apply(response);
 
         verifyNoMoreInteractions(databaseReader);
@@ -77,13 +89,13 @@ class GeoIP2IpCityLocationRepositoryTest {
 
     @Test
     void getCityLocationForIp_whenALocationIsNotFoundForTheGivenIp_shouldReturnOptionalEmpty() throws Exception {
-        final InetAddress ipAddress = InetAddress.getByName(IP);
+        final InetAddress ipAddress = IP.toInetAddress();
 
-        when(databaseReader.tryCity(ipAddress)).thenReturn(Optional.empty());
+        when(databaseReader.get(ipAddress, CityRecord.class)).thenReturn(null);
 
         final Optional<IpCityLocation> ipCityLocation = ipCityLocationRepository.getCityLocationForIp(IP);
 
-        verify(databaseReader, times(1)).tryCity(ipAddress);
+        verify(databaseReader, times(1)).get(ipAddress, CityRecord.class);
 
         verifyNoMoreInteractions(databaseReader);
         verifyNoMoreInteractions(ipCityLocationTransformer);
@@ -94,50 +106,24 @@ class GeoIP2IpCityLocationRepositoryTest {
     @Test
     void getCityLocationForIp_whenAnExceptionIsThrown_shouldPropagateItAsARuntimeException() throws Exception {
         final String expectedMessage = "unknown exception";
-        final InetAddress ipAddress = InetAddress.getByName(IP);
+        final InetAddress ipAddress = IP.toInetAddress();
 
-        when(databaseReader.tryCity(ipAddress)).thenThrow(new IllegalStateException(expectedMessage));
+        when(databaseReader.get(ipAddress, CityRecord.class)).thenThrow(new IllegalStateException(expectedMessage));
 
         try {
             assertThrows(RuntimeException.class, () -> ipCityLocationRepository.getCityLocationForIp(IP), expectedMessage);
         } finally {
-            verify(databaseReader, times(1)).tryCity(ipAddress);
+            verify(databaseReader, times(1)).get(ipAddress, CityRecord.class);
 
             verifyNoMoreInteractions(databaseReader);
             verifyNoInteractions(ipCityLocationTransformer);
         }
     }
 
-    private CityResponse createResponse() {
-        final com.maxmind.geoip2.record.City city = new com.maxmind.geoip2.record.City(
-                singletonList(Locale.US.getLanguage()),
-                ThreadLocalRandom.current().nextInt(),
-                CITY_GEO_NAME_ID,
-                singletonMap(Locale.US.getLanguage(), CITY_NAME)
-        );
-
-        final Subdivision subdivision = new com.maxmind.geoip2.record.Subdivision(
-                singletonList(Locale.US.getLanguage()),
-                ThreadLocalRandom.current().nextInt(),
-                STATE_GEO_NAME_ID,
-                ISO_CODE,
-                singletonMap(Locale.US.getLanguage(), STATE_NAME)
-        );
-
-        final ArrayList<Subdivision> subdivisions = new ArrayList<>();
-        subdivisions.add(subdivision);
-
-        return new CityResponse(
-                city,
-                null,
-                null,
-                null,
-                null,
-                null,
-                null,
-                null,
-                subdivisions,
-                null
+    private CityRecord createRecord() {
+        return new CityRecord(
+                new Place(new Names(CITY_NAME), (long) CITY_GEO_NAME_ID, null, null),
+                List.of(new Place(new Names(STATE_NAME), (long) STATE_GEO_NAME_ID, ISO_CODE, null))
         );
     }
 
@@ -0,0 +1,144 @@
+package me.github.lparo.geolocation.repository.impl.geoip2;
+
+import com.maxmind.db.Reader;
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.LocationRecord;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Names;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Place;
+import me.github.lparo.geolocation.repository.impl.transformer.IpLocationTransformer;
+import me.github.lparo.geolocation.domain.City;
+import me.github.lparo.geolocation.domain.Country;
+import me.github.lparo.geolocation.domain.IpLocation;
+import me.github.lparo.geolocation.domain.State;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.net.InetAddress;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GeoIP2IpLocationRepositoryTest {
+    private static final IpAddress IP = IpAddress.parse("217.138.219.147");
+
+    private static final String CITY_NAME = UUID.randomUUID().toString();
+    private static final int CITY_GEO_NAME_ID = ThreadLocalRandom.current().nextInt();
+
+    private static final String STATE_NAME = UUID.randomUUID().toString();
+    private static final int STATE_GEO_NAME_ID = ThreadLocalRandom.current().nextInt();
+    private static final String ISO_CODE = UUID.randomUUID().toString();
+
+    private static final String COUNTRY_NAME = UUID.randomUUID().toString();
+    private static final int COUNTRY_GEO_NAME_ID = ThreadLocalRandom.current().nextInt();
+    private static final boolean IS_IN_EUROPEAN_UNION = ThreadLocalRandom.current().nextBoolean();
+    private static final String COUNTRY_ISO_CODE = UUID.randomUUID().toString();
+
+    private GeoIP2IpLocationRepository ipLocationRepository;
+
+    @Mock
+    private Reader databaseReader;
+
+    @Mock
+    private IpLocationTransformer ipLocationTransformer;
+
+    @Mock
+    private GeoIP2DatabaseLoader geoIP2DatabaseLoader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(geoIP2DatabaseLoader.openReader(any())).thenReturn(databaseReader);
+
+        this.ipLocationRepository = new GeoIP2IpLocationRepository(
+                new ReloadableDatabaseReader(geoIP2DatabaseLoader, new CaffeineNodeCache(16)),
+                ipLocationTransformer
+        );
+    }
+
+    @Test
+    void getLocationForIp_whenALocationIsFoundForTheGivenIp_shouldReturnItInAnOptional() throws Exception {
+        final InetAddress ipAddress = IP.toInetAddress();
+
+        final LocationRecord response = createRecord();
+        final IpLocation expectedIpLocation = createIpLocation();
+
+        when(databaseReader.get(ipAddress, LocationRecord.class)).thenReturn(response);
+        when(ipLocationTransformer.apply(response)).thenReturn(expectedIpLocation);
+
+        final Optional<IpLocation> ipLocation = ipLocationRepository.getLocationForIp(IP);
+
+        verify(databaseReader, times(1)).get(ipAddress, LocationRecord.class);
+        verify(ipLocationTransformer, times(1)).apply(response);
+
+        verifyNoMoreInteractions(databaseReader);
+        verifyNoMoreInteractions(ipLocationTransformer);
+
+        assertThat(ipLocation.isPresent(), is(TRUE));
+        assertThat(ipLocation, is(Optional.of(expectedIpLocation)));
+    }
+
+    @Test
+    void getLocationForIp_whenALocationIsNotFoundForTheGivenIp_shouldReturnOptionalEmpty() throws Exception {
+        final InetAddress ipAddress = IP.toInetAddress();
+
+        when(databaseReader.get(ipAddress, LocationRecord.class)).thenReturn(null);
+
+        final Optional<IpLocation> ipLocation = ipLocationRepository.getLocationForIp(IP);
+
+        verify(databaseReader, times(1)).get(ipAddress, LocationRecord.class);
+
+        verifyNoMoreInteractions(databaseReader);
+        verifyNoMoreInteractions(ipLocationTransformer);
+
+        assertThat(ipLocation.isPresent(), is(FALSE));
+    }
+
+    @Test
+    void getLocationForIp_whenAnExceptionIsThrown_shouldPropagateItAsARuntimeException() throws Exception {
+        final String expectedMessage = "unknown exception";
+        final InetAddress ipAddress = IP.toInetAddress();
+
+        when(databaseReader.get(ipAddress, LocationRecord.class)).thenThrow(new IllegalStateException(expectedMessage));
+
+        try {
+            assertThrows(RuntimeException.class, () -> ipLocationRepository.getLocationForIp(IP), expectedMessage);
+        } finally {
+            verify(databaseReader, times(1)).get(ipAddress, LocationRecord.class);
+
+            verifyNoMoreInteractions(databaseReader);
+            verifyNoInteractions(ipLocationTransformer);
+        }
+    }
+
+    private LocationRecord createRecord() {
+        return new LocationRecord(
+                new Place(new Names(CITY_NAME), (long) CITY_GEO_NAME_ID, null, null),
+                List.of(new Place(new Names(STATE_NAME), (long) STATE_GEO_NAME_ID, ISO_CODE, null)),
+                new Place(new Names(COUNTRY_NAME), (long) COUNTRY_GEO_NAME_ID, COUNTRY_ISO_CODE, IS_IN_EUROPEAN_UNION)
+        );
+    }
+
+    public IpLocation createIpLocation() {
+        return IpLocation.of(
+                City.of(CITY_NAME, CITY_GEO_NAME_ID),
+                State.of(STATE_NAME, STATE_GEO_NAME_ID, ISO_CODE),
+                Country.of(COUNTRY_NAME, COUNTRY_GEO_NAME_ID, IS_IN_EUROPEAN_UNION, COUNTRY_ISO_CODE)
+        );
+    }
+}
\ No newline at end of file
@@ -0,0 +1,171 @@
+package me.github.lparo.geolocation.repository.impl.geoip2;
+
+import com.maxmind.db.NoCache;
+import com.maxmind.db.NodeCache;
+import com.maxmind.db.Reader;
+import me.github.lparo.geolocation.domain.IpLocation;
+import me.github.lparo.geolocation.repository.impl.transformer.CityToDomainTransformer;
+import me.github.lparo.geolocation.repository.impl.transformer.CountryToDomainTransformer;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.LocationRecord;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Names;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Place;
+import me.github.lparo.geolocation.repository.impl.transformer.IpLocationTransformer;
+import me.github.lparo.geolocation.repository.impl.transformer.SubdivisionToDomainTransformer;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Standalone report comparing the cost of a GeoIP2 lookup projected into an {@link IpLocation} along two paths: the
+ * full record decoded into maps and lists (every locale, the continent, location, postal code and traits, as the
+ * {@code JsonNode} tree of the previous maxmind-db version did) before the fields are picked out of it, and the record
+ * bound straight into a {@link LocationRecord}, whose decoder skips the fields that aren't projected. Each path is run
+ * without a node cache (so every lookup decodes its record) and with a {@link CaffeineNodeCache}. The looked up IPs are
+ * random IPv4 addresses, the same ones for every path.
+ *
+ * <p>It's not a test, as it needs a GeoIP2 City database, which is picked from the {@code GEOIP2_DATABASE_PATH}
+ * environment variable. It takes the number of lookups as its only argument (1000000 by default), runs them once to
+ * warm up and once measured, and prints the time and heap allocated per lookup (as reported by
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}) as a markdown table.
+ */
+public final class GeoIP2LookupAllocationReport {
+    private static final int IP_COUNT = 10_000;
+    private static final long NODE_CACHE_SIZE = 100_000;
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final IpLocationTransformer TRANSFORMER = new IpLocationTransformer(
+            new CityToDomainTransformer(),
+            new SubdivisionToDomainTransformer(),
+            new CountryToDomainTransformer()
+    );
+
+    private GeoIP2LookupAllocationReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        final int lookups = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        final File database = new File(Objects.requireNonNull(System.getenv("GEOIP2_DATABASE_PATH"),
+                "GEOIP2_DATABASE_PATH must point to a GeoIP2 City database"));
+        final InetAddress[] ips = createRandomIps();
+
+        System.out.println("Database: " + database + ", lookups: " + lookups + ", distinct IPs: " + ips.length);
+        System.out.println();
+        System.out.println("| Path | Node cache | Found | ns per lookup | Bytes per lookup |");
+        System.out.println("|---|---|---|---|---|");
+
+        final Lookup fullRecord = GeoIP2LookupAllocationReport::lookUpFullRecord;
+        final Lookup projection = GeoIP2LookupAllocationReport::lookUpProjection;
+
+        final Supplier<NodeCache> noCache = NoCache::getInstance;
+        final Supplier<NodeCache> nodeCache = () -> new CaffeineNodeCache(NODE_CACHE_SIZE).newGeneration();
+
+        report("full record (Map)", "none", noCache, database, ips, lookups, fullRecord);
+        report("projection (LocationRecord)", "none", noCache, database, ips, lookups, projection);
+        report("full record (Map)", "geoip2.node", nodeCache, database, ips, lookups, fullRecord);
+        report("projection (LocationRecord)", "geoip2.node", nodeCache, database, ips, lookups, projection);
+    }
+
+    private static void report(String path,
+                               String cache,
+                               Supplier<NodeCache> nodeCache,
+                               File database,
+                               InetAddress[] ips,
+                               int lookups,
+                               Lookup lookup) throws IOException {
+        try (Reader reader = new Reader(database, Reader.FileMode.MEMORY_MAPPED, nodeCache.get())) {
+            run(reader, ips, lookups, lookup);
+
+            final long threadId = Thread.currentThread().getId();
+            final long allocatedBefore = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+            final long start = System.nanoTime();
+
+            final long found = run(reader, ips, lookups, lookup);
+
+            final long elapsed = System.nanoTime() - start;
+            final long allocated = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+            System.out.printf("| %s | %s | %d | %.0f | %.0f |%n", path, cache, found,
+                    (double) elapsed / lookups, (double) allocated / lookups);
+        }
+    }
+
+    /**
+     * @return the number of lookups that found a location, which also keeps the lookups from being optimized away.
+     */
+    private static long run(Reader reader, InetAddress[] ips, int lookups, Lookup lookup) throws IOException {
+        long found = 0;
+        for (int i = 0; i < lookups; i++) {
+            if (lookup.apply(reader, ips[i % ips.length]) != null) {
+                found++;
+            }
+        }
+
+        return found;
+    }
+
+    private static IpLocation lookUpProjection(Reader reader, InetAddress address) throws IOException {
+        final LocationRecord record = reader.get(address, LocationRecord.class);
+        return record != null ? TRANSFORMER.apply(record) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static IpLocation lookUpFullRecord(Reader reader, InetAddress address) throws IOException {
+        final Map<String, Object> record = reader.get(address, Map.class);
+        if (record == null) {
+            return null;
+        }
+
+        final List<Place> subdivisions = new ArrayList<>();
+        for (Object subdivision : (List<Object>) record.getOrDefault("subdivisions", List.of())) {
+            subdivisions.add(toPlace(subdivision));
+        }
+
+        return TRANSFORMER.apply(new LocationRecord(toPlace(record.get("city")), subdivisions,
+                toPlace(record.get("country"))));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Place toPlace(Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        final Map<String, Object> place = (Map<String, Object>) value;
+        final Map<String, Object> names = (Map<String, Object>) place.get("names");
+
+        return new Place(
+                names != null ? new Names((String) names.get("en")) : null,
+                (Long) place.get("geoname_id"),
+                (String) place.get("iso_code"),
+                (Boolean) place.get("is_in_european_union")
+        );
+    }
+
+    private static InetAddress[] createRandomIps() throws IOException {
+        final Random random = new Random(42);
+        final InetAddress[] ips = new InetAddress[IP_COUNT];
+
+        for (int i = 0; i < ips.length; i++) {
+            final byte[] address = new byte[4];
+            random.nextBytes(address);
+            ips[i] = InetAddress.getByAddress(address);
+        }
+
+        return ips;
+    }
+
+    @FunctionalInterface
+    private interface Lookup {
+        IpLocation apply(Reader reader, InetAddress address) throws IOException;
+    }
+}
@@ -0,0 +1,141 @@
+package me.github.lparo.geolocation.repository.impl.geoip2;
+
+import com.maxmind.db.Reader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReloadableDatabaseReaderTest {
+
+    @Mock
+    private GeoIP2DatabaseLoader geoIP2DatabaseLoader;
+
+    @Mock
+    private Reader firstReader;
+
+    @Mock
+    private Reader secondReader;
+
+    private ReloadableDatabaseReader reloadableDatabaseReader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(geoIP2DatabaseLoader.openReader(any())).thenReturn(firstReader, secondReader);
+
+        this.reloadableDatabaseReader = new ReloadableDatabaseReader(geoIP2DatabaseLoader, new CaffeineNodeCache(16));
+    }
+
+    @Test
+    void read_whenCalled_shouldRunTheLookupAgainstTheCurrentReader() throws Exception {
+        final Reader current = reloadableDatabaseReader.read(reader -> reader);
+
+        assertThat(current, sameInstance(firstReader));
+        assertThat(reloadableDatabaseReader.getGeneration(), is(1L));
+    }
+
+    @Test
+    void reload_whenNoLookupIsRunning_shouldSwapTheReaderAndCloseThePreviousOne() throws Exception {
+        reloadableDatabaseReader.reload();
+
+        assertThat(reloadableDatabaseReader.read(reader -> reader), sameInstance(secondReader));
+        assertThat(reloadableDatabaseReader.getGeneration(), is(2L));
+
+        verify(firstReader, times(1)).close();
+        verify(secondReader, never()).close();
+    }
+
+    @Test
+    void reload_whenALookupIsRunning_shouldOnlyCloseThePreviousReaderOnceTheLookupIsDone() throws Exception {
+        final CountDownLatch lookupStarted = new CountDownLatch(1);
+        final CountDownLatch reloadDone = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            final Future<Reader> lookup = executor.submit(() -> reloadableDatabaseReader.read(reader -> {
+                lookupStarted.countDown();
+                awaitUninterruptibly(reloadDone);
+                return reader;
+            }));
+
+            lookupStarted.await(5, TimeUnit.SECONDS);
+            reloadableDatabaseReader.reload();
+
+            assertThat(reloadableDatabaseReader.read(reader -> reader), sameInstance(secondReader));
+            verify(firstReader, never()).close();
+
+            reloadDone.countDown();
+
+            assertThat(lookup.get(5, TimeUnit.SECONDS), sameInstance(firstReader));
+            verify(firstReader, times(1)).close();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void reload_whenAListenerFailsToPrepare_shouldKeepTheCurrentReaderAndCloseTheNewOne() throws Exception {
+        reloadableDatabaseReader.addReloadListener(reader -> {
+            throw new IOException("unable to prepare");
+        });
+
+        assertThrows(IOException.class, () -> reloadableDatabaseReader.reload());
+
+        assertThat(reloadableDatabaseReader.read(reader -> reader), sameInstance(firstReader));
+        assertThat(reloadableDatabaseReader.getGeneration(), is(1L));
+
+        verify(firstReader, never()).close();
+        verify(secondReader, times(1)).close();
+    }
+
+    @Test
+    void reload_whenListenersAreRegistered_shouldPrepareThemWithTheNewReaderAndPublishAfterTheSwap() throws Exception {
+        final Reader[] published = new Reader[1];
+
+        reloadableDatabaseReader.addReloadListener(reader -> {
+            assertThat(reader, sameInstance(secondReader));
+            assertThat(reloadableDatabaseReader.getGeneration(), is(1L));
+
+            return () -> published[0] = reader;
+        });
+
+        reloadableDatabaseReader.reload();
+
+        assertThat(published[0], sameInstance(secondReader));
+    }
+
+    @Test
+    void close_whenCalled_shouldCloseTheReaderAndRejectNewLookups() throws Exception {
+        reloadableDatabaseReader.close();
+
+        verify(firstReader, times(1)).close();
+        assertThrows(IOException.class, () -> reloadableDatabaseReader.read(reader -> reader));
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
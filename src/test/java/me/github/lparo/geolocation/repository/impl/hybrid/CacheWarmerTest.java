@@ -0,0 +1,159 @@
+package me.github.lparo.geolocation.repository.impl.hybrid;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.repository.IpCityLocationRepository;
+import me.github.lparo.geolocation.repository.IpCountryLocationRepository;
+import me.github.lparo.geolocation.repository.IpLocationRepository;
+import me.github.lparo.geolocation.repository.impl.redis.RedisCacheWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmerTest {
+    private static final IpAddress IP = IpAddress.parse("217.138.219.147");
+    private static final IpAddress OTHER_IP = IpAddress.parse("8.8.8.8");
+    private static final List<String> ALL_TYPES = List.of("city", "country", "location");
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private IpCityLocationRepository ipCityLocationRepository;
+
+    @Mock
+    private IpCountryLocationRepository ipCountryLocationRepository;
+
+    @Mock
+    private IpLocationRepository ipLocationRepository;
+
+    @Mock
+    private RedisCacheWriter redisCacheWriter;
+
+    @Test
+    void warmUp_whenCalled_shouldLookUpEveryDistinctIpOfTheFileOnceForEachType() throws Exception {
+        when(redisCacheWriter.awaitDrained(any())).thenReturn(true);
+        final Path file = write(
+                "# recent IPs",
+                "",
+                "217.138.219.147 - - [04/Aug/2020:15:06:37 +0000] \"GET /geolocation/ips/city HTTP/1.1\" 200",
+                "{\"ip\": \"8.8.8.8\", \"path\": \"/geolocation/ips/country\"}",
+                "217.138.219.147,city",
+                "{\"path\": \"/geolocation/ips/location\"}",
+                "not-an-ip"
+        );
+
+        assertThat(createWarmer(file, ALL_TYPES, Duration.ofSeconds(10), 10, 100).warmUp(), is(2L));
+
+        for (IpAddress ip : List.of(IP, OTHER_IP)) {
+            verify(ipCityLocationRepository, times(1)).getCityLocationForIp(ip);
+            verify(ipCountryLocationRepository, times(1)).getCountryLocationForIp(ip);
+            verify(ipLocationRepository, times(1)).getLocationForIp(ip);
+        }
+        verify(redisCacheWriter, times(1)).awaitDrained(any());
+    }
+
+    @Test
+    void warmUp_whenOnlySomeTypesAreWarmed_shouldOnlyLookUpThose() throws Exception {
+        when(redisCacheWriter.awaitDrained(any())).thenReturn(true);
+
+        createWarmer(write("217.138.219.147"), List.of("country"), Duration.ofSeconds(10), 10, 100).warmUp();
+
+        verify(ipCountryLocationRepository, times(1)).getCountryLocationForIp(IP);
+        verifyNoInteractions(ipCityLocationRepository, ipLocationRepository);
+    }
+
+    @Test
+    void warmUp_whenTheFileHasMoreIpsThanTheMaximum_shouldOnlyWarmTheFirstOnes() throws Exception {
+        when(redisCacheWriter.awaitDrained(any())).thenReturn(true);
+
+        assertThat(createWarmer(write("217.138.219.147", "8.8.8.8"), ALL_TYPES, Duration.ofSeconds(10), 10, 1).warmUp(),
+                is(1L));
+
+        verify(ipCityLocationRepository, never()).getCityLocationForIp(OTHER_IP);
+    }
+
+    @Test
+    void warmUp_whenALookupFails_shouldCountItAndGoOnWithTheOtherIps() throws Exception {
+        when(redisCacheWriter.awaitDrained(any())).thenReturn(true);
+        when(ipCityLocationRepository.getCityLocationForIp(any())).thenAnswer(invocation -> {
+            if (IP.equals(invocation.getArgument(0))) {
+                throw new QueryTimeoutException("timed out");
+            }
+            return Optional.empty();
+        });
+        final CacheWarmer cacheWarmer = createWarmer(write("217.138.219.147", "8.8.8.8"), ALL_TYPES,
+                Duration.ofSeconds(10), 10, 100);
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cacheWarmer.bindTo(registry);
+
+        assertThat(cacheWarmer.warmUp(), is(1L));
+
+        verify(ipLocationRepository, times(1)).getLocationForIp(OTHER_IP);
+        assertThat(registry.get("cache.warmup.ips").tag("result", "warmed").functionCounter().count(), is(1.0));
+        assertThat(registry.get("cache.warmup.ips").tag("result", "failed").functionCounter().count(), is(1.0));
+    }
+
+    @Test
+    void warmUp_whenTheWriteQueueIsNotDrainedInTime_shouldStopAfterTheBatch() throws Exception {
+        when(redisCacheWriter.awaitDrained(any())).thenReturn(false);
+
+        assertThat(createWarmer(write("217.138.219.147", "8.8.8.8"), ALL_TYPES, Duration.ofSeconds(10), 1, 100).warmUp(),
+                is(1L));
+
+        verify(ipCityLocationRepository, times(1)).getCityLocationForIp(IP);
+        verify(ipCityLocationRepository, never()).getCityLocationForIp(OTHER_IP);
+    }
+
+    @Test
+    void warmUp_whenTheTimeBudgetIsSpent_shouldNotLookUpAnything() throws Exception {
+        assertThat(createWarmer(write("217.138.219.147"), ALL_TYPES, Duration.ZERO, 10, 100).warmUp(), is(0L));
+
+        verifyNoInteractions(ipCityLocationRepository, ipCountryLocationRepository, ipLocationRepository, redisCacheWriter);
+    }
+
+    @Test
+    void warmUp_whenTheFileIsMissing_shouldSkipTheWarmUp() {
+        assertThat(createWarmer(directory.resolve("missing.txt"), ALL_TYPES, Duration.ofSeconds(10), 10, 100).warmUp(),
+                is(0L));
+
+        verifyNoInteractions(ipCityLocationRepository, ipCountryLocationRepository, ipLocationRepository, redisCacheWriter);
+    }
+
+    @Test
+    void constructor_whenATypeIsUnknown_shouldThrowAnError() {
+        assertThrows(IllegalArgumentException.class, () ->
+                createWarmer(directory.resolve("ips.txt"), List.of("city", "region"), Duration.ofSeconds(10), 10, 100));
+    }
+
+    private Path write(String... lines) throws IOException {
+        return Files.write(directory.resolve("ips.txt"), List.of(lines));
+    }
+
+    private CacheWarmer createWarmer(Path file, List<String> types, Duration timeBudget, int batchSize, int maxIps) {
+        return new CacheWarmer(ipCityLocationRepository, ipCountryLocationRepository, ipLocationRepository,
+                redisCacheWriter, new ObjectMapper(), file.toString(), types, timeBudget, 2, batchSize, maxIps);
+    }
+}
@@ -1,16 +1,30 @@
 package me.github.lparo.geolocation.repository.impl.hybrid;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.github.lparo.geolocation.domain.IpAddress;
 import me.github.lparo.geolocation.repository.impl.geoip2.GeoIP2IpCityLocationRepository;
+import me.github.lparo.geolocation.repository.impl.geoip2.ReloadableDatabaseReader;
+import me.github.lparo.geolocation.repository.impl.redis.CacheLookup;
+import me.github.lparo.geolocation.repository.impl.redis.LocationCodec;
+import me.github.lparo.geolocation.repository.impl.redis.RedisCacheWriter;
+import me.github.lparo.geolocation.repository.impl.redis.RedisLocationStore;
+import me.github.lparo.geolocation.repository.impl.redis.RedisShards;
 import me.github.lparo.geolocation.repository.impl.redis.RedisIpCityLocationRepository;
 import me.github.lparo.geolocation.domain.City;
 import me.github.lparo.geolocation.domain.IpCityLocation;
 import me.github.lparo.geolocation.domain.State;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.RedisTemplate;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
@@ -19,7 +33,10 @@ import static java.lang.Boolean.FALSE;
 import static java.lang.Boolean.TRUE;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -28,26 +45,60 @@ import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class HybridIpCityLocationRepositoryTest {
-    private static final String IP = "217.138.219.200";
+    private static final IpAddress IP = IpAddress.parse("217.138.219.200");
 
-    @InjectMocks
     private HybridIpCityLocationRepository hybridIpCityLocationRepository;
 
+    private final NearCache<IpCityLocation> nearCache = new NearCache<>("near.city", 16, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+    private final RedisBypass redisBypass = new RedisBypass(createRedisShards(), 2, 0.5, Duration.ofMinutes(1), Duration.ofSeconds(1));
+
     @Mock
     private GeoIP2IpCityLocationRepository geoIP2IpCityLocationRepository;
 
     @Mock
     private RedisIpCityLocationRepository redisIpCityLocationRepository;
 
+    @BeforeEach
+    void setUp() {
+        this.hybridIpCityLocationRepository = new HybridIpCityLocationRepository(geoIP2IpCityLocationRepository, redisIpCityLocationRepository, nearCache, redisBypass);
+    }
+
+    @Test
+    void getCityLocationForIp_whenTheCachedValueIsMalformed_shouldTreatItAsAMissWithoutCountingARedisFailure() {
+        final IpCityLocation expectedIpCityLocation = createIpCityLocation();
+        final RedisLocationStore redisLocationStore = mock(RedisLocationStore.class);
+        final RedisCacheWriter redisCacheWriter = mock(RedisCacheWriter.class);
+        final ReloadableDatabaseReader reloadableDatabaseReader = mock(ReloadableDatabaseReader.class);
+        final byte[] value = LocationCodec.encode(expectedIpCityLocation, 1L);
+
+        when(reloadableDatabaseReader.getBuildEpoch()).thenReturn(1L);
+        when(redisLocationStore.get("CITY", IP)).thenReturn(Arrays.copyOf(value, value.length - 3));
+        when(geoIP2IpCityLocationRepository.getCityLocationForIp(IP)).thenReturn(Optional.of(expectedIpCityLocation));
+
+        final RedisIpCityLocationRepository redisRepository = new RedisIpCityLocationRepository(redisLocationStore,
+                redisCacheWriter, reloadableDatabaseReader, Duration.ofHours(1));
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        redisBypass.bindTo(registry);
+
+        final Optional<IpCityLocation> ipCityLocation = new HybridIpCityLocationRepository(geoIP2IpCityLocationRepository,
+                redisRepository, nearCache, redisBypass).getCityLocationForIp(IP);
+
+        assertThat(ipCityLocation, is(Optional.of(expectedIpCityLocation)));
+        verify(redisCacheWriter, times(1)).enqueue(eq("CITY"), eq(IP), eq(value));
+        assertThat(registry.get("redis.calls").tag("result", "failed").functionCounter().count(), is(0.0));
+        assertThat(registry.get("redis.calls").tag("result", "succeeded").functionCounter().count(), is(1.0));
+    }
+
     @Test
     void getCityLocationForIp_whenTheLocationIsFoundInTheCache_shouldReturnItWrappedInAnOptional() {
         final IpCityLocation expectedIpCityLocation = createIpCityLocation();
 
-        when(redisIpCityLocationRepository.getCityLocationForIp(IP)).thenReturn(Optional.of(expectedIpCityLocation));
+        when(redisIpCityLocationRepository.findCachedCityLocationForIp(IP)).thenReturn(CacheLookup.hit(Optional.of(expectedIpCityLocation)));
 
         final Optional<IpCityLocation> ipCityLocation = hybridIpCityLocationRepository.getCityLocationForIp(IP);
 
-        verify(redisIpCityLocationRepository, times(1)).getCityLocationForIp(IP);
+        verify(redisIpCityLocationRepository, times(1)).findCachedCityLocationForIp(IP);
 
         verifyNoMoreInteractions(redisIpCityLocationRepository);
         verifyNoInteractions(geoIP2IpCityLocationRepository);
@@ -61,14 +112,13 @@ class HybridIpCityLocationRepositoryTest {
     void getCityLocationForIp_whenTheLocationIsNotFoundInTheCache_andIsFoundInTheGeoIP2Repository_shouldPersistTheLocationInTheCache_andReturnItWrappedInAnOptional() {
         final IpCityLocation expectedIpCityLocation = createIpCityLocation();
 
-        when(redisIpCityLocationRepository.getCityLocationForIp(IP)).thenReturn(Optional.empty());
+        when(redisIpCityLocationRepository.findCachedCityLocationForIp(IP)).thenReturn(CacheLookup.miss());
         when(geoIP2IpCityLocationRepository.getCityLocationForIp(IP)).thenReturn(Optional.of(expectedIpCityLocation));
-        when(redisIpCityLocationRepository.addToCache(IP, expectedIpCityLocation)).thenReturn(expectedIpCityLocation);
 
         final Optional<IpCityLocation> ipCityLocation = hybridIpCityLocationRepository.getCityLocationForIp(IP);
 
-        verify(redisIpCityLocationRepository, times(1)).getCityLocationForIp(IP);
-        verify(redisIpCityLocationRepository, times(1)).addToCache(IP, expectedIpCityLocation);
+        verify(redisIpCityLocationRepository, times(1)).findCachedCityLocationForIp(IP);
+        verify(redisIpCityLocationRepository, times(1)).addToCacheAsync(IP, expectedIpCityLocation);
         verify(geoIP2IpCityLocationRepository, times(1)).getCityLocationForIp(IP);
 
         verifyNoMoreInteractions(redisIpCityLocationRepository);
@@ -80,13 +130,14 @@ class HybridIpCityLocationRepositoryTest {
     }
 
     @Test
-    void getCityLocationForIp_whenTheLocationIsNotFoundInTheCache_andIsNotFoundInTheGeoIP2RepositoryEither_shouldReturnOptionalEmpty() {
-        when(redisIpCityLocationRepository.getCityLocationForIp(IP)).thenReturn(Optional.empty());
+    void getCityLocationForIp_whenTheLocationIsNotFoundInTheCache_andIsNotFoundInTheGeoIP2RepositoryEither_shouldCacheThatItIsNotFound_andReturnOptionalEmpty() {
+        when(redisIpCityLocationRepository.findCachedCityLocationForIp(IP)).thenReturn(CacheLookup.miss());
         when(geoIP2IpCityLocationRepository.getCityLocationForIp(IP)).thenReturn(Optional.empty());
 
         final Optional<IpCityLocation> ipCityLocation = hybridIpCityLocationRepository.getCityLocationForIp(IP);
 
-        verify(redisIpCityLocationRepository, times(1)).getCityLocationForIp(IP);
+        verify(redisIpCityLocationRepository, times(1)).findCachedCityLocationForIp(IP);
+        verify(redisIpCityLocationRepository, times(1)).addNotFoundToCacheAsync(IP);
         verify(geoIP2IpCityLocationRepository, times(1)).getCityLocationForIp(IP);
 
         verifyNoMoreInteractions(redisIpCityLocationRepository);
@@ -94,6 +145,165 @@ class HybridIpCityLocationRepositoryTest {
 
         assertThat(ipCityLocation, notNullValue());
         assertThat(ipCityLocation.isPresent(), is(FALSE));
+        assertThat(nearCache.get(IP), is(CacheLookup.hit(Optional.empty())));
+    }
+
+    @Test
+    void getCityLocationForIp_whenTheLocationIsFoundInTheNearCache_shouldReturnItWithoutCallingRedisOrGeoIP2() {
+        final IpCityLocation expectedIpCityLocation = createIpCityLocation();
+        nearCache.put(IP, Optional.of(expectedIpCityLocation));
+
+        final Optional<IpCityLocation> ipCityLocation = hybridIpCityLocationRepository.getCityLocationForIp(IP);
+
+        verifyNoInteractions(redisIpCityLocationRepository);
+        verifyNoInteractions(geoIP2IpCityLocationRepository);
+
+        assertThat(ipCityLocation, is(Optional.of(expectedIpCityLocation)));
+    }
+
+    @Test
+    void getCityLocationForIp_whenTheLocationIsFoundInRedis_shouldKeepItInTheNearCache() {
+        final IpCityLocation expectedIpCityLocation = createIpCityLocation();
+
+        when(redisIpCityLocationRepository.findCachedCityLocationForIp(IP)).thenReturn(CacheLookup.hit(Optional.of(expectedIpCityLocation)));
+
+        hybridIpCityLocationRepository.getCityLocationForIp(IP);
+        final Optional<IpCityLocation> ipCityLocation = hybridIpCityLocationRepository.getCityLocationForIp(IP);
+
+        verify(redisIpCityLocationRepository, times(1)).findCachedCityLocationForIp(IP);
+        verifyNoMoreInteractions(redisIpCityLocationRepository);
+
+        assertThat(nearCache.get(IP), is(CacheLookup.hit(Optional.of(expectedIpCityLocation))));
+        assertThat(ipCityLocation, is(Optional.of(expectedIpCityLocation)));
+    }
+
+    @Test
+    void getCityLocationForIp_whenTheIpIsCachedAsNotFoundInTheNearCache_shouldReturnOptionalEmptyWithoutCallingRedisOrGeoIP2() {
+        nearCache.put(IP, Optional.empty());
+
+        final Optional<IpCityLocation> ipCityLocation = hybridIpCityLocationRepository.getCityLocationForIp(IP);
+
+        verifyNoInteractions(redisIpCityLocationRepository);
+        verifyNoInteractions(geoIP2IpCityLocationRepository);
+
+        assertThat(ipCityLocation, is(Optional.empty()));
+    }
+
+    @Test
+    void getCityLocationForIp_whenTheIpIsCachedAsNotFoundInRedis_shouldReturnOptionalEmptyWithoutCallingGeoIP2() {
+        when(redisIpCityLocationRepository.findCachedCityLocationForIp(IP)).thenReturn(CacheLookup.hit(Optional.empty()));
+
+        final Optional<IpCityLocation> ipCityLocation = hybridIpCityLocationRepository.getCityLocationForIp(IP);
+
+        verify(redisIpCityLocationRepository, times(1)).findCachedCityLocationForIp(IP);
+        verifyNoMoreInteractions(redisIpCityLocationRepository);
+        verifyNoInteractions(geoIP2IpCityLocationRepository);
+
+        assertThat(ipCityLocation, is(Optional.empty()));
+        assertThat(nearCache.get(IP), is(CacheLookup.hit(Optional.empty())));
+    }
+
+    @Test
+    void getCityLocationForIp_whenRedisFails_shouldReturnTheLocationFromTheGeoIP2Repository() {
+        final IpCityLocation expectedIpCityLocation = createIpCityLocation();
+
+        when(redisIpCityLocationRepository.findCachedCityLocationForIp(IP)).thenThrow(new RuntimeException("Read timed out"));
+        when(geoIP2IpCityLocationRepository.getCityLocationForIp(IP)).thenReturn(Optional.of(expectedIpCityLocation));
+
+        final Optional<IpCityLocation> ipCityLocation = hybridIpCityLocationRepository.getCityLocationForIp(IP);
+
+        verify(redisIpCityLocationRepository, times(1)).addToCacheAsync(IP, expectedIpCityLocation);
+
+        assertThat(ipCityLocation, is(Optional.of(expectedIpCityLocation)));
+        assertThat(redisBypass.isActive(), is(FALSE));
+    }
+
+    @Test
+    void getCityLocationForIp_whenRedisIsBypassed_shouldReturnTheLocationFromTheGeoIP2RepositoryWithoutCallingRedis() {
+        final IpCityLocation expectedIpCityLocation = createIpCityLocation();
+
+        redisBypass.call(() -> { throw new RuntimeException("Read timed out"); }, null);
+        redisBypass.call(() -> { throw new RuntimeException("Read timed out"); }, null);
+        when(geoIP2IpCityLocationRepository.getCityLocationForIp(IP)).thenReturn(Optional.of(expectedIpCityLocation));
+
+        final Optional<IpCityLocation> ipCityLocation = hybridIpCityLocationRepository.getCityLocationForIp(IP);
+
+        verify(redisIpCityLocationRepository, never()).findCachedCityLocationForIp(IP);
+
+        assertThat(ipCityLocation, is(Optional.of(expectedIpCityLocation)));
+        assertThat(redisBypass.isActive(), is(TRUE));
+    }
+
+    @Test
+    void getCityLocationForIpAsync_whenTheLocationIsFoundInTheNearCache_shouldEmitItWithoutCallingRedisOrGeoIP2() {
+        final IpCityLocation expectedIpCityLocation = createIpCityLocation();
+        nearCache.put(IP, Optional.of(expectedIpCityLocation));
+
+        final Optional<IpCityLocation> ipCityLocation = hybridIpCityLocationRepository.getCityLocationForIpAsync(IP).block();
+
+        verifyNoInteractions(redisIpCityLocationRepository);
+        verifyNoInteractions(geoIP2IpCityLocationRepository);
+
+        assertThat(ipCityLocation, is(Optional.of(expectedIpCityLocation)));
+    }
+
+    @Test
+    void getCityLocationForIpAsync_whenTheLocationIsFoundInRedis_shouldEmitItWithoutBlockingOnRedis_andKeepItInTheNearCache() {
+        final IpCityLocation expectedIpCityLocation = createIpCityLocation();
+
+        when(redisIpCityLocationRepository.findCachedCityLocationForIpAsync(IP)).thenReturn(Mono.just(Optional.of(expectedIpCityLocation)));
+
+        final Optional<IpCityLocation> ipCityLocation = hybridIpCityLocationRepository.getCityLocationForIpAsync(IP).block();
+
+        verify(redisIpCityLocationRepository, times(1)).findCachedCityLocationForIpAsync(IP);
+        verifyNoMoreInteractions(redisIpCityLocationRepository);
+        verifyNoInteractions(geoIP2IpCityLocationRepository);
+
+        assertThat(ipCityLocation, is(Optional.of(expectedIpCityLocation)));
+        assertThat(nearCache.get(IP), is(CacheLookup.hit(Optional.of(expectedIpCityLocation))));
+    }
+
+    @Test
+    void getCityLocationForIpAsync_whenTheLocationIsNotFoundInRedis_andIsFoundInTheGeoIP2Repository_shouldQueueItToTheCache_andEmitIt() {
+        final IpCityLocation expectedIpCityLocation = createIpCityLocation();
+
+        when(redisIpCityLocationRepository.findCachedCityLocationForIpAsync(IP)).thenReturn(Mono.empty());
+        when(geoIP2IpCityLocationRepository.getCityLocationForIp(IP)).thenReturn(Optional.of(expectedIpCityLocation));
+
+        final Optional<IpCityLocation> ipCityLocation = hybridIpCityLocationRepository.getCityLocationForIpAsync(IP).block();
+
+        verify(redisIpCityLocationRepository, times(1)).addToCacheAsync(IP, expectedIpCityLocation);
+
+        assertThat(ipCityLocation, is(Optional.of(expectedIpCityLocation)));
+        assertThat(nearCache.get(IP), is(CacheLookup.hit(Optional.of(expectedIpCityLocation))));
+    }
+
+    @Test
+    void getCityLocationForIpAsync_whenTheLocationIsNotFoundAnywhere_shouldCacheThatItIsNotFound_andEmitOptionalEmpty() {
+        when(redisIpCityLocationRepository.findCachedCityLocationForIpAsync(IP)).thenReturn(Mono.empty());
+        when(geoIP2IpCityLocationRepository.getCityLocationForIp(IP)).thenReturn(Optional.empty());
+
+        final Optional<IpCityLocation> ipCityLocation = hybridIpCityLocationRepository.getCityLocationForIpAsync(IP).block();
+
+        verify(redisIpCityLocationRepository, times(1)).addNotFoundToCacheAsync(IP);
+
+        assertThat(ipCityLocation, is(Optional.empty()));
+        assertThat(nearCache.get(IP), is(CacheLookup.hit(Optional.empty())));
+    }
+
+    @Test
+    void getCityLocationForIpAsync_whenRedisFails_shouldEmitTheLocationFromTheGeoIP2Repository() {
+        final IpCityLocation expectedIpCityLocation = createIpCityLocation();
+
+        when(redisIpCityLocationRepository.findCachedCityLocationForIpAsync(IP)).thenReturn(Mono.error(new QueryTimeoutException("Redis command timed out")));
+        when(geoIP2IpCityLocationRepository.getCityLocationForIp(IP)).thenReturn(Optional.of(expectedIpCityLocation));
+
+        final Optional<IpCityLocation> ipCityLocation = hybridIpCityLocationRepository.getCityLocationForIpAsync(IP).block();
+
+        verify(redisIpCityLocationRepository, times(1)).addToCacheAsync(IP, expectedIpCityLocation);
+
+        assertThat(ipCityLocation, is(Optional.of(expectedIpCityLocation)));
+        assertThat(redisBypass.isActive(), is(FALSE));
     }
 
     private IpCityLocation createIpCityLocation() {
@@ -102,4 +312,9 @@ class HybridIpCityLocationRepositoryTest {
                 State.of(UUID.randomUUID().toString(), ThreadLocalRandom.current().nextInt(), UUID.randomUUID().toString())
         );
     }
+
+    @SuppressWarnings("unchecked")
+    private static RedisShards createRedisShards() {
+        return new RedisShards(Map.of("redis", mock(RedisTemplate.class)), 1);
+    }
 }
\ No newline at end of file
@@ -1,15 +1,23 @@
 package me.github.lparo.geolocation.repository.impl.hybrid;
 
+import me.github.lparo.geolocation.domain.IpAddress;
 import me.github.lparo.geolocation.repository.impl.geoip2.GeoIP2IpCountryLocationRepository;
+import me.github.lparo.geolocation.repository.impl.redis.CacheLookup;
+import me.github.lparo.geolocation.repository.impl.redis.RedisShards;
 import me.github.lparo.geolocation.repository.impl.redis.RedisIpCountryLocationRepository;
 import me.github.lparo.geolocation.domain.Country;
 import me.github.lparo.geolocation.domain.IpCountryLocation;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.RedisTemplate;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
@@ -19,6 +27,8 @@ import static java.lang.Boolean.TRUE;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -27,26 +37,34 @@ import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class HybridIpCountryLocationRepositoryTest {
-    private static final String IP = "217.138.219.200";
+    private static final IpAddress IP = IpAddress.parse("217.138.219.200");
 
-    @InjectMocks
     private HybridIpCountryLocationRepository hybridIpCountryLocationRepository;
 
+    private final NearCache<IpCountryLocation> nearCache = new NearCache<>("near.country", 16, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+    private final RedisBypass redisBypass = new RedisBypass(createRedisShards(), 2, 0.5, Duration.ofMinutes(1), Duration.ofSeconds(1));
+
     @Mock
     private GeoIP2IpCountryLocationRepository geoIP2IpCountryLocationRepository;
 
     @Mock
     private RedisIpCountryLocationRepository redisIpCountryLocationRepository;
 
+    @BeforeEach
+    void setUp() {
+        this.hybridIpCountryLocationRepository = new HybridIpCountryLocationRepository(geoIP2IpCountryLocationRepository, redisIpCountryLocationRepository, nearCache, redisBypass);
+    }
+
     @Test
     void getCountryLocationForIp_whenTheLocationIsFoundInTheCache_shouldReturnItWrappedInAnOptional() {
         final IpCountryLocation expectedIpCountryLocation = createIpCountryLocation();
 
-        when(redisIpCountryLocationRepository.getCountryLocationForIp(IP)).thenReturn(Optional.of(expectedIpCountryLocation));
+        when(redisIpCountryLocationRepository.findCachedCountryLocationForIp(IP)).thenReturn(CacheLookup.hit(Optional.of(expectedIpCountryLocation)));
 
         final Optional<IpCountryLocation> ipCountryLocation = hybridIpCountryLocationRepository.getCountryLocationForIp(IP);
 
-        verify(redisIpCountryLocationRepository, times(1)).getCountryLocationForIp(IP);
+        verify(redisIpCountryLocationRepository, times(1)).findCachedCountryLocationForIp(IP);
 
         verifyNoMoreInteractions(redisIpCountryLocationRepository);
         verifyNoInteractions(geoIP2IpCountryLocationRepository);
@@ -60,14 +78,13 @@ class HybridIpCountryLocationRepositoryTest {
     void getCountryLocationForIp_whenTheLocationIsNotFoundInTheCache_andIsFoundInTheGeoIP2Repository_shouldPersistTheLocationInTheCache_andReturnItWrappedInAnOptional() {
         final IpCountryLocation expectedIpCountryLocation = createIpCountryLocation();
 
-        when(redisIpCountryLocationRepository.getCountryLocationForIp(IP)).thenReturn(Optional.empty());
+        when(redisIpCountryLocationRepository.findCachedCountryLocationForIp(IP)).thenReturn(CacheLookup.miss());
         when(geoIP2IpCountryLocationRepository.getCountryLocationForIp(IP)).thenReturn(Optional.of(expectedIpCountryLocation));
-        when(redisIpCountryLocationRepository.addToCache(IP, expectedIpCountryLocation)).thenReturn(expectedIpCountryLocation);
 
         final Optional<IpCountryLocation> ipCountryLocation = hybridIpCountryLocationRepository.getCountryLocationForIp(IP);
 
-        verify(redisIpCountryLocationRepository, times(1)).getCountryLocationForIp(IP);
-        verify(redisIpCountryLocationRepository, times(1)).addToCache(IP, expectedIpCountryLocation);
+        verify(redisIpCountryLocationRepository, times(1)).findCachedCountryLocationForIp(IP);
+        verify(redisIpCountryLocationRepository, times(1)).addToCacheAsync(IP, expectedIpCountryLocation);
         verify(geoIP2IpCountryLocationRepository, times(1)).getCountryLocationForIp(IP);
 
         verifyNoMoreInteractions(redisIpCountryLocationRepository);
@@ -79,13 +96,14 @@ class HybridIpCountryLocationRepositoryTest {
     }
 
     @Test
-    void getCountryLocationForIp_whenTheLocationIsNotFoundInTheCache_andIsNotFoundInTheGeoIP2RepositoryEither_shouldReturnOptionalEmpty() {
-        when(redisIpCountryLocationRepository.getCountryLocationForIp(IP)).thenReturn(Optional.empty());
+    void getCountryLocationForIp_whenTheLocationIsNotFoundInTheCache_andIsNotFoundInTheGeoIP2RepositoryEither_shouldCacheThatItIsNotFound_andReturnOptionalEmpty() {
+        when(redisIpCountryLocationRepository.findCachedCountryLocationForIp(IP)).thenReturn(CacheLookup.miss());
         when(geoIP2IpCountryLocationRepository.getCountryLocationForIp(IP)).thenReturn(Optional.empty());
 
         final Optional<IpCountryLocation> ipCountryLocation = hybridIpCountryLocationRepository.getCountryLocationForIp(IP);
 
-        verify(redisIpCountryLocationRepository, times(1)).getCountryLocationForIp(IP);
+        verify(redisIpCountryLocationRepository, times(1)).findCachedCountryLocationForIp(IP);
+        verify(redisIpCountryLocationRepository, times(1)).addNotFoundToCacheAsync(IP);
         verify(geoIP2IpCountryLocationRepository, times(1)).getCountryLocationForIp(IP);
 
         verifyNoMoreInteractions(redisIpCountryLocationRepository);
@@ -93,6 +111,165 @@ class HybridIpCountryLocationRepositoryTest {
 
         assertThat(ipCountryLocation, notNullValue());
         assertThat(ipCountryLocation.isPresent(), is(FALSE));
+        assertThat(nearCache.get(IP), is(CacheLookup.hit(Optional.empty())));
+    }
+
+    @Test
+    void getCountryLocationForIp_whenTheLocationIsFoundInTheNearCache_shouldReturnItWithoutCallingRedisOrGeoIP2() {
+        final IpCountryLocation expectedIpCountryLocation = createIpCountryLocation();
+        nearCache.put(IP, Optional.of(expectedIpCountryLocation));
+
+        final Optional<IpCountryLocation> ipCountryLocation = hybridIpCountryLocationRepository.getCountryLocationForIp(IP);
+
+        verifyNoInteractions(redisIpCountryLocationRepository);
+        verifyNoInteractions(geoIP2IpCountryLocationRepository);
+
+        assertThat(ipCountryLocation, is(Optional.of(expectedIpCountryLocation)));
+    }
+
+    @Test
+    void getCountryLocationForIp_whenTheLocationIsFoundInRedis_shouldKeepItInTheNearCache() {
+        final IpCountryLocation expectedIpCountryLocation = createIpCountryLocation();
+
+        when(redisIpCountryLocationRepository.findCachedCountryLocationForIp(IP)).thenReturn(CacheLookup.hit(Optional.of(expectedIpCountryLocation)));
+
+        hybridIpCountryLocationRepository.getCountryLocationForIp(IP);
+        final Optional<IpCountryLocation> ipCountryLocation = hybridIpCountryLocationRepository.getCountryLocationForIp(IP);
+
+        verify(redisIpCountryLocationRepository, times(1)).findCachedCountryLocationForIp(IP);
+        verifyNoMoreInteractions(redisIpCountryLocationRepository);
+
+        assertThat(nearCache.get(IP), is(CacheLookup.hit(Optional.of(expectedIpCountryLocation))));
+        assertThat(ipCountryLocation, is(Optional.of(expectedIpCountryLocation)));
+    }
+
+    @Test
+    void getCountryLocationForIp_whenTheIpIsCachedAsNotFoundInTheNearCache_shouldReturnOptionalEmptyWithoutCallingRedisOrGeoIP2() {
+        nearCache.put(IP, Optional.empty());
+
+        final Optional<IpCountryLocation> ipCountryLocation = hybridIpCountryLocationRepository.getCountryLocationForIp(IP);
+
+        verifyNoInteractions(redisIpCountryLocationRepository);
+        verifyNoInteractions(geoIP2IpCountryLocationRepository);
+
+        assertThat(ipCountryLocation, is(Optional.empty()));
+    }
+
+    @Test
+    void getCountryLocationForIp_whenTheIpIsCachedAsNotFoundInRedis_shouldReturnOptionalEmptyWithoutCallingGeoIP2() {
+        when(redisIpCountryLocationRepository.findCachedCountryLocationForIp(IP)).thenReturn(CacheLookup.hit(Optional.empty()));
+
+        final Optional<IpCountryLocation> ipCountryLocation = hybridIpCountryLocationRepository.getCountryLocationForIp(IP);
+
+        verify(redisIpCountryLocationRepository, times(1)).findCachedCountryLocationForIp(IP);
+        verifyNoMoreInteractions(redisIpCountryLocationRepository);
+        verifyNoInteractions(geoIP2IpCountryLocationRepository);
+
+        assertThat(ipCountryLocation, is(Optional.empty()));
+        assertThat(nearCache.get(IP), is(CacheLookup.hit(Optional.empty())));
+    }
+
+    @Test
+    void getCountryLocationForIp_whenRedisFails_shouldReturnTheLocationFromTheGeoIP2Repository() {
+        final IpCountryLocation expectedIpCountryLocation = createIpCountryLocation();
+
+        when(redisIpCountryLocationRepository.findCachedCountryLocationForIp(IP)).thenThrow(new RuntimeException("Read timed out"));
+        when(geoIP2IpCountryLocationRepository.getCountryLocationForIp(IP)).thenReturn(Optional.of(expectedIpCountryLocation));
+
+        final Optional<IpCountryLocation> ipCountryLocation = hybridIpCountryLocationRepository.getCountryLocationForIp(IP);
+
+        verify(redisIpCountryLocationRepository, times(1)).addToCacheAsync(IP, expectedIpCountryLocation);
+
+        assertThat(ipCountryLocation, is(Optional.of(expectedIpCountryLocation)));
+        assertThat(redisBypass.isActive(), is(FALSE));
+    }
+
+    @Test
+    void getCountryLocationForIp_whenRedisIsBypassed_shouldReturnTheLocationFromTheGeoIP2RepositoryWithoutCallingRedis() {
+        final IpCountryLocation expectedIpCountryLocation = createIpCountryLocation();
+
+        redisBypass.call(() -> { throw new RuntimeException("Read timed out"); }, null);
+        redisBypass.call(() -> { throw new RuntimeException("Read timed out"); }, null);
+        when(geoIP2IpCountryLocationRepository.getCountryLocationForIp(IP)).thenReturn(Optional.of(expectedIpCountryLocation));
+
+        final Optional<IpCountryLocation> ipCountryLocation = hybridIpCountryLocationRepository.getCountryLocationForIp(IP);
+
+        verify(redisIpCountryLocationRepository, never()).findCachedCountryLocationForIp(IP);
+
+        assertThat(ipCountryLocation, is(Optional.of(expectedIpCountryLocation)));
+        assertThat(redisBypass.isActive(), is(TRUE));
+    }
+
+    @Test
+    void getCountryLocationForIpAsync_whenTheLocationIsFoundInTheNearCache_shouldEmitItWithoutCallingRedisOrGeoIP2() {
+        final IpCountryLocation expectedIpCountryLocation = createIpCountryLocation();
+        nearCache.put(IP, Optional.of(expectedIpCountryLocation));
+
+        final Optional<IpCountryLocation> ipCountryLocation = hybridIpCountryLocationRepository.getCountryLocationForIpAsync(IP).block();
+
+        verifyNoInteractions(redisIpCountryLocationRepository);
+        verifyNoInteractions(geoIP2IpCountryLocationRepository);
+
+        assertThat(ipCountryLocation, is(Optional.of(expectedIpCountryLocation)));
+    }
+
+    @Test
+    void getCountryLocationForIpAsync_whenTheLocationIsFoundInRedis_shouldEmitItWithoutBlockingOnRedis_andKeepItInTheNearCache() {
+        final IpCountryLocation expectedIpCountryLocation = createIpCountryLocation();
+
+        when(redisIpCountryLocationRepository.findCachedCountryLocationForIpAsync(IP)).thenReturn(Mono.just(Optional.of(expectedIpCountryLocation)));
+
+        final Optional<IpCountryLocation> ipCountryLocation = hybridIpCountryLocationRepository.getCountryLocationForIpAsync(IP).block();
+
+        verify(redisIpCountryLocationRepository, times(1)).findCachedCountryLocationForIpAsync(IP);
+        verifyNoMoreInteractions(redisIpCountryLocationRepository);
+        verifyNoInteractions(geoIP2IpCountryLocationRepository);
+
+        assertThat(ipCountryLocation, is(Optional.of(expectedIpCountryLocation)));
+        assertThat(nearCache.get(IP), is(CacheLookup.hit(Optional.of(expectedIpCountryLocation))));
+    }
+
+    @Test
+    void getCountryLocationForIpAsync_whenTheLocationIsNotFoundInRedis_andIsFoundInTheGeoIP2Repository_shouldQueueItToTheCache_andEmitIt() {
+        final IpCountryLocation expectedIpCountryLocation = createIpCountryLocation();
+
+        when(redisIpCountryLocationRepository.findCachedCountryLocationForIpAsync(IP)).thenReturn(Mono.empty());
+        when(geoIP2IpCountryLocationRepository.getCountryLocationForIp(IP)).thenReturn(Optional.of(expectedIpCountryLocation));
+
+        final Optional<IpCountryLocation> ipCountryLocation = hybridIpCountryLocationRepository.getCountryLocationForIpAsync(IP).block();
+
+        verify(redisIpCountryLocationRepository, times(1)).addToCacheAsync(IP, expectedIpCountryLocation);
+
+        assertThat(ipCountryLocation, is(Optional.of(expectedIpCountryLocation)));
+        assertThat(nearCache.get(IP), is(CacheLookup.hit(Optional.of(expectedIpCountryLocation))));
+    }
+
+    @Test
+    void getCountryLocationForIpAsync_whenTheLocationIsNotFoundAnywhere_shouldCacheThatItIsNotFound_andEmitOptionalEmpty() {
+        when(redisIpCountryLocationRepository.findCachedCountryLocationForIpAsync(IP)).thenReturn(Mono.empty());
+        when(geoIP2IpCountryLocationRepository.getCountryLocationForIp(IP)).thenReturn(Optional.empty());
+
+        final Optional<IpCountryLocation> ipCountryLocation = hybridIpCountryLocationRepository.getCountryLocationForIpAsync(IP).block();
+
+        verify(redisIpCountryLocationRepository, times(1)).addNotFoundToCacheAsync(IP);
+
+        assertThat(ipCountryLocation, is(Optional.empty()));
+        assertThat(nearCache.get(IP), is(CacheLookup.hit(Optional.empty())));
+    }
+
+    @Test
+    void getCountryLocationForIpAsync_whenRedisFails_shouldEmitTheLocationFromTheGeoIP2Repository() {
+        final IpCountryLocation expectedIpCountryLocation = createIpCountryLocation();
+
+        when(redisIpCountryLocationRepository.findCachedCountryLocationForIpAsync(IP)).thenReturn(Mono.error(new QueryTimeoutException("Redis command timed out")));
+        when(geoIP2IpCountryLocationRepository.getCountryLocationForIp(IP)).thenReturn(Optional.of(expectedIpCountryLocation));
+
+        final Optional<IpCountryLocation> ipCountryLocation = hybridIpCountryLocationRepository.getCountryLocationForIpAsync(IP).block();
+
+        verify(redisIpCountryLocationRepository, times(1)).addToCacheAsync(IP, expectedIpCountryLocation);
+
+        assertThat(ipCountryLocation, is(Optional.of(expectedIpCountryLocation)));
+        assertThat(redisBypass.isActive(), is(FALSE));
     }
 
     private IpCountryLocation createIpCountryLocation() {
@@ -105,4 +282,9 @@ class HybridIpCountryLocationRepositoryTest {
                 )
         );
     }
+
+    @SuppressWarnings("unchecked")
+    private static RedisShards createRedisShards() {
+        return new RedisShards(Map.of("redis", mock(RedisTemplate.class)), 1);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,294 @@
+package me.github.lparo.geolocation.repository.impl.hybrid;
+
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.repository.impl.geoip2.GeoIP2IpLocationRepository;
+import me.github.lparo.geolocation.repository.impl.redis.CacheLookup;
+import me.github.lparo.geolocation.repository.impl.redis.RedisShards;
+import me.github.lparo.geolocation.repository.impl.redis.RedisIpLocationRepository;
+import me.github.lparo.geolocation.domain.City;
+import me.github.lparo.geolocation.domain.Country;
+import me.github.lparo.geolocation.domain.IpLocation;
+import me.github.lparo.geolocation.domain.State;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.RedisTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HybridIpLocationRepositoryTest {
+    private static final IpAddress IP = IpAddress.parse("217.138.219.200");
+
+    private HybridIpLocationRepository hybridIpLocationRepository;
+
+    private final NearCache<IpLocation> nearCache = new NearCache<>("near.location", 16, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+    private final RedisBypass redisBypass = new RedisBypass(createRedisShards(), 2, 0.5, Duration.ofMinutes(1), Duration.ofSeconds(1));
+
+    @Mock
+    private GeoIP2IpLocationRepository geoIP2IpLocationRepository;
+
+    @Mock
+    private RedisIpLocationRepository redisIpLocationRepository;
+
+    @BeforeEach
+    void setUp() {
+        this.hybridIpLocationRepository = new HybridIpLocationRepository(geoIP2IpLocationRepository, redisIpLocationRepository, nearCache, redisBypass);
+    }
+
+    @Test
+    void getLocationForIp_whenTheLocationIsFoundInTheCache_shouldReturnItWrappedInAnOptional() {
+        final IpLocation expectedIpLocation = createIpLocation();
+
+        when(redisIpLocationRepository.findCachedLocationForIp(IP)).thenReturn(CacheLookup.hit(Optional.of(expectedIpLocation)));
+
+        final Optional<IpLocation> ipLocation = hybridIpLocationRepository.getLocationForIp(IP);
+
+        verify(redisIpLocationRepository, times(1)).findCachedLocationForIp(IP);
+
+        verifyNoMoreInteractions(redisIpLocationRepository);
+        verifyNoInteractions(geoIP2IpLocationRepository);
+
+        assertThat(ipLocation, notNullValue());
+        assertThat(ipLocation.isPresent(), is(TRUE));
+        assertThat(ipLocation, is(Optional.of(expectedIpLocation)));
+    }
+
+    @Test
+    void getLocationForIp_whenTheLocationIsNotFoundInTheCache_andIsFoundInTheGeoIP2Repository_shouldPersistTheLocationInTheCache_andReturnItWrappedInAnOptional() {
+        final IpLocation expectedIpLocation = createIpLocation();
+
+        when(redisIpLocationRepository.findCachedLocationForIp(IP)).thenReturn(CacheLookup.miss());
+        when(geoIP2IpLocationRepository.getLocationForIp(IP)).thenReturn(Optional.of(expectedIpLocation));
+
+        final Optional<IpLocation> ipLocation = hybridIpLocationRepository.getLocationForIp(IP);
+
+        verify(redisIpLocationRepository, times(1)).findCachedLocationForIp(IP);
+        verify(redisIpLocationRepository, times(1)).addToCacheAsync(IP, expectedIpLocation);
+        verify(geoIP2IpLocationRepository, times(1)).getLocationForIp(IP);
+
+        verifyNoMoreInteractions(redisIpLocationRepository);
+        verifyNoMoreInteractions(geoIP2IpLocationRepository);
+
+        assertThat(ipLocation, notNullValue());
+        assertThat(ipLocation.isPresent(), is(TRUE));
+        assertThat(ipLocation, is(Optional.of(expectedIpLocation)));
+    }
+
+    @Test
+    void getLocationForIp_whenTheLocationIsNotFoundInTheCache_andIsNotFoundInTheGeoIP2RepositoryEither_shouldCacheThatItIsNotFound_andReturnOptionalEmpty() {
+        when(redisIpLocationRepository.findCachedLocationForIp(IP)).thenReturn(CacheLookup.miss());
+        when(geoIP2IpLocationRepository.getLocationForIp(IP)).thenReturn(Optional.empty());
+
+        final Optional<IpLocation> ipLocation = hybridIpLocationRepository.getLocationForIp(IP);
+
+        verify(redisIpLocationRepository, times(1)).findCachedLocationForIp(IP);
+        verify(redisIpLocationRepository, times(1)).addNotFoundToCacheAsync(IP);
+        verify(geoIP2IpLocationRepository, times(1)).getLocationForIp(IP);
+
+        verifyNoMoreInteractions(redisIpLocationRepository);
+        verifyNoMoreInteractions(geoIP2IpLocationRepository);
+
+        assertThat(ipLocation, notNullValue());
+        assertThat(ipLocation.isPresent(), is(FALSE));
+        assertThat(nearCache.get(IP), is(CacheLookup.hit(Optional.empty())));
+    }
+
+    @Test
+    void getLocationForIp_whenTheLocationIsFoundInTheNearCache_shouldReturnItWithoutCallingRedisOrGeoIP2() {
+        final IpLocation expectedIpLocation = createIpLocation();
+        nearCache.put(IP, Optional.of(expectedIpLocation));
+
+        final Optional<IpLocation> ipLocation = hybridIpLocationRepository.getLocationForIp(IP);
+
+        verifyNoInteractions(redisIpLocationRepository);
+        verifyNoInteractions(geoIP2IpLocationRepository);
+
+        assertThat(ipLocation, is(Optional.of(expectedIpLocation)));
+    }
+
+    @Test
+    void getLocationForIp_whenTheLocationIsFoundInRedis_shouldKeepItInTheNearCache() {
+        final IpLocation expectedIpLocation = createIpLocation();
+
+        when(redisIpLocationRepository.findCachedLocationForIp(IP)).thenReturn(CacheLookup.hit(Optional.of(expectedIpLocation)));
+
+        hybridIpLocationRepository.getLocationForIp(IP);
+        final Optional<IpLocation> ipLocation = hybridIpLocationRepository.getLocationForIp(IP);
+
+        verify(redisIpLocationRepository, times(1)).findCachedLocationForIp(IP);
+        verifyNoMoreInteractions(redisIpLocationRepository);
+
+        assertThat(nearCache.get(IP), is(CacheLookup.hit(Optional.of(expectedIpLocation))));
+        assertThat(ipLocation, is(Optional.of(expectedIpLocation)));
+    }
+
+    @Test
+    void getLocationForIp_whenTheIpIsCachedAsNotFoundInTheNearCache_shouldReturnOptionalEmptyWithoutCallingRedisOrGeoIP2() {
+        nearCache.put(IP, Optional.empty());
+
+        final Optional<IpLocation> ipLocation = hybridIpLocationRepository.getLocationForIp(IP);
+
+        verifyNoInteractions(redisIpLocationRepository);
+        verifyNoInteractions(geoIP2IpLocationRepository);
+
+        assertThat(ipLocation, is(Optional.empty()));
+    }
+
+    @Test
+    void getLocationForIp_whenTheIpIsCachedAsNotFoundInRedis_shouldReturnOptionalEmptyWithoutCallingGeoIP2() {
+        when(redisIpLocationRepository.findCachedLocationForIp(IP)).thenReturn(CacheLookup.hit(Optional.empty()));
+
+        final Optional<IpLocation> ipLocation = hybridIpLocationRepository.getLocationForIp(IP);
+
+        verify(redisIpLocationRepository, times(1)).findCachedLocationForIp(IP);
+        verifyNoMoreInteractions(redisIpLocationRepository);
+        verifyNoInteractions(geoIP2IpLocationRepository);
+
+        assertThat(ipLocation, is(Optional.empty()));
+        assertThat(nearCache.get(IP), is(CacheLookup.hit(Optional.empty())));
+    }
+
+    @Test
+    void getLocationForIp_whenRedisFails_shouldReturnTheLocationFromTheGeoIP2Repository() {
+        final IpLocation expectedIpLocation = createIpLocation();
+
+        when(redisIpLocationRepository.findCachedLocationForIp(IP)).thenThrow(new RuntimeException("Read timed out"));
+        when(geoIP2IpLocationRepository.getLocationForIp(IP)).thenReturn(Optional.of(expectedIpLocation));
+
+        final Optional<IpLocation> ipLocation = hybridIpLocationRepository.getLocationForIp(IP);
+
+        verify(redisIpLocationRepository, times(1)).addToCacheAsync(IP, expectedIpLocation);
+
+        assertThat(ipLocation, is(Optional.of(expectedIpLocation)));
+        assertThat(redisBypass.isActive(), is(FALSE));
+    }
+
+    @Test
+    void getLocationForIp_whenRedisIsBypassed_shouldReturnTheLocationFromTheGeoIP2RepositoryWithoutCallingRedis() {
+        final IpLocation expectedIpLocation = createIpLocation();
+
+        redisBypass.call(() -> { throw new RuntimeException("Read timed out"); }, null);
+        redisBypass.call(() -> { throw new RuntimeException("Read timed out"); }, null);
+        when(geoIP2IpLocationRepository.getLocationForIp(IP)).thenReturn(Optional.of(expectedIpLocation));
+
+        final Optional<IpLocation> ipLocation = hybridIpLocationRepository.getLocationForIp(IP);
+
+        verify(redisIpLocationRepository, never()).findCachedLocationForIp(IP);
+
+        assertThat(ipLocation, is(Optional.of(expectedIpLocation)));
+        assertThat(redisBypass.isActive(), is(TRUE));
+    }
+
+    @Test
+    void getLocationForIpAsync_whenTheLocationIsFoundInTheNearCache_shouldEmitItWithoutCallingRedisOrGeoIP2() {
+        final IpLocation expectedIpLocation = createIpLocation();
+        nearCache.put(IP, Optional.of(expectedIpLocation));
+
+        final Optional<IpLocation> ipLocation = hybridIpLocationRepository.getLocationForIpAsync(IP).block();
+
+        verifyNoInteractions(redisIpLocationRepository);
+        verifyNoInteractions(geoIP2IpLocationRepository);
+
+        assertThat(ipLocation, is(Optional.of(expectedIpLocation)));
+    }
+
+    @Test
+    void getLocationForIpAsync_whenTheLocationIsFoundInRedis_shouldEmitItWithoutBlockingOnRedis_andKeepItInTheNearCache() {
+        final IpLocation expectedIpLocation = createIpLocation();
+
+        when(redisIpLocationRepository.findCachedLocationForIpAsync(IP)).thenReturn(Mono.just(Optional.of(expectedIpLocation)));
+
+        final Optional<IpLocation> ipLocation = hybridIpLocationRepository.getLocationForIpAsync(IP).block();
+
+        verify(redisIpLocationRepository, times(1)).findCachedLocationForIpAsync(IP);
+        verifyNoMoreInteractions(redisIpLocationRepository);
+        verifyNoInteractions(geoIP2IpLocationRepository);
+
+        assertThat(ipLocation, is(Optional.of(expectedIpLocation)));
+        assertThat(nearCache.get(IP), is(CacheLookup.hit(Optional.of(expectedIpLocation))));
+    }
+
+    @Test
+    void getLocationForIpAsync_whenTheLocationIsNotFoundInRedis_andIsFoundInTheGeoIP2Repository_shouldQueueItToTheCache_andEmitIt() {
+        final IpLocation expectedIpLocation = createIpLocation();
+
+        when(redisIpLocationRepository.findCachedLocationForIpAsync(IP)).thenReturn(Mono.empty());
+        when(geoIP2IpLocationRepository.getLocationForIp(IP)).thenReturn(Optional.of(expectedIpLocation));
+
+        final Optional<IpLocation> ipLocation = hybridIpLocationRepository.getLocationForIpAsync(IP).block();
+
+        verify(redisIpLocationRepository, times(1)).addToCacheAsync(IP, expectedIpLocation);
+
+        assertThat(ipLocation, is(Optional.of(expectedIpLocation)));
+        assertThat(nearCache.get(IP), is(CacheLookup.hit(Optional.of(expectedIpLocation))));
+    }
+
+    @Test
+    void getLocationForIpAsync_whenTheLocationIsNotFoundAnywhere_shouldCacheThatItIsNotFound_andEmitOptionalEmpty() {
+        when(redisIpLocationRepository.findCachedLocationForIpAsync(IP)).thenReturn(Mono.empty());
+        when(geoIP2IpLocationRepository.getLocationForIp(IP)).thenReturn(Optional.empty());
+
+        final Optional<IpLocation> ipLocation = hybridIpLocationRepository.getLocationForIpAsync(IP).block();
+
+        verify(redisIpLocationRepository, times(1)).addNotFoundToCacheAsync(IP);
+
+        assertThat(ipLocation, is(Optional.empty()));
+        assertThat(nearCache.get(IP), is(CacheLookup.hit(Optional.empty())));
+    }
+
+    @Test
+    void getLocationForIpAsync_whenRedisFails_shouldEmitTheLocationFromTheGeoIP2Repository() {
+        final IpLocation expectedIpLocation = createIpLocation();
+
+        when(redisIpLocationRepository.findCachedLocationForIpAsync(IP)).thenReturn(Mono.error(new QueryTimeoutException("Redis command timed out")));
+        when(geoIP2IpLocationRepository.getLocationForIp(IP)).thenReturn(Optional.of(expectedIpLocation));
+
+        final Optional<IpLocation> ipLocation = hybridIpLocationRepository.getLocationForIpAsync(IP).block();
+
+        verify(redisIpLocationRepository, times(1)).addToCacheAsync(IP, expectedIpLocation);
+
+        assertThat(ipLocation, is(Optional.of(expectedIpLocation)));
+        assertThat(redisBypass.isActive(), is(FALSE));
+    }
+
+    private IpLocation createIpLocation() {
+        return IpLocation.of(
+                City.of(UUID.randomUUID().toString(), ThreadLocalRandom.current().nextInt()),
+                State.of(UUID.randomUUID().toString(), ThreadLocalRandom.current().nextInt(), UUID.randomUUID().toString()),
+                Country.of(
+                        UUID.randomUUID().toString(),
+                        ThreadLocalRandom.current().nextInt(),
+                        ThreadLocalRandom.current().nextBoolean(),
+                        UUID.randomUUID().toString()
+                )
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedisShards createRedisShards() {
+        return new RedisShards(Map.of("redis", mock(RedisTemplate.class)), 1);
+    }
+}
\ No newline at end of file
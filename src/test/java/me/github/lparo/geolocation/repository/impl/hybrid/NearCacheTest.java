@@ -0,0 +1,104 @@
+package me.github.lparo.geolocation.repository.impl.hybrid;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.repository.impl.redis.CacheLookup;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class NearCacheTest {
+    private static final IpAddress IP = IpAddress.parse("177.32.54.210");
+
+    @Test
+    void get_whenTheIpIsNotCached_shouldReturnAMiss() {
+        final NearCache<String> nearCache = new NearCache<>("near.test", 16, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        assertThat(nearCache.get(IP), is(CacheLookup.miss()));
+    }
+
+    @Test
+    void get_whenTheIpIsCached_shouldReturnItsLocation() {
+        final NearCache<String> nearCache = new NearCache<>("near.test", 16, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        final Optional<String> location = nearCache.put(IP, Optional.of("São Paulo"));
+
+        assertThat(location, is(Optional.of("São Paulo")));
+        assertThat(nearCache.get(IP), is(CacheLookup.hit(Optional.of("São Paulo"))));
+        assertThat(nearCache.get(IpAddress.parse("177.32.54.211")), is(CacheLookup.miss()));
+    }
+
+    @Test
+    void get_whenTheIpIsCachedAsNotFound_shouldReturnAHitOfOptionalEmpty() {
+        final NearCache<String> nearCache = new NearCache<>("near.test", 16, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        nearCache.put(IP, Optional.empty());
+
+        assertThat(nearCache.get(IP), is(CacheLookup.hit(Optional.empty())));
+    }
+
+    @Test
+    void get_whenTheEntryHasExpired_shouldReturnAMiss() throws InterruptedException {
+        final NearCache<String> nearCache = new NearCache<>("near.test", 16, Duration.ofMillis(1), Duration.ofMinutes(1));
+
+        nearCache.put(IP, Optional.of("São Paulo"));
+        Thread.sleep(10);
+
+        assertThat(nearCache.get(IP), is(CacheLookup.miss()));
+    }
+
+    @Test
+    void get_whenTheNotFoundEntryHasExpired_shouldReturnAMiss() throws InterruptedException {
+        final NearCache<String> nearCache = new NearCache<>("near.test", 16, Duration.ofMinutes(1), Duration.ofMillis(1));
+
+        nearCache.put(IP, Optional.empty());
+        nearCache.put(IpAddress.parse("177.32.54.211"), Optional.of("São Paulo"));
+        Thread.sleep(10);
+
+        assertThat(nearCache.get(IP), is(CacheLookup.miss()));
+        assertThat(nearCache.get(IpAddress.parse("177.32.54.211")), is(CacheLookup.hit(Optional.of("São Paulo"))));
+    }
+
+    @Test
+    void invalidate_whenCalled_shouldDropOnlyTheLocationOfTheIp() {
+        final NearCache<String> nearCache = new NearCache<>("near.test", 16, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        nearCache.put(IP, Optional.of("São Paulo"));
+        nearCache.put(IpAddress.parse("177.32.54.211"), Optional.empty());
+        nearCache.invalidate(IP);
+
+        assertThat(nearCache.get(IP), is(CacheLookup.miss()));
+        assertThat(nearCache.get(IpAddress.parse("177.32.54.211")), is(CacheLookup.hit(Optional.empty())));
+    }
+
+    @Test
+    void invalidateAll_whenCalled_shouldDropEveryLocation() {
+        final NearCache<String> nearCache = new NearCache<>("near.test", 16, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        nearCache.put(IP, Optional.of("São Paulo"));
+        nearCache.put(IpAddress.parse("177.32.54.211"), Optional.empty());
+        nearCache.invalidateAll();
+
+        assertThat(nearCache.get(IP), is(CacheLookup.miss()));
+        assertThat(nearCache.get(IpAddress.parse("177.32.54.211")), is(CacheLookup.miss()));
+    }
+
+    @Test
+    void bindTo_whenCalled_shouldPublishTheHitsAndMissesOfTheCache() {
+        final NearCache<String> nearCache = new NearCache<>("near.test", 16, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        nearCache.bindTo(registry);
+
+        nearCache.put(IP, Optional.of("São Paulo"));
+        nearCache.get(IP);
+        nearCache.get(IP);
+        nearCache.get(IpAddress.parse("177.32.54.211"));
+
+        assertThat(registry.get("cache.gets").tags("cache", "near.test", "result", "hit").functionCounter().count(), is(2.0));
+        assertThat(registry.get("cache.gets").tags("cache", "near.test", "result", "miss").functionCounter().count(), is(1.0));
+    }
+}
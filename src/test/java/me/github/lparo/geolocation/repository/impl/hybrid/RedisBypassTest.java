@@ -0,0 +1,186 @@
+package me.github.lparo.geolocation.repository.impl.hybrid;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.github.lparo.geolocation.repository.impl.redis.RedisShards;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisBypassTest {
+
+    @Mock
+    private RedisTemplate<byte[], byte[]> redisTemplate;
+
+    @Test
+    void constructor_whenTheWindowIsInvalid_shouldThrowAnError() {
+        assertThrows(IllegalArgumentException.class, () -> createBypass(0, Duration.ofMinutes(1)));
+        assertThrows(IllegalArgumentException.class, () -> new RedisBypass(new RedisShards(Map.of("redis", redisTemplate), 1), 4, 0, Duration.ofMinutes(1), Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void call_whenTheCallSucceeds_shouldReturnItsValue() {
+        final RedisBypass redisBypass = createBypass(4, Duration.ofMinutes(1));
+
+        assertThat(redisBypass.call(() -> "value", "fallback"), is("value"));
+        assertThat(redisBypass.isActive(), is(FALSE));
+    }
+
+    @Test
+    void call_whenTheCallFails_shouldReturnTheFallback() {
+        final RedisBypass redisBypass = createBypass(4, Duration.ofMinutes(1));
+
+        assertThat(redisBypass.call(this::fail, "fallback"), is("fallback"));
+        assertThat(redisBypass.isActive(), is(FALSE));
+    }
+
+    @Test
+    void call_whenHalfOfTheWindowFails_shouldBypassTheNextCalls() {
+        final RedisBypass redisBypass = createBypass(4, Duration.ofMinutes(1));
+
+        redisBypass.call(() -> "value", "fallback");
+        redisBypass.call(this::fail, "fallback");
+        redisBypass.call(() -> "value", "fallback");
+        assertThat(redisBypass.isActive(), is(FALSE));
+
+        redisBypass.call(this::fail, "fallback");
+
+        assertThat(redisBypass.isActive(), is(TRUE));
+        assertThat(redisBypass.call(() -> "value", "fallback"), is("fallback"));
+    }
+
+    @Test
+    void call_whenTheFailuresAreOutOfTheWindow_shouldNotBypassTheCalls() {
+        final RedisBypass redisBypass = createBypass(4, Duration.ofMinutes(1));
+
+        redisBypass.call(this::fail, "fallback");
+        for (int i = 0; i < 8; i++) {
+            redisBypass.call(() -> "value", "fallback");
+        }
+        redisBypass.call(this::fail, "fallback");
+
+        assertThat(redisBypass.isActive(), is(FALSE));
+    }
+
+    @Test
+    void call_whenTheCallsAreSlow_shouldBypassTheNextCalls() {
+        final RedisBypass redisBypass = createBypass(2, Duration.ZERO);
+
+        assertThat(redisBypass.call(this::slowly, "fallback"), is("value"));
+        assertThat(redisBypass.call(this::slowly, "fallback"), is("value"));
+
+        assertThat(redisBypass.isActive(), is(TRUE));
+    }
+
+    @Test
+    void callAsync_whenTheCallSucceeds_shouldEmitItsValue() {
+        final RedisBypass redisBypass = createBypass(4, Duration.ofMinutes(1));
+
+        assertThat(redisBypass.call(Mono.just("value"), Mono.just("fallback")).block(), is("value"));
+        assertThat(redisBypass.call(Mono.empty(), Mono.just("fallback")).block(), is(nullValue()));
+        assertThat(redisBypass.isActive(), is(FALSE));
+    }
+
+    @Test
+    void callAsync_whenHalfOfTheWindowFails_shouldSwitchToTheFallbackAndBypassTheNextCalls() {
+        final RedisBypass redisBypass = createBypass(2, Duration.ofMinutes(1));
+        final Mono<String> failure = Mono.error(new RedisConnectionFailureException("refused"));
+
+        assertThat(redisBypass.call(failure, Mono.just("fallback")).block(), is("fallback"));
+        assertThat(redisBypass.call(Mono.just("value"), Mono.just("fallback")).block(), is("value"));
+        assertThat(redisBypass.isActive(), is(TRUE));
+
+        final AtomicBoolean called = new AtomicBoolean();
+        final Mono<String> call = Mono.fromSupplier(() -> {
+            called.set(true);
+            return "value";
+        });
+        assertThat(redisBypass.call(call, Mono.just("fallback")).block(), is("fallback"));
+        assertThat(called.get(), is(FALSE));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void probe_whenRedisAnswers_shouldStopBypassingTheCalls() {
+        final RedisBypass redisBypass = tripBypass(createBypass(2, Duration.ofMinutes(1)));
+        when(redisTemplate.execute(any(RedisCallback.class))).thenReturn("PONG");
+
+        assertThat(redisBypass.probe(), is(TRUE));
+
+        assertThat(redisBypass.isActive(), is(FALSE));
+        assertThat(redisBypass.call(() -> "value", "fallback"), is("value"));
+        redisBypass.call(this::fail, "fallback");
+        assertThat(redisBypass.isActive(), is(TRUE));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void probe_whenRedisFails_shouldKeepBypassingTheCalls() {
+        final RedisBypass redisBypass = tripBypass(createBypass(2, Duration.ofMinutes(1)));
+        when(redisTemplate.execute(any(RedisCallback.class))).thenThrow(new RedisConnectionFailureException("refused"));
+
+        assertThat(redisBypass.probe(), is(FALSE));
+
+        assertThat(redisBypass.isActive(), is(TRUE));
+    }
+
+    @Test
+    void bindTo_whenCalled_shouldPublishTheStateOfTheBypassAndTheOutcomeOfTheCalls() {
+        final RedisBypass redisBypass = createBypass(2, Duration.ofMinutes(1));
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        redisBypass.bindTo(registry);
+
+        tripBypass(redisBypass);
+        redisBypass.call(() -> "value", "fallback");
+
+        assertThat(registry.get("redis.bypass.active").gauge().value(), is(1.0));
+        assertThat(registry.get("redis.bypass.trips").functionCounter().count(), is(1.0));
+        assertThat(registry.get("redis.calls").tag("result", "succeeded").functionCounter().count(), is(0.0));
+        assertThat(registry.get("redis.calls").tag("result", "failed").functionCounter().count(), is(2.0));
+        assertThat(registry.get("redis.calls").tag("result", "bypassed").functionCounter().count(), is(1.0));
+    }
+
+    private RedisBypass createBypass(int windowSize, Duration slowCallThreshold) {
+        return new RedisBypass(new RedisShards(Map.of("redis", redisTemplate), 1), windowSize, 0.5, slowCallThreshold, Duration.ofSeconds(1));
+    }
+
+    private RedisBypass tripBypass(RedisBypass redisBypass) {
+        redisBypass.call(this::fail, "fallback");
+        redisBypass.call(this::fail, "fallback");
+        assertThat(redisBypass.isActive(), is(TRUE));
+
+        return redisBypass;
+    }
+
+    private String fail() {
+        throw new RedisConnectionFailureException("Read timed out");
+    }
+
+    private String slowly() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return "value";
+    }
+}
@@ -0,0 +1,115 @@
+package me.github.lparo.geolocation.repository.impl.hybrid;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.domain.IpCityLocation;
+import me.github.lparo.geolocation.domain.IpCountryLocation;
+import me.github.lparo.geolocation.domain.IpLocation;
+import me.github.lparo.geolocation.repository.impl.redis.CacheLookup;
+import me.github.lparo.geolocation.repository.impl.redis.KeyPerIpRedisLocationStore;
+import me.github.lparo.geolocation.repository.impl.redis.RedisShards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+class RedisTrackingNearCacheInvalidatorTest {
+    private static final IpAddress IP = IpAddress.parse("177.32.54.210");
+    private static final IpAddress OTHER_IP = IpAddress.parse("177.32.54.211");
+
+    private final IpCityLocation ipCityLocation = mock(IpCityLocation.class);
+    private final IpCountryLocation ipCountryLocation = mock(IpCountryLocation.class);
+
+    private KeyPerIpRedisLocationStore redisLocationStore;
+    private NearCache<IpCityLocation> ipCityLocationNearCache;
+    private NearCache<IpCountryLocation> ipCountryLocationNearCache;
+    private NearCache<IpLocation> ipLocationNearCache;
+    private RedisTrackingNearCacheInvalidator invalidator;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        final RedisShards redisShards = new RedisShards(Map.of("redis", mock(RedisTemplate.class)), 1);
+        this.redisLocationStore = new KeyPerIpRedisLocationStore(redisShards, Duration.ofHours(1));
+        this.ipCityLocationNearCache = new NearCache<>("near.city", 16, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        this.ipCountryLocationNearCache = new NearCache<>("near.country", 16, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        this.ipLocationNearCache = new NearCache<>("near.location", 16, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        this.invalidator = new RedisTrackingNearCacheInvalidator(
+                redisShards,
+                redisLocationStore,
+                ipCityLocationNearCache,
+                ipCountryLocationNearCache,
+                ipLocationNearCache
+        );
+
+        ipCityLocationNearCache.put(IP, Optional.of(ipCityLocation));
+        ipCityLocationNearCache.put(OTHER_IP, Optional.empty());
+        ipCountryLocationNearCache.put(IP, Optional.of(ipCountryLocation));
+    }
+
+    @Test
+    void onInvalidation_whenAKeyIsInvalidated_shouldDropTheLocationOfItsIpAndType() {
+        invalidator.onInvalidation(toKey("CITY", IP));
+
+        assertThat(ipCityLocationNearCache.get(IP), is(CacheLookup.miss()));
+        assertThat(ipCityLocationNearCache.get(OTHER_IP), is(CacheLookup.hit(Optional.empty())));
+        assertThat(ipCountryLocationNearCache.get(IP), is(CacheLookup.hit(Optional.of(ipCountryLocation))));
+    }
+
+    @Test
+    void onInvalidation_whenManyKeysAreInvalidated_shouldDropTheLocationsOfEveryKey() {
+        invalidator.onInvalidation(List.of(toKey("CITY", OTHER_IP), toKey("COUNTRY", IP)));
+
+        assertThat(ipCityLocationNearCache.get(IP), is(CacheLookup.hit(Optional.of(ipCityLocation))));
+        assertThat(ipCityLocationNearCache.get(OTHER_IP), is(CacheLookup.miss()));
+        assertThat(ipCountryLocationNearCache.get(IP), is(CacheLookup.miss()));
+    }
+
+    @Test
+    void onInvalidation_whenTheKeyIsUnknown_shouldKeepEveryLocation() {
+        invalidator.onInvalidation(toKey("UNKNOWN", IP));
+        invalidator.onInvalidation(new byte[] {'C', 'I', 'T', 'Y'});
+
+        assertThat(ipCityLocationNearCache.get(IP), is(CacheLookup.hit(Optional.of(ipCityLocation))));
+        assertThat(ipCountryLocationNearCache.get(IP), is(CacheLookup.hit(Optional.of(ipCountryLocation))));
+    }
+
+    @Test
+    void onInvalidation_whenTheDatabaseIsFlushed_shouldDropEveryLocation() {
+        invalidator.onInvalidation(null);
+
+        assertThat(ipCityLocationNearCache.get(IP), is(CacheLookup.miss()));
+        assertThat(ipCityLocationNearCache.get(OTHER_IP), is(CacheLookup.miss()));
+        assertThat(ipCountryLocationNearCache.get(IP), is(CacheLookup.miss()));
+    }
+
+    @Test
+    void bindTo_whenCalled_shouldPublishTheInvalidationsAndTheConnectionState() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        invalidator.bindTo(registry);
+
+        invalidator.onInvalidation(List.of(toKey("CITY", OTHER_IP), toKey("COUNTRY", IP)));
+
+        assertThat(registry.get("redis.tracking.invalidations").functionCounter().count(), is(2.0));
+        assertThat(registry.get("redis.tracking.connected").gauge().value(), is(0.0));
+    }
+
+    private byte[] toKey(String type, IpAddress ip) {
+        final byte[] prefix = redisLocationStore.getKeyPrefix(type);
+        final byte[] address = ip.toBytes();
+
+        final byte[] key = new byte[prefix.length + address.length];
+        System.arraycopy(prefix, 0, key, 0, prefix.length);
+        System.arraycopy(address, 0, key, prefix.length, address.length);
+
+        return key;
+    }
+}
@@ -0,0 +1,211 @@
+package me.github.lparo.geolocation.repository.impl.hybrid;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.github.lparo.geolocation.domain.IpAddress;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+    private static final IpAddress IP = IpAddress.parse("177.32.54.210");
+    private static final int CALLERS = 8;
+
+    @Test
+    void load_whenCalledSequentially_shouldRunEveryLookup() {
+        final SingleFlight<String> singleFlight = new SingleFlight<>("city");
+        final AtomicInteger lookups = new AtomicInteger();
+
+        singleFlight.load(IP, () -> Optional.of("São Paulo #" + lookups.incrementAndGet()));
+        final Optional<String> location = singleFlight.load(IP, () -> Optional.of("São Paulo #" + lookups.incrementAndGet()));
+
+        assertThat(location, is(Optional.of("São Paulo #2")));
+        assertThat(singleFlight.getCoalesced(), is(0L));
+    }
+
+    @Test
+    void load_whenTheSameIpIsLookedUpConcurrently_shouldRunASingleLookupAndShareItsResult() throws Exception {
+        final SingleFlight<String> singleFlight = new SingleFlight<>("city");
+        final AtomicInteger lookups = new AtomicInteger();
+        final CountDownLatch lookupStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLookup = new CountDownLatch(1);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            final List<Future<Optional<String>>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.load(IP, () -> {
+                lookups.incrementAndGet();
+                lookupStarted.countDown();
+                await(releaseLookup);
+                return Optional.of("São Paulo");
+            })));
+            lookupStarted.await();
+
+            for (int i = 1; i < CALLERS; i++) {
+                results.add(executor.submit(() -> singleFlight.load(IP, () -> {
+                    lookups.incrementAndGet();
+                    return Optional.of("another lookup");
+                })));
+            }
+            awaitCoalesced(singleFlight, CALLERS - 1);
+            releaseLookup.countDown();
+
+            for (Future<Optional<String>> result : results) {
+                assertThat(result.get(1, TimeUnit.SECONDS), is(Optional.of("São Paulo")));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(lookups.get(), is(1));
+        assertThat(singleFlight.getCoalesced(), is((long) CALLERS - 1));
+    }
+
+    @Test
+    void load_whenTheSharedLookupFails_shouldThrowItsErrorToEveryCaller() throws Exception {
+        final SingleFlight<String> singleFlight = new SingleFlight<>("city");
+        final CountDownLatch lookupStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLookup = new CountDownLatch(1);
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Optional<String>> leader = executor.submit(() -> singleFlight.load(IP, () -> {
+                lookupStarted.countDown();
+                await(releaseLookup);
+                throw new IllegalStateException("redis is down");
+            }));
+            lookupStarted.await();
+
+            final Thread releaser = new Thread(() -> {
+                awaitCoalesced(singleFlight, 1);
+                releaseLookup.countDown();
+            });
+            releaser.start();
+
+            final IllegalStateException error = assertThrows(IllegalStateException.class,
+                    () -> singleFlight.load(IP, Optional::empty));
+
+            assertThat(error.getMessage(), is("redis is down"));
+            assertThrows(Exception.class, () -> leader.get(1, TimeUnit.SECONDS));
+            releaser.join();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void loadAsync_whenTheSameIpIsLookedUpConcurrently_shouldRunASingleLookupAndShareItsResult() throws Exception {
+        final SingleFlight<String> singleFlight = new SingleFlight<>("city");
+        final AtomicInteger lookups = new AtomicInteger();
+        final CompletableFuture<Optional<String>> lookup = new CompletableFuture<>();
+
+        final CompletableFuture<Optional<String>> leader = singleFlight.loadAsync(IP, () -> {
+            lookups.incrementAndGet();
+            return Mono.fromFuture(lookup);
+        }).toFuture();
+        final CompletableFuture<Optional<String>> follower = singleFlight.loadAsync(IP, () -> {
+            lookups.incrementAndGet();
+            return Mono.just(Optional.of("another lookup"));
+        }).toFuture();
+        lookup.complete(Optional.of("São Paulo"));
+
+        assertThat(leader.get(1, TimeUnit.SECONDS), is(Optional.of("São Paulo")));
+        assertThat(follower.get(1, TimeUnit.SECONDS), is(Optional.of("São Paulo")));
+        assertThat(lookups.get(), is(1));
+        assertThat(singleFlight.getCoalesced(), is(1L));
+    }
+
+    @Test
+    void loadAsync_whenALookupIsInFlight_shouldShareItsResultWithTheBlockingCallers() throws Exception {
+        final SingleFlight<String> singleFlight = new SingleFlight<>("city");
+        final CompletableFuture<Optional<String>> lookup = new CompletableFuture<>();
+
+        singleFlight.loadAsync(IP, () -> Mono.fromFuture(lookup)).subscribe();
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Optional<String>> follower = executor.submit(() -> singleFlight.load(IP, Optional::empty));
+            awaitCoalesced(singleFlight, 1);
+            lookup.complete(Optional.of("São Paulo"));
+
+            assertThat(follower.get(1, TimeUnit.SECONDS), is(Optional.of("São Paulo")));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void loadAsync_whenTheSharedLookupFails_shouldFailEveryCaller() {
+        final SingleFlight<String> singleFlight = new SingleFlight<>("city");
+        final CompletableFuture<Optional<String>> lookup = new CompletableFuture<>();
+
+        final CompletableFuture<Optional<String>> leader = singleFlight.loadAsync(IP, () -> Mono.fromFuture(lookup)).toFuture();
+        final CompletableFuture<Optional<String>> follower = singleFlight.loadAsync(IP, () -> Mono.just(Optional.empty())).toFuture();
+        lookup.completeExceptionally(new IllegalStateException("redis is down"));
+
+        final ExecutionException leaderError = assertThrows(ExecutionException.class, () -> leader.get(1, TimeUnit.SECONDS));
+        final ExecutionException followerError = assertThrows(ExecutionException.class, () -> follower.get(1, TimeUnit.SECONDS));
+
+        assertThat(leaderError.getCause().getMessage(), is("redis is down"));
+        assertThat(followerError.getCause().getMessage(), is("redis is down"));
+    }
+
+    @Test
+    void loadAsync_whenTheSubscriberThatStartedTheLookupCancels_shouldStillShareItsResultWithTheWaitingCallers() throws Exception {
+        final SingleFlight<String> singleFlight = new SingleFlight<>("city");
+        final CompletableFuture<Optional<String>> lookup = new CompletableFuture<>();
+        final AtomicBoolean lookupCancelled = new AtomicBoolean();
+        final Mono<Optional<String>> cancellableLookup = Mono.fromFuture(lookup).doOnCancel(() -> lookupCancelled.set(true));
+
+        final Disposable leader = singleFlight.loadAsync(IP, () -> cancellableLookup).subscribe();
+        final CompletableFuture<Optional<String>> follower = singleFlight.loadAsync(IP, () -> Mono.just(Optional.empty())).toFuture();
+        leader.dispose();
+        lookup.complete(Optional.of("São Paulo"));
+
+        assertThat(follower.get(1, TimeUnit.SECONDS), is(Optional.of("São Paulo")));
+        assertThat(lookupCancelled.get(), is(false));
+        assertThat(singleFlight.loadAsync(IP, () -> Mono.just(Optional.of("Campinas"))).block(), is(Optional.of("Campinas")));
+    }
+
+    @Test
+    void bindTo_whenCalled_shouldPublishTheCoalescedLookups() {
+        final SingleFlight<String> singleFlight = new SingleFlight<>("city");
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        singleFlight.bindTo(registry);
+
+        singleFlight.load(IP, Optional::empty);
+
+        assertThat(registry.get("location.lookups.coalesced").tag("type", "city").functionCounter().count(), is(0.0));
+    }
+
+    private static void awaitCoalesced(SingleFlight<?> singleFlight, long coalesced) {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.getCoalesced() < coalesced && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package me.github.lparo.geolocation.repository.impl.rangetable;
+
+import com.maxmind.db.DatabaseRecord;
+import me.github.lparo.geolocation.domain.City;
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.domain.IpCityLocation;
+import me.github.lparo.geolocation.domain.State;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.CityRecord;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Names;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Place;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.lang.Boolean.FALSE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class IpCityLocationRangeTableCompilerTest {
+    private static final CityRecord FIRST_RECORD = createRecord(1);
+    private static final CityRecord SECOND_RECORD = createRecord(2);
+
+    private static final IpCityLocation FIRST_LOCATION = createIpCityLocation();
+    private static final IpCityLocation SECOND_LOCATION = createIpCityLocation();
+
+    @Test
+    void compile_whenWalkingTheNetworks_shouldProjectEachRecordWithData_andMapEveryAddressToItsLocation() throws Exception {
+        final Map<Integer, Integer> projectionsById = new HashMap<>();
+
+        final IpCityLocationRangeTable rangeTable = IpCityLocationRangeTableCompiler.compile(
+                IpCityLocationRangeTableCompilerTest::getRecord,
+                record -> {
+                    final int id = record.getCity().getGeoNameId();
+                    projectionsById.merge(id, 1, Integer::sum);
+                    return id == 2 ? SECOND_LOCATION : FIRST_LOCATION;
+                },
+                false
+        );
+
+        assertThat(projectionsById.size(), is(2));
+        assertThat(projectionsById.get(1), is(2));
+        assertThat(projectionsById.get(2), is(1));
+
+        assertThat(rangeTable.getRangeCount(), is(4));
+        assertThat(rangeTable.getLocationCount(), is(2));
+
+        assertThat(rangeTable.lookup(toAddress("10.0.0.1")).isPresent(), is(FALSE));
+        assertThat(rangeTable.lookup(toAddress("130.1.2.3")), is(Optional.of(FIRST_LOCATION)));
+        assertThat(rangeTable.lookup(toAddress("170.1.2.3")), is(Optional.of(SECOND_LOCATION)));
+        assertThat(rangeTable.lookup(toAddress("217.138.219.147")), is(Optional.of(FIRST_LOCATION)));
+        assertThat(rangeTable.getIpv6RangeCount(), is(1));
+    }
+
+    @Test
+    void compile_whenTheDatabaseHasIpv6_shouldWalkTheIpv6Space_andResolveTheAliasedNetworksAsIpv4() throws Exception {
+        final IpCityLocationRangeTable rangeTable = IpCityLocationRangeTableCompiler.compile(
+                IpCityLocationRangeTableCompilerTest::getRecord,
+                record -> record.getCity().getGeoNameId() == 2 ? SECOND_LOCATION : FIRST_LOCATION,
+                true
+        );
+
+        assertThat(rangeTable.getIpv6RangeCount(), is(3));
+
+        assertThat(rangeTable.lookup(IpAddress.parse("2a02:1:2::3")), is(Optional.of(SECOND_LOCATION)));
+        assertThat(rangeTable.lookup(IpAddress.parse("2a01:ffff::1")).isPresent(), is(FALSE));
+        assertThat(rangeTable.lookup(IpAddress.parse("2a03::1")).isPresent(), is(FALSE));
+
+        assertThat(rangeTable.lookup(IpAddress.parse("217.138.219.147")), is(Optional.of(FIRST_LOCATION)));
+        assertThat(rangeTable.lookup(IpAddress.parse("::ffff:217.138.219.147")), is(Optional.of(FIRST_LOCATION)));
+        assertThat(rangeTable.lookup(IpAddress.parse("2002:d98a:db93::1")), is(Optional.of(FIRST_LOCATION)));
+        assertThat(rangeTable.lookup(IpAddress.parse("2001:0:a000:1::")), is(Optional.of(SECOND_LOCATION)));
+        assertThat(rangeTable.lookup(IpAddress.parse("2001:0:a00:1::")).isPresent(), is(FALSE));
+    }
+
+    /**
+     * Fake database with the networks 0.0.0.0/1 (no data), 128.0.0.0/3 (first record), 160.0.0.0/3 (second record)
+     * and 192.0.0.0/2 (first record again) in the IPv4 space, and 2a02::/16 (second record) in the IPv6 space, where
+     * any other address is in the largest empty network starting at it, up to a /16.
+     */
+    private static DatabaseRecord<CityRecord> getRecord(InetAddress address) {
+        if (address instanceof Inet6Address) {
+            final BigInteger value = new BigInteger(1, address.getAddress());
+            if (value.shiftRight(112).intValue() == 0x2a02) {
+                return new DatabaseRecord<>(SECOND_RECORD, address, 16);
+            }
+
+            return new DatabaseRecord<>(null, address, Math.max(16, 128 - value.getLowestSetBit()));
+        }
+
+        final int firstOctet = address.getAddress()[0] & 0xFF;
+
+        if (firstOctet < 128) {
+            return new DatabaseRecord<>(null, address, 1);
+        } else if (firstOctet < 160) {
+            return new DatabaseRecord<>(FIRST_RECORD, address, 3);
+        } else if (firstOctet < 192) {
+            return new DatabaseRecord<>(SECOND_RECORD, address, 3);
+        }
+
+        return new DatabaseRecord<>(FIRST_RECORD, address, 2);
+    }
+
+    private static int toAddress(String ip) throws Exception {
+        final byte[] bytes = InetAddress.getByName(ip).getAddress();
+        return ((bytes[0] & 0xFF) << 24) | ((bytes[1] & 0xFF) << 16) | ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF);
+    }
+
+    private static CityRecord createRecord(long cityGeoNameId) {
+        return new CityRecord(new Place(new Names(UUID.randomUUID().toString()), cityGeoNameId, null, null), null);
+    }
+
+    private static IpCityLocation createIpCityLocation() {
+        return IpCityLocation.of(
+                City.of(UUID.randomUUID().toString(), ThreadLocalRandom.current().nextInt()),
+                State.of(UUID.randomUUID().toString(), ThreadLocalRandom.current().nextInt(), UUID.randomUUID().toString())
+        );
+    }
+}
@@ -0,0 +1,123 @@
+package me.github.lparo.geolocation.repository.impl.rangetable;
+
+import me.github.lparo.geolocation.domain.City;
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.domain.IpCityLocation;
+import me.github.lparo.geolocation.domain.State;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.lang.Boolean.FALSE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IpCityLocationRangeTableTest {
+    private static final IpCityLocation FIRST_LOCATION = createIpCityLocation();
+    private static final IpCityLocation SECOND_LOCATION = createIpCityLocation();
+
+    @Test
+    void lookup_whenAddressIsInsideARange_shouldReturnTheLocationOfTheRange() {
+        final IpCityLocationRangeTable rangeTable = IpCityLocationRangeTable.builder()
+                .addRange(toAddress(10, 0, 0, 0), FIRST_LOCATION)
+                .addRange(toAddress(11, 0, 0, 0), null)
+                .addRange(toAddress(217, 138, 219, 0), SECOND_LOCATION)
+                .addRange(toAddress(217, 138, 220, 0), null)
+                .build();
+
+        assertThat(rangeTable.lookup((int) toAddress(10, 0, 0, 0)), is(Optional.of(FIRST_LOCATION)));
+        assertThat(rangeTable.lookup((int) toAddress(10, 255, 255, 255)), is(Optional.of(FIRST_LOCATION)));
+        assertThat(rangeTable.lookup((int) toAddress(217, 138, 219, 147)), is(Optional.of(SECOND_LOCATION)));
+    }
+
+    @Test
+    void lookup_whenAddressIsOutsideAnyLocatedRange_shouldReturnOptionalEmpty() {
+        final IpCityLocationRangeTable rangeTable = IpCityLocationRangeTable.builder()
+                .addRange(toAddress(10, 0, 0, 0), FIRST_LOCATION)
+                .addRange(toAddress(11, 0, 0, 0), null)
+                .build();
+
+        assertThat(rangeTable.lookup((int) toAddress(0, 0, 0, 0)).isPresent(), is(FALSE));
+        assertThat(rangeTable.lookup((int) toAddress(9, 255, 255, 255)).isPresent(), is(FALSE));
+        assertThat(rangeTable.lookup((int) toAddress(11, 0, 0, 0)).isPresent(), is(FALSE));
+        assertThat(rangeTable.lookup((int) toAddress(255, 255, 255, 255)).isPresent(), is(FALSE));
+    }
+
+    @Test
+    void build_whenRangesShareTheSameLocation_shouldDeduplicateItAndMergeAdjacentRanges() {
+        final IpCityLocationRangeTable rangeTable = IpCityLocationRangeTable.builder()
+                .addRange(toAddress(0, 0, 0, 0), FIRST_LOCATION)
+                .addRange(toAddress(1, 0, 0, 0), IpCityLocation.of(FIRST_LOCATION.getCity(), FIRST_LOCATION.getState()))
+                .addRange(toAddress(2, 0, 0, 0), SECOND_LOCATION)
+                .addRange(toAddress(3, 0, 0, 0), FIRST_LOCATION)
+                .build();
+
+        assertThat(rangeTable.getRangeCount(), is(3));
+        assertThat(rangeTable.getLocationCount(), is(2));
+        assertThat(rangeTable.lookup((int) toAddress(1, 2, 3, 4)).get(), sameInstance(FIRST_LOCATION));
+        assertThat(rangeTable.lookup((int) toAddress(3, 2, 3, 4)).get(), sameInstance(FIRST_LOCATION));
+    }
+
+    @Test
+    void lookup_whenIpv6AddressIsInsideARange_shouldReturnTheLocationOfTheRange() {
+        final IpCityLocationRangeTable rangeTable = IpCityLocationRangeTable.builder()
+                .addIpv6Range(0x2a02_26f0_0000_0000L, 0, FIRST_LOCATION)
+                .addIpv6Range(0x2a02_26f0_0000_0000L, 0x8000_0000_0000_0000L, SECOND_LOCATION)
+                .addIpv6Range(0x2a02_26f1_0000_0000L, 0, null)
+                .addIpv6Range(0xfe80_0000_0000_0000L, 0, FIRST_LOCATION)
+                .build();
+
+        assertThat(rangeTable.getIpv6RangeCount(), is(5));
+        assertThat(rangeTable.lookup(IpAddress.parse("2a02:26f0::1")), is(Optional.of(FIRST_LOCATION)));
+        assertThat(rangeTable.lookup(IpAddress.parse("2a02:26f0::8000:0:0:1")), is(Optional.of(SECOND_LOCATION)));
+        assertThat(rangeTable.lookup(IpAddress.parse("2a02:26f1::1")).isPresent(), is(FALSE));
+        assertThat(rangeTable.lookup(IpAddress.parse("2a02:26ef::1")).isPresent(), is(FALSE));
+        assertThat(rangeTable.lookup(IpAddress.parse("ffff::1")), is(Optional.of(FIRST_LOCATION)));
+    }
+
+    @Test
+    void lookup_whenIpv6AddressIsAliasedToIpv4_shouldReturnTheLocationOfTheIpv4Range() {
+        final IpCityLocationRangeTable rangeTable = IpCityLocationRangeTable.builder()
+                .addRange(toAddress(217, 138, 219, 0), FIRST_LOCATION)
+                .addRange(toAddress(217, 138, 220, 0), null)
+                .build();
+
+        assertThat(rangeTable.lookup(IpAddress.parse("217.138.219.147")), is(Optional.of(FIRST_LOCATION)));
+        assertThat(rangeTable.lookup(IpAddress.parse("::ffff:217.138.219.147")), is(Optional.of(FIRST_LOCATION)));
+        assertThat(rangeTable.lookup(IpAddress.parse("::217.138.219.147")), is(Optional.of(FIRST_LOCATION)));
+        assertThat(rangeTable.lookup(IpAddress.parse("2002:d98a:db93::")), is(Optional.of(FIRST_LOCATION)));
+        assertThat(rangeTable.lookup(IpAddress.parse("2001:0:d98a:db93::")), is(Optional.of(FIRST_LOCATION)));
+        assertThat(rangeTable.lookup(IpAddress.parse("2001:db8:d98a:db93::")).isPresent(), is(FALSE));
+    }
+
+    @Test
+    void addIpv6Range_whenRangesAreNotAscending_shouldThrowAnError() {
+        final IpCityLocationRangeTable.Builder builder = IpCityLocationRangeTable.builder()
+                .addIpv6Range(0x2a02_0000_0000_0000L, 0, FIRST_LOCATION);
+
+        assertThrows(IllegalArgumentException.class, () -> builder.addIpv6Range(0x2a01_0000_0000_0000L, 0, SECOND_LOCATION));
+    }
+
+    @Test
+    void addRange_whenRangesAreNotAscending_shouldThrowAnError() {
+        final IpCityLocationRangeTable.Builder builder = IpCityLocationRangeTable.builder()
+                .addRange(toAddress(10, 0, 0, 0), FIRST_LOCATION);
+
+        assertThrows(IllegalArgumentException.class, () -> builder.addRange(toAddress(9, 0, 0, 0), SECOND_LOCATION));
+    }
+
+    private static long toAddress(int first, int second, int third, int fourth) {
+        return ((long) first << 24) | (second << 16) | (third << 8) | fourth;
+    }
+
+    private static IpCityLocation createIpCityLocation() {
+        return IpCityLocation.of(
+                City.of(UUID.randomUUID().toString(), ThreadLocalRandom.current().nextInt()),
+                State.of(UUID.randomUUID().toString(), ThreadLocalRandom.current().nextInt(), UUID.randomUUID().toString())
+        );
+    }
+}
@@ -0,0 +1,105 @@
+package me.github.lparo.geolocation.repository.impl.rangetable;
+
+import com.maxmind.db.Reader;
+import me.github.lparo.geolocation.domain.City;
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.domain.IpCityLocation;
+import me.github.lparo.geolocation.domain.State;
+import me.github.lparo.geolocation.repository.impl.geoip2.ReloadableDatabaseReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RangeTableIpCityLocationRepositoryTest {
+    private static final IpAddress IP = IpAddress.parse("217.138.219.147");
+    private static final IpAddress IPV6 = IpAddress.parse("2a02:26f0:10e::1");
+    private static final IpAddress IP_WITHOUT_LOCATION = IpAddress.parse("127.0.0.1");
+
+    private static final IpCityLocation IP_CITY_LOCATION = IpCityLocation.of(
+            City.of(UUID.randomUUID().toString(), ThreadLocalRandom.current().nextInt()),
+            State.of(UUID.randomUUID().toString(), ThreadLocalRandom.current().nextInt(), UUID.randomUUID().toString())
+    );
+
+    private RangeTableIpCityLocationRepository ipCityLocationRepository;
+
+    @Mock
+    private IpCityLocationRangeTableCompiler rangeTableCompiler;
+
+    @Mock
+    private ReloadableDatabaseReader reloadableDatabaseReader;
+
+    @Mock
+    private Reader reloadedReader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        final IpCityLocationRangeTable rangeTable = IpCityLocationRangeTable.builder()
+                .addRange((217L << 24) | (138 << 16) | (219 << 8), IP_CITY_LOCATION)
+                .addRange((217L << 24) | (138 << 16) | (220 << 8), null)
+                .addIpv6Range(IPV6.getHigh(), 0, IP_CITY_LOCATION)
+                .addIpv6Range(IPV6.getHigh() + 1, 0, null)
+                .build();
+
+        when(rangeTableCompiler.compile()).thenReturn(rangeTable);
+
+        this.ipCityLocationRepository = new RangeTableIpCityLocationRepository(rangeTableCompiler, reloadableDatabaseReader);
+    }
+
+    @Test
+    void getCityLocationForIp_whenALocationIsFoundForTheGivenIp_shouldReturnItInAnOptional() {
+        final Optional<IpCityLocation> ipCityLocation = ipCityLocationRepository.getCityLocationForIp(IP);
+
+        assertThat(ipCityLocation.isPresent(), is(TRUE));
+        assertThat(ipCityLocation, is(Optional.of(IP_CITY_LOCATION)));
+    }
+
+    @Test
+    void getCityLocationForIp_whenALocationIsFoundForTheGivenIpv6_shouldReturnItInAnOptional() {
+        final Optional<IpCityLocation> ipCityLocation = ipCityLocationRepository.getCityLocationForIp(IPV6);
+
+        assertThat(ipCityLocation, is(Optional.of(IP_CITY_LOCATION)));
+    }
+
+    @Test
+    void getCityLocationForIp_whenALocationIsNotFoundForTheGivenIp_shouldReturnOptionalEmpty() {
+        final Optional<IpCityLocation> ipCityLocation = ipCityLocationRepository.getCityLocationForIp(IP_WITHOUT_LOCATION);
+
+        assertThat(ipCityLocation.isPresent(), is(FALSE));
+    }
+
+    @Test
+    void constructor_whenCalled_shouldRegisterItselfAsReloadListener() {
+        verify(reloadableDatabaseReader).addReloadListener(ipCityLocationRepository);
+    }
+
+    @Test
+    void prepare_whenTheDatabaseIsReloaded_shouldOnlyServeTheReloadedTableAfterTheSwap() throws Exception {
+        final IpCityLocationRangeTable reloadedRangeTable = IpCityLocationRangeTable.builder()
+                .addRange(0, IP_CITY_LOCATION)
+                .build();
+
+        when(rangeTableCompiler.compile(reloadedReader)).thenReturn(reloadedRangeTable);
+
+        final Runnable publication = ipCityLocationRepository.prepare(reloadedReader);
+
+        assertThat(ipCityLocationRepository.getCityLocationForIp(IP_WITHOUT_LOCATION).isPresent(), is(FALSE));
+
+        publication.run();
+
+        assertThat(ipCityLocationRepository.getCityLocationForIp(IP_WITHOUT_LOCATION), is(Optional.of(IP_CITY_LOCATION)));
+    }
+}
@@ -0,0 +1,234 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import me.github.lparo.geolocation.domain.IpAddress;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BucketedRedisLocationStoreTest {
+    private static final Duration TTL = Duration.ofHours(1);
+    private static final IpAddress IP = IpAddress.parse("217.138.219.147");
+    private static final byte[] BUCKET_KEY = {'C', 'I', 'T', 'Y', '#', (byte) 217, (byte) 138, (byte) 219};
+    private static final byte[] FIELD = {(byte) 147};
+    private static final byte[] VALUE = {1, 2, 3};
+
+    @Mock
+    private RedisTemplate<byte[], byte[]> redisTemplate;
+
+    @Mock
+    private HashOperations<byte[], byte[], byte[]> hashOperations;
+
+    @Mock
+    private Cursor<byte[]> bucketCursor;
+
+    @Mock
+    private Cursor<Map.Entry<byte[], byte[]>> fieldCursor;
+
+    @Mock
+    private ReactiveRedisTemplate<byte[], byte[]> reactiveRedisTemplate;
+
+    @Mock
+    private ReactiveHashOperations<byte[], byte[], byte[]> reactiveHashOperations;
+
+    private RedisShards redisShards;
+
+    @BeforeEach
+    void setUp() {
+        this.redisShards = new RedisShards(Map.of("redis", redisTemplate), 1);
+    }
+
+    @Test
+    void toBucketKey_whenBucketBitsAreWholeBytes_shouldDropTheLastBytes() {
+        assertThat(BucketedRedisLocationStore.toBucketKey("CITY", IP.toBytes(), 8), is(BUCKET_KEY));
+        assertThat(BucketedRedisLocationStore.toBucketKey("CITY", IP.toBytes(), 16),
+                is(new byte[] {'C', 'I', 'T', 'Y', '#', (byte) 217, (byte) 138}));
+        assertThat(BucketedRedisLocationStore.toBucketKey("CITY", IpAddress.parse("::1").toBytes(), 8).length, is(20));
+    }
+
+    @Test
+    void toBucketKey_whenBucketBitsArePartialBytes_shouldZeroTheBitsOfTheField() {
+        assertThat(BucketedRedisLocationStore.toBucketKey("CITY", IP.toBytes(), 4),
+                is(new byte[] {'C', 'I', 'T', 'Y', '#', (byte) 217, (byte) 138, (byte) 219, (byte) 0x90}));
+        assertThat(BucketedRedisLocationStore.toBucketKey("CITY", IP.toBytes(), 12),
+                is(new byte[] {'C', 'I', 'T', 'Y', '#', (byte) 217, (byte) 138, (byte) 0xD0}));
+    }
+
+    @Test
+    void toField_whenCalled_shouldKeepOnlyTheLastBits() {
+        assertThat(BucketedRedisLocationStore.toField(IP.toBytes(), 8), is(FIELD));
+        assertThat(BucketedRedisLocationStore.toField(IP.toBytes(), 4), is(new byte[] {0x03}));
+        assertThat(BucketedRedisLocationStore.toField(IP.toBytes(), 12), is(new byte[] {0x0B, (byte) 147}));
+    }
+
+    @Test
+    void constructor_whenBucketBitsAreOutOfRange_shouldThrowAnError() {
+        assertThrows(IllegalArgumentException.class, () -> new BucketedRedisLocationStore(redisShards, TTL, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BucketedRedisLocationStore(redisShards, TTL, 17));
+    }
+
+    @Test
+    void getKeyPrefix_whenCalled_shouldReturnTheTypeAndTheSeparator() {
+        assertThat(new BucketedRedisLocationStore(redisShards, TTL, 8).getKeyPrefix("CITY"), is(new byte[] {'C', 'I', 'T', 'Y', '#'}));
+    }
+
+    @Test
+    void forEachIpOfKey_whenTheKeyIsOfABucket_shouldCallTheActionWithEveryIpOfTheBucket() {
+        final List<IpAddress> ips = new ArrayList<>();
+
+        new BucketedRedisLocationStore(redisShards, TTL, 12).forEachIpOfKey(
+                BucketedRedisLocationStore.toBucketKey("CITY", IP.toBytes(), 12),
+                (type, ip) -> ips.add(ip)
+        );
+
+        assertThat(ips.size(), is(4096));
+        assertThat(ips.get(0), is(IpAddress.parse("217.138.208.0")));
+        assertThat(ips.get(4095), is(IpAddress.parse("217.138.223.255")));
+        assertThat(ips.contains(IP), is(true));
+    }
+
+    @Test
+    void forEachIpOfKey_whenTheKeyIsNotOfABucket_shouldIgnoreIt() {
+        final BucketedRedisLocationStore redisLocationStore = new BucketedRedisLocationStore(redisShards, TTL, 8);
+        final List<IpAddress> ips = new ArrayList<>();
+
+        redisLocationStore.forEachIpOfKey(new byte[] {'C', 'I', 'T', 'Y'}, (type, ip) -> ips.add(ip));
+        redisLocationStore.forEachIpOfKey(new byte[] {'C', 'I', 'T', 'Y', '#', 1}, (type, ip) -> ips.add(ip));
+
+        assertThat(ips, is(List.of()));
+    }
+
+    @Test
+    void get_whenCalled_shouldReadTheFieldOfTheIpInItsBucket() {
+        when(redisTemplate.<byte[], byte[]>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.get(BUCKET_KEY, FIELD)).thenReturn(VALUE);
+
+        assertThat(createStore().get("CITY", IP), is(VALUE));
+    }
+
+    @Test
+    void getAsync_whenCalled_shouldReadTheFieldOfTheIpInItsBucketThroughTheReactiveClient() {
+        final RedisShards reactiveShards = new RedisShards(List.of(new RedisShard("redis", redisTemplate, Map.of(), reactiveRedisTemplate)), 1);
+        when(reactiveRedisTemplate.<byte[], byte[]>opsForHash()).thenReturn(reactiveHashOperations);
+        when(reactiveHashOperations.get(BUCKET_KEY, FIELD)).thenReturn(Mono.just(VALUE));
+
+        assertThat(new BucketedRedisLocationStore(reactiveShards, TTL, 8).getAsync("CITY", IP).block(), is(VALUE));
+    }
+
+    @Test
+    void put_whenCalled_shouldWriteTheFieldOfTheIpAndRefreshTheBucketTtl() {
+        when(redisTemplate.<byte[], byte[]>opsForHash()).thenReturn(hashOperations);
+        createStore().put("CITY", IP, VALUE);
+
+        verify(hashOperations, times(1)).put(BUCKET_KEY, FIELD, VALUE);
+        verify(redisTemplate, times(1)).expire(BUCKET_KEY, TTL);
+    }
+
+    @Test
+    void putIfAbsent_whenFieldIsAlreadyCached_shouldNotRefreshTheBucketTtl() {
+        when(redisTemplate.<byte[], byte[]>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.putIfAbsent(BUCKET_KEY, FIELD, VALUE)).thenReturn(FALSE);
+
+        createStore().putIfAbsent("CITY", IP, VALUE);
+
+        verify(redisTemplate, never()).expire(any(), any());
+    }
+
+    @Test
+    void putIfAbsent_whenFieldIsMissing_shouldWriteItAndRefreshTheBucketTtl() {
+        when(redisTemplate.<byte[], byte[]>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.putIfAbsent(BUCKET_KEY, FIELD, VALUE)).thenReturn(TRUE);
+
+        createStore().putIfAbsent("CITY", IP, VALUE);
+
+        verify(redisTemplate, times(1)).expire(BUCKET_KEY, TTL);
+    }
+
+    @Test
+    void putAll_whenCalled_shouldWriteTheFieldsAndRefreshTheBucketTtlsInASinglePipeline() {
+        final RedisConnection connection = mock(RedisConnection.class);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation ->
+                invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection));
+
+        createStore().putAll(List.of(
+                RedisCacheEntry.of("CITY", IP, VALUE, null),
+                RedisCacheEntry.of("CITY", IpAddress.parse("217.138.219.148"), VALUE, Duration.ofMinutes(5))
+        ));
+
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        verify(connection, times(1)).hSet(BUCKET_KEY, FIELD, VALUE);
+        verify(connection, times(1)).hSet(BUCKET_KEY, new byte[] {(byte) 148}, VALUE);
+        verify(connection, times(2)).expire(BUCKET_KEY, TTL.getSeconds());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void removeIf_whenCalled_shouldScanTheBucketsOfTheTypeAndDeleteTheUnchangedMatchingFieldsOfEach() throws Exception {
+        final byte[] staleField = {(byte) 148};
+        final byte[] staleValue = {9};
+
+        final RedisConnection connection = mock(RedisConnection.class);
+        when(redisTemplate.execute(any(RedisCallback.class))).thenAnswer(invocation ->
+                invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection));
+        when(connection.scan(argThat(options -> "CITY#*".equals(options.getPattern())))).thenReturn(bucketCursor);
+        when(bucketCursor.hasNext()).thenReturn(true, false);
+        when(bucketCursor.next()).thenReturn(BUCKET_KEY);
+        when(connection.hScan(eq(BUCKET_KEY), any(ScanOptions.class))).thenReturn(fieldCursor);
+        when(fieldCursor.hasNext()).thenReturn(true, true, true, false);
+        when(fieldCursor.next()).thenReturn(
+                new SimpleEntry<>(FIELD, VALUE),
+                new SimpleEntry<>(staleField, staleValue),
+                new SimpleEntry<>(new byte[] {(byte) 149}, VALUE)
+        );
+        when(connection.eval(BucketedRedisLocationStore.HDEL_IF_UNCHANGED_SCRIPT, ReturnType.INTEGER, 1, BUCKET_KEY, staleField, staleValue))
+                .thenReturn(1L);
+
+        final AtomicInteger pauses = new AtomicInteger();
+        final long removed = createStore().removeIf(redisTemplate, "CITY", 2, value -> value[0] == 9, pauses::incrementAndGet);
+
+        verify(connection, times(1)).eval(BucketedRedisLocationStore.HDEL_IF_UNCHANGED_SCRIPT, ReturnType.INTEGER, 1, BUCKET_KEY, staleField, staleValue);
+        verify(connection, never()).hDel(any(), any());
+        verify(bucketCursor, times(1)).close();
+        verify(fieldCursor, times(1)).close();
+
+        assertThat(removed, is(1L));
+        assertThat(pauses.get(), is(1));
+    }
+
+    private BucketedRedisLocationStore createStore() {
+        return new BucketedRedisLocationStore(redisShards, TTL, 8);
+    }
+}
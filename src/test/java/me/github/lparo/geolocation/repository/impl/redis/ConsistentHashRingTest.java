@@ -0,0 +1,78 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import me.github.lparo.geolocation.domain.IpAddress;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConsistentHashRingTest {
+    private static final int KEYS = 30_000;
+
+    @Test
+    void constructor_whenThereAreNoNodes_shouldThrowAnError() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing<>(Map.of(), 160));
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing<>(Map.of("redis-1", 1), 0));
+    }
+
+    @Test
+    void getNode_whenCalledManyTimes_shouldPlaceTheSameKeyOnTheSameNode() {
+        final ConsistentHashRing<Integer> ring = new ConsistentHashRing<>(createNodes(3), 160);
+        final byte[] key = toKey(42);
+
+        assertThat(ring.getNode(key), is(ring.getNode(key)));
+        assertThat(new ConsistentHashRing<>(createNodes(3), 160).getNode(key), is(ring.getNode(key)));
+    }
+
+    @Test
+    void getNode_whenThereAreSeveralNodes_shouldSpreadTheKeysEvenly() {
+        final ConsistentHashRing<Integer> ring = new ConsistentHashRing<>(createNodes(3), 160);
+
+        final Map<Integer, Integer> keysPerNode = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            keysPerNode.merge(ring.getNode(toKey(i)), 1, Integer::sum);
+        }
+
+        assertThat(keysPerNode.size(), is(3));
+        keysPerNode.values().forEach(keys -> assertThat(keys, allOf(greaterThan(KEYS / 4), lessThan(KEYS / 2))));
+    }
+
+    @Test
+    void getNode_whenANodeIsAdded_shouldOnlyMoveTheKeysOfTheNewNode() {
+        final ConsistentHashRing<Integer> ring = new ConsistentHashRing<>(createNodes(3), 160);
+        final ConsistentHashRing<Integer> grownRing = new ConsistentHashRing<>(createNodes(4), 160);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            final Integer node = ring.getNode(toKey(i));
+            final Integer grownNode = grownRing.getNode(toKey(i));
+            if (!node.equals(grownNode)) {
+                assertThat(grownNode, is(4));
+                moved++;
+            }
+        }
+
+        assertThat(moved, allOf(greaterThan(KEYS / 6), lessThan(KEYS / 3)));
+    }
+
+    private static Map<String, Integer> createNodes(int count) {
+        final Map<String, Integer> nodes = new LinkedHashMap<>();
+        for (int node = 1; node <= count; node++) {
+            nodes.put("redis-" + node + ":6379", node);
+        }
+
+        return nodes;
+    }
+
+    private static byte[] toKey(int i) {
+        return KeyPerIpRedisLocationStore.toKey("CITY", IpAddress.ofIpv4(0xC0A80000 + i));
+    }
+}
@@ -0,0 +1,37 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
+import redis.clients.jedis.JedisPoolConfig;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class InstrumentedJedisConnectionFactoryTest {
+
+    @Test
+    void bindTo_whenThePoolIsNotCreated_shouldPublishZeroes() {
+        final InstrumentedJedisConnectionFactory connectionFactory = createConnectionFactory();
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        connectionFactory.bindTo(registry);
+
+        assertThat(registry.get("redis.pool.active").gauge().value(), is(0.0));
+        assertThat(registry.get("redis.pool.idle").gauge().value(), is(0.0));
+        assertThat(registry.get("redis.pool.waiters").gauge().value(), is(0.0));
+        assertThat(registry.get("redis.pool.borrow.wait.mean").timeGauge().value(TimeUnit.MILLISECONDS), is(0.0));
+    }
+
+    private InstrumentedJedisConnectionFactory createConnectionFactory() {
+        final JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(2);
+
+        return new InstrumentedJedisConnectionFactory(
+                new RedisStandaloneConfiguration("localhost", 6379),
+                JedisClientConfiguration.builder().usePooling().poolConfig(poolConfig).build()
+        );
+    }
+}
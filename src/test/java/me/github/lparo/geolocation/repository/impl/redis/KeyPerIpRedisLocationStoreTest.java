@@ -0,0 +1,235 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import me.github.lparo.geolocation.domain.IpAddress;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.types.Expiration;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class KeyPerIpRedisLocationStoreTest {
+    private static final Duration TTL = Duration.ofHours(1);
+    private static final IpAddress IP = IpAddress.parse("217.138.219.147");
+    private static final byte[] KEY = {'C', 'I', 'T', 'Y', ':', (byte) 217, (byte) 138, (byte) 219, (byte) 147};
+    private static final byte[] VALUE = {1, 2, 3};
+
+    @Mock
+    private RedisTemplate<byte[], byte[]> redisTemplate;
+
+    @Mock
+    private RedisTemplate<byte[], byte[]> otherRedisTemplate;
+
+    @Mock
+    private ValueOperations<byte[], byte[]> valueOperations;
+
+    @Mock
+    private Cursor<byte[]> cursor;
+
+    @Mock
+    private ReactiveRedisTemplate<byte[], byte[]> reactiveRedisTemplate;
+
+    @Mock
+    private ReactiveValueOperations<byte[], byte[]> reactiveValueOperations;
+
+    private KeyPerIpRedisLocationStore redisLocationStore;
+
+    @BeforeEach
+    void setUp() {
+        this.redisLocationStore = new KeyPerIpRedisLocationStore(new RedisShards(Map.of("redis", redisTemplate), 1), TTL);
+    }
+
+    @Test
+    void toKey_whenCalled_shouldPrefixTheCompactIpWithTheType() {
+        assertThat(KeyPerIpRedisLocationStore.toKey("CITY", IP), is(KEY));
+        assertThat(KeyPerIpRedisLocationStore.toKey("CITY", IpAddress.parse("::1")).length, is(21));
+    }
+
+    @Test
+    void getKeyPrefix_whenCalled_shouldReturnTheTypeAndTheSeparator() {
+        assertThat(redisLocationStore.getKeyPrefix("CITY"), is(new byte[] {'C', 'I', 'T', 'Y', ':'}));
+    }
+
+    @Test
+    void forEachIpOfKey_whenTheKeyIsOfAnIp_shouldCallTheActionWithItsTypeAndIp() {
+        final List<String> ips = new ArrayList<>();
+
+        redisLocationStore.forEachIpOfKey(KEY, (type, ip) -> ips.add(type + " " + ip.toString()));
+        redisLocationStore.forEachIpOfKey(KeyPerIpRedisLocationStore.toKey("LOCATION", IpAddress.parse("::1")),
+                (type, ip) -> ips.add(type + " " + ip.toString()));
+
+        assertThat(ips, is(List.of("CITY 217.138.219.147", "LOCATION " + IpAddress.parse("::1").toString())));
+    }
+
+    @Test
+    void forEachIpOfKey_whenTheKeyIsNotOfAnIp_shouldIgnoreIt() {
+        final List<String> ips = new ArrayList<>();
+
+        redisLocationStore.forEachIpOfKey(new byte[] {'C', 'I', 'T', 'Y'}, (type, ip) -> ips.add(type));
+        redisLocationStore.forEachIpOfKey(new byte[] {'C', 'I', 'T', 'Y', ':', 1, 2}, (type, ip) -> ips.add(type));
+
+        assertThat(ips, is(List.of()));
+    }
+
+    @Test
+    void get_whenCalled_shouldReadTheKeyOfTheIp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(KEY)).thenReturn(VALUE);
+
+        assertThat(redisLocationStore.get("CITY", IP), is(VALUE));
+    }
+
+    @Test
+    void getAsync_whenCalled_shouldReadTheKeyOfTheIpThroughTheReactiveClient() {
+        final RedisShards redisShards = new RedisShards(List.of(new RedisShard("redis", redisTemplate, Map.of(), reactiveRedisTemplate)), 1);
+        when(reactiveRedisTemplate.opsForValue()).thenReturn(reactiveValueOperations);
+        when(reactiveValueOperations.get(KEY)).thenReturn(Mono.just(VALUE));
+
+        assertThat(new KeyPerIpRedisLocationStore(redisShards, TTL).getAsync("CITY", IP).block(), is(VALUE));
+    }
+
+    @Test
+    void put_whenCalled_shouldWriteTheKeyOfTheIpWithTheTtl() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        redisLocationStore.put("CITY", IP, VALUE);
+
+        verify(valueOperations, times(1)).set(KEY, VALUE, TTL);
+    }
+
+    @Test
+    void putIfAbsent_whenCalled_shouldOnlyWriteTheKeyOfTheIpIfAbsent() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        redisLocationStore.putIfAbsent("CITY", IP, VALUE);
+
+        verify(valueOperations, times(1)).setIfAbsent(KEY, VALUE, TTL);
+    }
+
+    @Test
+    void putAll_whenCalled_shouldWriteTheKeysOfTheIpsWithTheirTtlInASinglePipeline() {
+        final RedisConnection connection = mock(RedisConnection.class);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation ->
+                invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection));
+
+        redisLocationStore.putAll(List.of(
+                RedisCacheEntry.of("CITY", IP, VALUE, null),
+                RedisCacheEntry.of("COUNTRY", IP, VALUE, Duration.ofMinutes(5))
+        ));
+
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        verify(connection, times(1)).set(eq(KEY), eq(VALUE), argThat(isTtl(TTL)), eq(SetOption.upsert()));
+        verify(connection, times(1)).set(eq(KeyPerIpRedisLocationStore.toKey("COUNTRY", IP)), eq(VALUE), argThat(isTtl(Duration.ofMinutes(5))), eq(SetOption.upsert()));
+    }
+
+    @Test
+    void putAll_whenTheKeysArePlacedOnSeveralNodes_shouldWriteTheKeysOfEachNodeInItsOwnPipeline() {
+        final RedisShards redisShards = new RedisShards(Map.of("redis-1", redisTemplate, "redis-2", otherRedisTemplate), 160);
+        final List<RedisCacheEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            entries.add(RedisCacheEntry.of("CITY", IpAddress.ofIpv4(0x0A000000 + i), VALUE, null));
+        }
+
+        final RedisConnection connection = mock(RedisConnection.class);
+        final RedisConnection otherConnection = mock(RedisConnection.class);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation ->
+                invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection));
+        when(otherRedisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation ->
+                invocation.<RedisCallback<?>>getArgument(0).doInRedis(otherConnection));
+
+        new KeyPerIpRedisLocationStore(redisShards, TTL).putAll(entries);
+
+        for (RedisCacheEntry entry : entries) {
+            final byte[] key = KeyPerIpRedisLocationStore.toKey(entry.getType(), entry.getIp());
+            final RedisConnection nodeConnection = redisShards.forKey(key) == redisTemplate ? connection : otherConnection;
+            verify(nodeConnection, times(1)).set(eq(key), eq(VALUE), argThat(isTtl(TTL)), eq(SetOption.upsert()));
+        }
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        verify(otherRedisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void removeIf_whenCalled_shouldScanTheKeysOfTheTypeAndUnlinkTheUnchangedMatchingOnesInBatches() throws Exception {
+        final byte[] staleKey = KeyPerIpRedisLocationStore.toKey("CITY", IpAddress.parse("217.138.219.148"));
+        final byte[] expiredKey = KeyPerIpRedisLocationStore.toKey("CITY", IpAddress.parse("217.138.219.149"));
+        final byte[] staleValue = {9};
+
+        final RedisConnection connection = mock(RedisConnection.class);
+        when(redisTemplate.execute(any(RedisCallback.class))).thenAnswer(invocation ->
+                invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection));
+        when(connection.scan(any(ScanOptions.class))).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true, true, true, false);
+        when(cursor.next()).thenReturn(KEY, staleKey, expiredKey);
+        when(connection.mGet(KEY, staleKey)).thenReturn(Arrays.asList(VALUE, staleValue));
+        when(connection.mGet(expiredKey)).thenReturn(Arrays.asList((byte[]) null));
+        when(connection.eval(KeyPerIpRedisLocationStore.UNLINK_IF_UNCHANGED_SCRIPT, ReturnType.INTEGER, 1, staleKey, staleValue))
+                .thenReturn(1L);
+
+        final AtomicInteger pauses = new AtomicInteger();
+        final long removed = redisLocationStore.removeIf(redisTemplate, "CITY", 2, value -> value[0] == 9, pauses::incrementAndGet);
+
+        final ArgumentCaptor<ScanOptions> options = ArgumentCaptor.forClass(ScanOptions.class);
+        verify(connection, times(1)).scan(options.capture());
+        verify(connection, times(1)).eval(KeyPerIpRedisLocationStore.UNLINK_IF_UNCHANGED_SCRIPT, ReturnType.INTEGER, 1, staleKey, staleValue);
+        verify(connection, never()).unlink(any());
+        verify(cursor, times(1)).close();
+
+        assertThat(options.getValue().getPattern(), is("CITY:*"));
+        assertThat(options.getValue().getCount(), is(2L));
+        assertThat(removed, is(1L));
+        assertThat(pauses.get(), is(1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void removeIf_whenTheMatchingKeyIsRewrittenBeforeBeingRemoved_shouldKeepIt() throws Exception {
+        final byte[] staleValue = {9};
+
+        final RedisConnection connection = mock(RedisConnection.class);
+        when(redisTemplate.execute(any(RedisCallback.class))).thenAnswer(invocation ->
+                invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection));
+        when(connection.scan(any(ScanOptions.class))).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true, false);
+        when(cursor.next()).thenReturn(KEY);
+        when(connection.mGet(KEY)).thenReturn(List.of(staleValue));
+        when(connection.eval(KeyPerIpRedisLocationStore.UNLINK_IF_UNCHANGED_SCRIPT, ReturnType.INTEGER, 1, KEY, staleValue))
+                .thenReturn(0L);
+
+        assertThat(redisLocationStore.removeIf(redisTemplate, "CITY", 2, value -> value[0] == 9, () -> { }), is(0L));
+    }
+
+    private static ArgumentMatcher<Expiration> isTtl(Duration ttl) {
+        return expiration -> expiration.getExpirationTimeInMilliseconds() == ttl.toMillis();
+    }
+}
@@ -0,0 +1,116 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import me.github.lparo.geolocation.domain.City;
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.domain.IpCityLocation;
+import me.github.lparo.geolocation.domain.State;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LegacyRedisCacheMigratorTest {
+    private static final JdkSerializationRedisSerializer JDK_SERIALIZER = new JdkSerializationRedisSerializer();
+    private static final byte[] CITY_HASH = "CITY".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] JDK_CITY_HASH = JDK_SERIALIZER.serialize("CITY");
+    private static final IpAddress IP = IpAddress.parse("217.138.219.147");
+    private static final IpAddress IPV6 = IpAddress.parse("2a02:26f0:10e::1");
+    private static final IpCityLocation IP_CITY_LOCATION = IpCityLocation.of(City.of("London", 2643743), State.of("England", 6269131, "ENG"));
+
+    @Mock
+    private RedisConnectionFactory redisConnectionFactory;
+
+    @Mock
+    private RedisConnection connection;
+
+    @Mock
+    private Cursor<Map.Entry<byte[], byte[]>> cityCursor;
+
+    @Mock
+    private Cursor<Map.Entry<byte[], byte[]>> jdkCityCursor;
+
+    @Mock
+    private Cursor<Map.Entry<byte[], byte[]>> emptyCursor;
+
+    private LegacyRedisCacheMigrator migrator;
+
+    @BeforeEach
+    void setUp() {
+        this.migrator = new LegacyRedisCacheMigrator(redisConnectionFactory, 100);
+
+        when(redisConnectionFactory.getConnection()).thenReturn(connection);
+        when(connection.hScan(any(byte[].class), any(ScanOptions.class))).thenReturn(emptyCursor);
+        when(connection.hScan(eq(CITY_HASH), any(ScanOptions.class))).thenReturn(cityCursor);
+        when(connection.hScan(eq(JDK_CITY_HASH), any(ScanOptions.class))).thenReturn(jdkCityCursor);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void drain_whenCodecHashEntriesExist_shouldDeleteThemWithoutCopyingThem() throws Exception {
+        final byte[] value = LocationCodec.encode(IP_CITY_LOCATION, LocationCodec.UNKNOWN_BUILD_EPOCH);
+
+        when(cityCursor.hasNext()).thenReturn(true, true, false);
+        when(cityCursor.next()).thenReturn(entry(IP.toBytes(), value), entry(IPV6.toBytes(), value));
+
+        assertThat(migrator.drain(), is(2L));
+
+        verify(connection, times(1)).hDel(CITY_HASH, IP.toBytes(), IPV6.toBytes());
+        verify(cityCursor, times(1)).close();
+        verify(connection, times(1)).close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void drain_whenJdkHashEntriesExist_shouldDeleteThemWhateverTheirFieldsAndValues() {
+        final byte[] textualField = JDK_SERIALIZER.serialize("127.0.0.1");
+
+        when(jdkCityCursor.hasNext()).thenReturn(true, true, true, false);
+        when(jdkCityCursor.next()).thenReturn(
+                entry(IP.toBytes(), JDK_SERIALIZER.serialize(IP_CITY_LOCATION)),
+                entry(textualField, JDK_SERIALIZER.serialize(IP_CITY_LOCATION)),
+                entry(new byte[8], new byte[] {1, 2, 3})
+        );
+
+        assertThat(migrator.drain(), is(3L));
+
+        verify(connection, times(1)).hDel(JDK_CITY_HASH, IP.toBytes(), textualField, new byte[8]);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void drain_whenLegacyHashIsLargerThanTheBatch_shouldDeleteItsFieldsInBatches() {
+        this.migrator = new LegacyRedisCacheMigrator(redisConnectionFactory, 1);
+        final byte[] value = LocationCodec.encode(IP_CITY_LOCATION, LocationCodec.UNKNOWN_BUILD_EPOCH);
+
+        when(cityCursor.hasNext()).thenReturn(true, true, false);
+        when(cityCursor.next()).thenReturn(entry(IP.toBytes(), value), entry(IPV6.toBytes(), value));
+
+        assertThat(migrator.drain(), is(2L));
+
+        verify(connection, times(1)).hDel(CITY_HASH, IP.toBytes());
+        verify(connection, times(1)).hDel(CITY_HASH, IPV6.toBytes());
+    }
+
+    private static Map.Entry<byte[], byte[]> entry(byte[] field, byte[] value) {
+        return new AbstractMap.SimpleImmutableEntry<>(field, value);
+    }
+}
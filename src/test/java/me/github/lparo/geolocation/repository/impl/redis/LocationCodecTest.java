@@ -0,0 +1,179 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import me.github.lparo.geolocation.domain.City;
+import me.github.lparo.geolocation.domain.Country;
+import me.github.lparo.geolocation.domain.IpCityLocation;
+import me.github.lparo.geolocation.domain.IpCountryLocation;
+import me.github.lparo.geolocation.domain.IpLocation;
+import me.github.lparo.geolocation.domain.State;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LocationCodecTest {
+    private static final City CITY = City.of("São Paulo", 3448439);
+    private static final State STATE = State.of("São Paulo", 3448433, "SP");
+    private static final Country COUNTRY = Country.of("Brazil", 3469034, false, "BR");
+    private static final long BUILD_EPOCH = Instant.parse("2020-08-04T15:06:37Z").getEpochSecond();
+
+    @Test
+    void decodeIpCityLocation_whenCalledWithEncodedLocation_shouldReturnAnEqualLocation() {
+        final IpCityLocation ipCityLocation = IpCityLocation.of(CITY, STATE);
+
+        assertThat(LocationCodec.decodeIpCityLocation(LocationCodec.encode(ipCityLocation, BUILD_EPOCH)), is(ipCityLocation));
+    }
+
+    @Test
+    void decodeIpCountryLocation_whenCalledWithEncodedLocation_shouldReturnAnEqualLocation() {
+        final IpCountryLocation ipCountryLocation = IpCountryLocation.of(Country.of("Germany", 2921044, true, "DE"));
+
+        assertThat(LocationCodec.decodeIpCountryLocation(LocationCodec.encode(ipCountryLocation, BUILD_EPOCH)), is(ipCountryLocation));
+    }
+
+    @Test
+    void decodeIpLocation_whenCalledWithEncodedLocation_shouldReturnAnEqualLocation() {
+        final IpLocation ipLocation = IpLocation.of(CITY, STATE, COUNTRY);
+
+        assertThat(LocationCodec.decodeIpLocation(LocationCodec.encode(ipLocation, BUILD_EPOCH)), is(ipLocation));
+    }
+
+    @Test
+    void decodeIpLocation_whenCalledWithEncodedLocationWithMissingParts_shouldKeepThemMissing() {
+        final IpLocation ipLocation = IpLocation.of(City.of(null, 0), null, Country.of("Brazil", -1, false, null));
+
+        assertThat(LocationCodec.decodeIpLocation(LocationCodec.encode(ipLocation, BUILD_EPOCH)), is(ipLocation));
+    }
+
+    @Test
+    void decodeIpCityLocation_whenCalled_shouldReturnTheSharedDomainInstances() {
+        final City city = City.interned("Frankfurt am Main", 2925533);
+
+        final IpCityLocation decoded = LocationCodec.decodeIpCityLocation(
+                LocationCodec.encode(IpCityLocation.of(City.of("Frankfurt am Main", 2925533), null), BUILD_EPOCH)
+        );
+
+        assertThat(decoded.getCity(), is(sameInstance(city)));
+    }
+
+    @Test
+    void encode_whenCalled_shouldBeMuchSmallerThanTheJdkSerialization() {
+        final IpLocation ipLocation = IpLocation.of(CITY, STATE, COUNTRY);
+
+        final byte[] encoded = LocationCodec.encode(ipLocation, BUILD_EPOCH);
+
+        assertThat(encoded.length, is(lessThan(64)));
+        assertThat(encoded.length * 10, is(lessThan(new JdkSerializationRedisSerializer().serialize(ipLocation).length)));
+    }
+
+    @Test
+    void decode_whenCalledWithUnknownFormatVersion_shouldReturnNull() {
+        final byte[] encoded = LocationCodec.encode(IpCityLocation.of(CITY, STATE), BUILD_EPOCH);
+        encoded[0] = LocationCodec.FORMAT_VERSION + 1;
+
+        assertThat(LocationCodec.decodeIpCityLocation(encoded), is(nullValue()));
+        assertThat(LocationCodec.decodeIpCityLocation(new byte[0]), is(nullValue()));
+    }
+
+    @Test
+    void decode_whenCalledWithMalformedValue_shouldThrowAnError() {
+        final byte[] encoded = LocationCodec.encode(IpCityLocation.of(CITY, STATE), BUILD_EPOCH);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> LocationCodec.decodeIpCityLocation(Arrays.copyOf(encoded, encoded.length - 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> LocationCodec.decodeIpCityLocation(Arrays.copyOf(encoded, encoded.length + 1)));
+    }
+
+    @Test
+    void isNotFound_whenCalledWithUnexpiredTombstone_shouldReturnTrue() {
+        final Instant now = Instant.parse("2020-08-01T10:00:00Z");
+
+        final byte[] tombstone = LocationCodec.encodeNotFound(now.plusSeconds(3600), BUILD_EPOCH);
+
+        assertThat(LocationCodec.isNotFound(tombstone, now), is(true));
+        assertThat(tombstone.length, is(lessThan(12)));
+    }
+
+    @Test
+    void isNotFound_whenCalledWithExpiredTombstone_shouldReturnFalse() {
+        final Instant now = Instant.parse("2020-08-01T10:00:00Z");
+
+        assertThat(LocationCodec.isNotFound(LocationCodec.encodeNotFound(now, BUILD_EPOCH), now), is(false));
+        assertThat(LocationCodec.isNotFound(LocationCodec.encodeNotFound(now.minusSeconds(1), BUILD_EPOCH), now), is(false));
+    }
+
+    @Test
+    void isNotFound_whenCalledWithLocation_shouldReturnFalse() {
+        assertThat(LocationCodec.isNotFound(LocationCodec.encode(IpCityLocation.of(CITY, STATE), BUILD_EPOCH), Instant.now()), is(false));
+        assertThat(LocationCodec.isNotFound(new byte[] {LocationCodec.NOT_FOUND}, Instant.now()), is(false));
+    }
+
+    @Test
+    void decode_whenCalledWithTombstone_shouldReturnNull() {
+        final byte[] tombstone = LocationCodec.encodeNotFound(Instant.now().plusSeconds(3600), BUILD_EPOCH);
+
+        assertThat(LocationCodec.decodeIpCityLocation(tombstone), is(nullValue()));
+        assertThat(LocationCodec.decodeIpCountryLocation(tombstone), is(nullValue()));
+        assertThat(LocationCodec.decodeIpLocation(tombstone), is(nullValue()));
+    }
+
+    @Test
+    void getBuildEpoch_whenCalledWithLocation_shouldReturnTheBuildEpochItWasEncodedWith() {
+        assertThat(LocationCodec.getBuildEpoch(LocationCodec.encode(IpLocation.of(CITY, STATE, COUNTRY), BUILD_EPOCH)), is(BUILD_EPOCH));
+        assertThat(LocationCodec.getBuildEpoch(LocationCodec.encode(IpCountryLocation.of(COUNTRY), BUILD_EPOCH + 1)), is(BUILD_EPOCH + 1));
+    }
+
+    @Test
+    void getBuildEpoch_whenCalledWithTombstone_shouldReturnTheBuildEpochItWasEncodedWith() {
+        assertThat(LocationCodec.getBuildEpoch(LocationCodec.encodeNotFound(Instant.now(), BUILD_EPOCH)), is(BUILD_EPOCH));
+    }
+
+    @Test
+    void getBuildEpoch_whenCalledWithValueWithoutBuildEpoch_shouldReturnUnknown() {
+        final byte[] tombstone = LocationCodec.encodeNotFound(Instant.now().plusSeconds(3600), BUILD_EPOCH);
+        final byte[] tombstoneWithoutBuildEpoch = Arrays.copyOf(tombstone, tombstone.length - 5);
+
+        assertThat(LocationCodec.getBuildEpoch(withoutBuildEpoch(IpCityLocation.of(CITY, STATE))), is(LocationCodec.UNKNOWN_BUILD_EPOCH));
+        assertThat(LocationCodec.getBuildEpoch(tombstoneWithoutBuildEpoch), is(LocationCodec.UNKNOWN_BUILD_EPOCH));
+        assertThat(LocationCodec.getBuildEpoch(new byte[] {LocationCodec.FORMAT_VERSION + 1, 1}), is(LocationCodec.UNKNOWN_BUILD_EPOCH));
+        assertThat(LocationCodec.getBuildEpoch(new byte[0]), is(LocationCodec.UNKNOWN_BUILD_EPOCH));
+    }
+
+    @Test
+    void decode_whenCalledWithValueWithoutBuildEpoch_shouldReturnAnEqualLocation() {
+        final IpCityLocation ipCityLocation = IpCityLocation.of(CITY, STATE);
+
+        assertThat(LocationCodec.decodeIpCityLocation(withoutBuildEpoch(ipCityLocation)), is(ipCityLocation));
+    }
+
+    @Test
+    void isNotFound_whenCalledWithUnexpiredTombstoneWithoutBuildEpoch_shouldReturnTrue() {
+        final Instant now = Instant.parse("2020-08-01T10:00:00Z");
+        final byte[] tombstone = LocationCodec.encodeNotFound(now.plusSeconds(3600), BUILD_EPOCH);
+
+        assertThat(LocationCodec.isNotFound(Arrays.copyOf(tombstone, tombstone.length - 5), now), is(true));
+    }
+
+    /**
+     * Encodes the given location the way it was before the build epoch was kept in the value.
+     */
+    private static byte[] withoutBuildEpoch(IpCityLocation ipCityLocation) {
+        // a build epoch of 0 takes a single byte, right after the format version
+        final byte[] encoded = LocationCodec.encode(ipCityLocation, 0);
+
+        final byte[] value = new byte[encoded.length - 1];
+        value[0] = LocationCodec.FORMAT_VERSION_WITHOUT_BUILD_EPOCH;
+        System.arraycopy(encoded, 2, value, 1, encoded.length - 2);
+
+        return value;
+    }
+}
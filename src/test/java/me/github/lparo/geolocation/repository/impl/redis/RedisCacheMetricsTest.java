@@ -0,0 +1,36 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class RedisCacheMetricsTest {
+
+    @Test
+    void record_whenCalled_shouldCountTheHitsAndMisses() {
+        final RedisCacheMetrics metrics = new RedisCacheMetrics("redis.test");
+
+        metrics.record(true);
+        metrics.record(true);
+        metrics.record(false);
+
+        assertThat(metrics.getHits(), is(2L));
+        assertThat(metrics.getMisses(), is(1L));
+    }
+
+    @Test
+    void bindTo_whenCalled_shouldPublishTheHitsAndMissesAsCacheGets() {
+        final RedisCacheMetrics metrics = new RedisCacheMetrics("redis.test");
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        metrics.bindTo(registry);
+
+        metrics.record(true);
+        metrics.record(false);
+        metrics.record(false);
+
+        assertThat(registry.get("cache.gets").tags("cache", "redis.test", "result", "hit").functionCounter().count(), is(1.0));
+        assertThat(registry.get("cache.gets").tags("cache", "redis.test", "result", "miss").functionCounter().count(), is(2.0));
+    }
+}
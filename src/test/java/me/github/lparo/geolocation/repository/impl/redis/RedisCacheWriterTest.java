@@ -0,0 +1,137 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.github.lparo.geolocation.domain.IpAddress;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class RedisCacheWriterTest {
+    private static final IpAddress IP = IpAddress.parse("217.138.219.147");
+    private static final byte[] VALUE = {1, 2, 3};
+
+    @Mock
+    private RedisLocationStore redisLocationStore;
+
+    @Test
+    void enqueue_whenCalled_shouldNotWriteIntoRedisInTheCallingThread() {
+        final RedisCacheWriter redisCacheWriter = new RedisCacheWriter(redisLocationStore, 10, 4);
+
+        assertThat(redisCacheWriter.enqueue("CITY", IP, VALUE), is(true));
+
+        verifyNoInteractions(redisLocationStore);
+    }
+
+    @Test
+    void enqueue_whenTheQueueIsFull_shouldDropAndCountTheEntry() {
+        final RedisCacheWriter redisCacheWriter = new RedisCacheWriter(redisLocationStore, 2, 4);
+
+        redisCacheWriter.enqueue("CITY", IP, VALUE);
+        redisCacheWriter.enqueue("CITY", IP, VALUE);
+
+        assertThat(redisCacheWriter.enqueue("CITY", IP, VALUE), is(false));
+        assertThat(redisCacheWriter.getDropped(), is(1L));
+    }
+
+    @Test
+    void flush_whenCalled_shouldWriteTheQueuedEntriesInBatches() {
+        final List<Integer> batchSizes = new ArrayList<>();
+        doAnswer(invocation -> batchSizes.add(invocation.<List<?>>getArgument(0).size()))
+                .when(redisLocationStore).putAll(any());
+        final RedisCacheWriter redisCacheWriter = new RedisCacheWriter(redisLocationStore, 10, 4);
+
+        for (int i = 0; i < 10; i++) {
+            redisCacheWriter.enqueue("CITY", IpAddress.ofIpv4(i), VALUE);
+        }
+        redisCacheWriter.flush();
+
+        assertThat(batchSizes, contains(4, 4, 2));
+        assertThat(redisCacheWriter.getWritten(), is(10L));
+    }
+
+    @Test
+    void flush_whenRedisFails_shouldCountTheLostEntriesWithoutThrowing() {
+        doThrow(new RedisConnectionFailureException("connection refused")).when(redisLocationStore).putAll(any());
+        final RedisCacheWriter redisCacheWriter = new RedisCacheWriter(redisLocationStore, 10, 4);
+
+        redisCacheWriter.enqueue("CITY", IP, VALUE);
+        redisCacheWriter.enqueue("COUNTRY", IP, VALUE);
+        redisCacheWriter.flush();
+
+        assertThat(redisCacheWriter.getFailed(), is(2L));
+        assertThat(redisCacheWriter.getWritten(), is(0L));
+    }
+
+    @Test
+    void start_whenEntriesAreQueued_shouldWriteThemInTheBackground() throws InterruptedException {
+        final RedisCacheWriter redisCacheWriter = new RedisCacheWriter(redisLocationStore, 10, 4);
+        redisCacheWriter.start();
+
+        try {
+            redisCacheWriter.enqueue("CITY", IP, VALUE);
+
+            verify(redisLocationStore, timeout(1000)).putAll(List.of(RedisCacheEntry.of("CITY", IP, VALUE, null)));
+        } finally {
+            redisCacheWriter.stop();
+        }
+    }
+
+    @Test
+    void awaitDrained_whenTheQueuedEntriesAreWritten_shouldReturnTrue() throws InterruptedException {
+        final RedisCacheWriter redisCacheWriter = new RedisCacheWriter(redisLocationStore, 10, 4);
+        redisCacheWriter.start();
+
+        try {
+            redisCacheWriter.enqueue("CITY", IP, VALUE);
+            redisCacheWriter.enqueue("COUNTRY", IP, VALUE);
+
+            assertThat(redisCacheWriter.awaitDrained(Duration.ofSeconds(1)), is(true));
+            assertThat(redisCacheWriter.getWritten(), is(2L));
+        } finally {
+            redisCacheWriter.stop();
+        }
+    }
+
+    @Test
+    void awaitDrained_whenTheQueuedEntriesAreNotWrittenInTime_shouldReturnFalse() throws InterruptedException {
+        final RedisCacheWriter redisCacheWriter = new RedisCacheWriter(redisLocationStore, 10, 4);
+
+        redisCacheWriter.enqueue("CITY", IP, VALUE);
+
+        assertThat(redisCacheWriter.awaitDrained(Duration.ofMillis(20)), is(false));
+        assertThat(redisCacheWriter.awaitDrained(Duration.ZERO), is(false));
+
+        redisCacheWriter.flush();
+        assertThat(redisCacheWriter.awaitDrained(Duration.ZERO), is(true));
+    }
+
+    @Test
+    void bindTo_whenCalled_shouldPublishTheDroppedEntriesAndTheQueueSize() {
+        final RedisCacheWriter redisCacheWriter = new RedisCacheWriter(redisLocationStore, 1, 4);
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        redisCacheWriter.bindTo(registry);
+
+        redisCacheWriter.enqueue("CITY", IP, VALUE);
+        redisCacheWriter.enqueue("CITY", IP, VALUE);
+
+        assertThat(registry.get("redis.cache.writes").tag("result", "dropped").functionCounter().count(), is(1.0));
+        assertThat(registry.get("redis.cache.write.queue").gauge().value(), is(1.0));
+    }
+}
@@ -1,20 +1,24 @@
 package me.github.lparo.geolocation.repository.impl.redis;
 
+import me.github.lparo.geolocation.config.GeoIP2Config;
 import me.github.lparo.geolocation.config.RedisConfigForTesting;
 import me.github.lparo.geolocation.domain.Country;
+import me.github.lparo.geolocation.domain.IpAddress;
 import me.github.lparo.geolocation.domain.IpCountryLocation;
+import me.github.lparo.geolocation.repository.impl.geoip2.ReloadableDatabaseReader;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
-import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import javax.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
@@ -24,17 +28,25 @@ import static java.lang.Boolean.TRUE;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 
 @SpringBootTest(classes = {
+        GeoIP2Config.class,
         RedisConfigForTesting.class,
+        KeyPerIpRedisLocationStore.class,
+        RedisCacheWriter.class,
         RedisIpCountryLocationRepository.class
 }, webEnvironment = WebEnvironment.NONE)
 @DirtiesContext
 @ActiveProfiles("integration-test")
 @ExtendWith(SpringExtension.class)
 class RedisIpCountryLocationRepositoryTest {
-    private static final String CACHED_IP = "217.138.219.147";
-    private static final String UNCACHED_IP = "127.0.0.1";
+    private static final String TYPE = "COUNTRY";
+    private static final IpAddress CACHED_IP = IpAddress.parse("217.138.219.147");
+    private static final IpAddress UNCACHED_IP = IpAddress.parse("127.0.0.1");
+    private static final IpAddress NOT_FOUND_IP = IpAddress.parse("10.0.0.1");
+    private static final IpAddress STALE_IP = IpAddress.parse("10.0.0.2");
+    private static final IpAddress MALFORMED_IP = IpAddress.parse("10.0.0.3");
 
     private static final IpCountryLocation CACHED_IP_COUNTRY_LOCATION = createIpCountryLocation();
     private static final IpCountryLocation UNCACHED_IP_COUNTRY_LOCATION = createIpCountryLocation();
@@ -43,14 +55,24 @@ class RedisIpCountryLocationRepositoryTest {
     private RedisIpCountryLocationRepository repository;
 
     @Autowired
-    private RedisTemplate<String, ?> redisTemplate;
+    private RedisTemplate<byte[], byte[]> redisTemplate;
 
-    private HashOperations<String, String, IpCountryLocation> hashOperations;
+    @Autowired
+    private RedisLocationStore redisLocationStore;
+
+    @Autowired
+    private ReloadableDatabaseReader reloadableDatabaseReader;
 
     @PostConstruct
     public void init() {
-        this.hashOperations = redisTemplate.opsForHash();
-        this.hashOperations.put("COUNTRY", CACHED_IP, CACHED_IP_COUNTRY_LOCATION);
+        final long buildEpoch = reloadableDatabaseReader.getBuildEpoch();
+
+        redisLocationStore.put(TYPE, CACHED_IP, LocationCodec.encode(CACHED_IP_COUNTRY_LOCATION, buildEpoch));
+        redisLocationStore.put(TYPE, NOT_FOUND_IP, LocationCodec.encodeNotFound(Instant.now().plusSeconds(60), buildEpoch));
+        redisLocationStore.put(TYPE, STALE_IP, LocationCodec.encode(CACHED_IP_COUNTRY_LOCATION, buildEpoch - 1));
+
+        final byte[] value = LocationCodec.encode(CACHED_IP_COUNTRY_LOCATION, buildEpoch);
+        redisLocationStore.put(TYPE, MALFORMED_IP, Arrays.copyOf(value, value.length - 3));
     }
 
     @Test
@@ -68,13 +90,47 @@ class RedisIpCountryLocationRepositoryTest {
         assertThat(ipCountryLocation, is(Optional.of(CACHED_IP_COUNTRY_LOCATION)));
     }
 
+    @Test
+    void findCachedCountryLocationForIp_whenCalledWithIpCachedAsNotFound_shouldReturnAHitOfOptionalEmpty() {
+        assertThat(repository.findCachedCountryLocationForIp(NOT_FOUND_IP), is(CacheLookup.hit(Optional.empty())));
+        assertThat(repository.getCountryLocationForIp(NOT_FOUND_IP), is(Optional.empty()));
+    }
+
+    @Test
+    void findCachedCountryLocationForIp_whenCalledWithUncachedIp_shouldReturnAMiss() {
+        assertThat(repository.findCachedCountryLocationForIp(UNCACHED_IP), is(CacheLookup.miss()));
+    }
+
+    @Test
+    void findCachedCountryLocationForIp_whenCalledWithIpCachedFromAnOlderBuildOfTheDatabase_shouldReturnAMiss() {
+        assertThat(repository.findCachedCountryLocationForIp(STALE_IP), is(CacheLookup.miss()));
+    }
+
+    @Test
+    void findCachedCountryLocationForIp_whenCalledWithIpCachedWithAMalformedValue_shouldReturnAMiss() {
+        assertThat(repository.findCachedCountryLocationForIp(MALFORMED_IP), is(CacheLookup.miss()));
+        assertThat(repository.findCachedCountryLocationForIpAsync(MALFORMED_IP).block(), is(nullValue()));
+    }
+
+    @Test
+    void findCachedCountryLocationForIpAsync_whenCalledWithCachedIp_shouldEmitLocationWrappedInAnOptional() {
+        assertThat(repository.findCachedCountryLocationForIpAsync(CACHED_IP).block(), is(Optional.of(CACHED_IP_COUNTRY_LOCATION)));
+        assertThat(repository.findCachedCountryLocationForIpAsync(NOT_FOUND_IP).block(), is(Optional.empty()));
+    }
+
+    @Test
+    void findCachedCountryLocationForIpAsync_whenCalledWithUncachedIpOrIpCachedFromAnOlderBuild_shouldEmitNothing() {
+        assertThat(repository.findCachedCountryLocationForIpAsync(UNCACHED_IP).block(), is(nullValue()));
+        assertThat(repository.findCachedCountryLocationForIpAsync(STALE_IP).block(), is(nullValue()));
+    }
+
     @Test
     public void addToCache_whenCalledWithLocation_shouldSaveItIntoTheCache() {
         final IpCountryLocation cachedIpCountryLocation = repository.addToCache(UNCACHED_IP, UNCACHED_IP_COUNTRY_LOCATION);
         assertThat(cachedIpCountryLocation, notNullValue());
         assertThat(cachedIpCountryLocation, is(UNCACHED_IP_COUNTRY_LOCATION));
 
-        assertThat(hashOperations.hasKey("COUNTRY", UNCACHED_IP), is(TRUE));
+        assertThat(redisTemplate.hasKey(KeyPerIpRedisLocationStore.toKey(TYPE, UNCACHED_IP)), is(TRUE));
     }
 
     private static IpCountryLocation createIpCountryLocation() {
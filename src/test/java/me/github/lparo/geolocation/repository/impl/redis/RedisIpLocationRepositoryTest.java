@@ -0,0 +1,150 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import me.github.lparo.geolocation.config.GeoIP2Config;
+import me.github.lparo.geolocation.config.RedisConfigForTesting;
+import me.github.lparo.geolocation.domain.City;
+import me.github.lparo.geolocation.domain.Country;
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.domain.IpLocation;
+import me.github.lparo.geolocation.domain.State;
+import me.github.lparo.geolocation.repository.impl.geoip2.ReloadableDatabaseReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+@SpringBootTest(classes = {
+        GeoIP2Config.class,
+        RedisConfigForTesting.class,
+        KeyPerIpRedisLocationStore.class,
+        RedisCacheWriter.class,
+        RedisIpLocationRepository.class
+}, webEnvironment = WebEnvironment.NONE)
+@DirtiesContext
+@ActiveProfiles("integration-test")
+@ExtendWith(SpringExtension.class)
+class RedisIpLocationRepositoryTest {
+    private static final String TYPE = "LOCATION";
+    private static final IpAddress CACHED_IP = IpAddress.parse("217.138.219.147");
+    private static final IpAddress UNCACHED_IP = IpAddress.parse("127.0.0.1");
+    private static final IpAddress NOT_FOUND_IP = IpAddress.parse("10.0.0.1");
+    private static final IpAddress STALE_IP = IpAddress.parse("10.0.0.2");
+    private static final IpAddress MALFORMED_IP = IpAddress.parse("10.0.0.3");
+
+    private static final IpLocation CACHED_IP_LOCATION = createIpLocation();
+    private static final IpLocation UNCACHED_IP_LOCATION = createIpLocation();
+
+    @Autowired
+    private RedisIpLocationRepository repository;
+
+    @Autowired
+    private RedisTemplate<byte[], byte[]> redisTemplate;
+
+    @Autowired
+    private RedisLocationStore redisLocationStore;
+
+    @Autowired
+    private ReloadableDatabaseReader reloadableDatabaseReader;
+
+    @PostConstruct
+    public void init() {
+        final long buildEpoch = reloadableDatabaseReader.getBuildEpoch();
+
+        redisLocationStore.put(TYPE, CACHED_IP, LocationCodec.encode(CACHED_IP_LOCATION, buildEpoch));
+        redisLocationStore.put(TYPE, NOT_FOUND_IP, LocationCodec.encodeNotFound(Instant.now().plusSeconds(60), buildEpoch));
+        redisLocationStore.put(TYPE, STALE_IP, LocationCodec.encode(CACHED_IP_LOCATION, buildEpoch - 1));
+
+        final byte[] value = LocationCodec.encode(CACHED_IP_LOCATION, buildEpoch);
+        redisLocationStore.put(TYPE, MALFORMED_IP, Arrays.copyOf(value, value.length - 3));
+    }
+
+    @Test
+    void getLocationForIp_whenCalledWithUncachedIp_shouldReturnOptionalEmpty() {
+        final Optional<IpLocation> ipLocation = repository.getLocationForIp(UNCACHED_IP);
+        assertThat(ipLocation, notNullValue());
+        assertThat(ipLocation.isPresent(), is(FALSE));
+    }
+
+    @Test
+    void getLocationForIp_whenCalledWithCachedIp_shouldReturnLocationWrappedInAnOptional() {
+        final Optional<IpLocation> ipLocation = repository.getLocationForIp(CACHED_IP);
+        assertThat(ipLocation, notNullValue());
+        assertThat(ipLocation.isPresent(), is(TRUE));
+        assertThat(ipLocation, is(Optional.of(CACHED_IP_LOCATION)));
+    }
+
+    @Test
+    void findCachedLocationForIp_whenCalledWithIpCachedAsNotFound_shouldReturnAHitOfOptionalEmpty() {
+        assertThat(repository.findCachedLocationForIp(NOT_FOUND_IP), is(CacheLookup.hit(Optional.empty())));
+        assertThat(repository.getLocationForIp(NOT_FOUND_IP), is(Optional.empty()));
+    }
+
+    @Test
+    void findCachedLocationForIp_whenCalledWithUncachedIp_shouldReturnAMiss() {
+        assertThat(repository.findCachedLocationForIp(UNCACHED_IP), is(CacheLookup.miss()));
+    }
+
+    @Test
+    void findCachedLocationForIp_whenCalledWithIpCachedFromAnOlderBuildOfTheDatabase_shouldReturnAMiss() {
+        assertThat(repository.findCachedLocationForIp(STALE_IP), is(CacheLookup.miss()));
+    }
+
+    @Test
+    void findCachedLocationForIp_whenCalledWithIpCachedWithAMalformedValue_shouldReturnAMiss() {
+        assertThat(repository.findCachedLocationForIp(MALFORMED_IP), is(CacheLookup.miss()));
+        assertThat(repository.findCachedLocationForIpAsync(MALFORMED_IP).block(), is(nullValue()));
+    }
+
+    @Test
+    void findCachedLocationForIpAsync_whenCalledWithCachedIp_shouldEmitLocationWrappedInAnOptional() {
+        assertThat(repository.findCachedLocationForIpAsync(CACHED_IP).block(), is(Optional.of(CACHED_IP_LOCATION)));
+        assertThat(repository.findCachedLocationForIpAsync(NOT_FOUND_IP).block(), is(Optional.empty()));
+    }
+
+    @Test
+    void findCachedLocationForIpAsync_whenCalledWithUncachedIpOrIpCachedFromAnOlderBuild_shouldEmitNothing() {
+        assertThat(repository.findCachedLocationForIpAsync(UNCACHED_IP).block(), is(nullValue()));
+        assertThat(repository.findCachedLocationForIpAsync(STALE_IP).block(), is(nullValue()));
+    }
+
+    @Test
+    public void addToCache_whenCalledWithLocation_shouldSaveItIntoTheCache() {
+        final IpLocation cachedIpLocation = repository.addToCache(UNCACHED_IP, UNCACHED_IP_LOCATION);
+        assertThat(cachedIpLocation, notNullValue());
+        assertThat(cachedIpLocation, is(UNCACHED_IP_LOCATION));
+
+        assertThat(redisTemplate.hasKey(KeyPerIpRedisLocationStore.toKey(TYPE, UNCACHED_IP)), is(TRUE));
+    }
+
+    private static IpLocation createIpLocation() {
+        return IpLocation.of(
+                City.of(UUID.randomUUID().toString(), ThreadLocalRandom.current().nextInt()),
+                State.of(UUID.randomUUID().toString(), ThreadLocalRandom.current().nextInt(), UUID.randomUUID().toString()),
+                Country.of(
+                        UUID.randomUUID().toString(),
+                        ThreadLocalRandom.current().nextInt(),
+                        ThreadLocalRandom.current().nextBoolean(),
+                        UUID.randomUUID().toString()
+                )
+        );
+    }
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import me.github.lparo.geolocation.domain.City;
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.domain.IpCityLocation;
+import me.github.lparo.geolocation.domain.State;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Standalone report comparing the Redis memory taken by the same synthetic set of cached IPs under each cache layout:
+ * a single hash per location type (the legacy layout), a key per IP ({@link KeyPerIpRedisLocationStore}) and small
+ * hashes per IP prefix ({@link BucketedRedisLocationStore}) with several bucket widths. The synthetic IPs are IPv4
+ * addresses clustered in random /16 networks, as real traffic is, all cached with the same encoded location.
+ *
+ * <p>It's not a test, as it needs a disposable Redis server (its database is flushed between layouts), which is picked
+ * from the {@code REDIS_HOST} and {@code REDIS_PORT} environment variables. It takes the number of IPs as its only
+ * argument (1000000 by default), and prints the report as a markdown table.
+ */
+public final class RedisLayoutMemoryReport {
+    private static final String TYPE = "CITY";
+    private static final int PIPELINE_SIZE = 10_000;
+    private static final int[] BUCKET_BITS = {4, 8, 12};
+
+    private RedisLayoutMemoryReport() {
+    }
+
+    public static void main(String[] args) {
+        final int ipCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        final int[] ips = createSyntheticIps(ipCount);
+        final byte[] value = LocationCodec.encode(IpCityLocation.of(
+                City.of("São Paulo", 3448439),
+                State.of("São Paulo", 3448433, "SP")
+        ), Instant.now().getEpochSecond());
+
+        final RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration();
+        configuration.setHostName(System.getenv().getOrDefault("REDIS_HOST", "localhost"));
+        configuration.setPort(Integer.parseInt(System.getenv().getOrDefault("REDIS_PORT", "6379")));
+
+        final JedisConnectionFactory connectionFactory = new JedisConnectionFactory(configuration);
+        connectionFactory.afterPropertiesSet();
+
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            System.out.println("Synthetic IPs: " + ipCount + ", value size: " + value.length + " bytes, "
+                    + connection.serverCommands().getConfig("hash-max-*-entries"));
+            System.out.println();
+            System.out.println("| Layout | Keys | Used memory | Bytes per IP |");
+            System.out.println("|---|---|---|---|");
+
+            final byte[] singleHash = TYPE.getBytes(StandardCharsets.UTF_8);
+            report(connection, "single hash", ips, (redis, ip) ->
+                    redis.hSet(singleHash, ip.toBytes(), value));
+
+            report(connection, "key per IP", ips, (redis, ip) ->
+                    redis.set(KeyPerIpRedisLocationStore.toKey(TYPE, ip), value));
+
+            for (int bucketBits : BUCKET_BITS) {
+                report(connection, "bucketed, " + bucketBits + " bits", ips, (redis, ip) -> redis.hSet(
+                        BucketedRedisLocationStore.toBucketKey(TYPE, ip.toBytes(), bucketBits),
+                        BucketedRedisLocationStore.toField(ip.toBytes(), bucketBits),
+                        value
+                ));
+            }
+
+            connection.serverCommands().flushDb();
+        } finally {
+            connectionFactory.destroy();
+        }
+    }
+
+    private static void report(RedisConnection connection,
+                               String layout,
+                               int[] ips,
+                               BiConsumer<RedisConnection, IpAddress> writer) {
+        connection.serverCommands().flushDb();
+        final long usedMemoryBefore = getUsedMemory(connection);
+
+        for (int start = 0; start < ips.length; start += PIPELINE_SIZE) {
+            connection.openPipeline();
+            for (int i = start; i < Math.min(ips.length, start + PIPELINE_SIZE); i++) {
+                writer.accept(connection, IpAddress.ofIpv4(ips[i]));
+            }
+            connection.closePipeline();
+        }
+
+        final long usedMemory = getUsedMemory(connection) - usedMemoryBefore;
+        System.out.printf("| %s | %d | %.1f MB | %.1f |%n", layout, connection.serverCommands().dbSize(),
+                usedMemory / (1024.0 * 1024.0), (double) usedMemory / ips.length);
+    }
+
+    private static long getUsedMemory(RedisConnection connection) {
+        final Properties info = connection.serverCommands().info("memory");
+        return Long.parseLong(info.getProperty("used_memory"));
+    }
+
+    /**
+     * Creates distinct IPv4 addresses clustered in random /16 networks, a quarter of each network being cached.
+     */
+    private static int[] createSyntheticIps(int count) {
+        final Random random = new Random(42);
+        final int perNetwork = 1 << 14;
+        final int[] ips = new int[count];
+
+        final Set<Integer> blocks = new HashSet<>();
+        for (int i = 0; i < count; i += perNetwork) {
+            int block;
+            do {
+                block = (random.nextInt(223) + 1) << 24 | random.nextInt(256) << 16 | random.nextInt(4) << 14;
+            } while (!blocks.add(block));
+
+            for (int j = 0; j < perNetwork && i + j < count; j++) {
+                ips[i + j] = block | j;
+            }
+        }
+
+        return ips;
+    }
+}
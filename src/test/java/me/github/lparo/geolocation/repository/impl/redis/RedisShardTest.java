@@ -0,0 +1,122 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(MockitoExtension.class)
+class RedisShardTest {
+
+    @Mock
+    private RedisTemplate<byte[], byte[]> primary;
+
+    @Mock
+    private RedisTemplate<byte[], byte[]> replica;
+
+    @Mock
+    private RedisTemplate<byte[], byte[]> otherReplica;
+
+    @Mock
+    private ReactiveRedisTemplate<byte[], byte[]> reactive;
+
+    private RedisShard redisShard;
+
+    @BeforeEach
+    void setUp() {
+        final Map<String, RedisTemplate<byte[], byte[]>> replicas = new LinkedHashMap<>();
+        replicas.put("redis-replica-1:6379", replica);
+        replicas.put("redis-replica-2:6379", otherReplica);
+
+        this.redisShard = new RedisShard("redis:6379", primary, replicas);
+    }
+
+    @Test
+    void read_whenThereAreNoReplicas_shouldReadFromThePrimary() {
+        final RedisShard primaryOnly = new RedisShard("redis:6379", primary, Map.of());
+
+        assertThat(primaryOnly.read(node -> node), is(sameInstance(primary)));
+    }
+
+    @Test
+    void readAsync_whenTheNodeHasAReactiveClient_shouldReadThroughIt() {
+        final RedisShard reactiveShard = new RedisShard("redis:6379", primary, Map.of(), reactive);
+
+        assertThat(reactiveShard.readAsync(Mono::just).block(), is(sameInstance(reactive)));
+    }
+
+    @Test
+    void readAsync_whenTheNodeHasNoReactiveClient_shouldThrowAnError() {
+        assertThrows(IllegalStateException.class, () -> redisShard.readAsync(Mono::just));
+    }
+
+    @Test
+    void read_whenThereAreReplicas_shouldReadFromThemInTurns() {
+        final List<RedisTemplate<byte[], byte[]>> nodes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            nodes.add(redisShard.read(node -> node));
+        }
+
+        assertThat(nodes, is(List.of(replica, otherReplica, replica, otherReplica)));
+    }
+
+    @Test
+    void read_whenTheReplicaFails_shouldReadFromThePrimary() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        redisShard.bindTo(registry);
+
+        final RedisTemplate<byte[], byte[]> node = redisShard.read(template -> {
+            if (template == replica) {
+                throw new RedisConnectionFailureException("Connection refused");
+            }
+
+            return template;
+        });
+
+        assertThat(node, is(sameInstance(primary)));
+        assertThat(registry.get("redis.replica.failovers").tag("node", "redis:6379").counter().count(), is(1.0));
+    }
+
+    @Test
+    void read_whenThePrimaryFailsToo_shouldThrowItsError() {
+        assertThrows(RedisConnectionFailureException.class, () -> redisShard.read(template -> {
+            throw new RedisConnectionFailureException("Connection refused");
+        }));
+    }
+
+    @Test
+    void write_whenThereAreReplicas_shouldWriteToThePrimary() {
+        assertThat(redisShard.write(node -> node), is(sameInstance(primary)));
+    }
+
+    @Test
+    void bindTo_whenCalled_shouldPublishTheLatencyOfEachEndpoint() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        redisShard.bindTo(registry);
+
+        redisShard.read(node -> node);
+        redisShard.read(node -> node);
+        redisShard.read(node -> node);
+        redisShard.write(node -> node);
+
+        assertThat(registry.get("redis.commands").tags("endpoint", "redis:6379", "role", "primary").timer().count(), is(1L));
+        assertThat(registry.get("redis.commands").tags("endpoint", "redis-replica-1:6379", "role", "replica").timer().count(), is(2L));
+        assertThat(registry.get("redis.commands").tags("endpoint", "redis-replica-2:6379", "role", "replica").timer().count(), is(1L));
+    }
+}
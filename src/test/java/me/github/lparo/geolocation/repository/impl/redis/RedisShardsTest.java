@@ -0,0 +1,75 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import me.github.lparo.geolocation.domain.IpAddress;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+
+class RedisShardsTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void forKey_whenThereIsASingleNode_shouldPlaceEveryKeyOnIt() {
+        final RedisTemplate<byte[], byte[]> redisTemplate = mock(RedisTemplate.class);
+        final RedisShards redisShards = new RedisShards(Map.of("redis", redisTemplate), 160);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(redisShards.forKey(toKey(i)), is(sameInstance(redisTemplate)));
+        }
+    }
+
+    @Test
+    void writeAll_whenThereAreSeveralNodes_shouldWriteTheItemsOfEachNodeOnItsPrimary() {
+        final RedisShards redisShards = new RedisShards(createNodes(), 160);
+
+        final List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(i);
+        }
+
+        final Map<RedisTemplate<byte[], byte[]>, List<Integer>> groups = new HashMap<>();
+        redisShards.writeAll(items, RedisShardsTest::toKey, groups::put);
+
+        assertThat(groups.size(), is(3));
+        assertThat(groups.values().stream().mapToInt(List::size).sum(), is(100));
+        groups.forEach((node, group) -> group.forEach(item ->
+                assertThat(redisShards.forKey(toKey(item)), is(sameInstance(node)))));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void read_whenTheNodeHasReplicas_shouldReadFromThemAndWriteToThePrimary() {
+        final RedisTemplate<byte[], byte[]> primary = mock(RedisTemplate.class);
+        final RedisTemplate<byte[], byte[]> replica = mock(RedisTemplate.class);
+        final RedisShards redisShards = new RedisShards(
+                List.of(new RedisShard("redis:6379", primary, Map.of("redis-replica:6379", replica))), 160);
+
+        assertThat(redisShards.read(toKey(1), node -> node), is(sameInstance(replica)));
+        assertThat(redisShards.write(toKey(1), node -> node), is(sameInstance(primary)));
+        assertThat(redisShards.getNodes(), is(Map.of("redis:6379", primary)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, RedisTemplate<byte[], byte[]>> createNodes() {
+        final Map<String, RedisTemplate<byte[], byte[]>> nodes = new LinkedHashMap<>();
+        for (int node = 1; node <= 3; node++) {
+            nodes.put("redis-" + node + ":6379", mock(RedisTemplate.class));
+        }
+
+        return nodes;
+    }
+
+    private static byte[] toKey(int i) {
+        return KeyPerIpRedisLocationStore.toKey("CITY", IpAddress.ofIpv4(0xC0A80000 + i));
+    }
+}
@@ -0,0 +1,92 @@
+package me.github.lparo.geolocation.repository.impl.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.github.lparo.geolocation.domain.Country;
+import me.github.lparo.geolocation.domain.IpCountryLocation;
+import me.github.lparo.geolocation.repository.impl.geoip2.ReloadableDatabaseReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StaleRedisCacheCleanerTest {
+    private static final long BUILD_EPOCH = Instant.parse("2020-08-04T15:06:37Z").getEpochSecond();
+    private static final IpCountryLocation IP_COUNTRY_LOCATION = IpCountryLocation.of(Country.of("Brazil", 3469034, false, "BR"));
+
+    @Mock
+    private RedisTemplate<byte[], byte[]> redisTemplate;
+
+    @Mock
+    private RedisTemplate<byte[], byte[]> otherRedisTemplate;
+
+    @Mock
+    private RedisLocationStore redisLocationStore;
+
+    @Mock
+    private ReloadableDatabaseReader reloadableDatabaseReader;
+
+    @Test
+    void constructor_whenCalled_shouldListenToTheReloadsOfTheDatabase() {
+        createCleaner();
+
+        verify(reloadableDatabaseReader, times(1)).addReloadListener(any());
+    }
+
+    @Test
+    void clean_whenCalled_shouldRemoveTheStaleEntriesOfEveryTypeFromEveryNode() {
+        when(redisLocationStore.removeIf(any(), any(), anyInt(), any(), any())).thenReturn(2L);
+        final StaleRedisCacheCleaner cleaner = createCleaner();
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cleaner.bindTo(registry);
+
+        assertThat(cleaner.clean(), is(12L));
+
+        for (RedisTemplate<byte[], byte[]> node : List.of(redisTemplate, otherRedisTemplate)) {
+            for (String type : new String[] {"CITY", "COUNTRY", "LOCATION"}) {
+                verify(redisLocationStore, times(1)).removeIf(eq(node), eq(type), eq(500), any(), any());
+            }
+        }
+        assertThat(registry.get("redis.cache.cleanup.removed").functionCounter().count(), is(12.0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void clean_whenCalled_shouldOnlyRemoveTheEntriesOfOlderBuildsOfTheDatabase() {
+        when(reloadableDatabaseReader.getBuildEpoch()).thenReturn(BUILD_EPOCH);
+
+        createCleaner().clean();
+
+        final ArgumentCaptor<Predicate<byte[]>> predicate = ArgumentCaptor.forClass(Predicate.class);
+        verify(redisLocationStore, times(1)).removeIf(eq(redisTemplate), eq("COUNTRY"), eq(500), predicate.capture(), any());
+
+        assertThat(predicate.getValue().test(LocationCodec.encode(IP_COUNTRY_LOCATION, BUILD_EPOCH - 1)), is(true));
+        assertThat(predicate.getValue().test(LocationCodec.encode(IP_COUNTRY_LOCATION, BUILD_EPOCH)), is(false));
+        assertThat(predicate.getValue().test(LocationCodec.encode(IP_COUNTRY_LOCATION, BUILD_EPOCH + 1)), is(false));
+        assertThat(predicate.getValue().test(LocationCodec.encodeNotFound(Instant.now(), BUILD_EPOCH - 1)), is(true));
+        assertThat(predicate.getValue().test(new byte[] {LocationCodec.FORMAT_VERSION_WITHOUT_BUILD_EPOCH, 0}), is(true));
+    }
+
+    private StaleRedisCacheCleaner createCleaner() {
+        final RedisShards redisShards = new RedisShards(Map.of("redis-1", redisTemplate, "redis-2", otherRedisTemplate), 1);
+        return new StaleRedisCacheCleaner(redisShards, redisLocationStore, reloadableDatabaseReader, 500, Duration.ZERO,
+                Duration.ofDays(1));
+    }
+}
@@ -1,17 +1,18 @@
 package me.github.lparo.geolocation.repository.impl.transformer;
 
 import me.github.lparo.geolocation.domain.City;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Names;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Place;
 import org.junit.jupiter.api.Test;
 
-import java.util.Locale;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 
-import static java.util.Collections.singletonList;
-import static java.util.Collections.singletonMap;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
 class CityToDomainTransformerTest {
     private static final String NAME = UUID.randomUUID().toString();
@@ -21,20 +22,30 @@ class CityToDomainTransformerTest {
 
     @Test
     void apply_whenCalledWithRecord_shouldTransformItToItsDomainCounterpart() {
-        final com.maxmind.geoip2.record.City record = createRecord();
-        final City domain = transformer.apply(record);
+        final City domain = transformer.apply(createRecord());
 
         assertThat(domain, notNullValue());
-        assertThat(domain.getName(), is(record.getName()));
-        assertThat(domain.getGeoNameId(), is(record.getGeoNameId()));
+        assertThat(domain.getName(), is(NAME));
+        assertThat(domain.getGeoNameId(), is(GEO_NAME_ID));
     }
 
-    private com.maxmind.geoip2.record.City createRecord() {
-        return new com.maxmind.geoip2.record.City(
-                singletonList(Locale.US.getLanguage()),
-                ThreadLocalRandom.current().nextInt(),
-                GEO_NAME_ID,
-                singletonMap(Locale.US.getLanguage(), NAME)
-        );
+    @Test
+    void apply_whenCalledWithEqualRecords_shouldReturnTheSameDomainInstance() {
+        final City first = transformer.apply(createRecord());
+        final City second = transformer.apply(createRecord());
+
+        assertThat(second, sameInstance(first));
+    }
+
+    @Test
+    void apply_whenTheRecordHasNoCity_shouldReturnAnEmptyDomainInstance() {
+        final City domain = transformer.apply(null);
+
+        assertThat(domain.getName(), nullValue());
+        assertThat(domain.getGeoNameId(), is(0));
+    }
+
+    private Place createRecord() {
+        return new Place(new Names(NAME), (long) GEO_NAME_ID, null, null);
     }
-}
\ No newline at end of file
+}
@@ -1,17 +1,19 @@
 package me.github.lparo.geolocation.repository.impl.transformer;
 
 import me.github.lparo.geolocation.domain.Country;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Names;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Place;
 import org.junit.jupiter.api.Test;
 
-import java.util.Locale;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 
-import static java.util.Collections.singletonList;
-import static java.util.Collections.singletonMap;
+import static java.lang.Boolean.FALSE;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
 class CountryToDomainTransformerTest {
     private static final String NAME = UUID.randomUUID().toString();
@@ -23,24 +25,34 @@ class CountryToDomainTransformerTest {
 
     @Test
     void apply_whenCalledWithRecord_shouldTransformItToItsDomainCounterpart() {
-        final com.maxmind.geoip2.record.Country record = createRecord();
-        final Country domain = transformer.apply(record);
+        final Country domain = transformer.apply(createRecord());
 
         assertThat(domain, notNullValue());
-        assertThat(domain.getName(), is(record.getName()));
-        assertThat(domain.getGeoNameId(), is(record.getGeoNameId()));
-        assertThat(domain.isInEuropeanUnion(), is(record.isInEuropeanUnion()));
-        assertThat(domain.getIsoCode(), is(record.getIsoCode()));
+        assertThat(domain.getName(), is(NAME));
+        assertThat(domain.getGeoNameId(), is(GEO_NAME_ID));
+        assertThat(domain.isInEuropeanUnion(), is(IS_IN_EUROPEAN_UNION));
+        assertThat(domain.getIsoCode(), is(ISO_CODE));
     }
 
-    private com.maxmind.geoip2.record.Country createRecord() {
-        return new com.maxmind.geoip2.record.Country(
-                singletonList(Locale.US.getLanguage()),
-                ThreadLocalRandom.current().nextInt(),
-                GEO_NAME_ID,
-                IS_IN_EUROPEAN_UNION,
-                ISO_CODE,
-                singletonMap(Locale.US.getLanguage(), NAME)
-        );
+    @Test
+    void apply_whenCalledWithEqualRecords_shouldReturnTheSameDomainInstance() {
+        final Country first = transformer.apply(createRecord());
+        final Country second = transformer.apply(createRecord());
+
+        assertThat(second, sameInstance(first));
+    }
+
+    @Test
+    void apply_whenTheRecordHasNoCountry_shouldReturnAnEmptyDomainInstance() {
+        final Country domain = transformer.apply(null);
+
+        assertThat(domain.getName(), nullValue());
+        assertThat(domain.getGeoNameId(), is(0));
+        assertThat(domain.isInEuropeanUnion(), is(FALSE));
+        assertThat(domain.getIsoCode(), nullValue());
+    }
+
+    private Place createRecord() {
+        return new Place(new Names(NAME), (long) GEO_NAME_ID, ISO_CODE, IS_IN_EUROPEAN_UNION);
     }
-}
\ No newline at end of file
+}
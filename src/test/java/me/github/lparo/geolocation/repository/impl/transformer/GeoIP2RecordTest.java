@@ -0,0 +1,82 @@
+package me.github.lparo.geolocation.repository.impl.transformer;
+
+import com.maxmind.db.Reader;
+import me.github.lparo.geolocation.repository.impl.geoip2.GeoIP2DatabaseForTesting;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.CityRecord;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.CountryRecord;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.LocationRecord;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Names;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Place;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+import static me.github.lparo.geolocation.repository.impl.geoip2.GeoIP2DatabaseForTesting.map;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+class GeoIP2RecordTest {
+    @Test
+    void get_whenTheRecordHasEveryField_shouldBindTheProjectedOnes() throws Exception {
+        final Map<String, Object> record = map(
+                "city", map("geoname_id", 3448439L, "names", map("de", "São Paulo (de)", "en", "São Paulo")),
+                "continent", map("code", "SA", "geoname_id", 6255150L, "names", map("en", "South America")),
+                "country", map("geoname_id", 3469034L, "is_in_european_union", false, "iso_code", "BR",
+                        "names", map("en", "Brazil", "pt-BR", "Brasil")),
+                "location", map("latitude", -23.5475, "longitude", -46.6361, "time_zone", "America/Sao_Paulo"),
+                "subdivisions", List.of(
+                        map("geoname_id", 3448433L, "iso_code", "SP", "names", map("en", "São Paulo")),
+                        map("geoname_id", 3448434L, "iso_code", "SPC", "names", map("en", "São Paulo City"))
+                )
+        );
+
+        try (Reader reader = createReader(record)) {
+            final InetAddress address = InetAddress.getByName("1.2.3.4");
+
+            final LocationRecord location = reader.get(address, LocationRecord.class);
+            assertThat(location.getCity(), is(place("São Paulo", 3448439, null, FALSE)));
+            assertThat(location.getSubdivisions(), is(List.of(
+                    place("São Paulo", 3448433, "SP", FALSE),
+                    place("São Paulo City", 3448434, "SPC", FALSE)
+            )));
+            assertThat(location.getCountry(), is(place("Brazil", 3469034, "BR", FALSE)));
+
+            final CityRecord city = reader.get(address, CityRecord.class);
+            assertThat(city.getCity(), is(location.getCity()));
+            assertThat(city.getSubdivisions(), is(location.getSubdivisions()));
+
+            final CountryRecord country = reader.get(address, CountryRecord.class);
+            assertThat(country.getCountry(), is(location.getCountry()));
+        }
+    }
+
+    @Test
+    void get_whenTheRecordLacksSomeFields_shouldLeaveThemEmpty() throws Exception {
+        final Map<String, Object> record = map(
+                "country", map("geoname_id", 2635167L, "is_in_european_union", true, "iso_code", "GB")
+        );
+
+        try (Reader reader = createReader(record)) {
+            final LocationRecord location = reader.get(InetAddress.getByName("1.2.3.4"), LocationRecord.class);
+
+            assertThat(location.getCity(), nullValue());
+            assertThat(location.getSubdivisions(), nullValue());
+            assertThat(location.getCountry(), is(place(null, 2635167, "GB", TRUE)));
+        }
+    }
+
+    private static Place place(String name, long geoNameId, String isoCode, Boolean inEuropeanUnion) {
+        return new Place(new Names(name), geoNameId, isoCode, inEuropeanUnion);
+    }
+
+    private static Reader createReader(Map<String, Object> record) throws IOException {
+        return new Reader(new ByteArrayInputStream(GeoIP2DatabaseForTesting.create(record)));
+    }
+}
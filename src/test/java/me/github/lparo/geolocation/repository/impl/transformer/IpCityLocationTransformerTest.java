@@ -1,23 +1,21 @@
 package me.github.lparo.geolocation.repository.impl.transformer;
 
-import com.maxmind.geoip2.model.CityResponse;
-import com.maxmind.geoip2.record.Subdivision;
 import me.github.lparo.geolocation.domain.City;
 import me.github.lparo.geolocation.domain.IpCityLocation;
 import me.github.lparo.geolocation.domain.State;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.CityRecord;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Names;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Place;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.ArrayList;
-import java.util.Locale;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 
-import static java.util.Collections.singletonList;
-import static java.util.Collections.singletonMap;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
@@ -46,17 +44,17 @@ class IpCityLocationTransformerTest {
 
     @Test
     void apply_whenCalledWithRecord_shouldTransformItToItsDomainCounterpart() {
-        final CityResponse record = createRecord();
+        final CityRecord record = createRecord();
         final City cityDomain = City.of(CITY_NAME, CITY_GEO_NAME_ID);
         final State stateDomain = State.of(STATE_NAME, STATE_GEO_NAME_ID, ISO_CODE);
 
         when(cityToDomainTransformer.apply(record.getCity())).thenReturn(cityDomain);
-        when(subdivisionToDomainTransformer.apply(record.getMostSpecificSubdivision())).thenReturn(stateDomain);
+        when(subdivisionToDomainTransformer.apply(record.getSubdivisions().get(1))).thenReturn(stateDomain);
 
         final IpCityLocation domain = transformer.apply(record);
 
         verify(cityToDomainTransformer, times(1)).apply(record.getCity());
-        verify(subdivisionToDomainTransformer, times(1)).apply(record.getMostSpecificSubdivision());
+        verify(subdivisionToDomainTransformer, times(1)).apply(record.getSubdivisions().get(1));
 
         verifyNoMoreInteractions(cityToDomainTransformer);
         verifyNoMoreInteractions(subdivisionToDomainTransformer);
@@ -66,36 +64,22 @@ class IpCityLocationTransformerTest {
         assertThat(domain.getState(), is(stateDomain));
     }
 
-    private CityResponse createRecord() {
-        final com.maxmind.geoip2.record.City city = new com.maxmind.geoip2.record.City(
-                singletonList(Locale.US.getLanguage()),
-                ThreadLocalRandom.current().nextInt(),
-                CITY_GEO_NAME_ID,
-                singletonMap(Locale.US.getLanguage(), CITY_NAME)
-        );
+    @Test
+    void apply_whenTheRecordHasNoSubdivisions_shouldTransformANullSubdivision() {
+        final CityRecord record = new CityRecord(createRecord().getCity(), null);
 
-        final Subdivision subdivision = new com.maxmind.geoip2.record.Subdivision(
-                singletonList(Locale.US.getLanguage()),
-                ThreadLocalRandom.current().nextInt(),
-                STATE_GEO_NAME_ID,
-                ISO_CODE,
-                singletonMap(Locale.US.getLanguage(), STATE_NAME)
-        );
+        transformer.apply(record);
+
+        verify(subdivisionToDomainTransformer, times(1)).apply(null);
+    }
 
-        final ArrayList<Subdivision> subdivisions = new ArrayList<>();
-        subdivisions.add(subdivision);
-
-        return new CityResponse(
-                city,
-                null,
-                null,
-                null,
-                null,
-                null,
-                null,
-                null,
-                subdivisions,
-                null
+    private CityRecord createRecord() {
+        return new CityRecord(
+                new Place(new Names(CITY_NAME), (long) CITY_GEO_NAME_ID, null, null),
+                List.of(
+                        new Place(new Names(UUID.randomUUID().toString()), (long) STATE_GEO_NAME_ID + 1, null, null),
+                        new Place(new Names(STATE_NAME), (long) STATE_GEO_NAME_ID, ISO_CODE, null)
+                )
         );
     }
-}
\ No newline at end of file
+}
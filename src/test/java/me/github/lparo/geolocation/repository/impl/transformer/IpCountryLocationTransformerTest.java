@@ -1,20 +1,19 @@
 package me.github.lparo.geolocation.repository.impl.transformer;
 
-import com.maxmind.geoip2.model.CountryResponse;
 import me.github.lparo.geolocation.domain.Country;
 import me.github.lparo.geolocation.domain.IpCountryLocation;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.CountryRecord;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Names;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Place;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Locale;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 
-import static java.util.Collections.singletonList;
-import static java.util.Collections.singletonMap;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
@@ -38,7 +37,7 @@ class IpCountryLocationTransformerTest {
 
     @Test
     void apply_whenCalledWithRecord_shouldTransformItToItsDomainCounterpart() {
-        final CountryResponse record = createRecord();
+        final CountryRecord record = createRecord();
         final Country countryDomain = Country.of(NAME, GEO_NAME_ID, IS_IN_EUROPEAN_UNION, ISO_CODE);
 
         when(countryToDomainTransformer.apply(record.getCountry())).thenReturn(countryDomain);
@@ -52,23 +51,7 @@ class IpCountryLocationTransformerTest {
         assertThat(domain.getCountry(), is(countryDomain));
     }
 
-    private CountryResponse createRecord() {
-        final com.maxmind.geoip2.record.Country country = new com.maxmind.geoip2.record.Country(
-                singletonList(Locale.US.getLanguage()),
-                ThreadLocalRandom.current().nextInt(),
-                GEO_NAME_ID,
-                IS_IN_EUROPEAN_UNION,
-                ISO_CODE,
-                singletonMap(Locale.US.getLanguage(), NAME)
-        );
-
-        return new CountryResponse(
-                null,
-                country,
-                null,
-                null,
-                null,
-                null
-        );
+    private CountryRecord createRecord() {
+        return new CountryRecord(new Place(new Names(NAME), (long) GEO_NAME_ID, ISO_CODE, IS_IN_EUROPEAN_UNION));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,88 @@
+package me.github.lparo.geolocation.repository.impl.transformer;
+
+import me.github.lparo.geolocation.domain.City;
+import me.github.lparo.geolocation.domain.Country;
+import me.github.lparo.geolocation.domain.IpLocation;
+import me.github.lparo.geolocation.domain.State;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.LocationRecord;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Names;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Place;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IpLocationTransformerTest {
+    private static final String CITY_NAME = UUID.randomUUID().toString();
+    private static final int CITY_GEO_NAME_ID = ThreadLocalRandom.current().nextInt();
+
+    private static final String STATE_NAME = UUID.randomUUID().toString();
+    private static final int STATE_GEO_NAME_ID = ThreadLocalRandom.current().nextInt();
+    private static final String ISO_CODE = UUID.randomUUID().toString();
+
+    private static final String COUNTRY_NAME = UUID.randomUUID().toString();
+    private static final int COUNTRY_GEO_NAME_ID = ThreadLocalRandom.current().nextInt();
+    private static final boolean IS_IN_EUROPEAN_UNION = ThreadLocalRandom.current().nextBoolean();
+    private static final String COUNTRY_ISO_CODE = UUID.randomUUID().toString();
+
+    @InjectMocks
+    private IpLocationTransformer transformer;
+
+    @Mock
+    private CityToDomainTransformer cityToDomainTransformer;
+
+    @Mock
+    private SubdivisionToDomainTransformer subdivisionToDomainTransformer;
+
+    @Mock
+    private CountryToDomainTransformer countryToDomainTransformer;
+
+    @Test
+    void apply_whenCalledWithRecord_shouldTransformItToItsDomainCounterpart() {
+        final LocationRecord record = createRecord();
+        final City cityDomain = City.of(CITY_NAME, CITY_GEO_NAME_ID);
+        final State stateDomain = State.of(STATE_NAME, STATE_GEO_NAME_ID, ISO_CODE);
+        final Country countryDomain = Country.of(COUNTRY_NAME, COUNTRY_GEO_NAME_ID, IS_IN_EUROPEAN_UNION, COUNTRY_ISO_CODE);
+
+        when(cityToDomainTransformer.apply(record.getCity())).thenReturn(cityDomain);
+        when(subdivisionToDomainTransformer.apply(record.getSubdivisions().get(0))).thenReturn(stateDomain);
+        when(countryToDomainTransformer.apply(record.getCountry())).thenReturn(countryDomain);
+
+        final IpLocation domain = transformer.apply(record);
+
+        verify(cityToDomainTransformer, times(1)).apply(record.getCity());
+        verify(subdivisionToDomainTransformer, times(1)).apply(record.getSubdivisions().get(0));
+        verify(countryToDomainTransformer, times(1)).apply(record.getCountry());
+
+        verifyNoMoreInteractions(cityToDomainTransformer);
+        verifyNoMoreInteractions(subdivisionToDomainTransformer);
+        verifyNoMoreInteractions(countryToDomainTransformer);
+
+        assertThat(domain, notNullValue());
+        assertThat(domain.getCity(), is(cityDomain));
+        assertThat(domain.getState(), is(stateDomain));
+        assertThat(domain.getCountry(), is(countryDomain));
+    }
+
+    private LocationRecord createRecord() {
+        return new LocationRecord(
+                new Place(new Names(CITY_NAME), (long) CITY_GEO_NAME_ID, null, null),
+                List.of(new Place(new Names(STATE_NAME), (long) STATE_GEO_NAME_ID, ISO_CODE, null)),
+                new Place(new Names(COUNTRY_NAME), (long) COUNTRY_GEO_NAME_ID, COUNTRY_ISO_CODE, IS_IN_EUROPEAN_UNION)
+        );
+    }
+}
@@ -1,17 +1,18 @@
 package me.github.lparo.geolocation.repository.impl.transformer;
 
 import me.github.lparo.geolocation.domain.State;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Names;
+import me.github.lparo.geolocation.repository.impl.transformer.GeoIP2Record.Place;
 import org.junit.jupiter.api.Test;
 
-import java.util.Locale;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 
-import static java.util.Collections.singletonList;
-import static java.util.Collections.singletonMap;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
 class SubdivisionToDomainTransformerTest {
     private static final String NAME = UUID.randomUUID().toString();
@@ -22,22 +23,32 @@ class SubdivisionToDomainTransformerTest {
 
     @Test
     void apply_whenCalledWithRecord_shouldTransformItToItsDomainCounterpart() {
-        final com.maxmind.geoip2.record.Subdivision record = createRecord();
-        final State domain = transformer.apply(record);
+        final State domain = transformer.apply(createRecord());
 
         assertThat(domain, notNullValue());
-        assertThat(domain.getName(), is(record.getName()));
-        assertThat(domain.getGeoNameId(), is(record.getGeoNameId()));
-        assertThat(domain.getIsoCode(), is(record.getIsoCode()));
+        assertThat(domain.getName(), is(NAME));
+        assertThat(domain.getGeoNameId(), is(GEO_NAME_ID));
+        assertThat(domain.getIsoCode(), is(ISO_CODE));
     }
 
-    private com.maxmind.geoip2.record.Subdivision createRecord() {
-        return new com.maxmind.geoip2.record.Subdivision(
-                singletonList(Locale.US.getLanguage()),
-                ThreadLocalRandom.current().nextInt(),
-                GEO_NAME_ID,
-                ISO_CODE,
-                singletonMap(Locale.US.getLanguage(), NAME)
-        );
+    @Test
+    void apply_whenCalledWithEqualRecords_shouldReturnTheSameDomainInstance() {
+        final State first = transformer.apply(createRecord());
+        final State second = transformer.apply(createRecord());
+
+        assertThat(second, sameInstance(first));
+    }
+
+    @Test
+    void apply_whenTheRecordHasNoSubdivision_shouldReturnAnEmptyDomainInstance() {
+        final State domain = transformer.apply(null);
+
+        assertThat(domain.getName(), nullValue());
+        assertThat(domain.getGeoNameId(), is(0));
+        assertThat(domain.getIsoCode(), nullValue());
+    }
+
+    private Place createRecord() {
+        return new Place(new Names(NAME), (long) GEO_NAME_ID, ISO_CODE, null);
     }
-}
\ No newline at end of file
+}
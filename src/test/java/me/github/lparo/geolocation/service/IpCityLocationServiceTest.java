@@ -1,5 +1,6 @@
 package me.github.lparo.geolocation.service;
 
+import me.github.lparo.geolocation.domain.IpAddress;
 import me.github.lparo.geolocation.repository.IpCityLocationRepository;
 import me.github.lparo.geolocation.domain.City;
 import me.github.lparo.geolocation.domain.IpCityLocation;
@@ -10,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -43,11 +45,11 @@ class IpCityLocationServiceTest {
     void getCityLocationForHostIp_whenLocationIsFoundForHostIp_shouldReturnIt() {
         final IpCityLocation expectedIpCityLocation = createIpCityLocation();
 
-        when(ipCityLocationRepository.getCityLocationForIp(hostMachinePublicIp)).thenReturn(Optional.of(expectedIpCityLocation));
+        when(ipCityLocationRepository.getCityLocationForIp(IpAddress.parse(hostMachinePublicIp))).thenReturn(Optional.of(expectedIpCityLocation));
 
         final IpCityLocation ipCityLocation = ipCityLocationService.getCityLocationForHostIp();
 
-        verify(ipCityLocationRepository, times(1)).getCityLocationForIp(hostMachinePublicIp);
+        verify(ipCityLocationRepository, times(1)).getCityLocationForIp(IpAddress.parse(hostMachinePublicIp));
         verifyNoMoreInteractions(ipCityLocationRepository);
 
         assertThat(ipCityLocation, notNullValue());
@@ -56,7 +58,7 @@ class IpCityLocationServiceTest {
 
     @Test
     void getCityLocationForHostIp_whenLocationIsNotFoundForHostIp_shouldThrowError() {
-        when(ipCityLocationRepository.getCityLocationForIp(hostMachinePublicIp)).thenReturn(Optional.empty());
+        when(ipCityLocationRepository.getCityLocationForIp(IpAddress.parse(hostMachinePublicIp))).thenReturn(Optional.empty());
 
         try {
             assertThrows(
@@ -65,7 +67,7 @@ class IpCityLocationServiceTest {
                     "unable to find city location for IP " + hostMachinePublicIp
             );
         } finally {
-            verify(ipCityLocationRepository, times(1)).getCityLocationForIp(hostMachinePublicIp);
+            verify(ipCityLocationRepository, times(1)).getCityLocationForIp(IpAddress.parse(hostMachinePublicIp));
             verifyNoMoreInteractions(ipCityLocationRepository);
         }
     }
@@ -74,11 +76,11 @@ class IpCityLocationServiceTest {
     void getCityLocationForIp_whenLocationIsFoundForIp_shouldReturnIt() {
         final IpCityLocation expectedIpCityLocation = createIpCityLocation();
 
-        when(ipCityLocationRepository.getCityLocationForIp(IP)).thenReturn(Optional.of(expectedIpCityLocation));
+        when(ipCityLocationRepository.getCityLocationForIp(IpAddress.parse(IP))).thenReturn(Optional.of(expectedIpCityLocation));
 
-        final IpCityLocation ipCityLocation = ipCityLocationService.getCityLocationForIp(IP);
+        final IpCityLocation ipCityLocation = ipCityLocationService.getCityLocationForIp(IpAddress.parse(IP));
 
-        verify(ipCityLocationRepository, times(1)).getCityLocationForIp(IP);
+        verify(ipCityLocationRepository, times(1)).getCityLocationForIp(IpAddress.parse(IP));
         verifyNoMoreInteractions(ipCityLocationRepository);
 
         assertThat(ipCityLocation, notNullValue());
@@ -87,20 +89,46 @@ class IpCityLocationServiceTest {
 
     @Test
     void getCityLocationForIp_whenLocationIsNotFoundForIp_shouldThrowError() {
-        when(ipCityLocationRepository.getCityLocationForIp(IP)).thenReturn(Optional.empty());
+        when(ipCityLocationRepository.getCityLocationForIp(IpAddress.parse(IP))).thenReturn(Optional.empty());
 
         try {
             assertThrows(
                     LocationNotFoundException.class,
-                    () -> ipCityLocationService.getCityLocationForIp(IP),
+                    () -> ipCityLocationService.getCityLocationForIp(IpAddress.parse(IP)),
                     "unable to find city location for IP " + hostMachinePublicIp
             );
         } finally {
-            verify(ipCityLocationRepository, times(1)).getCityLocationForIp(IP);
+            verify(ipCityLocationRepository, times(1)).getCityLocationForIp(IpAddress.parse(IP));
             verifyNoMoreInteractions(ipCityLocationRepository);
         }
     }
 
+    @Test
+    void getCityLocationForIpAsync_whenLocationIsFoundForIp_shouldEmitIt() {
+        final IpCityLocation expectedIpCityLocation = createIpCityLocation();
+
+        when(ipCityLocationRepository.getCityLocationForIpAsync(IpAddress.parse(IP))).thenReturn(Mono.just(Optional.of(expectedIpCityLocation)));
+
+        final IpCityLocation ipCityLocation = ipCityLocationService.getCityLocationForIpAsync(IpAddress.parse(IP)).block();
+
+        verify(ipCityLocationRepository, times(1)).getCityLocationForIpAsync(IpAddress.parse(IP));
+        verifyNoMoreInteractions(ipCityLocationRepository);
+
+        assertThat(ipCityLocation, is(expectedIpCityLocation));
+    }
+
+    @Test
+    void getCityLocationForHostIpAsync_whenLocationIsNotFoundForHostIp_shouldFailWithAnError() {
+        when(ipCityLocationRepository.getCityLocationForIpAsync(IpAddress.parse(hostMachinePublicIp))).thenReturn(Mono.just(Optional.empty()));
+
+        final LocationNotFoundException error = assertThrows(
+                LocationNotFoundException.class,
+                () -> ipCityLocationService.getCityLocationForHostIpAsync().block()
+        );
+
+        assertThat(error.getMessage(), is("unable to find city location for IP " + hostMachinePublicIp));
+    }
+
     private IpCityLocation createIpCityLocation() {
         return IpCityLocation.of(
                 City.of(UUID.randomUUID().toString(), ThreadLocalRandom.current().nextInt()),
@@ -1,5 +1,6 @@
 package me.github.lparo.geolocation.service;
 
+import me.github.lparo.geolocation.domain.IpAddress;
 import me.github.lparo.geolocation.repository.IpCountryLocationRepository;
 import me.github.lparo.geolocation.domain.Country;
 import me.github.lparo.geolocation.domain.IpCountryLocation;
@@ -9,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -42,11 +44,11 @@ class IpCountryLocationServiceTest {
     void getCountryLocationForHostIp_whenLocationIsFoundForHostIp_shouldReturnIt() {
         final IpCountryLocation expectedIpCountryLocation = createIpCountryLocationDomain();
 
-        when(ipCountryLocationRepository.getCountryLocationForIp(hostMachinePublicIp)).thenReturn(Optional.of(expectedIpCountryLocation));
+        when(ipCountryLocationRepository.getCountryLocationForIp(IpAddress.parse(hostMachinePublicIp))).thenReturn(Optional.of(expectedIpCountryLocation));
 
         final IpCountryLocation ipCountryLocation = ipCountryLocationService.getCountryLocationForHostIp();
 
-        verify(ipCountryLocationRepository, times(1)).getCountryLocationForIp(hostMachinePublicIp);
+        verify(ipCountryLocationRepository, times(1)).getCountryLocationForIp(IpAddress.parse(hostMachinePublicIp));
         verifyNoMoreInteractions(ipCountryLocationRepository);
 
         assertThat(ipCountryLocation, notNullValue());
@@ -55,7 +57,7 @@ class IpCountryLocationServiceTest {
 
     @Test
     void getCountryLocationForHostIp_whenLocationIsNotFoundForHostIp_shouldThrowError() {
-        when(ipCountryLocationRepository.getCountryLocationForIp(hostMachinePublicIp)).thenReturn(Optional.empty());
+        when(ipCountryLocationRepository.getCountryLocationForIp(IpAddress.parse(hostMachinePublicIp))).thenReturn(Optional.empty());
 
         try {
             assertThrows(
@@ -64,7 +66,7 @@ class IpCountryLocationServiceTest {
                     "unable to find country location for IP " + hostMachinePublicIp
             );
         } finally {
-            verify(ipCountryLocationRepository, times(1)).getCountryLocationForIp(hostMachinePublicIp);
+            verify(ipCountryLocationRepository, times(1)).getCountryLocationForIp(IpAddress.parse(hostMachinePublicIp));
             verifyNoMoreInteractions(ipCountryLocationRepository);
         }
     }
@@ -73,11 +75,11 @@ class IpCountryLocationServiceTest {
     void getCountryLocationForHostIp_whenLocationIsFoundForIp_shouldReturnIt() {
         final IpCountryLocation expectedIpCountryLocation = createIpCountryLocationDomain();
 
-        when(ipCountryLocationRepository.getCountryLocationForIp(IP)).thenReturn(Optional.of(expectedIpCountryLocation));
+        when(ipCountryLocationRepository.getCountryLocationForIp(IpAddress.parse(IP))).thenReturn(Optional.of(expectedIpCountryLocation));
 
-        final IpCountryLocation ipCountryLocation = ipCountryLocationService.getCountryLocationForIp(IP);
+        final IpCountryLocation ipCountryLocation = ipCountryLocationService.getCountryLocationForIp(IpAddress.parse(IP));
 
-        verify(ipCountryLocationRepository, times(1)).getCountryLocationForIp(IP);
+        verify(ipCountryLocationRepository, times(1)).getCountryLocationForIp(IpAddress.parse(IP));
         verifyNoMoreInteractions(ipCountryLocationRepository);
 
         assertThat(ipCountryLocation, notNullValue());
@@ -86,20 +88,46 @@ class IpCountryLocationServiceTest {
 
     @Test
     void getCountryLocationForHostIp_whenLocationIsNotFoundForIp_shouldThrowError() {
-        when(ipCountryLocationRepository.getCountryLocationForIp(IP)).thenReturn(Optional.empty());
+        when(ipCountryLocationRepository.getCountryLocationForIp(IpAddress.parse(IP))).thenReturn(Optional.empty());
 
         try {
             assertThrows(
                     LocationNotFoundException.class,
-                    () -> ipCountryLocationService.getCountryLocationForIp(IP),
+                    () -> ipCountryLocationService.getCountryLocationForIp(IpAddress.parse(IP)),
                     "unable to find country location for IP " + IP
             );
         } finally {
-            verify(ipCountryLocationRepository, times(1)).getCountryLocationForIp(IP);
+            verify(ipCountryLocationRepository, times(1)).getCountryLocationForIp(IpAddress.parse(IP));
             verifyNoMoreInteractions(ipCountryLocationRepository);
         }
     }
 
+    @Test
+    void getCountryLocationForIpAsync_whenLocationIsFoundForIp_shouldEmitIt() {
+        final IpCountryLocation expectedIpCountryLocation = createIpCountryLocationDomain();
+
+        when(ipCountryLocationRepository.getCountryLocationForIpAsync(IpAddress.parse(IP))).thenReturn(Mono.just(Optional.of(expectedIpCountryLocation)));
+
+        final IpCountryLocation ipCountryLocation = ipCountryLocationService.getCountryLocationForIpAsync(IpAddress.parse(IP)).block();
+
+        verify(ipCountryLocationRepository, times(1)).getCountryLocationForIpAsync(IpAddress.parse(IP));
+        verifyNoMoreInteractions(ipCountryLocationRepository);
+
+        assertThat(ipCountryLocation, is(expectedIpCountryLocation));
+    }
+
+    @Test
+    void getCountryLocationForHostIpAsync_whenLocationIsNotFoundForHostIp_shouldFailWithAnError() {
+        when(ipCountryLocationRepository.getCountryLocationForIpAsync(IpAddress.parse(hostMachinePublicIp))).thenReturn(Mono.just(Optional.empty()));
+
+        final LocationNotFoundException error = assertThrows(
+                LocationNotFoundException.class,
+                () -> ipCountryLocationService.getCountryLocationForHostIpAsync().block()
+        );
+
+        assertThat(error.getMessage(), is("unable to find country location for IP " + hostMachinePublicIp));
+    }
+
     private IpCountryLocation createIpCountryLocationDomain() {
         return IpCountryLocation.of(
                 Country.of(
@@ -0,0 +1,145 @@
+package me.github.lparo.geolocation.service;
+
+import me.github.lparo.geolocation.domain.IpAddress;
+import me.github.lparo.geolocation.repository.IpLocationRepository;
+import me.github.lparo.geolocation.domain.City;
+import me.github.lparo.geolocation.domain.Country;
+import me.github.lparo.geolocation.domain.IpLocation;
+import me.github.lparo.geolocation.domain.State;
+import me.github.lparo.geolocation.exception.LocationNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IpLocationServiceTest {
+    private static final String IP = "217.138.219.200";
+
+    private IpLocationService ipLocationService;
+
+    @Mock
+    private IpLocationRepository ipLocationRepository;
+    private final String hostMachinePublicIp = "217.138.219.147";
+
+    @BeforeEach
+    void setUp() {
+        this.ipLocationService = new IpLocationService(hostMachinePublicIp, ipLocationRepository);
+    }
+
+    @Test
+    void getLocationForHostIp_whenLocationIsFoundForHostIp_shouldReturnIt() {
+        final IpLocation expectedIpLocation = createIpLocationDomain();
+
+        when(ipLocationRepository.getLocationForIp(IpAddress.parse(hostMachinePublicIp))).thenReturn(Optional.of(expectedIpLocation));
+
+        final IpLocation ipLocation = ipLocationService.getLocationForHostIp();
+
+        verify(ipLocationRepository, times(1)).getLocationForIp(IpAddress.parse(hostMachinePublicIp));
+        verifyNoMoreInteractions(ipLocationRepository);
+
+        assertThat(ipLocation, notNullValue());
+        assertThat(ipLocation, is(expectedIpLocation));
+    }
+
+    @Test
+    void getLocationForHostIp_whenLocationIsNotFoundForHostIp_shouldThrowError() {
+        when(ipLocationRepository.getLocationForIp(IpAddress.parse(hostMachinePublicIp))).thenReturn(Optional.empty());
+
+        try {
+            assertThrows(
+                    LocationNotFoundException.class,
+                    () -> ipLocationService.getLocationForHostIp(),
+                    "unable to find location for IP " + hostMachinePublicIp
+            );
+        } finally {
+            verify(ipLocationRepository, times(1)).getLocationForIp(IpAddress.parse(hostMachinePublicIp));
+            verifyNoMoreInteractions(ipLocationRepository);
+        }
+    }
+
+    @Test
+    void getLocationForHostIp_whenLocationIsFoundForIp_shouldReturnIt() {
+        final IpLocation expectedIpLocation = createIpLocationDomain();
+
+        when(ipLocationRepository.getLocationForIp(IpAddress.parse(IP))).thenReturn(Optional.of(expectedIpLocation));
+
+        final IpLocation ipLocation = ipLocationService.getLocationForIp(IpAddress.parse(IP));
+
+        verify(ipLocationRepository, times(1)).getLocationForIp(IpAddress.parse(IP));
+        verifyNoMoreInteractions(ipLocationRepository);
+
+        assertThat(ipLocation, notNullValue());
+        assertThat(ipLocation, is(expectedIpLocation));
+    }
+
+    @Test
+    void getLocationForHostIp_whenLocationIsNotFoundForIp_shouldThrowError() {
+        when(ipLocationRepository.getLocationForIp(IpAddress.parse(IP))).thenReturn(Optional.empty());
+
+        try {
+            assertThrows(
+                    LocationNotFoundException.class,
+                    () -> ipLocationService.getLocationForIp(IpAddress.parse(IP)),
+                    "unable to find location for IP " + IP
+            );
+        } finally {
+            verify(ipLocationRepository, times(1)).getLocationForIp(IpAddress.parse(IP));
+            verifyNoMoreInteractions(ipLocationRepository);
+        }
+    }
+
+    @Test
+    void getLocationForIpAsync_whenLocationIsFoundForIp_shouldEmitIt() {
+        final IpLocation expectedIpLocation = createIpLocationDomain();
+
+        when(ipLocationRepository.getLocationForIpAsync(IpAddress.parse(IP))).thenReturn(Mono.just(Optional.of(expectedIpLocation)));
+
+        final IpLocation ipLocation = ipLocationService.getLocationForIpAsync(IpAddress.parse(IP)).block();
+
+        verify(ipLocationRepository, times(1)).getLocationForIpAsync(IpAddress.parse(IP));
+        verifyNoMoreInteractions(ipLocationRepository);
+
+        assertThat(ipLocation, is(expectedIpLocation));
+    }
+
+    @Test
+    void getLocationForHostIpAsync_whenLocationIsNotFoundForHostIp_shouldFailWithAnError() {
+        when(ipLocationRepository.getLocationForIpAsync(IpAddress.parse(hostMachinePublicIp))).thenReturn(Mono.just(Optional.empty()));
+
+        final LocationNotFoundException error = assertThrows(
+                LocationNotFoundException.class,
+                () -> ipLocationService.getLocationForHostIpAsync().block()
+        );
+
+        assertThat(error.getMessage(), is("unable to find location for IP " + hostMachinePublicIp));
+    }
+
+    private IpLocation createIpLocationDomain() {
+        return IpLocation.of(
+                City.of(UUID.randomUUID().toString(), ThreadLocalRandom.current().nextInt()),
+                State.of(UUID.randomUUID().toString(), ThreadLocalRandom.current().nextInt(), UUID.randomUUID().toString()),
+                Country.of(
+                        UUID.randomUUID().toString(),
+                        ThreadLocalRandom.current().nextInt(),
+                        ThreadLocalRandom.current().nextBoolean(),
+                        UUID.randomUUID().toString()
+                )
+        );
+    }
+}
\ No newline at end of file